@@ -2,11 +2,26 @@ package org.safetynet.alerts;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
 
 @SpringBootApplication
+@EnableScheduling
 public class AlertsApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(AlertsApplication.class, args);
     }
+
+    /**
+     * Clock giving the current day at which ages are computed and medical records are classified.
+     *
+     * @return the system clock in the default time zone
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
 }
@@ -0,0 +1,75 @@
+package org.safetynet.alerts.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.service.DatasetReloadService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controller for the administration operations of the dataset.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class ApiAdminController {
+
+    private final DatasetReloadService datasetReloadService;
+    private final ResponseCache responseCache;
+
+    /**
+     * Reloads the dataset from its configured path without interrupting the other requests.
+     * The response is sent once the new dataset is published.
+     *
+     * @return a ResponseEntity containing the version and size of the published dataset with HTTP status 200,
+     *         or an internal server error response if the dataset could not be reloaded, in which case the
+     *         previous dataset is still served.
+     */
+    @PostMapping("/admin/reload")
+    public CompletableFuture<ResponseEntity<?>> postReload() {
+        log.info("POST /admin/reload");
+
+        return datasetReloadService.reload()
+                .<ResponseEntity<?>>thenApply(snapshot -> {
+                    log.info("POST /admin/reload dataset reloaded as version {}", snapshot.getVersion());
+
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("version", snapshot.getVersion());
+                    body.put("persons", snapshot.getPersons().size());
+                    body.put("firestations", snapshot.getFireStations().size());
+                    body.put("medicalrecords", snapshot.getMedicalRecords().size());
+                    return ResponseEntity.ok(body);
+                })
+                .exceptionally(e -> {
+                    log.error("POST /admin/reload error: {} : ", e.getMessage(), e);
+
+                    return ResponseEntity.internalServerError().body("Dataset could not be reloaded.");
+                });
+    }
+
+    /**
+     * Returns the metrics of the {@link ResponseCache} of the alert endpoints.
+     *
+     * @return a ResponseEntity containing the hits, misses, evictions and invalidations counted since startup,
+     *         and the number of cached responses, with HTTP status 200
+     */
+    @GetMapping("/admin/cache")
+    public ResponseEntity<?> getCacheMetrics() {
+        log.info("GET /admin/cache");
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", responseCache.size());
+        body.put("maxEntries", responseCache.getMaxEntries());
+        body.put("hits", responseCache.getHitCount());
+        body.put("misses", responseCache.getMissCount());
+        body.put("evictions", responseCache.getEvictionCount());
+        body.put("invalidations", responseCache.getInvalidationCount());
+        return ResponseEntity.ok(body);
+    }
+}
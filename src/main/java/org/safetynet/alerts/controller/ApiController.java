@@ -2,25 +2,34 @@ package org.safetynet.alerts.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.dto.AgeBracketCountDto;
 import org.safetynet.alerts.dto.FireInfoDto;
 import org.safetynet.alerts.dto.person.ChildAlertDto;
+import org.safetynet.alerts.model.AgeGroupCount;
 import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.MedicalRecord;
 import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.StationCoverage;
 import org.safetynet.alerts.service.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 /**
  * ApiController is a REST controller that provides various endpoints
  * to handle requests related to persons, fire stations, medical records,
  * and emergency-related features.
+ * Successful responses are kept in the {@link ResponseCache}, encoded as JSON, until the data they depend
+ * on changes.
  */
 @Slf4j
 @RestController
@@ -31,178 +40,253 @@ public class ApiController {
     private final PersonService personService;
     private final FireStationService fireStationService;
     private final MedicalRecordService medicalRecordService;
+    private final ResponseCache responseCache;
 
     /**
      * Retrieves information about persons associated with a specific fire station number.
      *
      * @param stationNumber the fire station number to filter persons by
+     * @param acceptEncoding the encodings accepted by the client, gzip ones get a compressed response
      * @return a ResponseEntity containing the data of persons associated with the fire station,
      *         including their full names, the count of adults, and the count of children,
      *         or an appropriate error message or status if no persons are found,
      *         invalid input is given, or an internal server error occurs
      */
     @GetMapping("/firestation")
-    public ResponseEntity<?> getPersonByStationNumber(@RequestParam String stationNumber) {
+    public ResponseEntity<?> getPersonByStationNumber(
+            @RequestParam String stationNumber,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("GET /firestation");
 
-        try {
-            List<Person> persons = personService.getAllPersonFromFireStation(stationNumber);
+        List<String> dependencies = List.of(ResponseCache.station(stationNumber));
 
-            if (persons.isEmpty()) {
-                log.info("GET /firestation No person found");
-                return ResponseEntity.ok().body(Collections.emptyList());
-            }
+        return responseCache.get("/firestation", stationNumber, acceptEncoding, dependencies, () -> {
+            try {
+                Optional<StationCoverage> coverage = personService.getFireStationCoverage(stationNumber);
+
+                if (coverage.isEmpty() || coverage.get().getResidents().isEmpty()) {
+                    log.info("GET /firestation No person found");
+                    return ResponseEntity.ok().body(Collections.emptyList());
+                }
 
-            List<String> fullNames = personService.getFullNamesFromPersons(persons);
-            int adultNbr = personService.countAdultFromPersons(fullNames);
-            int childrenNbr = personService.countChildrenFromPersons(fullNames);
+                AgeGroupCount ageGroupCount = coverage.get().getAgeGroupCount();
 
-            log.info("GET /firestation Get person by sation number success");
+                log.info("GET /firestation Get person by sation number success");
 
-            return ResponseEntity.ok(personDtoMapper.toPersonByStationNumberDto(persons, stationNumber, adultNbr, childrenNbr));
-        } catch (IllegalArgumentException e) {
-            log.error("GET /firestation Error: {}", e.getMessage(), e);
+                return ResponseEntity.ok(personDtoMapper.toPersonByStationNumberDto(coverage.get().getResidents(),
+                        stationNumber, ageGroupCount.getAdultCount(), ageGroupCount.getChildCount()));
+            } catch (IllegalArgumentException e) {
+                log.error("GET /firestation Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("");
-        } catch (Exception e) {
-            log.error("GET /firestation Error: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("");
+            } catch (Exception e) {
+                log.error("GET /firestation Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.internalServerError().build();
-        }
+                return ResponseEntity.internalServerError().build();
+            }
+        });
     }
 
     /**
      * Retrieves a list of children living at a given address, along with other household members.
      *
      * @param address the address to retrieve child alerts for; must not be null or empty
+     * @param acceptEncoding the encodings accepted by the client, gzip ones get a compressed response
      * @return a ResponseEntity containing a list of ChildAlertDto objects if successful,
      * or an error message with an appropriate HTTP status code if an error occurs
      */
     @GetMapping("/childAlert")
-    public ResponseEntity<?> getChildAlert(@RequestParam String address) {
+    public ResponseEntity<?> getChildAlert(
+            @RequestParam String address,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("GET /childAlert");
 
-        try {
-            List<ChildAlertDto> childAlerts = personService.getChildAlerts(address);
-            log.info("GET /childAlert Get children with other persons household at address success");
+        List<String> dependencies = List.of(ResponseCache.address(address));
 
-            return ResponseEntity.ok(childAlerts);
-        } catch (IllegalArgumentException e) {
-            log.error("GET /childAlert Error: {}", e.getMessage(), e);
+        return responseCache.get("/childAlert", address, acceptEncoding, dependencies, () -> {
+            try {
+                List<ChildAlertDto> childAlerts = personService.getChildAlerts(address);
+                log.info("GET /childAlert Get children with other persons household at address success");
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Address cannot be null or empty");
-        } catch (Exception e) {
-            log.error("GET /childAlert Error: {}", e.getMessage(), e);
+                return ResponseEntity.ok(childAlerts);
+            } catch (IllegalArgumentException e) {
+                log.error("GET /childAlert Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.internalServerError().build();
-        }
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Address cannot be null or empty");
+            } catch (Exception e) {
+                log.error("GET /childAlert Error: {}", e.getMessage(), e);
+
+                return ResponseEntity.internalServerError().build();
+            }
+        });
     }
 
     /**
      * Retrieves all phone numbers associated with addresses covered by a specific fire station.
      *
      * @param fireStation the identifier for the fire station to retrieve phone numbers for
+     * @param acceptEncoding the encodings accepted by the client, gzip ones get a compressed response
      * @return a ResponseEntity containing a list of phone numbers if successful,
      *         a BAD_REQUEST status if no addresses are associated with the provided station,
      *         or an INTERNAL_SERVER_ERROR status if an unexpected error occurs
      */
     @GetMapping("/phoneAlert")
-    public ResponseEntity<?> getAllPhoneNumberByStation(@RequestParam String fireStation) {
+    public ResponseEntity<?> getAllPhoneNumberByStation(
+            @RequestParam String fireStation,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("GET /phoneAlert");
 
-        try {
-            List<String> addresses = fireStationService.getAddressesForFireStation(fireStation);
+        List<String> dependencies = List.of(ResponseCache.station(fireStation));
 
-            if (addresses.isEmpty()) {
-                log.info("GET /phoneAlert No fire station found");
-                return ResponseEntity.ok().body(Collections.emptyList());
-            }
+        return responseCache.get("/phoneAlert", fireStation, acceptEncoding, dependencies, () -> {
+            try {
+                List<String> phones = personService.getAllPhoneNumberFromFireStation(fireStation);
 
-            List<String> phones = personService.getAllPhoneNumberFromAddresses(addresses);
-            log.info("GET /phoneAlert Get all phone numbers by station number success");
+                if (phones.isEmpty()) {
+                    log.info("GET /phoneAlert No fire station found");
+                    return ResponseEntity.ok().body(Collections.emptyList());
+                }
 
-            return ResponseEntity.ok(phones);
-        } catch (IllegalArgumentException e) {
-            log.error("GET /phoneAlert None addresse found: {}", e.getMessage(), e);
+                log.info("GET /phoneAlert Get all phone numbers by station number success");
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            log.error("GET /phoneAlert Error: {}", e.getMessage(), e);
+                return ResponseEntity.ok(phones);
+            } catch (IllegalArgumentException e) {
+                log.error("GET /phoneAlert None addresse found: {}", e.getMessage(), e);
 
-            return ResponseEntity.internalServerError().build();
-        }
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (Exception e) {
+                log.error("GET /phoneAlert Error: {}", e.getMessage(), e);
+
+                return ResponseEntity.internalServerError().build();
+            }
+        });
     }
 
     /**
      * Retrieves a list of persons located at the specified address along with associated fire station and medical record information.
      *
      * @param address The address for which to retrieve person information, fire station information, and medical records.
+     * @param acceptEncoding the encodings accepted by the client, gzip ones get a compressed response
      * @return A ResponseEntity containing the FireInfoDto object if the operation is successful,
      *         or an appropriate HTTP status message in case of errors such as not found, bad request, or server error.
      */
     @GetMapping("/fire")
-    public ResponseEntity<?> getAddressPersons(@RequestParam String address) {
+    public ResponseEntity<?> getAddressPersons(
+            @RequestParam String address,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("GET /fire");
 
-        try {
-            FireStation fireStation = fireStationService.getFireStationAtAddress(address);
+        List<String> dependencies = List.of(ResponseCache.address(address));
 
-            if (fireStation == null) {
-                log.info("GET /fire No fire station found");
-                return ResponseEntity.ok().body(Collections.emptyList());
-            }
+        return responseCache.get("/fire", address, acceptEncoding, dependencies, () -> {
+            try {
+                FireStation fireStation = fireStationService.getFireStationAtAddress(address);
 
-            List<Person> persons = personService.getAllPersonAtAddress(address);
-            Map<String, MedicalRecord> medicalRecordMap = medicalRecordService.getAllByFullName();
-            FireInfoDto fireInfoDto = personService.toFireInfoDto(persons, fireStation, medicalRecordMap);
-            log.info("GET /fire Persons Get persons at fire station address success");
+                if (fireStation == null) {
+                    log.info("GET /fire No fire station found");
+                    return ResponseEntity.ok().body(Collections.emptyList());
+                }
 
-            return ResponseEntity.ok(fireInfoDto);
+                Optional<Household> household = personService.getHousehold(address);
+                FireInfoDto fireInfoDto = personService.toFireInfoDto(
+                        household.map(Household::getResidents).orElse(Collections.emptyList()), fireStation,
+                        household.map(Household::getMedicalRecords).orElse(Collections.emptyMap()));
+                log.info("GET /fire Persons Get persons at fire station address success");
 
-        } catch (NoSuchElementException e) {
-            log.info("GET /fire Fire station not found: {}", e.getMessage(), e);
+                return ResponseEntity.ok(fireInfoDto);
 
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Fire station not found.");
-        } catch (IllegalArgumentException e) {
-            log.info("GET /fire Fire station not found: {}", e.getMessage(), e);
+            } catch (NoSuchElementException e) {
+                log.info("GET /fire Fire station not found: {}", e.getMessage(), e);
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            log.error("GET /fire Error: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Fire station not found.");
+            } catch (IllegalArgumentException e) {
+                log.info("GET /fire Fire station not found: {}", e.getMessage(), e);
 
-            return ResponseEntity.internalServerError().build();
-        }
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (Exception e) {
+                log.error("GET /fire Error: {}", e.getMessage(), e);
+
+                return ResponseEntity.internalServerError().build();
+            }
+        });
     }
 
     /**
      * Handles the GET request for retrieving information about persons linked to specific fire stations.
      *
      * @param stations a string representing the fire station numbers, separated by commas.
+     * @param acceptEncoding the encodings accepted by the client, gzip ones get a compressed response
      * @return a {@link ResponseEntity} containing the result of the operation.
      *         If successful, it returns a list of persons with their medical records in a flood station DTO format.
      *         If an error occurs, it returns an appropriate HTTP status with an error message.
      */
     @GetMapping("/flood/stations")
-    public ResponseEntity<?> getFloodStation(@RequestParam String stations) {
+    public ResponseEntity<?> getFloodStation(
+            @RequestParam String stations,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("GET /flood/stations");
 
-        try {
-            List<String> addresses = fireStationService.getAddressesForFireStations(stations);
-            List<Person> persons = personService.getAllPersonFromAddresses(addresses);
-            Map<String, MedicalRecord> medicalRecordMap = medicalRecordService.getAllByFullName();
-            log.info("GET /flood/stations Persons found for fire stations");
+        List<String> dependencies = Arrays.stream(stations.split(",")).map(ResponseCache::station).toList();
+
+        return responseCache.get("/flood/stations", stations, acceptEncoding, dependencies, () -> {
+            try {
+                List<Household> households = personService.getHouseholdsFromFireStations(stations);
+                log.info("GET /flood/stations Persons found for fire stations");
 
-            return ResponseEntity.ok(personDtoMapper.toFloodStationDto(persons, medicalRecordMap));
+                return ResponseEntity.ok(personDtoMapper.toFloodStationDto(households));
 
-        } catch (IllegalArgumentException e) {
-            log.error("GET /flood/stations Error: {}", e.getMessage(), e);
+            } catch (IllegalArgumentException e) {
+                log.error("GET /flood/stations Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            log.error("GET /flood/stations Error: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (Exception e) {
+                log.error("GET /flood/stations Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.internalServerError().build();
-        }
+                return ResponseEntity.internalServerError().build();
+            }
+        });
+    }
+
+    /**
+     * Counts the persons covered by the given fire stations whose age is within a bracket, such as the
+     * children under 5 or the persons over 65 an evacuation has to plan for.
+     *
+     * @param stations the fire station numbers, separated by commas
+     * @param minAge the minimum age, inclusive, 0 when omitted
+     * @param maxAge the maximum age, inclusive, no maximum when omitted
+     * @param acceptEncoding the encodings accepted by the client, gzip ones get a compressed response
+     * @return a {@link ResponseEntity} containing the stations, the bracket and the number of persons in it,
+     *         a BAD_REQUEST status if the stations are blank or the bracket is invalid,
+     *         or an INTERNAL_SERVER_ERROR status if an unexpected error occurs
+     */
+    @GetMapping("/ageBracket")
+    public ResponseEntity<?> getAgeBracketCount(
+            @RequestParam String stations,
+            @RequestParam(defaultValue = "0") int minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("GET /ageBracket");
+
+        List<String> dependencies = Arrays.stream(stations.split(",")).map(ResponseCache::station).toList();
+        String parameters = stations + "&" + minAge + "&" + maxAge;
+
+        return responseCache.get("/ageBracket", parameters, acceptEncoding, dependencies, () -> {
+            try {
+                int count = personService.countPersonsAgedFromFireStations(stations, minAge, maxAge);
+                log.info("GET /ageBracket Count persons in age bracket success");
+
+                return ResponseEntity.ok(new AgeBracketCountDto(Arrays.asList(stations.split(",")), minAge, maxAge,
+                        count));
+            } catch (IllegalArgumentException e) {
+                log.error("GET /ageBracket Error: {}", e.getMessage(), e);
+
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (Exception e) {
+                log.error("GET /ageBracket Error: {}", e.getMessage(), e);
+
+                return ResponseEntity.internalServerError().build();
+            }
+        });
     }
 
     /**
@@ -211,58 +295,72 @@ public class ApiController {
      * and maps their data along with associated medical records into a DTO for the response.
      *
      * @param lastName the last name of the person(s) to retrieve information for; must not be null or empty
+     * @param acceptEncoding the encodings accepted by the client, gzip ones get a compressed response
      * @return a {@code ResponseEntity} containing the processed data if successful,
      *         a BAD_REQUEST response if the input is invalid,
      *         or an INTERNAL_SERVER_ERROR response in case of an unexpected error
      */
     @GetMapping("/personInfo")
-    public ResponseEntity<?> getPersonInfoLastName(@RequestParam String lastName) {
+    public ResponseEntity<?> getPersonInfoLastName(
+            @RequestParam String lastName,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("GET /personInfoLastName");
 
-        try {
-            Map<String, MedicalRecord> medicalRecordMap = medicalRecordService.getAllByFullName();
-            List<Person> persons = personService.getAllPersonByLastName(lastName);
-            log.info("GET /personInfoLastName Success get info lastName");
+        List<String> dependencies = List.of(ResponseCache.lastName(lastName));
+
+        return responseCache.get("/personInfo", lastName, acceptEncoding, dependencies, () -> {
+            try {
+                Map<String, MedicalRecord> medicalRecordMap = medicalRecordService.getAllByFullName();
+                List<Person> persons = personService.getAllPersonByLastName(lastName);
+                log.info("GET /personInfoLastName Success get info lastName");
 
-            return ResponseEntity.ok(personDtoMapper.toPersonInfoLastNameDto(persons, medicalRecordMap));
+                return ResponseEntity.ok(personDtoMapper.toPersonInfoLastNameDto(persons, medicalRecordMap));
 
-        } catch (IllegalArgumentException e) {
-            log.error("GET /personInfoLastName Error: {}", e.getMessage(), e);
+            } catch (IllegalArgumentException e) {
+                log.error("GET /personInfoLastName Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Last name cannot be null or empty");
-        } catch (Exception e) {
-            log.error("GET /personInfoLastName Error: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Last name cannot be null or empty");
+            } catch (Exception e) {
+                log.error("GET /personInfoLastName Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.internalServerError().build();
-        }
+                return ResponseEntity.internalServerError().build();
+            }
+        });
     }
 
     /**
      * Handles GET requests for retrieving all email addresses of individuals residing in a specified city.
      *
      * @param city the name of the city to retrieve email addresses for; must not be null or empty
+     * @param acceptEncoding the encodings accepted by the client, gzip ones get a compressed response
      * @return ResponseEntity containing a list of email addresses if the city is valid and the retrieval is successful;
      *         BAD_REQUEST status with an error message if the city parameter is invalid;
      *         INTERNAL_SERVER_ERROR status if an unexpected error occurs during processing
      */
     @GetMapping("/communityEmail")
-    public ResponseEntity<?> getCommunityEmail(@RequestParam String city) {
+    public ResponseEntity<?> getCommunityEmail(
+            @RequestParam String city,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("GET /communityEmail");
 
-        try {
-            List<String> emails = personService.getAllEmailsAtCity(city);
-            log.info("GET /communityEmail Get all email for city success");
+        List<String> dependencies = List.of(ResponseCache.city(city));
+
+        return responseCache.get("/communityEmail", city, acceptEncoding, dependencies, () -> {
+            try {
+                List<String> emails = personService.getAllEmailsAtCity(city);
+                log.info("GET /communityEmail Get all email for city success");
 
-            return ResponseEntity.ok(emails);
+                return ResponseEntity.ok(emails);
 
-        } catch (IllegalArgumentException e) {
-            log.error("GET /communityEmail Error: {}", e.getMessage(), e);
+            } catch (IllegalArgumentException e) {
+                log.error("GET /communityEmail Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("City cannot be null or empty");
-        } catch (Exception e) {
-            log.error("GET /communityEmail Error: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("City cannot be null or empty");
+            } catch (Exception e) {
+                log.error("GET /communityEmail Error: {}", e.getMessage(), e);
 
-            return ResponseEntity.internalServerError().build();
-        }
+                return ResponseEntity.internalServerError().build();
+            }
+        });
     }
 }
@@ -1,24 +1,31 @@
 package org.safetynet.alerts.controller;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.safetynet.alerts.dto.person.*;
 import org.safetynet.alerts.dto.PersonByStationNumberDto;
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.MedicalRecord;
 import org.safetynet.alerts.model.Person;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
  * This class is responsible for mapping {@link Person} objects into various DTOs based
  * on specified details and context. It contains methods that handle transformations
  * for specific use cases while integrating related information such as medical records
- * or station details.
+ * or station details. Ages are computed at the current day of the injected {@link Clock}.
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class PersonDtoMapper {
 
+    private final Clock clock;
+
     /**
      * Converts a list of Person objects and additional station-related information into a PersonByStationNumberDto.
      *
@@ -35,21 +42,22 @@ public class PersonDtoMapper {
     }
 
     /**
-     * Converts a list of Person objects and a map of MedicalRecord objects into a map where
-     * the key is the address and the value is a list of PersonMedicalInfoDto objects.
+     * Converts a list of {@link Household} objects into a map where the key is the address and the value
+     * is the list of PersonMedicalInfoDto objects of its residents, joined with the medical records
+     * already held by each household.
      *
-     * @param persons the list of Person objects to be converted
-     * @param medicalRecordMap a map where the key is the person's full name and the value is their MedicalRecord
+     * @param households the households to be converted
      * @return a map where the key is the address and the value is a list of PersonMedicalInfoDto objects
      */
-    public Map<String, List<PersonMedicalInfoDto>> toFloodStationDto(List<Person> persons, Map<String, MedicalRecord> medicalRecordMap) {
-        Map<String, List<PersonMedicalInfoDto>> personMedicalInfoDtoMap = new HashMap<>();
+    public Map<String, List<PersonMedicalInfoDto>> toFloodStationDto(List<Household> households) {
+        Map<String, List<PersonMedicalInfoDto>> personMedicalInfoDtoMap = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now(clock);
 
-        persons.forEach(person -> {
-            personMedicalInfoDtoMap
-                    .computeIfAbsent(person.getAddress(), k -> new ArrayList<>())
-                    .add(new PersonMedicalInfoDto(person, medicalRecordMap.get(person.getFullName())));
-        });
+        households.forEach(household -> personMedicalInfoDtoMap.put(household.getAddress(),
+                household.getResidents().stream()
+                        .map(person -> new PersonMedicalInfoDto(person,
+                                household.getMedicalRecords().get(person.getFullName()), today))
+                        .toList()));
 
         return personMedicalInfoDtoMap;
     }
@@ -65,9 +73,11 @@ public class PersonDtoMapper {
      * @return a list of {@link PersonInfoDto} objects that represent the converted data
      */
     public List<PersonInfoDto> toPersonInfoLastNameDto(List<Person> persons, Map<String, MedicalRecord> medicalRecordMap) {
+        LocalDate today = LocalDate.now(clock);
+
         return persons
                 .stream()
-                .map(person -> new PersonInfoDto(person, medicalRecordMap.get(person.getFullName())))
+                .map(person -> new PersonInfoDto(person, medicalRecordMap.get(person.getFullName()), today))
                 .toList();
     }
 
@@ -75,6 +85,8 @@ public class PersonDtoMapper {
      * Converts a list of {@link Person} objects into a map of {@link ChildAlertDto}, where the keys are
      * the full names of child persons and the values are their corresponding child alert data.
      * This includes their personal details and age, filtered specifically for individuals classified as children.
+     * Persons without a medical record or a birthdate cannot be classified and are left out. The map keeps
+     * the order of the persons.
      *
      * @param persons a list of {@link Person} objects to be processed
      * @param medicalRecordMap a map containing {@link MedicalRecord} objects, keyed by the full name
@@ -83,12 +95,15 @@ public class PersonDtoMapper {
      *         representing their child alert details
      */
     public Map<String, ChildAlertDto> toChildAlertDto(List<Person> persons, Map<String, MedicalRecord> medicalRecordMap) {
-        Map<String, ChildAlertDto> childAlerts = new HashMap<>();
+        Map<String, ChildAlertDto> childAlerts = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now(clock);
 
         persons.forEach(person -> {
             MedicalRecord medicalRecord = medicalRecordMap.get(person.getFullName());
-            if (medicalRecord.isChild() && !childAlerts.containsKey(person.getFullName())) {
-                childAlerts.put(person.getFullName(), new ChildAlertDto(person, medicalRecord.getAge()));
+            if (medicalRecord == null || medicalRecord.getBirthdate() == null) {
+                log.debug("No birthdate found for {}, not converted to ChildAlertDto", person.getFullName());
+            } else if (medicalRecord.isChild(today) && !childAlerts.containsKey(person.getFullName())) {
+                childAlerts.put(person.getFullName(), new ChildAlertDto(person, medicalRecord.getAge(today)));
             }
         });
 
@@ -0,0 +1,470 @@
+package org.safetynet.alerts.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.model.DataChange;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.SnapshotListener;
+import org.safetynet.alerts.service.JsonDataService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the responses of the alert endpoints, keyed by endpoint and request parameter, holding at most
+ * {@code json.data.response-cache.max-entries} responses. Beyond it, the least recently used response among
+ * a sample of {@value #EVICTION_SAMPLE_SIZE} responses is evicted, the samples moving around the cache from one
+ * eviction to the next.
+ * Each response records the stations, addresses, last names and cities it was computed from. The cache
+ * listens to the snapshots published by the dataset, and a batch of changes only drops the responses
+ * depending on the persons, fire station mappings and medical records it changed. A reload of the dataset
+ * or a new classification of the medical records drops every response.
+ * Responses are also dropped on the day after they were computed, since ages and the children of a
+ * household depend on the current day.
+ * Responses are kept already encoded as JSON, with the dataset version they were computed at, so a hit
+ * only copies bytes to the servlet output stream. A response is served only when none of its dependencies
+ * changed after that version. When {@code json.data.response-cache.gzip} is enabled, clients accepting gzip
+ * get a compressed copy of the bytes, compressed on the first such request.
+ * A hit takes no lock: the responses are held in a concurrent map, and the dependency versions checked on a hit
+ * are in a concurrent map too. Only misses, evictions and invalidations lock the cache, to keep the responses
+ * and their dependencies in step. An invalidation racing with a hit cannot serve a stale response, since the
+ * changed versions are recorded before the responses are dropped.
+ */
+@Component
+@Slf4j
+public class ResponseCache implements SnapshotListener {
+
+    /** Number of responses compared to pick the one to evict. */
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final int maxEntries;
+    private final boolean gzipEnabled;
+    /** Lock of the writes: responses put, evicted or dropped, and the dataset listened to. Hits do not take it. */
+    private final Object lock = new Object();
+    /** Responses by endpoint and parameter, each stamped with its last access. */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> keysByDependency = new HashMap<>();
+    /** Dataset the cache listens to, responses computed from another dataset are not kept. */
+    private volatile JsonData observedData;
+    /** Version of the last snapshot changing each dependency, responses computed before it are stale. */
+    private final Map<String, Long> changedVersions = new ConcurrentHashMap<>();
+    /** Version of the last snapshot changing every dependency, responses computed before it are stale. */
+    private volatile long resetVersion;
+    /** Position of the next eviction sample, kept across evictions so that successive samples differ. */
+    private Iterator<Map.Entry<String, Entry>> evictionCursor;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    /**
+     * @param objectMapper the mapper encoding the responses, the one of the message converters
+     * @param clock the clock giving the current day, responses are dropped when it changes
+     * @param maxEntries the maximum number of cached responses, {@code 0} to disable the cache
+     * @param gzipEnabled whether responses are sent compressed to clients accepting gzip
+     */
+    public ResponseCache(ObjectMapper objectMapper, Clock clock,
+                         @Value("${json.data.response-cache.max-entries:1024}") int maxEntries,
+                         @Value("${json.data.response-cache.gzip:true}") boolean gzipEnabled) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    public static String station(String station) {
+        return "station:" + station;
+    }
+
+    public static String address(String address) {
+        return "address:" + address;
+    }
+
+    public static String lastName(String lastName) {
+        return "lastName:" + lastName;
+    }
+
+    public static String city(String city) {
+        return "city:" + city;
+    }
+
+    /**
+     * Returns the cached response of an endpoint for a parameter, or computes it. Only successful responses
+     * are cached, encoded as JSON, and only when none of their dependencies changed since the computation
+     * started. Successful responses are returned as their encoded bytes, cached or not.
+     *
+     * @param endpoint the path of the endpoint
+     * @param parameter the request parameter
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request, {@code null} when absent
+     * @param dependencies the stations, addresses, last names and cities the response depends on, built with
+     *                     {@link #station(String)}, {@link #address(String)}, {@link #lastName(String)} and
+     *                     {@link #city(String)}
+     * @param response computes the response when it is not cached
+     * @return the cached or computed response
+     */
+    public ResponseEntity<?> get(String endpoint, String parameter, String acceptEncoding,
+                                 Collection<String> dependencies, Supplier<ResponseEntity<?>> response) {
+        JsonData data = JsonDataService.getJsonData();
+        if (maxEntries <= 0 || data == null) {
+            return response.get();
+        }
+
+        String key = endpoint + "?" + parameter;
+        boolean gzip = gzipEnabled && acceptsGzip(acceptEncoding);
+        LocalDate today = LocalDate.now(clock);
+
+        if (data != observedData) {
+            synchronized (lock) {
+                observe(data);
+            }
+        }
+
+        long version = data.getSnapshot().getVersion();
+        Entry cached = entries.get(key);
+        if (cached != null && cached.day.equals(today) && isCurrent(cached)) {
+            cached.lastAccess = System.nanoTime();
+            hitCount.increment();
+            return toResponse(cached, gzip);
+        }
+
+        missCount.increment();
+        if (cached != null) {
+            synchronized (lock) {
+                if (entries.remove(key, cached)) {
+                    removeDependencies(key, cached);
+                }
+            }
+        }
+
+        ResponseEntity<?> computed = response.get();
+        if (computed.getStatusCode() != HttpStatus.OK) {
+            return computed;
+        }
+
+        Entry entry;
+        try {
+            entry = new Entry(objectMapper.writeValueAsBytes(computed.getBody()), dependencies, today, version);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode the response of {}", endpoint, e);
+            return computed;
+        }
+
+        synchronized (lock) {
+            if (data == observedData && isCurrent(entry)) {
+                put(key, entry);
+            }
+        }
+
+        return toResponse(entry, gzip);
+    }
+
+    /**
+     * Drops the responses depending on the persons, fire station mappings and medical records of a batch,
+     * or all of them when the medical records were classified at another day.
+     */
+    @Override
+    public void changed(DataSnapshot previous, DataSnapshot published, List<DataChange> changes) {
+        boolean reclassified = !Objects.equals(previous.getMedicalRecordIndex().getClassifiedOn(),
+                published.getMedicalRecordIndex().getClassifiedOn());
+        Set<String> dependencies = new HashSet<>();
+        if (!reclassified) {
+            changes.forEach(change -> addDependencies(dependencies, change, previous, published));
+        }
+
+        synchronized (lock) {
+            if (reclassified) {
+                resetVersion = published.getVersion();
+                changedVersions.clear();
+                clear();
+                return;
+            }
+
+            for (String dependency : dependencies) {
+                changedVersions.put(dependency, published.getVersion());
+            }
+            int invalidated = 0;
+            for (String dependency : dependencies) {
+                Set<String> keys = keysByDependency.get(dependency);
+                while (keys != null && !keys.isEmpty()) {
+                    remove(keys.iterator().next());
+                    invalidated++;
+                }
+            }
+            invalidationCount.add(invalidated);
+            log.debug("{} cached response(s) invalidated by snapshot version {}", invalidated, published.getVersion());
+        }
+    }
+
+    /**
+     * Drops every response, none of them is known to match the replacing dataset.
+     */
+    @Override
+    public void replaced(DataSnapshot published) {
+        synchronized (lock) {
+            resetVersion = published.getVersion();
+            changedVersions.clear();
+            clear();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+
+    /**
+     * Listens to the given dataset when it is not the observed one, as after the dataset was loaded again,
+     * dropping the responses computed from the previous one.
+     */
+    private void observe(JsonData data) {
+        if (data == observedData) {
+            return;
+        }
+
+        if (observedData != null) {
+            observedData.removeListener(this);
+        }
+        data.addListener(this);
+        resetVersion = 0;
+        changedVersions.clear();
+        clear();
+        observedData = data;
+    }
+
+    /**
+     * Tells whether none of the dependencies of a response changed after the version it was computed at.
+     */
+    private boolean isCurrent(Entry entry) {
+        if (entry.version < resetVersion) {
+            return false;
+        }
+
+        for (String dependency : entry.dependencies) {
+            if (changedVersions.getOrDefault(dependency, 0L) > entry.version) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static ResponseEntity<byte[]> toResponse(Entry entry, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+        byte[] body = entry.json;
+        if (gzip) {
+            body = entry.gzip();
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        headers.setContentLength(body.length);
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header accepts gzip, ignoring a gzip refused with {@code q=0}.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+
+        return false;
+    }
+
+    private void put(String key, Entry entry) {
+        remove(key);
+        entries.put(key, entry);
+        entry.dependencies.forEach(dependency ->
+                keysByDependency.computeIfAbsent(dependency, d -> new HashSet<>()).add(key));
+
+        while (entries.size() > maxEntries) {
+            evict(key);
+        }
+    }
+
+    /**
+     * Evicts the least recently used response among the next sample of responses, other than the one just put.
+     */
+    private void evict(String putKey) {
+        Map.Entry<String, Entry> eldest = null;
+        int sampled = 0;
+        boolean restarted = false;
+        while (sampled < EVICTION_SAMPLE_SIZE) {
+            if (evictionCursor == null || !evictionCursor.hasNext()) {
+                if (restarted) {
+                    break;
+                }
+                evictionCursor = entries.entrySet().iterator();
+                restarted = true;
+                continue;
+            }
+
+            Map.Entry<String, Entry> candidate = evictionCursor.next();
+            if (candidate.getKey().equals(putKey)) {
+                continue;
+            }
+            sampled++;
+            if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) {
+                eldest = candidate;
+            }
+        }
+
+        if (eldest != null) {
+            remove(eldest.getKey());
+            evictionCount.increment();
+        }
+    }
+
+    private void remove(String key) {
+        removeDependencies(key, entries.remove(key));
+    }
+
+    private void removeDependencies(String key, Entry entry) {
+        if (entry == null) {
+            return;
+        }
+
+        for (String dependency : entry.dependencies) {
+            Set<String> keys = keysByDependency.get(dependency);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByDependency.remove(dependency);
+            }
+        }
+    }
+
+    private void clear() {
+        invalidationCount.add(entries.size());
+        entries.clear();
+        keysByDependency.clear();
+        evictionCursor = null;
+    }
+
+    private static void addDependencies(Set<String> dependencies, DataChange change,
+                                        DataSnapshot previous, DataSnapshot published) {
+        for (Object element : new Object[]{change.getPrevious(), change.getCurrent()}) {
+            if (element instanceof Person person) {
+                addPersonDependencies(dependencies, person, previous, published);
+                dependencies.add(city(person.getCity()));
+            } else if (element instanceof FireStation fireStation) {
+                dependencies.add(address(fireStation.getAddress()));
+                dependencies.add(station(fireStation.getStation()));
+            } else if (element instanceof MedicalRecord medicalRecord) {
+                dependencies.add(lastName(medicalRecord.getLastName()));
+                for (DataSnapshot snapshot : List.of(previous, published)) {
+                    snapshot.getPersonIndex().findByLastName(medicalRecord.getLastName()).stream()
+                            .filter(person -> person.getFullName().equals(medicalRecord.getFullName()))
+                            .forEach(person -> addPersonDependencies(dependencies, person, previous, published));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the address and last name of a person, and the stations covering its address before and after the change.
+     */
+    private static void addPersonDependencies(Set<String> dependencies, Person person,
+                                              DataSnapshot previous, DataSnapshot published) {
+        dependencies.add(address(person.getAddress()));
+        dependencies.add(lastName(person.getLastName()));
+        for (DataSnapshot snapshot : List.of(previous, published)) {
+            snapshot.getFireStationIndex().findByAddress(person.getAddress())
+                    .forEach(fireStation -> dependencies.add(station(fireStation.getStation())));
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] json;
+        private final Set<String> dependencies;
+        private final LocalDate day;
+        private final long version;
+        private volatile byte[] gzip;
+        /** {@link System#nanoTime()} of the last hit or of the computation, compared on eviction. */
+        private volatile long lastAccess;
+
+        private Entry(byte[] json, Collection<String> dependencies, LocalDate day, long version) {
+            this.json = json;
+            this.dependencies = new HashSet<>(dependencies);
+            this.day = day;
+            this.version = version;
+            this.lastAccess = System.nanoTime();
+        }
+
+        /**
+         * Returns the gzip compressed bytes, compressing them on first use. Concurrent first uses may both
+         * compress, to the same bytes.
+         */
+        private byte[] gzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream(json.length / 4 + 32);
+                try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+                    gzipOutput.write(json);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to compress a cached response", e);
+                }
+                compressed = output.toByteArray();
+                gzip = compressed;
+            }
+
+            return compressed;
+        }
+    }
+}
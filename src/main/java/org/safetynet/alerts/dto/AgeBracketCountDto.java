@@ -0,0 +1,17 @@
+package org.safetynet.alerts.dto;
+
+import java.util.List;
+
+public class AgeBracketCountDto {
+    public List<String> stations;
+    public int minAge;
+    public Integer maxAge;
+    public int count;
+
+    public AgeBracketCountDto(List<String> stations, int minAge, Integer maxAge, int count) {
+        this.stations = stations;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.count = count;
+    }
+}
@@ -3,6 +3,7 @@ package org.safetynet.alerts.dto.person;
 import org.safetynet.alerts.model.MedicalRecord;
 import org.safetynet.alerts.model.Person;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,10 +15,10 @@ public class AddressPersonDto {
     public List<String> medications;
     public List<String> allergies;
 
-    public AddressPersonDto(Person person, MedicalRecord medicalRecord) {
+    public AddressPersonDto(Person person, MedicalRecord medicalRecord, LocalDate today) {
         this.lastName = person.getLastName();
         this.phoneNumber = person.getPhone();
-        this.age = medicalRecord.getAge();
+        this.age = medicalRecord.getAge(today);
         this.medications = new ArrayList<>(medicalRecord.getMedications());
         this.allergies = new ArrayList<>(medicalRecord.getAllergies());
     }
@@ -0,0 +1,65 @@
+package org.safetynet.alerts.dto.person;
+
+import org.safetynet.alerts.model.Person;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Residents of one address as {@link OtherPersonDto}, each built once. The other persons of a child
+ * are a read-only view of the household skipping the child itself, so every child of the address
+ * shares the same list and attaching them costs one pass over the residents.
+ */
+public class HouseholdDto {
+
+    private final List<OtherPersonDto> residents;
+    private final Map<String, Integer> positions;
+
+    /**
+     * Builds the household of the given residents, each person once by full name.
+     *
+     * @param persons the persons living at the address
+     */
+    public HouseholdDto(List<Person> persons) {
+        residents = new ArrayList<>(persons.size());
+        positions = new HashMap<>();
+
+        persons.forEach(person -> {
+            if (positions.putIfAbsent(person.getFullName(), residents.size()) == null) {
+                residents.add(new OtherPersonDto(person.getFirstName(), person.getLastName()));
+            }
+        });
+    }
+
+    public int size() {
+        return residents.size();
+    }
+
+    /**
+     * Returns the residents other than the person of the given full name.
+     *
+     * @param fullName the full name of the person to leave out
+     * @return a read-only view of the other residents of the household
+     */
+    public List<OtherPersonDto> getOtherPersons(String fullName) {
+        Integer excluded = positions.get(fullName);
+        if (excluded == null) {
+            return residents;
+        }
+
+        return new AbstractList<>() {
+            @Override
+            public OtherPersonDto get(int index) {
+                return residents.get(index < excluded ? index : index + 1);
+            }
+
+            @Override
+            public int size() {
+                return residents.size() - 1;
+            }
+        };
+    }
+}
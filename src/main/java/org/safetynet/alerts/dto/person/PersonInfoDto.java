@@ -3,6 +3,7 @@ package org.safetynet.alerts.dto.person;
 import org.safetynet.alerts.model.MedicalRecord;
 import org.safetynet.alerts.model.Person;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public class PersonInfoDto {
@@ -14,10 +15,10 @@ public class PersonInfoDto {
     public List<String> medications;
     public List<String> allergies;
 
-    public PersonInfoDto(Person person, MedicalRecord medicalRecord) {
+    public PersonInfoDto(Person person, MedicalRecord medicalRecord, LocalDate today) {
         this.lastName = person.getLastName();
         this.address = person.getAddress();
-        this.age = medicalRecord.getAge();
+        this.age = medicalRecord.getAge(today);
         this.email = person.getEmail();
         this.medications = medicalRecord.getMedications();
         this.allergies = medicalRecord.getAllergies();
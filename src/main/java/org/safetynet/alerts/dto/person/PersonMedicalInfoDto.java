@@ -3,6 +3,7 @@ package org.safetynet.alerts.dto.person;
 import org.safetynet.alerts.model.MedicalRecord;
 import org.safetynet.alerts.model.Person;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public class PersonMedicalInfoDto {
@@ -13,9 +14,9 @@ public class PersonMedicalInfoDto {
     public List<String> medications;
     public List<String> allergies;
 
-    public PersonMedicalInfoDto(Person person, MedicalRecord medicalRecord) {
+    public PersonMedicalInfoDto(Person person, MedicalRecord medicalRecord, LocalDate today) {
         this.lastName = person.getLastName();
-        this.age = medicalRecord.getAge();
+        this.age = medicalRecord.getAge(today);
         this.phone = person.getPhone();
         this.medications = medicalRecord.getMedications();
         this.allergies = medicalRecord.getAllergies();
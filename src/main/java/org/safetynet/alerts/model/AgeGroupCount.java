@@ -0,0 +1,28 @@
+package org.safetynet.alerts.model;
+
+/**
+ * Number of adults and children among a group of persons, as classified by
+ * {@link MedicalRecord#isAdult()} and {@link MedicalRecord#isChild()}.
+ * Persons without a medical record are counted in neither group.
+ */
+public class AgeGroupCount {
+    private final int adultCount;
+    private final int childCount;
+
+    public AgeGroupCount(int adultCount, int childCount) {
+        this.adultCount = adultCount;
+        this.childCount = childCount;
+    }
+
+    public int getAdultCount() {
+        return adultCount;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+
+    public String toString() {
+        return "AgeGroupCount [adultCount=" + adultCount + ", childCount=" + childCount + "]";
+    }
+}
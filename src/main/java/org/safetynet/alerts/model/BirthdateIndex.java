@@ -0,0 +1,127 @@
+package org.safetynet.alerts.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Birthdates of a group of persons, kept as a sorted array of epoch days. The persons of an age bracket
+ * are the ones born between two cutoff dates, so counting them is a binary search for each cutoff, whatever
+ * the size of the group. Ages follow {@link MedicalRecord#getAge()}: a person is at least {@code n} years old
+ * at a day when born on or before that day minus {@code n} years.
+ * A birthdate index is immutable: adding or removing a birthdate returns a new index, the position of the
+ * birthdate being found by binary search, so that the index of a station is kept sorted as its residents change.
+ */
+public final class BirthdateIndex {
+    static final BirthdateIndex EMPTY = new BirthdateIndex(new int[0]);
+
+    private final int[] epochDays;
+
+    private BirthdateIndex(int[] epochDays) {
+        this.epochDays = epochDays;
+    }
+
+    /**
+     * Builds the index of the given birthdates.
+     *
+     * @param epochDays the birthdates as epoch days, in any order; the array is sorted in place and kept
+     * @return the index of the birthdates
+     */
+    static BirthdateIndex of(int[] epochDays) {
+        Arrays.sort(epochDays);
+
+        return new BirthdateIndex(epochDays);
+    }
+
+    /**
+     * Returns this index with one more birthdate.
+     *
+     * @param epochDay the birthdate as an epoch day
+     * @return a new index holding the birthdate
+     */
+    BirthdateIndex with(int epochDay) {
+        int position = countBornOnOrBefore(epochDay);
+        int[] grown = new int[epochDays.length + 1];
+        System.arraycopy(epochDays, 0, grown, 0, position);
+        grown[position] = epochDay;
+        System.arraycopy(epochDays, position, grown, position + 1, epochDays.length - position);
+
+        return new BirthdateIndex(grown);
+    }
+
+    /**
+     * Returns this index with one birthdate less.
+     *
+     * @param epochDay the birthdate as an epoch day
+     * @return a new index without one occurrence of the birthdate, or this index if it does not hold it
+     */
+    BirthdateIndex without(int epochDay) {
+        int position = countBornOnOrBefore(epochDay) - 1;
+        if (position < 0 || epochDays[position] != epochDay) {
+            return this;
+        }
+        if (epochDays.length == 1) {
+            return EMPTY;
+        }
+
+        int[] shrunk = new int[epochDays.length - 1];
+        System.arraycopy(epochDays, 0, shrunk, 0, position);
+        System.arraycopy(epochDays, position + 1, shrunk, position, shrunk.length - position);
+
+        return new BirthdateIndex(shrunk);
+    }
+
+    /**
+     * Returns the number of birthdates in the index.
+     *
+     * @return the number of persons with a known birthdate
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * Counts the persons born on or before the given day.
+     *
+     * @param day the cutoff day
+     * @return the number of persons born on or before the day
+     */
+    public int countBornOnOrBefore(LocalDate day) {
+        return countBornOnOrBefore(day.toEpochDay());
+    }
+
+    private int countBornOnOrBefore(long cutoff) {
+        int low = 0;
+        int high = epochDays.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochDays[middle] <= cutoff) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Counts the persons whose age at the given day is within a bracket.
+     *
+     * @param minAge the minimum age, inclusive
+     * @param maxAge the maximum age, inclusive, or {@link Integer#MAX_VALUE} for no maximum
+     * @param today the day at which ages are evaluated
+     * @return the number of persons aged from {@code minAge} to {@code maxAge}
+     * @throws IllegalArgumentException if {@code minAge} is negative or greater than {@code maxAge}
+     */
+    public int countAged(int minAge, int maxAge, LocalDate today) {
+        if (minAge < 0 || minAge > maxAge) {
+            throw new IllegalArgumentException("Invalid age bracket " + minAge + "-" + maxAge);
+        }
+
+        int atLeastMinAge = countBornOnOrBefore(today.minusYears(minAge));
+        int olderThanMaxAge = maxAge == Integer.MAX_VALUE ? 0 : countBornOnOrBefore(today.minusYears(maxAge + 1L));
+
+        return atLeastMinAge - olderThanMaxAge;
+    }
+}
@@ -0,0 +1,129 @@
+package org.safetynet.alerts.model;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A single add, replace or remove made on a {@link DataSnapshot.Mutation}. Changes are recorded by
+ * the mutation in the order they are made, so that they can be written to a {@link SnapshotJournal}
+ * and applied again on another snapshot.
+ * Replaced and removed elements are found again by their key: the full name for persons and medical
+ * records, the address and station number for fire station mappings.
+ */
+public final class DataChange {
+
+    public enum Type {
+        PERSON_ADDED(Person.class),
+        PERSON_REPLACED(Person.class),
+        PERSON_REMOVED(Person.class),
+        FIRE_STATION_ADDED(FireStation.class),
+        FIRE_STATION_REPLACED(FireStation.class),
+        FIRE_STATION_REMOVED(FireStation.class),
+        MEDICAL_RECORD_ADDED(MedicalRecord.class),
+        MEDICAL_RECORD_REPLACED(MedicalRecord.class),
+        MEDICAL_RECORD_REMOVED(MedicalRecord.class);
+
+        private final Class<?> elementType;
+
+        Type(Class<?> elementType) {
+            this.elementType = elementType;
+        }
+
+        public Class<?> getElementType() {
+            return elementType;
+        }
+    }
+
+    private final Type type;
+    private final Object previous;
+    private final Object current;
+
+    /**
+     * @param type the kind of change
+     * @param previous the element before the change, {@code null} for an addition
+     * @param current the element after the change, {@code null} for a removal
+     */
+    public DataChange(Type type, Object previous, Object current) {
+        this.type = type;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Object getPrevious() {
+        return previous;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+
+    /**
+     * Makes this change again on the given mutation.
+     *
+     * @param mutation the mutation to change
+     * @return {@code false} if the replaced or removed element is not found in the mutation
+     */
+    public boolean applyTo(DataSnapshot.Mutation mutation) {
+        switch (type) {
+            case PERSON_ADDED -> mutation.addPerson((Person) current);
+            case PERSON_REPLACED -> {
+                Optional<Person> person = findPerson(mutation, (Person) previous);
+                person.ifPresent(found -> mutation.replacePerson(found, (Person) current));
+                return person.isPresent();
+            }
+            case PERSON_REMOVED -> {
+                Optional<Person> person = findPerson(mutation, (Person) previous);
+                person.ifPresent(mutation::removePerson);
+                return person.isPresent();
+            }
+            case FIRE_STATION_ADDED -> mutation.addFireStation((FireStation) current);
+            case FIRE_STATION_REPLACED -> {
+                Optional<FireStation> fireStation = findFireStation(mutation, (FireStation) previous);
+                fireStation.ifPresent(found -> mutation.replaceFireStation(found, (FireStation) current));
+                return fireStation.isPresent();
+            }
+            case FIRE_STATION_REMOVED -> {
+                Optional<FireStation> fireStation = findFireStation(mutation, (FireStation) previous);
+                fireStation.ifPresent(mutation::removeFireStation);
+                return fireStation.isPresent();
+            }
+            case MEDICAL_RECORD_ADDED -> mutation.addMedicalRecord((MedicalRecord) current);
+            case MEDICAL_RECORD_REPLACED -> {
+                Optional<MedicalRecord> medicalRecord = findMedicalRecord(mutation, (MedicalRecord) previous);
+                medicalRecord.ifPresent(found -> mutation.replaceMedicalRecord(found, (MedicalRecord) current));
+                return medicalRecord.isPresent();
+            }
+            case MEDICAL_RECORD_REMOVED -> {
+                Optional<MedicalRecord> medicalRecord = findMedicalRecord(mutation, (MedicalRecord) previous);
+                medicalRecord.ifPresent(mutation::removeMedicalRecord);
+                return medicalRecord.isPresent();
+            }
+        }
+
+        return true;
+    }
+
+    private static Optional<Person> findPerson(DataSnapshot.Mutation mutation, Person person) {
+        return mutation.getPersonIndex().findByFullName(person.getFullName());
+    }
+
+    private static Optional<FireStation> findFireStation(DataSnapshot.Mutation mutation, FireStation fireStation) {
+        return mutation.getFireStationIndex().findByAddress(fireStation.getAddress())
+                .stream()
+                .filter(indexed -> Objects.equals(indexed.getStation(), fireStation.getStation()))
+                .findFirst();
+    }
+
+    private static Optional<MedicalRecord> findMedicalRecord(DataSnapshot.Mutation mutation, MedicalRecord medicalRecord) {
+        return mutation.getMedicalRecordIndex().findByFullName(medicalRecord.getFullName());
+    }
+
+    @Override
+    public String toString() {
+        return "DataChange [type=" + type + ", previous=" + previous + ", current=" + current + "]";
+    }
+}
@@ -0,0 +1,1004 @@
+package org.safetynet.alerts.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Immutable version of the dataset: the persons, fire stations and medical records lists together
+ * with the indexes built over them. A snapshot is never changed once published, so readers can use
+ * it without any locking and always see lists and indexes that agree with each other.
+ * Changes are made on a {@link Mutation} derived from a snapshot. The lists and indexes are persistent
+ * structures: the mutation copies the ones it touches in constant time on first use, each change then only
+ * copies the entries it changes, and {@link Mutation#build()} turns it into the next version, which shares
+ * everything else with this one. A write costs the same whatever the size of the dataset.
+ */
+public final class DataSnapshot {
+    private final long version;
+    private final ElementList<Person> persons;
+    private final ElementList<FireStation> fireStations;
+    private final ElementList<MedicalRecord> medicalRecords;
+    private final PersonIndex personIndex;
+    private final FireStationIndex fireStationIndex;
+    private final MedicalRecordIndex medicalRecordIndex;
+    private final HouseholdIndex householdIndex;
+    private final StationCoverageIndex stationCoverageIndex;
+    private final PersonBitmapIndex personBitmapIndex;
+    private final StationBirthdateIndex stationBirthdateIndex;
+    /** Last copy of this snapshot classified at another day, see {@link #classifiedAt(LocalDate)}. */
+    private volatile DataSnapshot classified;
+
+    private DataSnapshot(long version, ElementList<Person> persons, ElementList<FireStation> fireStations,
+                         ElementList<MedicalRecord> medicalRecords, PersonIndex personIndex,
+                         FireStationIndex fireStationIndex, MedicalRecordIndex medicalRecordIndex) {
+        this(version, persons, fireStations, medicalRecords, personIndex, fireStationIndex, medicalRecordIndex,
+                new HouseholdIndex(personIndex, medicalRecordIndex));
+    }
+
+    private DataSnapshot(long version, ElementList<Person> persons, ElementList<FireStation> fireStations,
+                         ElementList<MedicalRecord> medicalRecords, PersonIndex personIndex,
+                         FireStationIndex fireStationIndex, MedicalRecordIndex medicalRecordIndex,
+                         HouseholdIndex householdIndex) {
+        this(version, persons, fireStations, medicalRecords, personIndex, fireStationIndex, medicalRecordIndex,
+                householdIndex, new PersonBitmapIndex(persons, fireStationIndex, medicalRecordIndex));
+    }
+
+    private DataSnapshot(long version, ElementList<Person> persons, ElementList<FireStation> fireStations,
+                         ElementList<MedicalRecord> medicalRecords, PersonIndex personIndex,
+                         FireStationIndex fireStationIndex, MedicalRecordIndex medicalRecordIndex,
+                         HouseholdIndex householdIndex, PersonBitmapIndex personBitmapIndex) {
+        this(version, persons, fireStations, medicalRecords, personIndex, fireStationIndex, medicalRecordIndex,
+                householdIndex, new StationCoverageIndex(fireStationIndex, householdIndex, personBitmapIndex),
+                personBitmapIndex, new StationBirthdateIndex(personIndex, fireStationIndex, medicalRecordIndex));
+    }
+
+    private DataSnapshot(long version, ElementList<Person> persons, ElementList<FireStation> fireStations,
+                         ElementList<MedicalRecord> medicalRecords, PersonIndex personIndex,
+                         FireStationIndex fireStationIndex, MedicalRecordIndex medicalRecordIndex,
+                         HouseholdIndex householdIndex, StationCoverageIndex stationCoverageIndex,
+                         PersonBitmapIndex personBitmapIndex, StationBirthdateIndex stationBirthdateIndex) {
+        this.version = version;
+        this.persons = persons;
+        this.fireStations = fireStations;
+        this.medicalRecords = medicalRecords;
+        this.personIndex = personIndex;
+        this.fireStationIndex = fireStationIndex;
+        this.medicalRecordIndex = medicalRecordIndex;
+        this.householdIndex = householdIndex;
+        this.stationCoverageIndex = stationCoverageIndex;
+        this.personBitmapIndex = personBitmapIndex;
+        this.stationBirthdateIndex = stationBirthdateIndex;
+    }
+
+    /**
+     * Builds the first version of a dataset, indexing every element of the given lists.
+     * The lists are copied, later changes to them are not seen by the snapshot.
+     *
+     * @param persons the persons of the dataset
+     * @param fireStations the fire station mappings of the dataset
+     * @param medicalRecords the medical records of the dataset
+     * @param today the day at which medical records are classified as children or adults
+     * @return the new snapshot
+     */
+    public static DataSnapshot of(List<Person> persons, List<FireStation> fireStations,
+                                  List<MedicalRecord> medicalRecords, LocalDate today) {
+        return of(1, persons, fireStations, medicalRecords, today);
+    }
+
+    /**
+     * Builds a dataset at a given version, indexing every element of the given lists.
+     * Used to restore a dataset saved at that version, so that later versions follow it.
+     *
+     * @param version the version of the dataset
+     * @param persons the persons of the dataset
+     * @param fireStations the fire station mappings of the dataset
+     * @param medicalRecords the medical records of the dataset
+     * @param today the day at which medical records are classified as children or adults
+     * @return the new snapshot
+     */
+    public static DataSnapshot of(long version, List<Person> persons, List<FireStation> fireStations,
+                                  List<MedicalRecord> medicalRecords, LocalDate today) {
+        ElementList<Person> personsCopy = elementList(persons);
+        ElementList<FireStation> fireStationsCopy = elementList(fireStations);
+        ElementList<MedicalRecord> medicalRecordsCopy = elementList(medicalRecords);
+
+        return new DataSnapshot(version, personsCopy, fireStationsCopy, medicalRecordsCopy,
+                new PersonIndex(personsCopy),
+                new FireStationIndex(fireStationsCopy),
+                new MedicalRecordIndex(medicalRecordsCopy, today));
+    }
+
+    /**
+     * Builds a dataset at a given version from lists bound in consecutive chunks, such as the arrays of a JSON
+     * document bound concurrently by a loader. Each list is assembled straight from its chunks, without an
+     * intermediate copy, and every index is built on the given pool: the lists of persons, fire stations and
+     * medical records and their indexes concurrently, then the person bitmaps alongside the households of
+     * distinct addresses, and the coverages and birthdates of distinct stations, built concurrently.
+     * Used by loaders of large datasets, for which indexing is a noticeable part of the startup.
+     *
+     * @param version the version of the dataset
+     * @param personChunks the persons of the dataset, in consecutive chunks
+     * @param fireStationChunks the fire station mappings of the dataset, in consecutive chunks
+     * @param medicalRecordChunks the medical records of the dataset, in consecutive chunks
+     * @param today the day at which medical records are classified as children or adults
+     * @param pool the pool building the lists and indexes
+     * @return the new snapshot
+     */
+    public static DataSnapshot ofChunks(long version, List<List<Person>> personChunks,
+                                        List<List<FireStation>> fireStationChunks,
+                                        List<List<MedicalRecord>> medicalRecordChunks,
+                                        LocalDate today, ForkJoinPool pool) {
+        ForkJoinTask<ElementList<Person>> persons = pool.submit(() -> chunkedElementList(personChunks));
+        ForkJoinTask<ElementList<FireStation>> fireStations = pool.submit(() -> chunkedElementList(fireStationChunks));
+        ForkJoinTask<ElementList<MedicalRecord>> medicalRecords =
+                pool.submit(() -> chunkedElementList(medicalRecordChunks));
+        ForkJoinTask<PersonIndex> personIndex = pool.submit(() -> new PersonIndex(persons.join()));
+        ForkJoinTask<FireStationIndex> fireStationIndex = pool.submit(() -> new FireStationIndex(fireStations.join()));
+        ForkJoinTask<MedicalRecordIndex> medicalRecordIndex =
+                pool.submit(() -> new MedicalRecordIndex(medicalRecords.join(), today));
+
+        ForkJoinTask<PersonBitmapIndex> personBitmapIndex = pool.submit(() ->
+                new PersonBitmapIndex(persons.join(), fireStationIndex.join(), medicalRecordIndex.join()));
+
+        HouseholdIndex householdIndex = new HouseholdIndex(personIndex.join(), medicalRecordIndex.join(), pool);
+        StationCoverageIndex stationCoverageIndex =
+                new StationCoverageIndex(fireStationIndex.join(), householdIndex, personBitmapIndex.join(), pool);
+        StationBirthdateIndex stationBirthdateIndex =
+                new StationBirthdateIndex(personIndex.join(), fireStationIndex.join(), medicalRecordIndex.join(), pool);
+
+        return new DataSnapshot(version, persons.join(), fireStations.join(), medicalRecords.join(),
+                personIndex.join(), fireStationIndex.join(), medicalRecordIndex.join(),
+                householdIndex, stationCoverageIndex, personBitmapIndex.join(), stationBirthdateIndex);
+    }
+
+    private static <T> ElementList<T> elementList(List<T> elements) {
+        ElementList<T> list = new ElementList<>();
+        elements.forEach(list::add);
+
+        return list;
+    }
+
+    private static <T> ElementList<T> chunkedElementList(List<List<T>> chunks) {
+        ElementList<T> list = new ElementList<>();
+        for (List<T> chunk : chunks) {
+            chunk.forEach(list::add);
+        }
+
+        return list;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Person> getPersons() {
+        return persons.asList();
+    }
+
+    /**
+     * Returns the persons of the given rows of the {@link PersonBitmapIndex}, their sequence numbers in the
+     * persons list.
+     *
+     * @param rows the rows of the persons
+     * @return the persons of the rows, in the order of the persons list
+     */
+    public List<Person> getPersons(BitSet rows) {
+        List<Person> selected = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            selected.add(persons.get(row));
+        }
+
+        return selected;
+    }
+
+    public List<FireStation> getFireStations() {
+        return fireStations.asList();
+    }
+
+    public List<MedicalRecord> getMedicalRecords() {
+        return medicalRecords.asList();
+    }
+
+    public PersonIndex getPersonIndex() {
+        return personIndex;
+    }
+
+    public FireStationIndex getFireStationIndex() {
+        return fireStationIndex;
+    }
+
+    public MedicalRecordIndex getMedicalRecordIndex() {
+        return medicalRecordIndex;
+    }
+
+    public HouseholdIndex getHouseholdIndex() {
+        return householdIndex;
+    }
+
+    public StationCoverageIndex getStationCoverageIndex() {
+        return stationCoverageIndex;
+    }
+
+    public PersonBitmapIndex getPersonBitmapIndex() {
+        return personBitmapIndex;
+    }
+
+    public StationBirthdateIndex getStationBirthdateIndex() {
+        return stationBirthdateIndex;
+    }
+
+    /**
+     * Counts the persons covered by any of the given stations whose age at the given day is within a bracket,
+     * each person once. Each station is counted with a binary search of both ends of the bracket in its sorted
+     * birthdates, then the residents shared by several of the stations, found by intersecting the station
+     * bitmaps, are taken out again, so the cost depends on the overlap of the stations, not on their size.
+     *
+     * @param stations the station numbers
+     * @param minAge the minimum age, inclusive
+     * @param maxAge the maximum age, inclusive, or {@link Integer#MAX_VALUE} for no maximum
+     * @param today the day at which ages are evaluated
+     * @return the number of persons of the age bracket covered by the stations
+     * @throws IllegalArgumentException if {@code minAge} is negative or greater than {@code maxAge}
+     */
+    public int countPersonsAged(Collection<String> stations, int minAge, int maxAge, LocalDate today) {
+        int count = 0;
+        RowBitmap covered = RowBitmap.EMPTY;
+        for (String station : new LinkedHashSet<>(stations)) {
+            count += stationBirthdateIndex.findByStation(station).countAged(minAge, maxAge, today);
+
+            RowBitmap rows = personBitmapIndex.getStationRows(station);
+            BitSet shared = covered.and(rows);
+            if (!shared.isEmpty()) {
+                int[] epochDays = new int[shared.cardinality()];
+                int sharedCount = 0;
+                for (int row = shared.nextSetBit(0); row >= 0; row = shared.nextSetBit(row + 1)) {
+                    LocalDate birthdate = medicalRecordIndex.findByFullName(persons.get(row).getFullName())
+                            .map(MedicalRecord::getBirthdate)
+                            .orElse(null);
+                    if (birthdate != null) {
+                        epochDays[sharedCount++] = (int) birthdate.toEpochDay();
+                    }
+                }
+                count -= BirthdateIndex.of(Arrays.copyOf(epochDays, sharedCount)).countAged(minAge, maxAge, today);
+            }
+            covered = covered.or(rows);
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns this snapshot with its medical records classified at the given day. When this snapshot
+     * was classified at another day, the reclassification is made on a private copy that is never
+     * published: it keeps the version of this snapshot and only differs by the classification and
+     * what is derived from it. The last copy is kept, so readers of the same day share it, and racing
+     * readers at worst build an identical one.
+     *
+     * @param today the day at which medical records must be classified as children or adults
+     * @return this snapshot, or a copy of it classified at the given day
+     */
+    public DataSnapshot classifiedAt(LocalDate today) {
+        if (today.equals(medicalRecordIndex.getClassifiedOn())) {
+            return this;
+        }
+
+        DataSnapshot copy = classified;
+        if (copy == null || !today.equals(copy.medicalRecordIndex.getClassifiedOn())) {
+            Mutation mutation = mutate();
+            mutation.classifyAt(today);
+            copy = mutation.freeze(version);
+            classified = copy;
+        }
+
+        return copy;
+    }
+
+    /**
+     * Starts a set of changes based on this snapshot. This snapshot is left untouched.
+     *
+     * @return a mutation whose reads see this snapshot and the changes already made
+     */
+    public Mutation mutate() {
+        return new Mutation(this);
+    }
+
+    /**
+     * Starts building a dataset element by element, for loaders reading the data as a stream.
+     *
+     * @param today the day at which medical records are classified as children or adults
+     * @return an empty builder of the first version of a dataset
+     */
+    public static Builder builder(LocalDate today) {
+        return new Builder(today);
+    }
+
+    /**
+     * Builds a snapshot from elements added one at a time. Each element is indexed as soon as it is
+     * added, so that no intermediate copy of the whole dataset is kept while loading it.
+     * A builder is confined to the loader that created it and must not be used after {@link #build()}.
+     */
+    public static final class Builder {
+        private long version = 1;
+        private final ElementList<Person> persons = new ElementList<>();
+        private final ElementList<FireStation> fireStations = new ElementList<>();
+        private final ElementList<MedicalRecord> medicalRecords = new ElementList<>();
+        private final PersonIndex personIndex = new PersonIndex(persons);
+        private final FireStationIndex fireStationIndex = new FireStationIndex(fireStations);
+        private final MedicalRecordIndex medicalRecordIndex;
+
+        private Builder(LocalDate today) {
+            medicalRecordIndex = new MedicalRecordIndex(medicalRecords, today);
+        }
+
+        /**
+         * Sets the version of the built dataset, to restore a dataset saved at that version.
+         *
+         * @param version the version of the dataset
+         * @return this builder
+         */
+        public Builder setVersion(long version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder addPerson(Person person) {
+            personIndex.add(person, persons.add(person));
+            return this;
+        }
+
+        public Builder addFireStation(FireStation fireStation) {
+            fireStationIndex.add(fireStation, fireStations.add(fireStation));
+            return this;
+        }
+
+        public Builder addMedicalRecord(MedicalRecord medicalRecord) {
+            medicalRecordIndex.add(medicalRecord, medicalRecords.add(medicalRecord));
+            return this;
+        }
+
+        public DataSnapshot build() {
+            return new DataSnapshot(version, persons, fireStations, medicalRecords,
+                    personIndex,
+                    fireStationIndex,
+                    medicalRecordIndex);
+        }
+    }
+
+    /**
+     * Changes applied on top of a snapshot. A mutation is confined to the writer that created it.
+     * Each list and its index are copied in constant time the first time they are changed, and share with
+     * the base snapshot every entry the mutation does not change.
+     */
+    public static final class Mutation {
+        private final DataSnapshot base;
+
+        private ElementList<Person> persons;
+        private PersonIndex personIndex;
+        private ElementList<FireStation> fireStations;
+        private FireStationIndex fireStationIndex;
+        private ElementList<MedicalRecord> medicalRecords;
+        private MedicalRecordIndex medicalRecordIndex;
+        private HouseholdIndex householdIndex;
+        /** Addresses whose household must be rebuilt. */
+        private final Set<String> staleHouseholds = new HashSet<>();
+        private StationCoverageIndex stationCoverageIndex;
+        /** Stations whose coverage must be updated, with the addresses whose mapping or household changed. */
+        private final Map<String, Set<String>> staleCoverages = new HashMap<>();
+        private PersonBitmapIndex personBitmapIndex;
+        private StationBirthdateIndex stationBirthdateIndex;
+        private int modificationCount;
+        private long version;
+        private final List<DataChange> changes = new ArrayList<>();
+
+        private Mutation(DataSnapshot base) {
+            this.base = base;
+        }
+
+        /**
+         * Returns the number of changes made so far, so that callers can tell whether a failed
+         * change left this mutation modified.
+         *
+         * @return the number of add, replace, remove and classification changes made
+         */
+        public int getModificationCount() {
+            return modificationCount;
+        }
+
+        /**
+         * Sets the version of the snapshot built from this mutation. Used when replaying logged changes,
+         * so that the rebuilt dataset gets the version it had when the changes were logged.
+         *
+         * @param version the version of the built snapshot, greater than the version of the base snapshot
+         */
+        public void setVersion(long version) {
+            if (version <= base.version) {
+                throw new IllegalArgumentException("Version " + version + " is not after " + base.version);
+            }
+            this.version = version;
+        }
+
+        /**
+         * Returns the adds, replacements and removals made so far, in order. Classification changes
+         * are not recorded, they are derived from the records and the current day.
+         *
+         * @return the changes made on this mutation
+         */
+        public List<DataChange> getChanges() {
+            return Collections.unmodifiableList(changes);
+        }
+
+        public List<Person> getPersons() {
+            return persons != null ? persons.asList() : base.getPersons();
+        }
+
+        public PersonIndex getPersonIndex() {
+            return personIndex != null ? personIndex : base.personIndex;
+        }
+
+        public List<FireStation> getFireStations() {
+            return fireStations != null ? fireStations.asList() : base.getFireStations();
+        }
+
+        public FireStationIndex getFireStationIndex() {
+            return fireStationIndex != null ? fireStationIndex : base.fireStationIndex;
+        }
+
+        public List<MedicalRecord> getMedicalRecords() {
+            return medicalRecords != null ? medicalRecords.asList() : base.getMedicalRecords();
+        }
+
+        public MedicalRecordIndex getMedicalRecordIndex() {
+            return medicalRecordIndex != null ? medicalRecordIndex : base.medicalRecordIndex;
+        }
+
+        public PersonBitmapIndex getPersonBitmapIndex() {
+            return personBitmapIndex != null ? personBitmapIndex : base.personBitmapIndex;
+        }
+
+        public StationBirthdateIndex getStationBirthdateIndex() {
+            return stationBirthdateIndex != null ? stationBirthdateIndex : base.stationBirthdateIndex;
+        }
+
+        /**
+         * Returns the households, after rebuilding the ones of the addresses changed since the last call.
+         *
+         * @return the household index agreeing with the persons and medical records of this mutation
+         */
+        public HouseholdIndex getHouseholdIndex() {
+            if (!staleHouseholds.isEmpty()) {
+                if (householdIndex == null) {
+                    householdIndex = new HouseholdIndex(base.householdIndex);
+                }
+                for (String address : staleHouseholds) {
+                    householdIndex.refresh(address, getPersonIndex(), getMedicalRecordIndex());
+                    getFireStationIndex().findByAddress(address).forEach(this::staleCoverage);
+                }
+                staleHouseholds.clear();
+            }
+
+            return householdIndex != null ? householdIndex : base.householdIndex;
+        }
+
+        /**
+         * Returns the station coverages, after updating the ones of the stations whose mappings, households
+         * or age groups changed since the last call.
+         *
+         * @return the coverage index agreeing with the mappings and households of this mutation
+         */
+        public StationCoverageIndex getStationCoverageIndex() {
+            HouseholdIndex currentHouseholds = getHouseholdIndex();
+            if (!staleCoverages.isEmpty()) {
+                if (stationCoverageIndex == null) {
+                    stationCoverageIndex = new StationCoverageIndex(base.stationCoverageIndex);
+                }
+                staleCoverages.forEach((station, addresses) -> stationCoverageIndex.refresh(station, addresses,
+                        getFireStationIndex(), currentHouseholds, getPersonBitmapIndex()));
+                staleCoverages.clear();
+            }
+
+            return stationCoverageIndex != null ? stationCoverageIndex : base.stationCoverageIndex;
+        }
+
+        public void addPerson(Person person) {
+            touchPersons();
+            int sequence = persons.add(person);
+            personIndex.add(person, sequence);
+            touchPersonBitmaps().addPerson(person, sequence, getFireStationIndex(), getMedicalRecordIndex());
+            touchBirthdates().addPerson(person, getFireStationIndex(), getMedicalRecordIndex());
+            staleHousehold(person);
+            changes.add(new DataChange(DataChange.Type.PERSON_ADDED, null, person));
+        }
+
+        /**
+         * Replaces a person by a new version of it, at the same position in the persons list.
+         *
+         * @param person the person currently in the dataset
+         * @param replacement the new version of the person, with the same full name
+         */
+        public void replacePerson(Person person, Person replacement) {
+            touchPersons();
+            int sequence = persons.replace(person, replacement);
+            changes.add(new DataChange(DataChange.Type.PERSON_REPLACED, person, replacement));
+            if (sequence >= 0) {
+                personIndex.replace(person, replacement, sequence);
+                touchPersonBitmaps().replacePerson(person, replacement, sequence, getFireStationIndex(),
+                        getMedicalRecordIndex());
+                touchBirthdates().replacePerson(person, replacement, getFireStationIndex(), getMedicalRecordIndex());
+            }
+            staleHousehold(person);
+            staleHousehold(replacement);
+        }
+
+        public void removePerson(Person person) {
+            touchPersons();
+            List<Integer> sequences = persons.remove(person);
+            if (!sequences.isEmpty()) {
+                for (int sequence : sequences) {
+                    personIndex.remove(person, sequence);
+                    touchPersonBitmaps().removePerson(person, sequence, getFireStationIndex());
+                    touchBirthdates().removePerson(person, getFireStationIndex(), getMedicalRecordIndex());
+                }
+                staleHousehold(person);
+                changes.add(new DataChange(DataChange.Type.PERSON_REMOVED, person, null));
+            }
+        }
+
+        public void addFireStation(FireStation fireStation) {
+            touchFireStations();
+            fireStationIndex.add(fireStation, fireStations.add(fireStation));
+            touchPersonBitmaps().addFireStation(fireStation);
+            touchBirthdates().addFireStation(fireStation, getPersonIndex(), fireStationIndex, getMedicalRecordIndex());
+            staleCoverage(fireStation);
+            changes.add(new DataChange(DataChange.Type.FIRE_STATION_ADDED, null, fireStation));
+        }
+
+        /**
+         * Replaces a fire station mapping by a new version of it, at the same position in the list.
+         *
+         * @param fireStation the mapping currently in the dataset
+         * @param replacement the new version of the mapping, with the same address
+         */
+        public void replaceFireStation(FireStation fireStation, FireStation replacement) {
+            touchFireStations();
+            int sequence = fireStations.replace(fireStation, replacement);
+            changes.add(new DataChange(DataChange.Type.FIRE_STATION_REPLACED, fireStation, replacement));
+            if (sequence >= 0) {
+                fireStationIndex.replace(fireStation, replacement, sequence);
+                touchPersonBitmaps().replaceFireStation(fireStation, replacement, fireStationIndex);
+                touchBirthdates().replaceFireStation(fireStation, replacement, getPersonIndex(), fireStationIndex,
+                        getMedicalRecordIndex());
+            }
+            staleCoverage(fireStation);
+            staleCoverage(replacement);
+        }
+
+        public void removeFireStation(FireStation fireStation) {
+            touchFireStations();
+            List<Integer> sequences = fireStations.remove(fireStation);
+            if (!sequences.isEmpty()) {
+                sequences.forEach(sequence -> fireStationIndex.remove(fireStation, sequence));
+                touchPersonBitmaps().removeFireStation(fireStation, fireStationIndex);
+                touchBirthdates().removeFireStation(fireStation, getPersonIndex(), fireStationIndex,
+                        getMedicalRecordIndex());
+                staleCoverage(fireStation);
+                changes.add(new DataChange(DataChange.Type.FIRE_STATION_REMOVED, fireStation, null));
+            }
+        }
+
+        public void addMedicalRecord(MedicalRecord medicalRecord) {
+            touchMedicalRecords();
+            removeBirthdates(medicalRecord);
+            medicalRecordIndex.add(medicalRecord, medicalRecords.add(medicalRecord));
+            addBirthdates(medicalRecord);
+            classifyPersons(medicalRecord);
+            staleHouseholds(medicalRecord);
+            changes.add(new DataChange(DataChange.Type.MEDICAL_RECORD_ADDED, null, medicalRecord));
+        }
+
+        /**
+         * Replaces a medical record by a new version of it, at the same position in the list.
+         *
+         * @param medicalRecord the record currently in the dataset
+         * @param replacement the new version of the record, with the same full name
+         */
+        public void replaceMedicalRecord(MedicalRecord medicalRecord, MedicalRecord replacement) {
+            touchMedicalRecords();
+            int sequence = medicalRecords.replace(medicalRecord, replacement);
+            changes.add(new DataChange(DataChange.Type.MEDICAL_RECORD_REPLACED, medicalRecord, replacement));
+            if (sequence >= 0) {
+                removeBirthdates(medicalRecord);
+                medicalRecordIndex.remove(medicalRecord, sequence);
+                medicalRecordIndex.add(replacement, sequence);
+                addBirthdates(medicalRecord);
+                classifyPersons(medicalRecord);
+            }
+            staleHouseholds(medicalRecord);
+        }
+
+        public void removeMedicalRecord(MedicalRecord medicalRecord) {
+            touchMedicalRecords();
+            List<Integer> sequences = medicalRecords.remove(medicalRecord);
+            if (!sequences.isEmpty()) {
+                removeBirthdates(medicalRecord);
+                sequences.forEach(sequence -> medicalRecordIndex.remove(medicalRecord, sequence));
+                addBirthdates(medicalRecord);
+                classifyPersons(medicalRecord);
+                staleHouseholds(medicalRecord);
+                changes.add(new DataChange(DataChange.Type.MEDICAL_RECORD_REMOVED, medicalRecord, null));
+            }
+        }
+
+        /**
+         * Turns the content of this mutation into the content of the given dataset by applying only the
+         * differences between both. Elements are matched by their identity: the full name for persons and
+         * medical records, the address and station number for fire station mappings. Matched elements whose
+         * content differs are replaced in place, unmatched ones are added or removed, and the indexes are only
+         * updated for those elements. Unchanged elements are kept as they are, so a replacement identical to
+         * the current dataset leaves this mutation untouched.
+         *
+         * @param replacement the dataset whose content replaces the current one
+         * @return the number of elements added, replaced or removed
+         */
+        public int replaceContent(DataSnapshot replacement) {
+            ContentDiff<Person> personDiff = ContentDiff.of(getPersons(), replacement.getPersons(),
+                    Person::getFullName, Mutation::samePerson);
+            if (!personDiff.isEmpty()) {
+                touchPersons();
+                personDiff.applyTo(persons,
+                        (person, sequence) -> {
+                            personIndex.add(person, sequence);
+                            touchPersonBitmaps().addPerson(person, sequence, getFireStationIndex(),
+                                    getMedicalRecordIndex());
+                            touchBirthdates().addPerson(person, getFireStationIndex(), getMedicalRecordIndex());
+                            staleHousehold(person);
+                        },
+                        (person, other, sequence) -> {
+                            personIndex.replace(person, other, sequence);
+                            touchPersonBitmaps().replacePerson(person, other, sequence, getFireStationIndex(),
+                                    getMedicalRecordIndex());
+                            touchBirthdates().replacePerson(person, other, getFireStationIndex(),
+                                    getMedicalRecordIndex());
+                            staleHousehold(person);
+                            staleHousehold(other);
+                        },
+                        (person, sequence) -> {
+                            personIndex.remove(person, sequence);
+                            touchPersonBitmaps().removePerson(person, sequence, getFireStationIndex());
+                            touchBirthdates().removePerson(person, getFireStationIndex(), getMedicalRecordIndex());
+                            staleHousehold(person);
+                        },
+                        changes, DataChange.Type.PERSON_ADDED, DataChange.Type.PERSON_REPLACED,
+                        DataChange.Type.PERSON_REMOVED);
+            }
+
+            ContentDiff<FireStation> fireStationDiff = ContentDiff.of(getFireStations(), replacement.getFireStations(),
+                    fireStation -> fireStation,
+                    (fireStation, other) -> true);
+            if (!fireStationDiff.isEmpty()) {
+                touchFireStations();
+                fireStationDiff.applyTo(fireStations,
+                        (fireStation, sequence) -> {
+                            fireStationIndex.add(fireStation, sequence);
+                            touchPersonBitmaps().addFireStation(fireStation);
+                            touchBirthdates().addFireStation(fireStation, getPersonIndex(), fireStationIndex,
+                                    getMedicalRecordIndex());
+                            staleCoverage(fireStation);
+                        },
+                        (fireStation, other, sequence) -> {
+                            fireStationIndex.replace(fireStation, other, sequence);
+                            touchPersonBitmaps().replaceFireStation(fireStation, other, fireStationIndex);
+                            touchBirthdates().replaceFireStation(fireStation, other, getPersonIndex(),
+                                    fireStationIndex, getMedicalRecordIndex());
+                            staleCoverage(fireStation);
+                            staleCoverage(other);
+                        },
+                        (fireStation, sequence) -> {
+                            fireStationIndex.remove(fireStation, sequence);
+                            touchPersonBitmaps().removeFireStation(fireStation, fireStationIndex);
+                            touchBirthdates().removeFireStation(fireStation, getPersonIndex(), fireStationIndex,
+                                    getMedicalRecordIndex());
+                            staleCoverage(fireStation);
+                        },
+                        changes, DataChange.Type.FIRE_STATION_ADDED,
+                        DataChange.Type.FIRE_STATION_REPLACED, DataChange.Type.FIRE_STATION_REMOVED);
+            }
+
+            ContentDiff<MedicalRecord> medicalRecordDiff = ContentDiff.of(getMedicalRecords(), replacement.getMedicalRecords(),
+                    MedicalRecord::getFullName, Mutation::sameMedicalRecord);
+            if (!medicalRecordDiff.isEmpty()) {
+                touchMedicalRecords();
+                medicalRecordDiff.applyTo(medicalRecords,
+                        (medicalRecord, sequence) -> {
+                            removeBirthdates(medicalRecord);
+                            medicalRecordIndex.add(medicalRecord, sequence);
+                            addBirthdates(medicalRecord);
+                            classifyPersons(medicalRecord);
+                            staleHouseholds(medicalRecord);
+                        },
+                        (medicalRecord, other, sequence) -> {
+                            removeBirthdates(medicalRecord);
+                            medicalRecordIndex.remove(medicalRecord, sequence);
+                            medicalRecordIndex.add(other, sequence);
+                            addBirthdates(medicalRecord);
+                            classifyPersons(medicalRecord);
+                            staleHouseholds(medicalRecord);
+                        },
+                        (medicalRecord, sequence) -> {
+                            removeBirthdates(medicalRecord);
+                            medicalRecordIndex.remove(medicalRecord, sequence);
+                            addBirthdates(medicalRecord);
+                            classifyPersons(medicalRecord);
+                            staleHouseholds(medicalRecord);
+                        },
+                        changes, DataChange.Type.MEDICAL_RECORD_ADDED,
+                        DataChange.Type.MEDICAL_RECORD_REPLACED, DataChange.Type.MEDICAL_RECORD_REMOVED);
+            }
+
+            return personDiff.size() + fireStationDiff.size() + medicalRecordDiff.size();
+        }
+
+        /**
+         * Moves the child/adult classification of the medical records to the given day.
+         * Nothing is copied when the records are already classified at that day.
+         *
+         * @param today the day at which records must be classified
+         * @return the records that became adults since the previous classification
+         */
+        public List<MedicalRecord> classifyAt(LocalDate today) {
+            if (today.equals(getMedicalRecordIndex().getClassifiedOn())) {
+                return Collections.emptyList();
+            }
+
+            touchMedicalRecords();
+            boolean reclassifyAll = today.isBefore(medicalRecordIndex.getClassifiedOn());
+            List<MedicalRecord> newAdults = medicalRecordIndex.classifyAt(today);
+
+            if (reclassifyAll) {
+                touchPersonBitmaps().classifyAll(persons != null ? persons : base.persons, medicalRecordIndex);
+                getFireStationIndex().forEachStation(station -> staleCoverages.computeIfAbsent(station,
+                        key -> new HashSet<>()));
+            } else {
+                newAdults.forEach(this::classifyPersons);
+                newAdults.forEach(this::recount);
+            }
+
+            return newAdults;
+        }
+
+        /**
+         * Freezes the changes into the next version of the dataset.
+         *
+         * @return the new snapshot, or the base snapshot itself when nothing was changed
+         */
+        public DataSnapshot build() {
+            if (persons == null && fireStations == null && medicalRecords == null) {
+                return base;
+            }
+
+            return freeze(version != 0 ? version : base.version + 1);
+        }
+
+        private DataSnapshot freeze(long version) {
+            return new DataSnapshot(version,
+                    persons != null ? persons : base.persons,
+                    fireStations != null ? fireStations : base.fireStations,
+                    medicalRecords != null ? medicalRecords : base.medicalRecords,
+                    getPersonIndex(), getFireStationIndex(), getMedicalRecordIndex(), getHouseholdIndex(),
+                    getStationCoverageIndex(), getPersonBitmapIndex(), getStationBirthdateIndex());
+        }
+
+        private void touchPersons() {
+            modificationCount++;
+            if (persons == null) {
+                persons = new ElementList<>(base.persons);
+                personIndex = new PersonIndex(base.personIndex);
+            }
+        }
+
+        private void touchFireStations() {
+            modificationCount++;
+            if (fireStations == null) {
+                fireStations = new ElementList<>(base.fireStations);
+                fireStationIndex = new FireStationIndex(base.fireStationIndex);
+            }
+        }
+
+        private void touchMedicalRecords() {
+            modificationCount++;
+            if (medicalRecords == null) {
+                medicalRecords = new ElementList<>(base.medicalRecords);
+                medicalRecordIndex = new MedicalRecordIndex(base.medicalRecordIndex);
+            }
+        }
+
+        /**
+         * Returns the person bitmaps this mutation changes, copying them first.
+         */
+        private PersonBitmapIndex touchPersonBitmaps() {
+            if (personBitmapIndex == null) {
+                personBitmapIndex = new PersonBitmapIndex(base.personBitmapIndex);
+            }
+
+            return personBitmapIndex;
+        }
+
+        /**
+         * Returns the station birthdates this mutation changes, copying them first.
+         */
+        private StationBirthdateIndex touchBirthdates() {
+            if (stationBirthdateIndex == null) {
+                stationBirthdateIndex = new StationBirthdateIndex(base.stationBirthdateIndex);
+            }
+
+            return stationBirthdateIndex;
+        }
+
+        /**
+         * Takes the birthdates of the persons of a medical record out of their stations, before the record
+         * is changed.
+         */
+        private void removeBirthdates(MedicalRecord medicalRecord) {
+            touchBirthdates().removePersons(medicalRecord.getFullName(), getPersonIndex(), getFireStationIndex(),
+                    getMedicalRecordIndex());
+        }
+
+        /**
+         * Puts the birthdates of the persons of a medical record back into their stations, after the record
+         * was changed.
+         */
+        private void addBirthdates(MedicalRecord medicalRecord) {
+            touchBirthdates().addPersons(medicalRecord.getFullName(), getPersonIndex(), getFireStationIndex(),
+                    getMedicalRecordIndex());
+        }
+
+        /**
+         * Moves the persons a medical record belongs to the age group of their current record.
+         */
+        private void classifyPersons(MedicalRecord medicalRecord) {
+            touchPersonBitmaps().classifyPersons(medicalRecord.getFullName(), getPersonIndex(),
+                    getMedicalRecordIndex());
+        }
+
+        private void staleCoverage(FireStation fireStation) {
+            staleCoverages.computeIfAbsent(fireStation.getStation(), station -> new HashSet<>())
+                    .add(fireStation.getAddress());
+        }
+
+        /**
+         * Marks the stations of the persons a medical record belongs to, whose adults and children must be
+         * counted again while their households stay the same.
+         */
+        private void recount(MedicalRecord medicalRecord) {
+            forEachPersonOf(medicalRecord, person -> getFireStationIndex().findByAddress(person.getAddress())
+                    .forEach(mapping -> staleCoverages.computeIfAbsent(mapping.getStation(),
+                            station -> new HashSet<>())));
+        }
+
+        private void staleHousehold(Person person) {
+            staleHouseholds.add(person.getAddress());
+        }
+
+        /**
+         * Marks the households of the persons a medical record belongs to.
+         */
+        private void staleHouseholds(MedicalRecord medicalRecord) {
+            forEachPersonOf(medicalRecord, this::staleHousehold);
+        }
+
+        private void forEachPersonOf(MedicalRecord medicalRecord, Consumer<Person> action) {
+            getPersonIndex().findByLastName(medicalRecord.getLastName()).stream()
+                    .filter(person -> person.getFullName().equals(medicalRecord.getFullName()))
+                    .forEach(action);
+        }
+
+        private static boolean samePerson(Person person, Person other) {
+            return Objects.equals(person.getFirstName(), other.getFirstName())
+                    && Objects.equals(person.getLastName(), other.getLastName())
+                    && Objects.equals(person.getAddress(), other.getAddress())
+                    && Objects.equals(person.getCity(), other.getCity())
+                    && Objects.equals(person.getZip(), other.getZip())
+                    && Objects.equals(person.getPhone(), other.getPhone())
+                    && Objects.equals(person.getEmail(), other.getEmail());
+        }
+
+        private static boolean sameMedicalRecord(MedicalRecord medicalRecord, MedicalRecord other) {
+            return Objects.equals(medicalRecord.getFirstName(), other.getFirstName())
+                    && Objects.equals(medicalRecord.getLastName(), other.getLastName())
+                    && Objects.equals(medicalRecord.getBirthdate(), other.getBirthdate())
+                    && Objects.equals(medicalRecord.getMedications(), other.getMedications())
+                    && Objects.equals(medicalRecord.getAllergies(), other.getAllergies());
+        }
+    }
+
+    /**
+     * Differences between two lists of elements matched by key. Elements sharing a key are matched in
+     * the order of the lists, so duplicated keys are handled like any other element.
+     */
+    private static final class ContentDiff<T> {
+        private final List<T> added = new ArrayList<>();
+        private final Map<T, T> replaced = new IdentityHashMap<>();
+        private final Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        static <T> ContentDiff<T> of(List<T> current, List<T> replacement, Function<T, Object> key,
+                                     BiPredicate<T, T> sameContent) {
+            Map<Object, List<T>> currentByKey = new HashMap<>();
+            for (T element : current) {
+                currentByKey.computeIfAbsent(key.apply(element), k -> new ArrayList<>(1)).add(element);
+            }
+
+            ContentDiff<T> diff = new ContentDiff<>();
+            for (T element : replacement) {
+                List<T> matches = currentByKey.get(key.apply(element));
+                if (matches == null || matches.isEmpty()) {
+                    diff.added.add(element);
+                    continue;
+                }
+
+                T match = matches.removeFirst();
+                if (!sameContent.test(match, element)) {
+                    diff.replaced.put(match, element);
+                }
+            }
+            currentByKey.values().forEach(diff.removed::addAll);
+
+            return diff;
+        }
+
+        boolean isEmpty() {
+            return size() == 0;
+        }
+
+        int size() {
+            return added.size() + replaced.size() + removed.size();
+        }
+
+        /**
+         * Applies the differences on a list and its index, recording each change. Only the changed elements
+         * are visited, replaced elements keeping their position in the list.
+         */
+        void applyTo(ElementList<T> elements, ObjIntConsumer<T> indexAdd, ReplaceAction<T> indexReplace,
+                     ObjIntConsumer<T> indexRemove, List<DataChange> changes, DataChange.Type addedType,
+                     DataChange.Type replacedType, DataChange.Type removedType) {
+            replaced.forEach((element, replacement) -> {
+                int sequence = elements.replace(element, replacement);
+                indexReplace.accept(element, replacement, sequence);
+                changes.add(new DataChange(replacedType, element, replacement));
+            });
+            removed.forEach(element -> {
+                for (int sequence : elements.remove(element)) {
+                    indexRemove.accept(element, sequence);
+                }
+                changes.add(new DataChange(removedType, element, null));
+            });
+            for (T element : added) {
+                indexAdd.accept(element, elements.add(element));
+                changes.add(new DataChange(addedType, null, element));
+            }
+        }
+    }
+
+    /**
+     * Index update for an element replaced at a given sequence number.
+     */
+    @FunctionalInterface
+    private interface ReplaceAction<T> {
+        void accept(T element, T replacement, int sequence);
+    }
+}
@@ -0,0 +1,138 @@
+package org.safetynet.alerts.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * List of the persons, fire stations or medical records of a {@link DataSnapshot}. Each element gets a sequence
+ * number when it is added, which a replacement keeps: the list is ordered by sequence number, and the indexes
+ * order their buckets by it too, so lookups return the elements in the order of the list.
+ * Elements are held in an {@link IntTrie} by sequence number, and the sequence numbers of each element in an
+ * {@link IdBuckets} keyed by the identity hash code of the element. A copy shares both, and an add, replace or
+ * remove only copies the paths to the changed entries.
+ *
+ * @param <T> the type of the elements
+ */
+final class ElementList<T> {
+    private final IntTrie<T> bySequence;
+    /** Elements by identity hash code, with their sequence numbers, to find the entries of an element. */
+    private final IdBuckets<T> byIdentity;
+    private final List<T> view;
+    private int nextSequence;
+
+    ElementList() {
+        bySequence = new IntTrie<>();
+        byIdentity = new IdBuckets<>();
+        view = bySequence.values();
+    }
+
+    /**
+     * Copies a list in constant time, so that the copy can be changed without affecting the original.
+     *
+     * @param other the list to copy, which must not be changed afterward
+     */
+    ElementList(ElementList<T> other) {
+        bySequence = new IntTrie<>(other.bySequence);
+        byIdentity = new IdBuckets<>(other.byIdentity);
+        view = bySequence.values();
+        nextSequence = other.nextSequence;
+    }
+
+    /**
+     * Appends an element.
+     *
+     * @return the sequence number of the element
+     */
+    int add(T element) {
+        int sequence = nextSequence++;
+        bySequence.put(sequence, element);
+        byIdentity.add(System.identityHashCode(element), sequence, element);
+
+        return sequence;
+    }
+
+    /**
+     * Replaces the first occurrence of an element, which keeps its position.
+     *
+     * @return the sequence number of the replaced element, or {@code -1} if the element is not in the list
+     */
+    int replace(T element, T replacement) {
+        int sequence = firstSequenceOf(element);
+        if (sequence >= 0) {
+            bySequence.put(sequence, replacement);
+            byIdentity.remove(System.identityHashCode(element), sequence);
+            byIdentity.add(System.identityHashCode(replacement), sequence, replacement);
+        }
+
+        return sequence;
+    }
+
+    /**
+     * Removes every occurrence of an element.
+     *
+     * @return the sequence numbers of the removed occurrences, empty if the element is not in the list
+     */
+    List<Integer> remove(T element) {
+        int identity = System.identityHashCode(element);
+        List<Integer> sequences = new ArrayList<>(1);
+        byIdentity.forEach(identity, (indexed, sequence) -> {
+            if (indexed == element) {
+                sequences.add(sequence);
+            }
+        });
+
+        for (int sequence : sequences) {
+            bySequence.remove(sequence);
+            byIdentity.remove(identity, sequence);
+        }
+
+        return sequences;
+    }
+
+    /**
+     * Returns the sequence number of the first occurrence of an element.
+     *
+     * @return the sequence number, or {@code -1} if the element is not in the list
+     */
+    int firstSequenceOf(T element) {
+        int[] first = {-1};
+        byIdentity.forEach(System.identityHashCode(element), (indexed, sequence) -> {
+            if (indexed == element && first[0] < 0) {
+                first[0] = sequence;
+            }
+        });
+
+        return first[0];
+    }
+
+    T get(int sequence) {
+        return bySequence.get(sequence);
+    }
+
+    int size() {
+        return bySequence.size();
+    }
+
+    /**
+     * Returns the sequence number the next added element will get, greater than the ones of the elements of the list.
+     */
+    int getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Passes each element with its sequence number, in list order.
+     */
+    void forEach(ObjIntConsumer<T> action) {
+        bySequence.forEach(action);
+    }
+
+    /**
+     * Returns a read-only view of the list, in sequence order. Reads through the view follow the changes of the list,
+     * and every call returns the same view.
+     */
+    List<T> asList() {
+        return view;
+    }
+}
@@ -19,7 +19,7 @@ public class FireStation {
         }
         FireStation other = (FireStation) object;
 
-        return address.equals(other.getAddress()) && station.equals(other.getStation());
+        return Objects.equals(address, other.address) && Objects.equals(station, other.station);
     }
 
     @Override
@@ -31,8 +31,11 @@ public class FireStation {
         return address;
     }
 
+    /**
+     * Sets the address, interned so that the persons and fire station mappings of an address share one string.
+     */
     public FireStation setAddress(String address) {
-        this.address = address;
+        this.address = address == null ? null : address.intern();
 
         return this;
     }
@@ -41,8 +44,11 @@ public class FireStation {
         return station;
     }
 
+    /**
+     * Sets the station number, interned so that the mappings of a station share one string.
+     */
     public FireStation setStation(String station) {
-        this.station = station;
+        this.station = station == null ? null : station.intern();
 
         return this;
     }
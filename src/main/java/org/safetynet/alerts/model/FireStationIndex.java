@@ -0,0 +1,116 @@
+package org.safetynet.alerts.model;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bidirectional index over {@link FireStation} mappings: a station to mappings multimap and an
+ * address to mappings multimap, both keyed by the ids of the station and address in a {@link ValueDictionary} of
+ * the index.
+ * Both keep the mappings in the order of their sequence number in the fire stations list,
+ * including duplicated mappings present in the dataset.
+ * An index belongs to a {@link DataSnapshot} and is never changed once the snapshot is published:
+ * a {@link DataSnapshot.Mutation} works on its own copy, which shares the buckets it does not change, and reports
+ * every add, remove and replacement through {@link #add(FireStation, int)}, {@link #remove(FireStation, int)} and
+ * {@link #replace(FireStation, FireStation, int)}.
+ */
+public class FireStationIndex {
+    private final ValueBuckets<FireStation> fireStationsByStation;
+    private final ValueBuckets<FireStation> fireStationsByAddress;
+
+    /**
+     * Builds an index over all the given fire station mappings, numbered by their position in the list.
+     *
+     * @param fireStations the fire station mappings to index
+     */
+    public FireStationIndex(List<FireStation> fireStations) {
+        this();
+        for (int i = 0; i < fireStations.size(); i++) {
+            add(fireStations.get(i), i);
+        }
+    }
+
+    /**
+     * Builds an index over all the mappings of a list, numbered by their sequence number in the list.
+     *
+     * @param fireStations the fire station mappings to index
+     */
+    FireStationIndex(ElementList<FireStation> fireStations) {
+        this();
+        fireStations.forEach(this::add);
+    }
+
+    /**
+     * Copies an index in constant time, so that the copy can be changed without affecting the original one.
+     *
+     * @param other the index to copy
+     */
+    FireStationIndex(FireStationIndex other) {
+        fireStationsByStation = new ValueBuckets<>(other.fireStationsByStation);
+        fireStationsByAddress = new ValueBuckets<>(other.fireStationsByAddress);
+    }
+
+    private FireStationIndex() {
+        fireStationsByStation = new ValueBuckets<>();
+        fireStationsByAddress = new ValueBuckets<>();
+    }
+
+    /**
+     * Adds a fire station mapping to both directions of the index.
+     *
+     * @param fireStation the mapping to add
+     * @param sequence the sequence number of the mapping in the fire stations list
+     */
+    void add(FireStation fireStation, int sequence) {
+        fireStationsByStation.add(fireStation.getStation(), sequence, fireStation);
+        fireStationsByAddress.add(fireStation.getAddress(), sequence, fireStation);
+    }
+
+    /**
+     * Removes a fire station mapping from both directions of the index.
+     *
+     * @param fireStation the indexed mapping to remove
+     * @param sequence the sequence number of the mapping in the fire stations list
+     */
+    void remove(FireStation fireStation, int sequence) {
+        fireStationsByStation.remove(fireStation.getStation(), sequence);
+        fireStationsByAddress.remove(fireStation.getAddress(), sequence);
+    }
+
+    /**
+     * Replaces an indexed mapping by a new version of the same address, which keeps its sequence number and so
+     * its position in both directions.
+     *
+     * @param fireStation the indexed mapping
+     * @param replacement the new version of the mapping, with the same address
+     * @param sequence the sequence number of the mapping in the fire stations list
+     */
+    void replace(FireStation fireStation, FireStation replacement, int sequence) {
+        fireStationsByAddress.replace(fireStation.getAddress(), replacement.getAddress(), sequence, replacement);
+        fireStationsByStation.replace(fireStation.getStation(), replacement.getStation(), sequence, replacement);
+    }
+
+    public List<String> findAddressesByStation(String station) {
+        return findByStation(station)
+                .stream()
+                .map(FireStation::getAddress)
+                .toList();
+    }
+
+    public List<FireStation> findByStation(String station) {
+        return fireStationsByStation.get(station);
+    }
+
+    public List<FireStation> findByAddress(String address) {
+        return fireStationsByAddress.get(address);
+    }
+
+    /**
+     * Passes the stations having at least one mapping.
+     *
+     * @param action the action called with each station
+     */
+    void forEachStation(Consumer<String> action) {
+        fireStationsByStation.forEachValue(action);
+    }
+}
@@ -0,0 +1,61 @@
+package org.safetynet.alerts.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persons living at one address, joined with their medical records, so that address-scoped queries read
+ * a single object instead of joining persons and medical records.
+ * A household is immutable, a {@link HouseholdIndex} replaces it when one of its residents or their
+ * medical records changes.
+ */
+public final class Household {
+    private final String address;
+    private final List<Person> residents;
+    private final Map<String, MedicalRecord> medicalRecords;
+
+    /**
+     * Builds the household of the given residents.
+     *
+     * @param address the address of the household
+     * @param residents the persons living at the address
+     * @param medicalRecordIndex the medical records of the dataset
+     */
+    public Household(String address, List<Person> residents, MedicalRecordIndex medicalRecordIndex) {
+        Map<String, MedicalRecord> residentRecords = new LinkedHashMap<>();
+
+        for (Person resident : residents) {
+            medicalRecordIndex.findByFullName(resident.getFullName())
+                    .ifPresent(medicalRecord -> residentRecords.putIfAbsent(resident.getFullName(), medicalRecord));
+        }
+
+        this.address = address;
+        this.residents = Collections.unmodifiableList(new ArrayList<>(residents));
+        this.medicalRecords = Collections.unmodifiableMap(residentRecords);
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * Returns the residents, in the order of the address bucket of the {@link PersonIndex}.
+     *
+     * @return the read-only list of the persons living at the address
+     */
+    public List<Person> getResidents() {
+        return residents;
+    }
+
+    /**
+     * Returns the medical records of the residents that have one.
+     *
+     * @return the read-only medical records of the residents, keyed by full name
+     */
+    public Map<String, MedicalRecord> getMedicalRecords() {
+        return medicalRecords;
+    }
+}
@@ -0,0 +1,91 @@
+package org.safetynet.alerts.model;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The {@link Household} of each address of a dataset, keyed by the id of the address in a {@link ValueDictionary}
+ * of the index, which only holds the addresses having a household.
+ * Households are immutable and held in an {@link IntTrie}, so a copy of the index shares all of them and
+ * replacing one household only copies the path to it.
+ * An index belongs to a {@link DataSnapshot} and is never changed once the snapshot is published:
+ * a {@link DataSnapshot.Mutation} works on its own copy and rebuilds, through {@link #refresh(String, PersonIndex,
+ * MedicalRecordIndex)}, the households of the addresses whose residents or medical records it changed.
+ */
+public class HouseholdIndex {
+    private final ValueDictionary addresses;
+    private final IntTrie<Household> byAddress;
+
+    /**
+     * Builds the households of all the given persons.
+     *
+     * @param personIndex the persons of the dataset
+     * @param medicalRecordIndex the medical records of the dataset
+     */
+    HouseholdIndex(PersonIndex personIndex, MedicalRecordIndex medicalRecordIndex) {
+        addresses = new ValueDictionary();
+        byAddress = new IntTrie<>();
+        personIndex.forEachAddress(address -> refresh(address, personIndex, medicalRecordIndex));
+    }
+
+    /**
+     * Builds the households of all the given persons, the households of distinct addresses being built
+     * concurrently on the given pool.
+     *
+     * @param personIndex the persons of the dataset
+     * @param medicalRecordIndex the medical records of the dataset
+     * @param pool the pool building the households
+     */
+    HouseholdIndex(PersonIndex personIndex, MedicalRecordIndex medicalRecordIndex, ForkJoinPool pool) {
+        addresses = new ValueDictionary();
+        IntStream.Builder addressIds = IntStream.builder();
+        personIndex.forEachAddress(address -> addressIds.add(addresses.encode(address)));
+        byAddress = IntTrie.build(addressIds.build().toArray(),
+                addressId -> household(addresses.decode(addressId), personIndex, medicalRecordIndex), pool);
+    }
+
+    /**
+     * Copies an index in constant time, so that the copy can be changed without affecting the original one.
+     *
+     * @param other the index to copy
+     */
+    HouseholdIndex(HouseholdIndex other) {
+        addresses = new ValueDictionary(other.addresses);
+        byAddress = new IntTrie<>(other.byAddress);
+    }
+
+    /**
+     * Rebuilds the household of an address from the current residents and medical records, or drops it
+     * when nobody lives there anymore.
+     *
+     * @param address the address
+     * @param personIndex the persons of the dataset
+     * @param medicalRecordIndex the medical records of the dataset
+     */
+    void refresh(String address, PersonIndex personIndex, MedicalRecordIndex medicalRecordIndex) {
+        Household household = household(address, personIndex, medicalRecordIndex);
+        if (household != null) {
+            byAddress.put(addresses.encode(address), household);
+        } else {
+            int addressId = addresses.find(address);
+            if (byAddress.remove(addressId) != null) {
+                addresses.release(addressId);
+            }
+        }
+    }
+
+    public Optional<Household> findByAddress(String address) {
+        return Optional.ofNullable(byAddress.get(addresses.find(address)));
+    }
+
+    /**
+     * Builds the household of an address, or returns {@code null} when nobody lives there.
+     */
+    private static Household household(String address, PersonIndex personIndex, MedicalRecordIndex medicalRecordIndex) {
+        List<Person> residents = personIndex.findByAddress(address);
+
+        return residents.isEmpty() ? null : new Household(address, residents, medicalRecordIndex);
+    }
+}
@@ -0,0 +1,151 @@
+package org.safetynet.alerts.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Multimap keyed by int ids, such as the ids of a {@link ValueDictionary}, used by the indexes in place of a hash map.
+ * The bucket of an id is found by the bits of the id, without hashing or comparing strings.
+ * Each element is added with its sequence number in the list it comes from, see {@link ElementList}, and each bucket
+ * keeps its elements in that order.
+ * Buckets are {@link IntTrie}s held in an {@link IntTrie}: a copy of the multimap shares all of them, and a change
+ * copies the path to the changed bucket and the path to the changed element in it, whatever the size of the bucket.
+ *
+ * @param <T> the type of the indexed elements
+ */
+final class IdBuckets<T> {
+    private final IntTrie<IntTrie<T>> buckets;
+
+    IdBuckets() {
+        buckets = new IntTrie<>();
+    }
+
+    /**
+     * Copies another multimap in constant time, so that the copy can be changed without affecting the original.
+     *
+     * @param other the multimap to copy, which must not be changed afterward
+     */
+    IdBuckets(IdBuckets<T> other) {
+        buckets = new IntTrie<>(other.buckets);
+    }
+
+    /**
+     * Returns the elements of an id.
+     *
+     * @param id the id
+     * @return a read-only view of the elements of the id, in sequence order
+     */
+    List<T> get(int id) {
+        IntTrie<T> bucket = buckets.get(id);
+
+        return bucket == null ? Collections.emptyList() : bucket.values();
+    }
+
+    /**
+     * Returns the element of an id with the given sequence number.
+     *
+     * @return the element, or {@code null} if the id has no element with that sequence number
+     */
+    T get(int id, int sequence) {
+        IntTrie<T> bucket = buckets.get(id);
+
+        return bucket == null ? null : bucket.get(sequence);
+    }
+
+    /**
+     * Returns the number of elements of an id.
+     */
+    int count(int id) {
+        IntTrie<T> bucket = buckets.get(id);
+
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    void add(int id, int sequence, T element) {
+        editableBucket(id).put(sequence, element);
+    }
+
+    void remove(int id, int sequence) {
+        IntTrie<T> bucket = buckets.get(id);
+        if (bucket == null || bucket.get(sequence) == null) {
+            return;
+        }
+
+        if (bucket.size() == 1) {
+            buckets.remove(id);
+        } else {
+            editableBucket(id).remove(sequence);
+        }
+    }
+
+    /**
+     * Replaces an element by another one with the same sequence number, moving it to the bucket of a new id.
+     */
+    void replace(int id, int newId, int sequence, T replacement) {
+        if (id != newId) {
+            remove(id, sequence);
+        }
+        add(newId, sequence, replacement);
+    }
+
+    /**
+     * Passes each element of an id with its sequence number, in sequence order.
+     */
+    void forEach(int id, ObjIntConsumer<T> action) {
+        IntTrie<T> bucket = buckets.get(id);
+        if (bucket != null) {
+            bucket.forEach(action);
+        }
+    }
+
+    /**
+     * Passes each element of every id, by id then in sequence order.
+     */
+    void forEach(ObjIntConsumer<T> action) {
+        buckets.forEach((bucket, id) -> bucket.forEach(action));
+    }
+
+    /**
+     * Passes each element of the ids between two bounds, by id then in sequence order.
+     *
+     * @param fromId the smallest id, inclusive
+     * @param toId the greatest id, inclusive
+     * @param action the action called with each element and its sequence number
+     */
+    void forEachInRange(int fromId, int toId, ObjIntConsumer<T> action) {
+        buckets.forEachInRange(fromId, toId, (bucket, id) -> bucket.forEach(action));
+    }
+
+    /**
+     * Passes the ids having at least one element, in id order.
+     */
+    void forEachId(IntConsumer action) {
+        buckets.forEach((bucket, id) -> action.accept(id));
+    }
+
+    /**
+     * Returns the number of ids having at least one element.
+     */
+    int idCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Returns the bucket of an id that this multimap may change in place, creating or copying it first.
+     */
+    private IntTrie<T> editableBucket(int id) {
+        Object owner = buckets.getOwner();
+        IntTrie<T> bucket = buckets.get(id);
+        if (bucket == null) {
+            bucket = new IntTrie<>(owner);
+            buckets.put(id, bucket);
+        } else if (!bucket.isOwnedBy(owner)) {
+            bucket = new IntTrie<>(bucket, owner);
+            buckets.put(id, bucket);
+        }
+
+        return bucket;
+    }
+}
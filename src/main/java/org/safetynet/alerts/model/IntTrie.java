@@ -0,0 +1,498 @@
+package org.safetynet.alerts.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Persistent map from int keys to values, iterated in key order, on which the lists and indexes of a
+ * {@link DataSnapshot} are built so that the next version of a snapshot shares everything a change does not touch.
+ * The map is a 32-way radix trie over the bits of the keys. A copy shares all the nodes of the original; a change
+ * of the copy then copies the nodes on the path to its key, at most seven, and changes in place the nodes the copy
+ * already created. Each node counts its entries, so the entry at a given rank is found in one descent.
+ * A trie is confined to the writer changing it, and neither the original nor the copy of a trie must be changed
+ * once it is published.
+ *
+ * @param <V> the type of the values
+ */
+final class IntTrie<V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    /** Shift of the root level, which holds the two highest bits of the keys. */
+    private static final int ROOT_SHIFT = 30;
+    private static final Object[] NO_CHILDREN = new Object[0];
+    /** Number of values computed by each task of {@link #build(int[], IntFunction, ForkJoinPool)}. */
+    private static final int BUILD_SLICE_SIZE = 256;
+
+    /** Token of the nodes this trie may change in place: the nodes it created since it was copied. */
+    private final Object owner;
+    private Node root;
+
+    /** Value found by the last {@link #put} or {@link #remove}, and whether the entry count changed. */
+    private Object found;
+    private boolean resized;
+
+    IntTrie() {
+        owner = new Object();
+        root = new Node(owner, 0, NO_CHILDREN, 0);
+    }
+
+    /**
+     * Copies a trie in constant time. The copy shares the nodes of the original.
+     *
+     * @param other the trie to copy, which must not be changed afterward
+     */
+    IntTrie(IntTrie<V> other) {
+        this(other, new Object());
+    }
+
+    /**
+     * Copies a trie in constant time, with the given token of the nodes to change in place. Used by structures
+     * holding tries, so that the tries they hold share the token of the structure.
+     */
+    IntTrie(IntTrie<V> other, Object owner) {
+        this.owner = owner;
+        this.root = other.root;
+    }
+
+    /**
+     * Creates an empty trie with the given token of the nodes to change in place.
+     */
+    IntTrie(Object owner) {
+        this.owner = owner;
+        this.root = new Node(owner, 0, NO_CHILDREN, 0);
+    }
+
+    /**
+     * Builds a trie mapping each of the given keys to the value computed for it. The values are computed
+     * concurrently on the given pool, by slices of keys, then inserted by the calling thread.
+     *
+     * @param keys the keys, each one at most once
+     * @param valueOf the function computing the value of a key, or {@code null} to leave the key out
+     * @param pool the pool computing the values
+     * @return the new trie
+     */
+    @SuppressWarnings("unchecked")
+    static <V> IntTrie<V> build(int[] keys, IntFunction<V> valueOf, ForkJoinPool pool) {
+        Object[] values = new Object[keys.length];
+        List<ForkJoinTask<?>> slices = new ArrayList<>();
+        for (int from = 0; from < keys.length; from += BUILD_SLICE_SIZE) {
+            int start = from;
+            int end = Math.min(keys.length, from + BUILD_SLICE_SIZE);
+            slices.add(pool.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    values[i] = valueOf.apply(keys[i]);
+                }
+            }));
+        }
+        slices.forEach(ForkJoinTask::join);
+
+        IntTrie<V> trie = new IntTrie<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                trie.put(keys[i], (V) values[i]);
+            }
+        }
+
+        return trie;
+    }
+
+    /**
+     * Tells whether this trie changes its nodes in place for the given token, in which case a structure holding
+     * it with that token may change it without copying it first.
+     */
+    boolean isOwnedBy(Object token) {
+        return owner == token;
+    }
+
+    Object getOwner() {
+        return owner;
+    }
+
+    int size() {
+        return root.size;
+    }
+
+    boolean isEmpty() {
+        return root.size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Node node = root;
+        for (int shift = ROOT_SHIFT; ; shift -= BITS) {
+            int bit = 1 << slot(key, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+
+            Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (child instanceof Leaf leaf) {
+                return leaf.key == key ? (V) leaf.value : null;
+            }
+            node = (Node) child;
+        }
+    }
+
+    /**
+     * Returns the value at the given rank in key order.
+     *
+     * @param rank the number of smaller keys, from 0 to {@link #size()} excluded
+     * @return the value of the key
+     */
+    @SuppressWarnings("unchecked")
+    V getAt(int rank) {
+        if (rank < 0 || rank >= root.size) {
+            throw new IndexOutOfBoundsException("Index " + rank + " out of bounds for length " + root.size);
+        }
+
+        Node node = root;
+        while (true) {
+            for (Object child : node.children) {
+                int childSize = child instanceof Node childNode ? childNode.size : 1;
+                if (rank >= childSize) {
+                    rank -= childSize;
+                } else if (child instanceof Leaf leaf) {
+                    return (V) leaf.value;
+                } else {
+                    node = (Node) child;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps a key to a value.
+     *
+     * @return the previous value of the key, or {@code null} if it had none
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        found = null;
+        resized = false;
+        root = put(root, ROOT_SHIFT, key, value);
+
+        return (V) found;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @return the removed value, or {@code null} if the key had none
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        found = null;
+        resized = false;
+        Object result = remove(root, ROOT_SHIFT, key);
+        root = result != null ? (Node) result : new Node(owner, 0, NO_CHILDREN, 0);
+
+        return (V) found;
+    }
+
+    /**
+     * Passes each value with its key, in key order.
+     */
+    void forEach(ObjIntConsumer<V> action) {
+        forEach(root, action);
+    }
+
+    /**
+     * Passes each value whose key is between two bounds, in key order.
+     *
+     * @param from the smallest key, inclusive
+     * @param to the greatest key, inclusive
+     * @param action the action called with each value and its key
+     */
+    void forEachInRange(int from, int to, ObjIntConsumer<V> action) {
+        if (Integer.compare(from, to) <= 0) {
+            forEachInRange(root, ROOT_SHIFT, 0L, unsigned(from), unsigned(to), action);
+        }
+    }
+
+    /**
+     * Returns a read-only list view of the values, in key order. Reads through the view follow the changes
+     * of this trie.
+     */
+    List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                return getAt(index);
+            }
+
+            @Override
+            public int size() {
+                return root.size;
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<>(root);
+            }
+        };
+    }
+
+    private Node put(Node node, int shift, int key, V value) {
+        int bit = 1 << slot(key, shift);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+        if ((node.bitmap & bit) == 0) {
+            Node edited = editable(node);
+            edited.children = insert(node.children, index, new Leaf(key, value));
+            edited.bitmap |= bit;
+            edited.size++;
+            resized = true;
+            return edited;
+        }
+
+        Object child = node.children[index];
+        Object newChild;
+        if (child instanceof Leaf leaf) {
+            if (leaf.key == key) {
+                found = leaf.value;
+                if (leaf.value == value) {
+                    return node;
+                }
+                newChild = new Leaf(key, value);
+            } else {
+                newChild = split(leaf, new Leaf(key, value), shift - BITS);
+                resized = true;
+            }
+        } else {
+            newChild = put((Node) child, shift - BITS, key, value);
+            if (newChild == child && !resized) {
+                return node;
+            }
+        }
+
+        Node edited = editable(node);
+        edited.children[index] = newChild;
+        if (resized) {
+            edited.size++;
+        }
+
+        return edited;
+    }
+
+    /**
+     * Removes a key below a node.
+     *
+     * @return the node, a leaf replacing a node left with a single leaf, or {@code null} for an emptied node
+     */
+    private Object remove(Node node, int shift, int key) {
+        int bit = 1 << slot(key, shift);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object child = node.children[index];
+        Object newChild;
+        if (child instanceof Leaf leaf) {
+            if (leaf.key != key) {
+                return node;
+            }
+            found = leaf.value;
+            resized = true;
+            newChild = null;
+        } else {
+            newChild = remove((Node) child, shift - BITS, key);
+            if (!resized) {
+                return node;
+            }
+        }
+
+        if (newChild == null) {
+            if (node.children.length == 1) {
+                return null;
+            }
+            if (node.children.length == 2 && shift != ROOT_SHIFT && node.children[1 - index] instanceof Leaf other) {
+                return other;
+            }
+
+            Node edited = editable(node);
+            edited.children = delete(node.children, index);
+            edited.bitmap &= ~bit;
+            edited.size--;
+            return edited;
+        }
+
+        if (newChild instanceof Leaf && node.children.length == 1 && shift != ROOT_SHIFT) {
+            return newChild;
+        }
+
+        Node edited = editable(node);
+        edited.children[index] = newChild;
+        edited.size--;
+
+        return edited;
+    }
+
+    private Node split(Leaf leaf, Leaf other, int shift) {
+        int leafSlot = slot(leaf.key, shift);
+        int otherSlot = slot(other.key, shift);
+        if (leafSlot == otherSlot) {
+            return new Node(owner, 1 << leafSlot, new Object[]{split(leaf, other, shift - BITS)}, 2);
+        }
+
+        Object[] children = leafSlot < otherSlot ? new Object[]{leaf, other} : new Object[]{other, leaf};
+        return new Node(owner, (1 << leafSlot) | (1 << otherSlot), children, 2);
+    }
+
+    private Node editable(Node node) {
+        if (node.owner == owner) {
+            return node;
+        }
+
+        return new Node(owner, node.bitmap, node.children.clone(), node.size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node node, ObjIntConsumer<V> action) {
+        for (Object child : node.children) {
+            if (child instanceof Leaf leaf) {
+                action.accept((V) leaf.value, leaf.key);
+            } else {
+                forEach((Node) child, action);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEachInRange(Node node, int shift, long prefix, long from, long to,
+                                           ObjIntConsumer<V> action) {
+        for (int i = 0, bitmap = node.bitmap; bitmap != 0; i++, bitmap &= bitmap - 1) {
+            long low = prefix | ((long) Integer.numberOfTrailingZeros(bitmap) << shift);
+            long high = low + (1L << shift) - 1;
+            if (high < from) {
+                continue;
+            }
+            if (low > to) {
+                return;
+            }
+
+            Object child = node.children[i];
+            if (child instanceof Leaf leaf) {
+                long key = unsigned(leaf.key);
+                if (key >= from && key <= to) {
+                    action.accept((V) leaf.value, leaf.key);
+                }
+            } else {
+                forEachInRange((Node) child, shift - BITS, low, from, to, action);
+            }
+        }
+    }
+
+    private static int slot(int key, int shift) {
+        return ((key ^ Integer.MIN_VALUE) >>> shift) & MASK;
+    }
+
+    /**
+     * Maps a key to its position in the trie, so that negative keys come first.
+     */
+    private static long unsigned(int key) {
+        return (key ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+    }
+
+    private static Object[] insert(Object[] children, int index, Object child) {
+        Object[] inserted = new Object[children.length + 1];
+        System.arraycopy(children, 0, inserted, 0, index);
+        inserted[index] = child;
+        System.arraycopy(children, index, inserted, index + 1, children.length - index);
+
+        return inserted;
+    }
+
+    private static Object[] delete(Object[] children, int index) {
+        Object[] deleted = new Object[children.length - 1];
+        System.arraycopy(children, 0, deleted, 0, index);
+        System.arraycopy(children, index + 1, deleted, index, children.length - index - 1);
+
+        return deleted;
+    }
+
+    private static final class Node {
+        private final Object owner;
+        private int bitmap;
+        /** The leaves and nodes of the slots set in {@link #bitmap}, in slot order. */
+        private Object[] children;
+        private int size;
+
+        private Node(Object owner, int bitmap, Object[] children, int size) {
+            this.owner = owner;
+            this.bitmap = bitmap;
+            this.children = children;
+            this.size = size;
+        }
+    }
+
+    private static final class Leaf {
+        private final int key;
+        private final Object value;
+
+        private Leaf(int key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Depth-first iterator over the values below a node, holding the path to the next leaf.
+     */
+    private static final class ValueIterator<V> implements Iterator<V> {
+        private final Node[] nodes = new Node[ROOT_SHIFT / BITS + 2];
+        private final int[] positions = new int[nodes.length];
+        private int depth;
+        private Leaf next;
+
+        private ValueIterator(Node root) {
+            nodes[0] = root;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            V value = (V) next.value;
+            advance();
+            return value;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] == node.children.length) {
+                    depth--;
+                    continue;
+                }
+
+                Object child = node.children[positions[depth]++];
+                if (child instanceof Leaf leaf) {
+                    next = leaf;
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) child;
+                positions[depth] = 0;
+            }
+        }
+    }
+}
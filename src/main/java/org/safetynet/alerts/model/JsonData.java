@@ -1,21 +1,171 @@
 package org.safetynet.alerts.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * In-memory store of the dataset loaded from the JSON file.
+ * The store holds the current {@link DataSnapshot}. Readers take the current snapshot without locking
+ * and keep a consistent view of the dataset for as long as they use it. Changes are applied by a single
+ * {@link SnapshotWriter} thread, in batches, on a copy of what they touch and published as the next
+ * snapshot in a single step.
+ */
 public class JsonData {
-    List<Person> persons;
-    List<FireStation> firestations;
-    List<MedicalRecord> medicalrecords;
+    private final AtomicReference<DataSnapshot> snapshot;
+    private final SnapshotWriter writer;
+
+    public JsonData() {
+        this(null, null, null, null);
+    }
+
+    /**
+     * Creates a store holding the given data. Its medical records are classified at the current day of the
+     * system clock, readers classify them again at the day of their own clock.
+     *
+     * @param version the version of the data when it was saved from a previous store, {@code null} otherwise
+     * @param persons the persons, {@code null} for none
+     * @param firestations the fire station mappings, {@code null} for none
+     * @param medicalrecords the medical records, {@code null} for none
+     */
+    @JsonCreator
+    public JsonData(@JsonProperty("version") Long version,
+                    @JsonProperty("persons") List<Person> persons,
+                    @JsonProperty("firestations") List<FireStation> firestations,
+                    @JsonProperty("medicalrecords") List<MedicalRecord> medicalrecords) {
+        this(DataSnapshot.of(
+                version != null ? version : 1,
+                persons != null ? persons : Collections.emptyList(),
+                firestations != null ? firestations : Collections.emptyList(),
+                medicalrecords != null ? medicalrecords : Collections.emptyList(),
+                LocalDate.now()));
+    }
+
+    /**
+     * Creates a store holding an already built snapshot, as produced by a streaming loader.
+     *
+     * @param snapshot the first snapshot of the store
+     */
+    public JsonData(DataSnapshot snapshot) {
+        this.snapshot = new AtomicReference<>(snapshot);
+        writer = new SnapshotWriter(this.snapshot);
+    }
 
     public List<Person> getPersons() {
-        return persons;
+        return snapshot.get().getPersons();
     }
 
     public List<FireStation> getFirestations() {
-        return firestations;
+        return snapshot.get().getFireStations();
     }
 
     public List<MedicalRecord> getMedicalrecords() {
-        return medicalrecords;
+        return snapshot.get().getMedicalRecords();
+    }
+
+    /**
+     * Returns the current version of the dataset. The returned snapshot never changes, later writes
+     * are published as new snapshots.
+     *
+     * @return the current snapshot
+     */
+    @JsonIgnore
+    public DataSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the current version of the dataset with its medical records classified at the given day.
+     * When the current snapshot was classified at another day, the reader gets a copy of it classified
+     * at its day, see {@link DataSnapshot#classifiedAt(LocalDate)}. Nothing is published and the writer
+     * is not involved: a new classification is only published by an {@link #update} calling
+     * {@link DataSnapshot.Mutation#classifyAt(LocalDate)}, as done at each day boundary.
+     *
+     * @param today the day at which medical records must be classified as children or adults
+     * @return the current snapshot, classified at the given day
+     */
+    @JsonIgnore
+    public DataSnapshot getSnapshotClassifiedAt(LocalDate today) {
+        return snapshot.get().classifiedAt(today);
+    }
+
+    /**
+     * Sets the journal recording the changes published from now on. Changes are journaled before
+     * being published, a change that cannot be journaled fails and is not published.
+     *
+     * @param journal the journal to record changes in, or {@code null} to stop journaling
+     */
+    @JsonIgnore
+    public void setJournal(SnapshotJournal journal) {
+        writer.setJournal(journal);
+    }
+
+    /**
+     * Adds a listener notified of the snapshots published from now on, before readers can see them.
+     *
+     * @param listener the listener to notify
+     */
+    @JsonIgnore
+    public void addListener(SnapshotListener listener) {
+        writer.addListener(listener);
+    }
+
+    /**
+     * Stops notifying a listener added with {@link #addListener(SnapshotListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    @JsonIgnore
+    public void removeListener(SnapshotListener listener) {
+        writer.removeListener(listener);
+    }
+
+    /**
+     * Applies a change to the dataset and waits until the result is published.
+     * Changes are applied one at a time by the writer thread, each one on top of the changes applied
+     * before it. Changes queued together are published as a single snapshot. When the change throws,
+     * none of its modifications are published.
+     * A change must only read and modify the given mutation, it must not call this method.
+     *
+     * @param change the change to apply on a mutation of the current snapshot
+     * @return the value returned by the change
+     * @param <T> the type of the value returned by the change
+     * @param <E> the type of exception thrown by the change
+     * @throws E if the change fails
+     */
+    public <T, E extends Exception> T update(Change<T, E> change) throws E {
+        return writer.submit(change);
+    }
+
+    /**
+     * Replaces the whole dataset by the given snapshot, typically a freshly loaded one, and waits until it
+     * is published. Only the elements added, changed or removed by the replacement are applied to the current
+     * dataset and its indexes, see {@link DataSnapshot.Mutation#replaceContent(DataSnapshot)}.
+     * The replacement is published after the changes already queued, with the next version, so readers either
+     * see the previous dataset or the new one and never a mix of both. Readers still holding a previous
+     * snapshot keep using it.
+     *
+     * @param replacement the dataset replacing the current one
+     * @return the published snapshot, or the current one when the replacement has the same content
+     * @throws java.io.UncheckedIOException if the replacement cannot be journaled, in which case it is not published
+     */
+    public DataSnapshot replace(DataSnapshot replacement) {
+        return writer.submitReplacement(replacement);
+    }
+
+    /**
+     * A change applied to the dataset by {@link #update(Change)}.
+     *
+     * @param <T> the type of the value returned by the change
+     * @param <E> the type of exception thrown by the change
+     */
+    @FunctionalInterface
+    public interface Change<T, E extends Exception> {
+        T apply(DataSnapshot.Mutation mutation) throws E;
     }
 }
@@ -1,6 +1,7 @@
 package org.safetynet.alerts.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.NotBlank;
 import org.springframework.stereotype.Component;
@@ -13,7 +14,7 @@ import java.util.Objects;
 
 @Component
 public class MedicalRecord {
-    private final int MAJORITY_AGE = 18;
+    public static final int MAJORITY_AGE = 18;
 
     private String firstName;
     private String lastName;
@@ -26,6 +27,11 @@ public class MedicalRecord {
     private List<String> medications;
     private List<String> allergies;
 
+    /**
+     * Age computed for a given day, reused until the day changes or the birthdate is updated.
+     */
+    private volatile CachedAge cachedAge;
+
     @Override
     public boolean equals(Object object) {
         if (object == this) {
@@ -44,13 +50,32 @@ public class MedicalRecord {
         return Objects.hash(firstName, lastName);
     }
 
+    /**
+     * Returns the age in years at the current date of the system clock, as written in the responses
+     * listing medical records. Services compute ages at the day of their own clock with {@link #getAge(LocalDate)}.
+     *
+     * @return the age in years
+     */
     public int getAge() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
-        LocalDate birthdayDate = birthdate;
-        LocalDate now = LocalDate.now();
-        Period period = Period.between(birthdayDate, now);
+        return getAge(LocalDate.now());
+    }
+
+    /**
+     * Returns the age in years at the given day.
+     * The age is computed at most once per calendar day and recomputed after a birthdate update.
+     *
+     * @param today the day at which the age is evaluated
+     * @return the age in years
+     */
+    public int getAge(LocalDate today) {
+        CachedAge age = cachedAge;
+
+        if (age == null || !age.day.equals(today)) {
+            age = new CachedAge(today, Period.between(birthdate, today).getYears());
+            cachedAge = age;
+        }
 
-        return period.getYears();
+        return age.years;
     }
 
     public String getFullName() {
@@ -83,12 +108,14 @@ public class MedicalRecord {
 
     public MedicalRecord setBirthdate(LocalDate birthdate) {
         this.birthdate = birthdate;
+        this.cachedAge = null;
 
         return this;
     }
 
     public MedicalRecord setBirthdate(String birthdateStr) {
         this.birthdate = LocalDate.parse(birthdateStr, DateTimeFormatter.ofPattern("MM/dd/yyyy"));
+        this.cachedAge = null;
 
         return this;
     }
@@ -113,11 +140,50 @@ public class MedicalRecord {
         return this;
     }
 
+    /**
+     * Returns the first day on which this person is an adult, i.e. the day {@link #isAdult()}
+     * starts returning {@code true}.
+     *
+     * @return the adulthood date, or {@code null} if the birthdate is unknown
+     */
+    @JsonIgnore
+    public LocalDate getAdulthoodDate() {
+        if (birthdate == null) {
+            return null;
+        }
+
+        LocalDate adulthoodDate = birthdate.plusYears(MAJORITY_AGE + 1);
+        if (Period.between(birthdate, adulthoodDate).getYears() <= MAJORITY_AGE) {
+            // Born on February 29th: the birthday is only reached on March 1st of non leap years.
+            adulthoodDate = adulthoodDate.plusDays(1);
+        }
+
+        return adulthoodDate;
+    }
+
     public boolean isChild() {
-        return getAge() <= MAJORITY_AGE;
+        return isChild(LocalDate.now());
     }
 
     public boolean isAdult() {
-        return getAge() > MAJORITY_AGE;
+        return isAdult(LocalDate.now());
+    }
+
+    public boolean isChild(LocalDate today) {
+        return getAge(today) <= MAJORITY_AGE;
+    }
+
+    public boolean isAdult(LocalDate today) {
+        return getAge(today) > MAJORITY_AGE;
+    }
+
+    private static final class CachedAge {
+        private final LocalDate day;
+        private final int years;
+
+        private CachedAge(LocalDate day, int years) {
+            this.day = day;
+            this.years = years;
+        }
     }
 }
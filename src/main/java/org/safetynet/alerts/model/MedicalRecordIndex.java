@@ -0,0 +1,223 @@
+package org.safetynet.alerts.model;
+
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Hash index over a list of {@link MedicalRecord} objects, keyed by the full name of the person.
+ * When several records share a full name, the first one indexed is kept.
+ * The index also classifies indexed records as children or adults at a given day. Records are kept
+ * by the day they become adults, so moving the classification to a later day only visits the persons
+ * whose birthday falls in between.
+ * An index belongs to a {@link DataSnapshot} and is never changed once the snapshot is published:
+ * a {@link DataSnapshot.Mutation} works on its own copy, which shares the buckets it does not change, and
+ * reports every add and remove through {@link #add(MedicalRecord, int)} and {@link #remove(MedicalRecord, int)},
+ * a replaced record as a remove followed by an add, and day changes through {@link #classifyAt(LocalDate)}.
+ */
+public class MedicalRecordIndex {
+    /** Indexed records by the hash code of their full name. */
+    private final IdBuckets<MedicalRecord> byFullName;
+    /** Indexed records having a birthdate, by the epoch day at which they become adults. */
+    private final IdBuckets<MedicalRecord> byAdulthoodDate;
+    private final Map<String, MedicalRecord> byFullNameView;
+    private int size;
+    private LocalDate classifiedOn;
+
+    /**
+     * Builds an index over all the given medical records, classified at the given day, numbered by their
+     * position in the list.
+     *
+     * @param medicalRecords the medical records to index
+     * @param today the day at which records are classified as children or adults
+     */
+    public MedicalRecordIndex(List<MedicalRecord> medicalRecords, LocalDate today) {
+        this(today);
+        for (int i = 0; i < medicalRecords.size(); i++) {
+            add(medicalRecords.get(i), i);
+        }
+    }
+
+    /**
+     * Builds an index over all the records of a list, classified at the given day, numbered by their
+     * sequence number in the list.
+     *
+     * @param medicalRecords the medical records to index
+     * @param today the day at which records are classified as children or adults
+     */
+    MedicalRecordIndex(ElementList<MedicalRecord> medicalRecords, LocalDate today) {
+        this(today);
+        medicalRecords.forEach(this::add);
+    }
+
+    /**
+     * Copies an index with its classification in constant time, so that the copy can be changed without
+     * affecting the original one.
+     *
+     * @param other the index to copy
+     */
+    MedicalRecordIndex(MedicalRecordIndex other) {
+        byFullName = new IdBuckets<>(other.byFullName);
+        byAdulthoodDate = new IdBuckets<>(other.byAdulthoodDate);
+        byFullNameView = new FullNameView();
+        size = other.size;
+        classifiedOn = other.classifiedOn;
+    }
+
+    private MedicalRecordIndex(LocalDate today) {
+        byFullName = new IdBuckets<>();
+        byAdulthoodDate = new IdBuckets<>();
+        byFullNameView = new FullNameView();
+        classifiedOn = today;
+    }
+
+    /**
+     * Adds a medical record, unless a record with the same full name is already indexed.
+     *
+     * @param medicalRecord the record to add
+     * @param sequence the sequence number of the record in the medical records list
+     */
+    void add(MedicalRecord medicalRecord, int sequence) {
+        if (findByFullName(medicalRecord.getFullName()).isPresent()) {
+            return;
+        }
+
+        byFullName.add(Objects.hashCode(medicalRecord.getFullName()), sequence, medicalRecord);
+        size++;
+        LocalDate adulthoodDate = medicalRecord.getAdulthoodDate();
+        if (adulthoodDate != null) {
+            byAdulthoodDate.add(epochDay(adulthoodDate), sequence, medicalRecord);
+        }
+    }
+
+    /**
+     * Removes a medical record from the index.
+     *
+     * @param medicalRecord the indexed record to remove
+     * @param sequence the sequence number of the record in the medical records list
+     */
+    void remove(MedicalRecord medicalRecord, int sequence) {
+        int fullNameHash = Objects.hashCode(medicalRecord.getFullName());
+        if (byFullName.get(fullNameHash, sequence) != medicalRecord) {
+            return;
+        }
+
+        byFullName.remove(fullNameHash, sequence);
+        size--;
+        LocalDate adulthoodDate = medicalRecord.getAdulthoodDate();
+        if (adulthoodDate != null) {
+            byAdulthoodDate.remove(epochDay(adulthoodDate), sequence);
+        }
+    }
+
+    public Optional<MedicalRecord> findByFullName(String fullName) {
+        for (MedicalRecord medicalRecord : byFullName.get(Objects.hashCode(fullName))) {
+            if (Objects.equals(medicalRecord.getFullName(), fullName)) {
+                return Optional.of(medicalRecord);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Returns a read-only view of the index. The view is not copied on access.
+     *
+     * @return the medical records keyed by full name
+     */
+    public Map<String, MedicalRecord> asMap() {
+        return byFullNameView;
+    }
+
+    /**
+     * Tells whether an indexed record is a child at the day of the last classification.
+     *
+     * @param medicalRecord an indexed medical record
+     * @return {@code true} if the record is classified as a child
+     */
+    public boolean isChild(MedicalRecord medicalRecord) {
+        LocalDate adulthoodDate = medicalRecord.getAdulthoodDate();
+
+        return adulthoodDate != null && adulthoodDate.isAfter(classifiedOn)
+                && findByFullName(medicalRecord.getFullName()).orElse(null) == medicalRecord;
+    }
+
+    public LocalDate getClassifiedOn() {
+        return classifiedOn;
+    }
+
+    /**
+     * Moves the classification to the given day. Only the children whose adulthood date is reached
+     * are visited; going back in time visits none, since no record becomes an adult.
+     *
+     * @param today the day at which records must be classified
+     * @return the records that became adults since the previous classification
+     */
+    List<MedicalRecord> classifyAt(LocalDate today) {
+        if (today.isBefore(classifiedOn)) {
+            classifiedOn = today;
+
+            return Collections.emptyList();
+        }
+
+        List<MedicalRecord> newAdults = new ArrayList<>();
+        if (today.isAfter(classifiedOn)) {
+            byAdulthoodDate.forEachInRange(epochDay(classifiedOn) + 1, epochDay(today),
+                    (medicalRecord, sequence) -> newAdults.add(medicalRecord));
+        }
+        classifiedOn = today;
+
+        return newAdults;
+    }
+
+    private static int epochDay(LocalDate day) {
+        return (int) day.toEpochDay();
+    }
+
+    /**
+     * Map view of the indexed records, keyed by full name.
+     */
+    private final class FullNameView extends AbstractMap<String, MedicalRecord> {
+        @Override
+        public MedicalRecord get(Object key) {
+            return key instanceof String fullName ? findByFullName(fullName).orElse(null) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, MedicalRecord>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, MedicalRecord>> iterator() {
+                    List<Entry<String, MedicalRecord>> entries = new ArrayList<>(size);
+                    byFullName.forEach((medicalRecord, sequence) ->
+                            entries.add(new SimpleImmutableEntry<>(medicalRecord.getFullName(), medicalRecord)));
+
+                    return Collections.unmodifiableList(entries).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
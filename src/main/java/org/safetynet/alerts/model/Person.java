@@ -60,8 +60,11 @@ public class Person {
         return address;
     }
 
+    /**
+     * Sets the address, interned so that the persons and fire station mappings of an address share one string.
+     */
     public Person setAddress(String address) {
-        this.address = address;
+        this.address = address == null ? null : address.intern();
 
         return this;
     }
@@ -70,8 +73,11 @@ public class Person {
         return city;
     }
 
+    /**
+     * Sets the city, interned so that the persons of a city share one string.
+     */
     public Person setCity(String city) {
-        this.city = city;
+        this.city = city == null ? null : city.intern();
 
         return this;
     }
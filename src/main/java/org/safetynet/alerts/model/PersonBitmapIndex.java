@@ -0,0 +1,287 @@
+package org.safetynet.alerts.model;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Bitmap indexes over the persons of a {@link DataSnapshot}. A person is identified by its row, its sequence
+ * number in the persons list, and each address, city and fire station has the {@link RowBitmap} of the rows of
+ * the persons it covers, a station covering the persons living at the addresses of its mappings. Persons whose
+ * medical record classifies them as children or adults, at the day of the classification of the
+ * {@link MedicalRecordIndex}, have their row set in the children or adults bitmap.
+ * Queries over several stations or split by age group are answered with unions, intersections and cardinalities
+ * of these bitmaps, without looking up each person: the children of a station are counted with a single
+ * {@link RowBitmap#andCardinality(RowBitmap)}.
+ * An index belongs to a snapshot and is never changed once the snapshot is published: a
+ * {@link DataSnapshot.Mutation} works on its own copy, which shares the bitmaps it does not change, and reports
+ * every change of a person, mapping or medical record, so that only the bitmaps of the changed rows are updated.
+ */
+public final class PersonBitmapIndex {
+    private final RowBitmaps byAddress;
+    private final RowBitmaps byCity;
+    private final RowBitmaps byStation;
+    private RowBitmap children;
+    private RowBitmap adults;
+
+    /**
+     * Builds the bitmaps of all the persons of a list, by their sequence number in the list.
+     *
+     * @param persons the persons of the dataset
+     * @param fireStationIndex the fire station mappings of the dataset
+     * @param medicalRecordIndex the medical records of the dataset, classified at the day of the children bitmap
+     */
+    PersonBitmapIndex(ElementList<Person> persons, FireStationIndex fireStationIndex,
+                      MedicalRecordIndex medicalRecordIndex) {
+        Map<String, BitSet> addressRows = new HashMap<>();
+        Map<String, BitSet> cityRows = new HashMap<>();
+        BitSet childRows = new BitSet();
+        BitSet adultRows = new BitSet();
+        persons.forEach((person, row) -> {
+            addressRows.computeIfAbsent(person.getAddress(), address -> new BitSet()).set(row);
+            cityRows.computeIfAbsent(person.getCity(), city -> new BitSet()).set(row);
+
+            MedicalRecord medicalRecord = medicalRecordIndex.findByFullName(person.getFullName()).orElse(null);
+            if (medicalRecord != null && medicalRecord.getBirthdate() != null) {
+                (medicalRecordIndex.isChild(medicalRecord) ? childRows : adultRows).set(row);
+            }
+        });
+
+        byAddress = new RowBitmaps();
+        addressRows.forEach((address, rows) -> byAddress.put(address, RowBitmap.of(rows)));
+        byCity = new RowBitmaps();
+        cityRows.forEach((city, rows) -> byCity.put(city, RowBitmap.of(rows)));
+        byStation = new RowBitmaps();
+        fireStationIndex.forEachStation(station -> {
+            BitSet rows = new BitSet();
+            for (FireStation mapping : fireStationIndex.findByStation(station)) {
+                BitSet rowsAtAddress = addressRows.get(mapping.getAddress());
+                if (rowsAtAddress != null) {
+                    rows.or(rowsAtAddress);
+                }
+            }
+            byStation.put(station, RowBitmap.of(rows));
+        });
+        children = RowBitmap.of(childRows);
+        adults = RowBitmap.of(adultRows);
+    }
+
+    /**
+     * Copies an index in constant time, so that the copy can be changed without affecting the original one.
+     *
+     * @param other the index to copy
+     */
+    PersonBitmapIndex(PersonBitmapIndex other) {
+        byAddress = new RowBitmaps(other.byAddress);
+        byCity = new RowBitmaps(other.byCity);
+        byStation = new RowBitmaps(other.byStation);
+        children = other.children;
+        adults = other.adults;
+    }
+
+    /**
+     * Sets the row of an added person in the bitmaps of its address, city, stations and age group.
+     *
+     * @param person the added person
+     * @param row the sequence number of the person in the persons list
+     * @param fireStationIndex the current fire station mappings
+     * @param medicalRecordIndex the current medical records
+     */
+    void addPerson(Person person, int row, FireStationIndex fireStationIndex, MedicalRecordIndex medicalRecordIndex) {
+        byAddress.set(person.getAddress(), row);
+        byCity.set(person.getCity(), row);
+        forEachStation(person.getAddress(), fireStationIndex, station -> byStation.set(station, row));
+        classify(person, row, medicalRecordIndex);
+    }
+
+    /**
+     * Clears the row of a removed person from every bitmap.
+     *
+     * @param person the removed person
+     * @param row the sequence number the person had in the persons list
+     * @param fireStationIndex the current fire station mappings
+     */
+    void removePerson(Person person, int row, FireStationIndex fireStationIndex) {
+        byAddress.clear(person.getAddress(), row);
+        byCity.clear(person.getCity(), row);
+        forEachStation(person.getAddress(), fireStationIndex, station -> byStation.clear(station, row));
+        children = children.without(row);
+        adults = adults.without(row);
+    }
+
+    /**
+     * Moves the row of a replaced person to the bitmaps of its new address, city, stations and age group.
+     *
+     * @param person the replaced person
+     * @param replacement the new version of the person, which keeps the row
+     * @param row the sequence number of the person in the persons list
+     * @param fireStationIndex the current fire station mappings
+     * @param medicalRecordIndex the current medical records
+     */
+    void replacePerson(Person person, Person replacement, int row, FireStationIndex fireStationIndex,
+                       MedicalRecordIndex medicalRecordIndex) {
+        if (!Objects.equals(person.getAddress(), replacement.getAddress())) {
+            byAddress.clear(person.getAddress(), row);
+            forEachStation(person.getAddress(), fireStationIndex, station -> byStation.clear(station, row));
+            byAddress.set(replacement.getAddress(), row);
+            forEachStation(replacement.getAddress(), fireStationIndex, station -> byStation.set(station, row));
+        }
+        if (!Objects.equals(person.getCity(), replacement.getCity())) {
+            byCity.clear(person.getCity(), row);
+            byCity.set(replacement.getCity(), row);
+        }
+        classify(replacement, row, medicalRecordIndex);
+    }
+
+    /**
+     * Adds the residents of the address of an added mapping to the bitmap of its station.
+     *
+     * @param fireStation the added mapping
+     */
+    void addFireStation(FireStation fireStation) {
+        byStation.put(fireStation.getStation(),
+                byStation.get(fireStation.getStation()).or(byAddress.get(fireStation.getAddress())));
+    }
+
+    /**
+     * Clears the residents of the address of a removed mapping from the bitmap of its station, unless another
+     * mapping still assigns the address to the station.
+     *
+     * @param fireStation the removed mapping
+     * @param fireStationIndex the fire station mappings, without the removed one
+     */
+    void removeFireStation(FireStation fireStation, FireStationIndex fireStationIndex) {
+        for (FireStation mapping : fireStationIndex.findByAddress(fireStation.getAddress())) {
+            if (Objects.equals(mapping.getStation(), fireStation.getStation())) {
+                return;
+            }
+        }
+
+        byStation.put(fireStation.getStation(),
+                byStation.get(fireStation.getStation()).andNot(byAddress.get(fireStation.getAddress())));
+    }
+
+    /**
+     * Moves the residents of the address of a replaced mapping to the bitmap of its new station.
+     *
+     * @param fireStation the replaced mapping
+     * @param replacement the new version of the mapping
+     * @param fireStationIndex the fire station mappings, with the replacement
+     */
+    void replaceFireStation(FireStation fireStation, FireStation replacement, FireStationIndex fireStationIndex) {
+        removeFireStation(fireStation, fireStationIndex);
+        addFireStation(replacement);
+    }
+
+    /**
+     * Moves the rows of the persons of a full name to the age group of their current medical record, after
+     * the record of that full name was added, replaced or removed, or reached adulthood.
+     *
+     * @param fullName the full name
+     * @param personIndex the current persons
+     * @param medicalRecordIndex the current medical records
+     */
+    void classifyPersons(String fullName, PersonIndex personIndex, MedicalRecordIndex medicalRecordIndex) {
+        personIndex.forEachWithFullName(fullName, (person, row) -> classify(person, row, medicalRecordIndex));
+    }
+
+    /**
+     * Moves the row of every person to the age group of its medical record, after the classification moved
+     * back in time.
+     *
+     * @param persons the current persons
+     * @param medicalRecordIndex the current medical records
+     */
+    void classifyAll(ElementList<Person> persons, MedicalRecordIndex medicalRecordIndex) {
+        persons.forEach((person, row) -> classify(person, row, medicalRecordIndex));
+    }
+
+    /**
+     * Returns the rows of the persons covered by any of the given stations.
+     *
+     * @param stations the station numbers
+     * @return a new bitmap holding the union of the rows of the stations
+     */
+    public BitSet findByStations(Collection<String> stations) {
+        BitSet rows = new BitSet();
+        for (String station : stations) {
+            byStation.get(station).orInto(rows);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Returns the rows of the persons covered by a station.
+     *
+     * @param station the station number
+     * @return the bitmap of the station, empty when it covers nobody
+     */
+    RowBitmap getStationRows(String station) {
+        return byStation.get(station);
+    }
+
+    /**
+     * Returns the rows of the persons living at the given address.
+     *
+     * @param address the address
+     * @return a new bitmap of the rows at the address
+     */
+    public BitSet findByAddress(String address) {
+        BitSet rows = new BitSet();
+        byAddress.get(address).orInto(rows);
+
+        return rows;
+    }
+
+    /**
+     * Returns the rows of the persons living in the given city.
+     *
+     * @param city the city
+     * @return a new bitmap of the rows in the city
+     */
+    public BitSet findByCity(String city) {
+        BitSet rows = new BitSet();
+        byCity.get(city).orInto(rows);
+
+        return rows;
+    }
+
+    /**
+     * Counts the adults and children covered by any of the given stations, each person once, as classified
+     * by the medical record index of the snapshot. Persons without a medical record or a birthdate are counted
+     * in neither group. Each group is the cardinality of the intersection of the station bitmap with the
+     * group bitmap, the stations being united first when there are several.
+     *
+     * @param stations the station numbers
+     * @return the number of adults and children covered by the stations
+     */
+    public AgeGroupCount countAgeGroups(Collection<String> stations) {
+        RowBitmap rows = RowBitmap.EMPTY;
+        for (String station : new HashSet<>(stations)) {
+            RowBitmap stationRows = byStation.get(station);
+            rows = rows.isEmpty() ? stationRows : rows.or(stationRows);
+        }
+
+        return new AgeGroupCount(rows.andCardinality(adults), rows.andCardinality(children));
+    }
+
+    private void classify(Person person, int row, MedicalRecordIndex medicalRecordIndex) {
+        MedicalRecord medicalRecord = medicalRecordIndex.findByFullName(person.getFullName()).orElse(null);
+        boolean dated = medicalRecord != null && medicalRecord.getBirthdate() != null;
+        boolean child = dated && medicalRecordIndex.isChild(medicalRecord);
+
+        children = child ? children.with(row) : children.without(row);
+        adults = dated && !child ? adults.with(row) : adults.without(row);
+    }
+
+    private static void forEachStation(String address, FireStationIndex fireStationIndex, Consumer<String> action) {
+        for (FireStation mapping : fireStationIndex.findByAddress(address)) {
+            action.accept(mapping.getStation());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.safetynet.alerts.model;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Indexes over a list of {@link Person} objects, keyed by address, last name, city and full name.
+ * Addresses and cities are keyed by their id in a {@link ValueDictionary} of the index, last names and full names
+ * by their hash code, homonymous hash codes being told apart on lookup.
+ * Each bucket keeps the persons in the order of their sequence number in the persons list, so lookups return the
+ * same ordering as a scan over the source list would. When several persons share a full name, the full name lookup
+ * returns the first one of the list.
+ * An index belongs to a {@link DataSnapshot} and is never changed once the snapshot is published:
+ * a {@link DataSnapshot.Mutation} works on its own copy, which shares the buckets it does not change, and reports
+ * every add, remove and replacement through {@link #add(Person, int)}, {@link #remove(Person, int)} and
+ * {@link #replace(Person, Person, int)}.
+ */
+public class PersonIndex {
+    private final ValueBuckets<Person> byAddress;
+    private final IdBuckets<Person> byLastName;
+    private final ValueBuckets<Person> byCity;
+    private final IdBuckets<Person> byFullName;
+
+    /**
+     * Builds an index over all the given persons, numbered by their position in the list.
+     *
+     * @param persons the persons to index
+     */
+    public PersonIndex(List<Person> persons) {
+        this();
+        for (int i = 0; i < persons.size(); i++) {
+            add(persons.get(i), i);
+        }
+    }
+
+    /**
+     * Builds an index over all the persons of a list, numbered by their sequence number in the list.
+     *
+     * @param persons the persons to index
+     */
+    PersonIndex(ElementList<Person> persons) {
+        this();
+        persons.forEach(this::add);
+    }
+
+    /**
+     * Copies an index in constant time, so that the copy can be changed without affecting the original one.
+     *
+     * @param other the index to copy
+     */
+    PersonIndex(PersonIndex other) {
+        byAddress = new ValueBuckets<>(other.byAddress);
+        byLastName = new IdBuckets<>(other.byLastName);
+        byCity = new ValueBuckets<>(other.byCity);
+        byFullName = new IdBuckets<>(other.byFullName);
+    }
+
+    private PersonIndex() {
+        byAddress = new ValueBuckets<>();
+        byLastName = new IdBuckets<>();
+        byCity = new ValueBuckets<>();
+        byFullName = new IdBuckets<>();
+    }
+
+    /**
+     * Adds a person to every index.
+     *
+     * @param person the person to add
+     * @param sequence the sequence number of the person in the persons list
+     */
+    void add(Person person, int sequence) {
+        byAddress.add(person.getAddress(), sequence, person);
+        byLastName.add(Objects.hashCode(person.getLastName()), sequence, person);
+        byCity.add(person.getCity(), sequence, person);
+        byFullName.add(Objects.hashCode(person.getFullName()), sequence, person);
+    }
+
+    /**
+     * Removes a person from every index.
+     *
+     * @param person the indexed person to remove
+     * @param sequence the sequence number of the person in the persons list
+     */
+    void remove(Person person, int sequence) {
+        byAddress.remove(person.getAddress(), sequence);
+        byLastName.remove(Objects.hashCode(person.getLastName()), sequence);
+        byCity.remove(person.getCity(), sequence);
+        byFullName.remove(Objects.hashCode(person.getFullName()), sequence);
+    }
+
+    /**
+     * Replaces an indexed person by a new version of the same person, which keeps its sequence number and so
+     * its position in every bucket.
+     *
+     * @param person the indexed person
+     * @param replacement the new version of the person, with the same full name
+     * @param sequence the sequence number of the person in the persons list
+     */
+    void replace(Person person, Person replacement, int sequence) {
+        byAddress.replace(person.getAddress(), replacement.getAddress(), sequence, replacement);
+        byLastName.replace(Objects.hashCode(person.getLastName()), Objects.hashCode(replacement.getLastName()),
+                sequence, replacement);
+        byCity.replace(person.getCity(), replacement.getCity(), sequence, replacement);
+        byFullName.replace(Objects.hashCode(person.getFullName()), Objects.hashCode(replacement.getFullName()),
+                sequence, replacement);
+    }
+
+    public List<Person> findByAddress(String address) {
+        return byAddress.get(address);
+    }
+
+    public List<Person> findByLastName(String lastName) {
+        return matching(byLastName.get(Objects.hashCode(lastName)),
+                person -> Objects.equals(person.getLastName(), lastName));
+    }
+
+    public List<Person> findByCity(String city) {
+        return byCity.get(city);
+    }
+
+    public Optional<Person> findByFullName(String fullName) {
+        for (Person person : byFullName.get(Objects.hashCode(fullName))) {
+            if (person.getFullName().equals(fullName)) {
+                return Optional.of(person);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Passes each person having the given full name with its sequence number, in sequence order.
+     *
+     * @param fullName the full name
+     * @param action the action called with each person and its sequence number
+     */
+    void forEachWithFullName(String fullName, ObjIntConsumer<Person> action) {
+        byFullName.forEach(Objects.hashCode(fullName), (person, sequence) -> {
+            if (person.getFullName().equals(fullName)) {
+                action.accept(person, sequence);
+            }
+        });
+    }
+
+    /**
+     * Passes the addresses having at least one resident.
+     *
+     * @param action the action called with each address
+     */
+    void forEachAddress(Consumer<String> action) {
+        byAddress.forEachValue(action);
+    }
+
+    /**
+     * Returns the persons of a bucket that match a key, the bucket itself when they all do.
+     */
+    private static List<Person> matching(List<Person> bucket, Predicate<Person> key) {
+        for (Person person : bucket) {
+            if (!key.test(person)) {
+                return bucket.stream().filter(key).toList();
+            }
+        }
+
+        return bucket;
+    }
+}
@@ -0,0 +1,266 @@
+package org.safetynet.alerts.model;
+
+import java.util.BitSet;
+
+/**
+ * Persistent set of person rows, the sequence numbers of the persons in the persons list of a {@link DataSnapshot}.
+ * Rows are grouped by chunks of 1024, held as arrays of 16 words in an {@link IntTrie} keyed by chunk number, and
+ * chunks without any row are left out, so a bitmap takes the space of the chunks it uses, like the containers
+ * of a Roaring bitmap.
+ * A bitmap is immutable: a change returns a new bitmap sharing every chunk but the changed ones with this one,
+ * and the cardinality is kept with the chunks so that it is never counted again.
+ */
+final class RowBitmap {
+    static final RowBitmap EMPTY = new RowBitmap(new IntTrie<>(), 0);
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_WORDS = 1 << (CHUNK_SHIFT - 6);
+
+    private final IntTrie<long[]> chunks;
+    private final int cardinality;
+
+    private RowBitmap(IntTrie<long[]> chunks, int cardinality) {
+        this.chunks = chunks;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Builds the bitmap of the rows set in a {@link BitSet}, for the first version of a dataset.
+     *
+     * @param rows the rows
+     * @return the bitmap of the rows
+     */
+    static RowBitmap of(BitSet rows) {
+        long[] words = rows.toLongArray();
+        IntTrie<long[]> chunks = new IntTrie<>();
+        for (int from = 0; from < words.length; from += CHUNK_WORDS) {
+            long[] chunk = new long[CHUNK_WORDS];
+            System.arraycopy(words, from, chunk, 0, Math.min(CHUNK_WORDS, words.length - from));
+            if (!isEmpty(chunk)) {
+                chunks.put(from / CHUNK_WORDS, chunk);
+            }
+        }
+
+        return new RowBitmap(chunks, rows.cardinality());
+    }
+
+    boolean get(int row) {
+        long[] chunk = chunks.get(row >>> CHUNK_SHIFT);
+
+        return chunk != null && (chunk[word(row)] & (1L << row)) != 0;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Returns this bitmap with a row set.
+     *
+     * @return a new bitmap, or this one when the row is already set
+     */
+    RowBitmap with(int row) {
+        if (get(row)) {
+            return this;
+        }
+
+        long[] chunk = chunks.get(row >>> CHUNK_SHIFT);
+        long[] changed = chunk == null ? new long[CHUNK_WORDS] : chunk.clone();
+        changed[word(row)] |= 1L << row;
+        IntTrie<long[]> changedChunks = new IntTrie<>(chunks);
+        changedChunks.put(row >>> CHUNK_SHIFT, changed);
+
+        return new RowBitmap(changedChunks, cardinality + 1);
+    }
+
+    /**
+     * Returns this bitmap with a row cleared.
+     *
+     * @return a new bitmap, or this one when the row is not set
+     */
+    RowBitmap without(int row) {
+        if (!get(row)) {
+            return this;
+        }
+
+        long[] changed = chunks.get(row >>> CHUNK_SHIFT).clone();
+        changed[word(row)] &= ~(1L << row);
+        IntTrie<long[]> changedChunks = new IntTrie<>(chunks);
+        if (isEmpty(changed)) {
+            changedChunks.remove(row >>> CHUNK_SHIFT);
+        } else {
+            changedChunks.put(row >>> CHUNK_SHIFT, changed);
+        }
+
+        return cardinality == 1 ? EMPTY : new RowBitmap(changedChunks, cardinality - 1);
+    }
+
+    /**
+     * Returns the union of this bitmap and another one. Only the chunks of the other bitmap are visited.
+     *
+     * @return a new bitmap, or this one when the other bitmap adds no row
+     */
+    RowBitmap or(RowBitmap other) {
+        IntTrie<long[]> changedChunks = new IntTrie<>(chunks);
+        int[] changedCardinality = {cardinality};
+        other.chunks.forEach((otherChunk, index) -> {
+            long[] chunk = chunks.get(index);
+            if (chunk == null) {
+                changedChunks.put(index, otherChunk);
+                changedCardinality[0] += cardinality(otherChunk);
+            } else if (!contains(chunk, otherChunk)) {
+                long[] changed = chunk.clone();
+                for (int i = 0; i < CHUNK_WORDS; i++) {
+                    changed[i] |= otherChunk[i];
+                }
+                changedChunks.put(index, changed);
+                changedCardinality[0] += cardinality(changed) - cardinality(chunk);
+            }
+        });
+
+        return changedCardinality[0] == cardinality ? this : new RowBitmap(changedChunks, changedCardinality[0]);
+    }
+
+    /**
+     * Returns the rows of this bitmap that are not in another one. Only the chunks of the other bitmap are visited.
+     *
+     * @return a new bitmap, or this one when the other bitmap clears no row
+     */
+    RowBitmap andNot(RowBitmap other) {
+        IntTrie<long[]> changedChunks = new IntTrie<>(chunks);
+        int[] changedCardinality = {cardinality};
+        other.chunks.forEach((otherChunk, index) -> {
+            long[] chunk = chunks.get(index);
+            int common = chunk == null ? 0 : andCardinality(chunk, otherChunk);
+            if (common == 0) {
+                return;
+            }
+
+            long[] changed = chunk.clone();
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                changed[i] &= ~otherChunk[i];
+            }
+            if (isEmpty(changed)) {
+                changedChunks.remove(index);
+            } else {
+                changedChunks.put(index, changed);
+            }
+            changedCardinality[0] -= common;
+        });
+
+        if (changedCardinality[0] == cardinality) {
+            return this;
+        }
+
+        return changedCardinality[0] == 0 ? EMPTY : new RowBitmap(changedChunks, changedCardinality[0]);
+    }
+
+    /**
+     * Returns the rows of both this bitmap and another one. Only the chunks of the smaller bitmap are looked up
+     * in the other one.
+     *
+     * @return a new bitset holding the intersection
+     */
+    BitSet and(RowBitmap other) {
+        RowBitmap smaller = cardinality <= other.cardinality ? this : other;
+        RowBitmap larger = smaller == this ? other : this;
+        BitSet rows = new BitSet();
+        smaller.chunks.forEach((chunk, index) -> {
+            long[] otherChunk = larger.chunks.get(index);
+            if (otherChunk == null) {
+                return;
+            }
+
+            int base = index << CHUNK_SHIFT;
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                for (long word = chunk[i] & otherChunk[i]; word != 0; word &= word - 1) {
+                    rows.set(base + (i << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+        });
+
+        return rows;
+    }
+
+    /**
+     * Counts the rows of both this bitmap and another one, without building their intersection.
+     * Only the chunks of the smaller bitmap are looked up in the other one.
+     *
+     * @return the cardinality of the intersection
+     */
+    int andCardinality(RowBitmap other) {
+        RowBitmap smaller = cardinality <= other.cardinality ? this : other;
+        RowBitmap larger = smaller == this ? other : this;
+        int[] count = {0};
+        smaller.chunks.forEach((chunk, index) -> {
+            long[] otherChunk = larger.chunks.get(index);
+            if (otherChunk != null) {
+                count[0] += andCardinality(chunk, otherChunk);
+            }
+        });
+
+        return count[0];
+    }
+
+    /**
+     * Sets the rows of this bitmap in a {@link BitSet}.
+     *
+     * @param rows the bitset to add the rows to
+     */
+    void orInto(BitSet rows) {
+        chunks.forEach((chunk, index) -> {
+            int base = index << CHUNK_SHIFT;
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                for (long word = chunk[i]; word != 0; word &= word - 1) {
+                    rows.set(base + (i << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+        });
+    }
+
+    private static int word(int row) {
+        return (row >>> 6) & (CHUNK_WORDS - 1);
+    }
+
+    private static boolean isEmpty(long[] chunk) {
+        for (long word : chunk) {
+            if (word != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean contains(long[] chunk, long[] other) {
+        for (int i = 0; i < CHUNK_WORDS; i++) {
+            if ((other[i] & ~chunk[i]) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int cardinality(long[] chunk) {
+        int count = 0;
+        for (long word : chunk) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    private static int andCardinality(long[] chunk, long[] other) {
+        int count = 0;
+        for (int i = 0; i < CHUNK_WORDS; i++) {
+            count += Long.bitCount(chunk[i] & other[i]);
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,62 @@
+package org.safetynet.alerts.model;
+
+/**
+ * The {@link RowBitmap} of each value of a field, such as addresses, cities and station numbers, keyed by the id
+ * of the value in the {@link ValueDictionary} of this map. A value keeps its id while its bitmap has rows.
+ * A copy shares the dictionary and the bitmaps of the original, and a change copies the path to the changed
+ * bitmap, like {@link ValueBuckets}.
+ */
+final class RowBitmaps {
+    private final ValueDictionary dictionary;
+    private final IntTrie<RowBitmap> bitmaps;
+
+    RowBitmaps() {
+        dictionary = new ValueDictionary();
+        bitmaps = new IntTrie<>();
+    }
+
+    /**
+     * Copies another map in constant time, so that the copy can be changed without affecting the original.
+     *
+     * @param other the map to copy, which must not be changed afterward
+     */
+    RowBitmaps(RowBitmaps other) {
+        dictionary = new ValueDictionary(other.dictionary);
+        bitmaps = new IntTrie<>(other.bitmaps);
+    }
+
+    /**
+     * Returns the rows of a value.
+     *
+     * @param value the value, may be {@code null}
+     * @return the bitmap of the value, empty when the value has no row
+     */
+    RowBitmap get(String value) {
+        RowBitmap bitmap = bitmaps.get(dictionary.find(value));
+
+        return bitmap != null ? bitmap : RowBitmap.EMPTY;
+    }
+
+    /**
+     * Sets the rows of a value, dropping the value when the bitmap is empty.
+     */
+    void put(String value, RowBitmap bitmap) {
+        if (!bitmap.isEmpty()) {
+            bitmaps.put(dictionary.encode(value), bitmap);
+            return;
+        }
+
+        int id = dictionary.find(value);
+        if (bitmaps.remove(id) != null) {
+            dictionary.release(id);
+        }
+    }
+
+    void set(String value, int row) {
+        put(value, get(value).with(row));
+    }
+
+    void clear(String value, int row) {
+        put(value, get(value).without(row));
+    }
+}
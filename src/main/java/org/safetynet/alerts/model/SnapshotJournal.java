@@ -0,0 +1,33 @@
+package org.safetynet.alerts.model;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Durable record of the changes published by a {@link JsonData} store.
+ * The writer calls {@link #append(long, List)} with the changes of a batch before publishing its snapshot,
+ * so a batch that cannot be journaled is never seen by readers. Replacements of the whole dataset are
+ * recorded the same way with {@link #reset(DataSnapshot, List)}.
+ */
+public interface SnapshotJournal {
+
+    /**
+     * Records the changes of one batch. The changes must be recorded as a whole or not at all.
+     *
+     * @param version the version of the snapshot publishing the changes
+     * @param changes the changes of the batch, in the order they were made
+     * @throws IOException if the changes could not be recorded
+     */
+    void append(long version, List<DataChange> changes) throws IOException;
+
+    /**
+     * Records that the whole dataset is replaced by the given snapshot, as when it is reloaded.
+     * The replacement is only applied as its differences with the previous dataset, which can be recorded
+     * like a batch when the changes recorded before are replayed on the same dataset as before.
+     *
+     * @param snapshot the snapshot replacing the dataset, at the version it is published with
+     * @param changes the differences between the previous dataset and the snapshot
+     * @throws IOException if the replacement could not be recorded
+     */
+    void reset(DataSnapshot snapshot, List<DataChange> changes) throws IOException;
+}
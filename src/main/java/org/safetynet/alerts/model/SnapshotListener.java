@@ -0,0 +1,30 @@
+package org.safetynet.alerts.model;
+
+import java.util.List;
+
+/**
+ * Observer of the snapshots published by a {@link JsonData} store, such as a cache of values computed
+ * from the dataset. The writer notifies its listeners on its own thread, after journaling a batch and
+ * before publishing its snapshot, so a listener has dropped what a batch changes before any reader can
+ * see the new snapshot.
+ * A listener must be quick and must not change the dataset.
+ */
+public interface SnapshotListener {
+
+    /**
+     * Called for each published batch of changes.
+     *
+     * @param previous the snapshot the changes were applied on
+     * @param published the snapshot about to be published with the changes
+     * @param changes the changes of the batch, in the order they were made, empty when only the
+     *                classification of the medical records changed
+     */
+    void changed(DataSnapshot previous, DataSnapshot published, List<DataChange> changes);
+
+    /**
+     * Called when the whole dataset is replaced, as when it is reloaded.
+     *
+     * @param published the snapshot about to be published in place of the dataset
+     */
+    void replaced(DataSnapshot published);
+}
@@ -0,0 +1,305 @@
+package org.safetynet.alerts.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single writer of a {@link JsonData} store. Changes submitted by any thread are queued in a bounded
+ * buffer and applied one after the other by a dedicated writer thread. The writer drains the queued
+ * changes in batches, applies a whole batch on one {@link DataSnapshot.Mutation} and publishes a single
+ * snapshot for it, then acknowledges each submitter through its future. When a {@link SnapshotJournal}
+ * is set, the changes of a batch are journaled before its snapshot is published, then the
+ * {@link SnapshotListener listeners} are notified.
+ * Replacements of the whole dataset are queued with the changes, so they are published after the changes
+ * submitted before them and before the changes submitted after them. Only their differences with the
+ * current dataset are applied.
+ * Submitters block when the buffer is full. The writer thread is started on the first submitted change
+ * and stops after being idle for a while.
+ */
+@Slf4j
+final class SnapshotWriter {
+    static final int QUEUE_CAPACITY = 1024;
+    static final int MAX_BATCH_SIZE = 256;
+    private static final long IDLE_TIMEOUT_MILLIS = 1000;
+
+    private final AtomicReference<DataSnapshot> snapshot;
+    private final BlockingQueue<PendingChange<?>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Thread writerThread;
+    private volatile SnapshotJournal journal;
+    private final List<SnapshotListener> listeners = new CopyOnWriteArrayList<>();
+
+    SnapshotWriter(AtomicReference<DataSnapshot> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    void setJournal(SnapshotJournal journal) {
+        this.journal = journal;
+    }
+
+    void addListener(SnapshotListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(SnapshotListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queues a change and waits until it is applied and its snapshot published.
+     *
+     * @param change the change to apply
+     * @return the value returned by the change
+     * @param <T> the type of the value returned by the change
+     * @param <E> the type of exception thrown by the change
+     * @throws E if the change fails, in which case it is not part of any published snapshot
+     */
+    <T, E extends Exception> T submit(JsonData.Change<T, E> change) throws E {
+        return this.<T, E>submit(new PendingChange<>(change));
+    }
+
+    /**
+     * Queues the replacement of the whole dataset and waits until it is published.
+     *
+     * @param replacement the dataset replacing the current one
+     * @return the published snapshot, the replacement at the version following the current one
+     */
+    DataSnapshot submitReplacement(DataSnapshot replacement) {
+        return submit(new PendingChange<>(replacement));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T submit(PendingChange<T> pendingChange) throws E {
+        if (Thread.currentThread() == writerThread) {
+            throw new IllegalStateException("A change cannot submit another change");
+        }
+
+        try {
+            queue.put(pendingChange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing a change", e);
+        }
+        startIfIdle();
+
+        try {
+            return pendingChange.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw (E) cause;
+        }
+    }
+
+    private void startIfIdle() {
+        if (running.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::run, "json-data-writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            thread.start();
+        }
+    }
+
+    private void run() {
+        List<PendingChange<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+        while (true) {
+            PendingChange<?> first;
+            try {
+                first = queue.poll(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                first = null;
+            }
+
+            if (first == null) {
+                running.set(false);
+                // A change queued while stopping must not wait for the next submitter.
+                if (queue.isEmpty() || !running.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            try {
+                applyInOrder(batch);
+            } catch (RuntimeException | Error e) {
+                log.error("Failed to publish a batch of {} change(s)", batch.size(), e);
+                batch.forEach(pendingChange -> pendingChange.result.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Publishes the changes of a batch and the replacements queued among them in the order they were queued.
+     * The changes between two replacements are published together.
+     */
+    @SuppressWarnings("unchecked")
+    private void applyInOrder(List<PendingChange<?>> batch) {
+        int start = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingChange<?> pendingChange = batch.get(i);
+            if (pendingChange.replacement != null) {
+                if (i > start) {
+                    apply(batch.subList(start, i));
+                }
+                replace((PendingChange<DataSnapshot>) pendingChange);
+                start = i + 1;
+            }
+        }
+        if (start < batch.size()) {
+            apply(batch.subList(start, batch.size()));
+        }
+    }
+
+    /**
+     * Publishes a replacement of the whole dataset as the next version, journaling it first. Only the
+     * differences with the current dataset are applied, a replacement without differences publishes nothing.
+     */
+    private void replace(PendingChange<DataSnapshot> pendingChange) throws UncheckedIOException {
+        DataSnapshot base = snapshot.get();
+        DataSnapshot.Mutation mutation = base.mutate();
+        int differences = mutation.replaceContent(pendingChange.replacement);
+        DataSnapshot published = mutation.build();
+        if (published == base) {
+            log.debug("Dataset replacement identical to snapshot version {}", base.getVersion());
+            pendingChange.result.complete(base);
+            return;
+        }
+
+        SnapshotJournal currentJournal = journal;
+        if (currentJournal != null) {
+            try {
+                currentJournal.reset(published, mutation.getChanges());
+            } catch (IOException e) {
+                pendingChange.result.completeExceptionally(
+                        new UncheckedIOException("Failed to journal the replacement of the dataset", e));
+                return;
+            }
+        }
+
+        for (SnapshotListener listener : listeners) {
+            try {
+                listener.replaced(published);
+            } catch (RuntimeException e) {
+                log.error("Snapshot listener failed on the replacement of the dataset", e);
+            }
+        }
+
+        snapshot.set(published);
+        log.info("Dataset replaced in snapshot version {} with {} difference(s)", published.getVersion(), differences);
+
+        pendingChange.result.complete(published);
+    }
+
+    /**
+     * Applies a batch of changes on one mutation and publishes it. A change that throws after having
+     * modified the mutation is undone by replaying the successful changes of the batch on a fresh one.
+     */
+    private void apply(List<PendingChange<?>> batch) throws UncheckedIOException {
+        DataSnapshot base = snapshot.get();
+        DataSnapshot.Mutation mutation = base.mutate();
+        List<PendingChange<?>> applied = new ArrayList<>(batch.size());
+
+        for (PendingChange<?> pendingChange : batch) {
+            int modificationCount = mutation.getModificationCount();
+            try {
+                pendingChange.apply(mutation);
+                applied.add(pendingChange);
+            } catch (Exception | Error e) {
+                pendingChange.failure = e;
+                if (mutation.getModificationCount() != modificationCount) {
+                    mutation = replay(base, applied);
+                }
+            }
+        }
+
+        DataSnapshot published = mutation.build();
+
+        SnapshotJournal currentJournal = journal;
+        if (currentJournal != null && !mutation.getChanges().isEmpty()) {
+            try {
+                currentJournal.append(published.getVersion(), mutation.getChanges());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to journal a batch of changes", e);
+            }
+        }
+
+        if (published != base) {
+            for (SnapshotListener listener : listeners) {
+                try {
+                    listener.changed(base, published, mutation.getChanges());
+                } catch (RuntimeException e) {
+                    log.error("Snapshot listener failed on snapshot version {}", published.getVersion(), e);
+                }
+            }
+        }
+
+        snapshot.set(published);
+        log.debug("{} change(s) published in snapshot version {}", batch.size(), published.getVersion());
+
+        batch.forEach(PendingChange::complete);
+    }
+
+    private static DataSnapshot.Mutation replay(DataSnapshot base, List<PendingChange<?>> applied) {
+        DataSnapshot.Mutation mutation = base.mutate();
+        applied.removeIf(pendingChange -> {
+            try {
+                pendingChange.apply(mutation);
+                return false;
+            } catch (Exception | Error e) {
+                pendingChange.failure = e;
+                return true;
+            }
+        });
+
+        return mutation;
+    }
+
+    private static final class PendingChange<T> {
+        private final JsonData.Change<T, ?> change;
+        private final DataSnapshot replacement;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private Throwable failure;
+
+        private PendingChange(JsonData.Change<T, ?> change) {
+            this.change = change;
+            this.replacement = null;
+        }
+
+        private PendingChange(DataSnapshot replacement) {
+            this.change = null;
+            this.replacement = replacement;
+        }
+
+        private void apply(DataSnapshot.Mutation mutation) throws Exception {
+            failure = null;
+            value = change.apply(mutation);
+        }
+
+        private void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+}
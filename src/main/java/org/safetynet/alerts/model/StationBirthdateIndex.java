@@ -0,0 +1,281 @@
+package org.safetynet.alerts.model;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The {@link BirthdateIndex} of the residents of each fire station of a dataset, keyed by the id of the station
+ * in a {@link ValueDictionary} of the index. A station loses its id with the last birthdate of its residents.
+ * A resident is a person living at an address mapped to the station, counted once however many mappings
+ * assign the address to the station, and its birthdate is the one of the medical record of its full name.
+ * An index belongs to a {@link DataSnapshot} and is never changed once the snapshot is published: a
+ * {@link DataSnapshot.Mutation} works on its own copy, which shares the birthdates of every station it does not
+ * change, and reports each change of a person, mapping or medical record, so that the birthdates of the affected
+ * residents are inserted into or removed from the sorted arrays of their stations by binary search.
+ */
+public final class StationBirthdateIndex {
+    private final ValueDictionary stations;
+    private final IntTrie<BirthdateIndex> byStation;
+
+    /**
+     * Builds the birthdates of the residents of all the stations of the given mappings.
+     *
+     * @param personIndex the persons of the dataset
+     * @param fireStationIndex the fire station mappings of the dataset
+     * @param medicalRecordIndex the medical records of the dataset
+     */
+    StationBirthdateIndex(PersonIndex personIndex, FireStationIndex fireStationIndex,
+                          MedicalRecordIndex medicalRecordIndex) {
+        stations = new ValueDictionary();
+        byStation = new IntTrie<>();
+        fireStationIndex.forEachStation(station -> {
+            BirthdateIndex birthdates = birthdates(station, personIndex, fireStationIndex, medicalRecordIndex);
+            if (birthdates.size() > 0) {
+                byStation.put(stations.encode(station), birthdates);
+            }
+        });
+    }
+
+    /**
+     * Builds the birthdates of the residents of all the stations of the given mappings, the birthdates of
+     * distinct stations being sorted concurrently on the given pool.
+     *
+     * @param personIndex the persons of the dataset
+     * @param fireStationIndex the fire station mappings of the dataset
+     * @param medicalRecordIndex the medical records of the dataset
+     * @param pool the pool building the birthdates
+     */
+    StationBirthdateIndex(PersonIndex personIndex, FireStationIndex fireStationIndex,
+                          MedicalRecordIndex medicalRecordIndex, ForkJoinPool pool) {
+        stations = new ValueDictionary();
+        IntStream.Builder stationIds = IntStream.builder();
+        fireStationIndex.forEachStation(station -> stationIds.add(stations.encode(station)));
+        byStation = IntTrie.build(stationIds.build().toArray(), stationId ->
+                birthdates(stations.decode(stationId), personIndex, fireStationIndex, medicalRecordIndex), pool);
+    }
+
+    /**
+     * Copies an index in constant time, so that the copy can be changed without affecting the original one.
+     *
+     * @param other the index to copy
+     */
+    StationBirthdateIndex(StationBirthdateIndex other) {
+        stations = new ValueDictionary(other.stations);
+        byStation = new IntTrie<>(other.byStation);
+    }
+
+    /**
+     * Returns the birthdates of the residents of a station.
+     *
+     * @param station the station number
+     * @return the {@link BirthdateIndex} of the residents of the station, empty if it has none
+     */
+    public BirthdateIndex findByStation(String station) {
+        BirthdateIndex birthdates = byStation.get(stations.find(station));
+
+        return birthdates != null ? birthdates : BirthdateIndex.EMPTY;
+    }
+
+    /**
+     * Inserts the birthdate of an added person into the stations of its address.
+     *
+     * @param person the added person
+     * @param fireStationIndex the current fire station mappings
+     * @param medicalRecordIndex the current medical records
+     */
+    void addPerson(Person person, FireStationIndex fireStationIndex, MedicalRecordIndex medicalRecordIndex) {
+        Integer epochDay = epochDay(person, medicalRecordIndex);
+        if (epochDay != null) {
+            stationsOf(person.getAddress(), fireStationIndex).forEach(station -> insert(station, epochDay));
+        }
+    }
+
+    /**
+     * Removes the birthdate of a removed person from the stations of its address.
+     *
+     * @param person the removed person
+     * @param fireStationIndex the current fire station mappings
+     * @param medicalRecordIndex the current medical records
+     */
+    void removePerson(Person person, FireStationIndex fireStationIndex, MedicalRecordIndex medicalRecordIndex) {
+        Integer epochDay = epochDay(person, medicalRecordIndex);
+        if (epochDay != null) {
+            stationsOf(person.getAddress(), fireStationIndex).forEach(station -> delete(station, epochDay));
+        }
+    }
+
+    /**
+     * Moves the birthdate of a replaced person to the stations of its new address.
+     *
+     * @param person the replaced person
+     * @param replacement the new version of the person
+     * @param fireStationIndex the current fire station mappings
+     * @param medicalRecordIndex the current medical records
+     */
+    void replacePerson(Person person, Person replacement, FireStationIndex fireStationIndex,
+                       MedicalRecordIndex medicalRecordIndex) {
+        if (Objects.equals(person.getAddress(), replacement.getAddress())
+                && Objects.equals(person.getFullName(), replacement.getFullName())) {
+            return;
+        }
+
+        removePerson(person, fireStationIndex, medicalRecordIndex);
+        addPerson(replacement, fireStationIndex, medicalRecordIndex);
+    }
+
+    /**
+     * Inserts the birthdates of the residents of the address of an added mapping into its station, unless
+     * another mapping already assigned the address to the station.
+     *
+     * @param fireStation the added mapping
+     * @param personIndex the current persons
+     * @param fireStationIndex the fire station mappings, with the added one
+     * @param medicalRecordIndex the current medical records
+     */
+    void addFireStation(FireStation fireStation, PersonIndex personIndex, FireStationIndex fireStationIndex,
+                        MedicalRecordIndex medicalRecordIndex) {
+        if (countMappings(fireStation, fireStationIndex) == 1) {
+            forEachResidentBirthdate(fireStation.getAddress(), personIndex, medicalRecordIndex,
+                    epochDay -> insert(fireStation.getStation(), epochDay));
+        }
+    }
+
+    /**
+     * Removes the birthdates of the residents of the address of a removed mapping from its station, unless
+     * another mapping still assigns the address to the station.
+     *
+     * @param fireStation the removed mapping
+     * @param personIndex the current persons
+     * @param fireStationIndex the fire station mappings, without the removed one
+     * @param medicalRecordIndex the current medical records
+     */
+    void removeFireStation(FireStation fireStation, PersonIndex personIndex, FireStationIndex fireStationIndex,
+                           MedicalRecordIndex medicalRecordIndex) {
+        if (countMappings(fireStation, fireStationIndex) == 0) {
+            forEachResidentBirthdate(fireStation.getAddress(), personIndex, medicalRecordIndex,
+                    epochDay -> delete(fireStation.getStation(), epochDay));
+        }
+    }
+
+    /**
+     * Moves the birthdates of the residents of the address of a replaced mapping to its new station.
+     *
+     * @param fireStation the replaced mapping
+     * @param replacement the new version of the mapping
+     * @param personIndex the current persons
+     * @param fireStationIndex the fire station mappings, with the replacement
+     * @param medicalRecordIndex the current medical records
+     */
+    void replaceFireStation(FireStation fireStation, FireStation replacement, PersonIndex personIndex,
+                            FireStationIndex fireStationIndex, MedicalRecordIndex medicalRecordIndex) {
+        if (Objects.equals(fireStation.getAddress(), replacement.getAddress())
+                && Objects.equals(fireStation.getStation(), replacement.getStation())) {
+            return;
+        }
+
+        removeFireStation(fireStation, personIndex, fireStationIndex, medicalRecordIndex);
+        addFireStation(replacement, personIndex, fireStationIndex, medicalRecordIndex);
+    }
+
+    /**
+     * Removes the birthdates of the persons of a full name from their stations, before the medical record
+     * of that full name is changed.
+     *
+     * @param fullName the full name
+     * @param personIndex the current persons
+     * @param fireStationIndex the current fire station mappings
+     * @param medicalRecordIndex the medical records, before the change
+     */
+    void removePersons(String fullName, PersonIndex personIndex, FireStationIndex fireStationIndex,
+                       MedicalRecordIndex medicalRecordIndex) {
+        personIndex.forEachWithFullName(fullName,
+                (person, row) -> removePerson(person, fireStationIndex, medicalRecordIndex));
+    }
+
+    /**
+     * Inserts the birthdates of the persons of a full name into their stations, after the medical record
+     * of that full name was changed.
+     *
+     * @param fullName the full name
+     * @param personIndex the current persons
+     * @param fireStationIndex the current fire station mappings
+     * @param medicalRecordIndex the medical records, after the change
+     */
+    void addPersons(String fullName, PersonIndex personIndex, FireStationIndex fireStationIndex,
+                    MedicalRecordIndex medicalRecordIndex) {
+        personIndex.forEachWithFullName(fullName,
+                (person, row) -> addPerson(person, fireStationIndex, medicalRecordIndex));
+    }
+
+    private void insert(String station, int epochDay) {
+        byStation.put(stations.encode(station), findByStation(station).with(epochDay));
+    }
+
+    private void delete(String station, int epochDay) {
+        int stationId = stations.find(station);
+        BirthdateIndex birthdates = byStation.get(stationId);
+        if (birthdates == null) {
+            return;
+        }
+
+        BirthdateIndex remaining = birthdates.without(epochDay);
+        if (remaining.size() > 0) {
+            byStation.put(stationId, remaining);
+        } else {
+            byStation.remove(stationId);
+            stations.release(stationId);
+        }
+    }
+
+    private static BirthdateIndex birthdates(String station, PersonIndex personIndex,
+                                             FireStationIndex fireStationIndex,
+                                             MedicalRecordIndex medicalRecordIndex) {
+        IntStream.Builder epochDays = IntStream.builder();
+        for (String address : new LinkedHashSet<>(fireStationIndex.findAddressesByStation(station))) {
+            forEachResidentBirthdate(address, personIndex, medicalRecordIndex, epochDays::add);
+        }
+
+        return BirthdateIndex.of(epochDays.build().toArray());
+    }
+
+    private static void forEachResidentBirthdate(String address, PersonIndex personIndex,
+                                                 MedicalRecordIndex medicalRecordIndex,
+                                                 IntConsumer action) {
+        for (Person person : personIndex.findByAddress(address)) {
+            Integer epochDay = epochDay(person, medicalRecordIndex);
+            if (epochDay != null) {
+                action.accept(epochDay);
+            }
+        }
+    }
+
+    private static Set<String> stationsOf(String address, FireStationIndex fireStationIndex) {
+        Set<String> stations = new HashSet<>();
+        for (FireStation mapping : fireStationIndex.findByAddress(address)) {
+            stations.add(mapping.getStation());
+        }
+
+        return stations;
+    }
+
+    private static int countMappings(FireStation fireStation, FireStationIndex fireStationIndex) {
+        List<FireStation> mappings = fireStationIndex.findByAddress(fireStation.getAddress());
+
+        return (int) mappings.stream()
+                .filter(mapping -> Objects.equals(mapping.getStation(), fireStation.getStation()))
+                .count();
+    }
+
+    private static Integer epochDay(Person person, MedicalRecordIndex medicalRecordIndex) {
+        return medicalRecordIndex.findByFullName(person.getFullName())
+                .map(MedicalRecord::getBirthdate)
+                .map(birthdate -> (int) birthdate.toEpochDay())
+                .orElse(null);
+    }
+}
@@ -0,0 +1,107 @@
+package org.safetynet.alerts.model;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Persons covered by one fire station, grouped by the {@link Household} of each covered address. The coverage
+ * holds the households themselves, its residents are read through them instead of being copied, so that
+ * replacing the household of one address only copies the list of the households. The number of adults and
+ * children among the covered persons is counted by the {@link PersonBitmapIndex} of the snapshot.
+ * A coverage is immutable, a {@link StationCoverageIndex} replaces it when the mappings of the station or the
+ * households of its addresses change.
+ */
+public final class StationCoverage {
+    private final String station;
+    private final List<Household> households;
+    private final List<Person> residents;
+    private final AgeGroupCount ageGroupCount;
+
+    /**
+     * Builds the coverage of a station from the households of its addresses.
+     *
+     * @param station the station number
+     * @param households the households of the covered addresses, each address once
+     * @param ageGroupCount the number of adults and children living in the households
+     */
+    public StationCoverage(String station, List<Household> households, AgeGroupCount ageGroupCount) {
+        this.station = station;
+        this.households = List.copyOf(households);
+        this.residents = new Residents(this.households);
+        this.ageGroupCount = ageGroupCount;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    /**
+     * Returns the households of the covered addresses, in the order of the mappings of the station.
+     *
+     * @return the read-only households covered by the station
+     */
+    public List<Household> getHouseholds() {
+        return households;
+    }
+
+    /**
+     * Returns the covered persons, grouped by household.
+     *
+     * @return a read-only view of the residents of the covered addresses
+     */
+    public List<Person> getResidents() {
+        return residents;
+    }
+
+    /**
+     * Returns the number of adults and children among the covered persons, at the day of the classification
+     * of the snapshot the coverage belongs to.
+     *
+     * @return the adults and children covered by the station
+     */
+    public AgeGroupCount getAgeGroupCount() {
+        return ageGroupCount;
+    }
+
+    /**
+     * Read-only view of the residents of a list of households, in the order of the households.
+     */
+    private static final class Residents extends AbstractList<Person> {
+        private final List<Household> households;
+        private final int size;
+
+        private Residents(List<Household> households) {
+            this.households = households;
+            this.size = households.stream().mapToInt(household -> household.getResidents().size()).sum();
+        }
+
+        @Override
+        public Person get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+
+            int remaining = index;
+            for (Household household : households) {
+                List<Person> householdResidents = household.getResidents();
+                if (remaining < householdResidents.size()) {
+                    return householdResidents.get(remaining);
+                }
+                remaining -= householdResidents.size();
+            }
+
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        @Override
+        public Iterator<Person> iterator() {
+            return households.stream().flatMap(household -> household.getResidents().stream()).iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
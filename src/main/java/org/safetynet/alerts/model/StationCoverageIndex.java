@@ -0,0 +1,163 @@
+package org.safetynet.alerts.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The {@link StationCoverage} of each fire station of a dataset, keyed by the id of the station in a
+ * {@link ValueDictionary} of the index, which only holds the stations having a coverage.
+ * Coverages are immutable and held in an {@link IntTrie}, so a copy of the index shares all of them and
+ * replacing one coverage only copies the path to it.
+ * An index belongs to a {@link DataSnapshot} and is never changed once the snapshot is published:
+ * a {@link DataSnapshot.Mutation} works on its own copy and, through {@link #refresh(String, Set,
+ * FireStationIndex, HouseholdIndex, PersonBitmapIndex)}, replaces in the coverage of a station only the
+ * households of the addresses whose mappings or residents it changed.
+ */
+public class StationCoverageIndex {
+    private final ValueDictionary stations;
+    private final IntTrie<StationCoverage> byStation;
+
+    /**
+     * Builds the coverages of all the stations of the given mappings.
+     *
+     * @param fireStationIndex the fire station mappings of the dataset
+     * @param householdIndex the households of the dataset
+     * @param personBitmapIndex the bitmaps counting the adults and children of each station
+     */
+    StationCoverageIndex(FireStationIndex fireStationIndex, HouseholdIndex householdIndex,
+                         PersonBitmapIndex personBitmapIndex) {
+        stations = new ValueDictionary();
+        byStation = new IntTrie<>();
+        fireStationIndex.forEachStation(station -> byStation.put(stations.encode(station),
+                coverage(station, fireStationIndex, householdIndex, personBitmapIndex)));
+    }
+
+    /**
+     * Builds the coverages of all the stations of the given mappings, the coverages of distinct stations
+     * being built concurrently on the given pool.
+     *
+     * @param fireStationIndex the fire station mappings of the dataset
+     * @param householdIndex the households of the dataset
+     * @param personBitmapIndex the bitmaps counting the adults and children of each station
+     * @param pool the pool building the coverages
+     */
+    StationCoverageIndex(FireStationIndex fireStationIndex, HouseholdIndex householdIndex,
+                         PersonBitmapIndex personBitmapIndex, ForkJoinPool pool) {
+        stations = new ValueDictionary();
+        IntStream.Builder stationIds = IntStream.builder();
+        fireStationIndex.forEachStation(station -> stationIds.add(stations.encode(station)));
+        byStation = IntTrie.build(stationIds.build().toArray(), stationId ->
+                coverage(stations.decode(stationId), fireStationIndex, householdIndex, personBitmapIndex), pool);
+    }
+
+    /**
+     * Copies an index in constant time, so that the copy can be changed without affecting the original one.
+     *
+     * @param other the index to copy
+     */
+    StationCoverageIndex(StationCoverageIndex other) {
+        stations = new ValueDictionary(other.stations);
+        byStation = new IntTrie<>(other.byStation);
+    }
+
+    /**
+     * Updates the coverage of a station after the mappings or the households of some of its addresses changed,
+     * or drops it when the station has no mapping anymore. The households of the other addresses are kept as
+     * they are, and the adults and children are counted again from the bitmaps, so that a changed classification
+     * is refreshed by passing no address.
+     *
+     * @param station the station number
+     * @param addresses the addresses whose mapping to the station or household changed
+     * @param fireStationIndex the fire station mappings of the dataset
+     * @param householdIndex the households of the dataset
+     * @param personBitmapIndex the bitmaps counting the adults and children of the station
+     */
+    void refresh(String station, Set<String> addresses, FireStationIndex fireStationIndex,
+                 HouseholdIndex householdIndex, PersonBitmapIndex personBitmapIndex) {
+        int stationId = stations.find(station);
+        if (fireStationIndex.findByStation(station).isEmpty()) {
+            if (byStation.remove(stationId) != null) {
+                stations.release(stationId);
+            }
+            return;
+        }
+
+        StationCoverage coverage = byStation.get(stationId);
+        List<Household> households = coverage != null
+                ? replaceHouseholds(station, coverage.getHouseholds(), addresses, fireStationIndex, householdIndex)
+                : null;
+        byStation.put(stations.encode(station), households != null
+                ? new StationCoverage(station, households, personBitmapIndex.countAgeGroups(List.of(station)))
+                : coverage(station, fireStationIndex, householdIndex, personBitmapIndex));
+    }
+
+    public Optional<StationCoverage> findByStation(String station) {
+        return Optional.ofNullable(byStation.get(stations.find(station)));
+    }
+
+    /**
+     * Replaces or removes the households of the given addresses in the households of a coverage, or returns
+     * {@code null} when an address must be inserted, since its place follows the order of the mappings.
+     */
+    private static List<Household> replaceHouseholds(String station, List<Household> households,
+                                                     Set<String> addresses, FireStationIndex fireStationIndex,
+                                                     HouseholdIndex householdIndex) {
+        if (addresses.isEmpty()) {
+            return households;
+        }
+
+        List<Household> replaced = new ArrayList<>(households.size());
+        Set<String> pending = new HashSet<>(addresses);
+        for (Household household : households) {
+            if (!pending.remove(household.getAddress())) {
+                replaced.add(household);
+            } else if (isMapped(station, household.getAddress(), fireStationIndex)) {
+                householdIndex.findByAddress(household.getAddress()).ifPresent(replaced::add);
+            }
+        }
+        for (String address : pending) {
+            if (isMapped(station, address, fireStationIndex) && householdIndex.findByAddress(address).isPresent()) {
+                return null;
+            }
+        }
+
+        return replaced;
+    }
+
+    private static boolean isMapped(String station, String address, FireStationIndex fireStationIndex) {
+        for (FireStation mapping : fireStationIndex.findByAddress(address)) {
+            if (Objects.equals(mapping.getStation(), station)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Builds the coverage of a station from its mappings, or returns {@code null} when the station has no mapping.
+     */
+    private static StationCoverage coverage(String station, FireStationIndex fireStationIndex,
+                                            HouseholdIndex householdIndex, PersonBitmapIndex personBitmapIndex) {
+        List<FireStation> mappings = fireStationIndex.findByStation(station);
+        if (mappings.isEmpty()) {
+            return null;
+        }
+
+        List<Household> households = new ArrayList<>(mappings.size());
+        Set<String> coveredAddresses = new HashSet<>();
+        for (FireStation mapping : mappings) {
+            if (coveredAddresses.add(mapping.getAddress())) {
+                householdIndex.findByAddress(mapping.getAddress()).ifPresent(households::add);
+            }
+        }
+
+        return new StationCoverage(station, households, personBitmapIndex.countAgeGroups(List.of(station)));
+    }
+}
@@ -0,0 +1,73 @@
+package org.safetynet.alerts.model;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Multimap keyed by the values of a field, such as addresses, cities and station numbers, each value being
+ * encoded by the {@link ValueDictionary} of the multimap into the id of its bucket in an {@link IdBuckets}.
+ * A value gets an id with its first element and gives it back with its last one, so the dictionary only holds
+ * the values of the indexed elements.
+ * A copy shares the dictionary and the buckets of the original, like {@link IdBuckets}.
+ *
+ * @param <T> the type of the indexed elements
+ */
+final class ValueBuckets<T> {
+    private final ValueDictionary dictionary;
+    private final IdBuckets<T> buckets;
+
+    ValueBuckets() {
+        dictionary = new ValueDictionary();
+        buckets = new IdBuckets<>();
+    }
+
+    /**
+     * Copies another multimap in constant time, so that the copy can be changed without affecting the original.
+     *
+     * @param other the multimap to copy, which must not be changed afterward
+     */
+    ValueBuckets(ValueBuckets<T> other) {
+        dictionary = new ValueDictionary(other.dictionary);
+        buckets = new IdBuckets<>(other.buckets);
+    }
+
+    /**
+     * Returns the elements of a value.
+     *
+     * @param value the value, may be {@code null}
+     * @return a read-only view of the elements of the value, in sequence order
+     */
+    List<T> get(String value) {
+        return buckets.get(dictionary.find(value));
+    }
+
+    void add(String value, int sequence, T element) {
+        buckets.add(dictionary.encode(value), sequence, element);
+    }
+
+    void remove(String value, int sequence) {
+        int id = dictionary.find(value);
+        buckets.remove(id, sequence);
+        if (buckets.count(id) == 0) {
+            dictionary.release(id);
+        }
+    }
+
+    /**
+     * Replaces an element by another one with the same sequence number, moving it to the bucket of a new value.
+     */
+    void replace(String value, String newValue, int sequence, T replacement) {
+        if (!Objects.equals(value, newValue)) {
+            remove(value, sequence);
+        }
+        add(newValue, sequence, replacement);
+    }
+
+    /**
+     * Passes the values having at least one element, in the order of their ids.
+     */
+    void forEachValue(Consumer<String> action) {
+        buckets.forEachId(id -> action.accept(dictionary.decode(id)));
+    }
+}
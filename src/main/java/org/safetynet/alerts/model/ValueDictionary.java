@@ -0,0 +1,151 @@
+package org.safetynet.alerts.model;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary encoding the values of a field shared by many objects, such as addresses, cities and station
+ * numbers, as small int ids, which an index uses as the keys of its buckets and a bitmap as array offsets.
+ * A dictionary belongs to the index encoding with it, see {@link ValueBuckets}: the index assigns an id when a
+ * value gets its first element and releases it when the value loses its last one. A released id is handed out
+ * again before any new id, so the ids stay below the number of values in use rather than the number ever seen.
+ * Like the indexes, a dictionary is persistent: a copy is made in constant time and shares every entry it does
+ * not change, and neither the original nor the copy must be changed once the snapshot holding it is published.
+ */
+public final class ValueDictionary {
+    /** Id of the {@code null} value. */
+    public static final int NULL_ID = -1;
+    /** Id returned by {@link #find(String)} for a value that has no id. */
+    public static final int UNKNOWN_ID = -2;
+
+    private final IntTrie<String> valuesById;
+    /** Ids of the values of each hash code, homonymous hash codes being told apart by comparing the values. */
+    private final IntTrie<int[]> idsByHash;
+    /** Released ids below {@link #idLimit}, each mapped to itself. */
+    private final IntTrie<Integer> releasedIds;
+    private int idLimit;
+
+    public ValueDictionary() {
+        valuesById = new IntTrie<>();
+        idsByHash = new IntTrie<>();
+        releasedIds = new IntTrie<>();
+    }
+
+    /**
+     * Copies a dictionary in constant time, so that the copy can be changed without affecting the original one.
+     *
+     * @param other the dictionary to copy, which must not be changed afterward
+     */
+    public ValueDictionary(ValueDictionary other) {
+        valuesById = new IntTrie<>(other.valuesById);
+        idsByHash = new IntTrie<>(other.idsByHash);
+        releasedIds = new IntTrie<>(other.releasedIds);
+        idLimit = other.idLimit;
+    }
+
+    /**
+     * Returns the id of a value, assigning one to a value without id: the smallest released id if any,
+     * the next id otherwise.
+     *
+     * @param value the value to encode, may be {@code null}
+     * @return the id of the value, or {@link #NULL_ID} for {@code null}
+     */
+    public int encode(String value) {
+        int id = find(value);
+        if (id != UNKNOWN_ID) {
+            return id;
+        }
+
+        id = releasedIds.isEmpty() ? idLimit++ : releasedIds.remove(releasedIds.getAt(0));
+        valuesById.put(id, value);
+        int[] ids = idsByHash.get(value.hashCode());
+        if (ids == null) {
+            idsByHash.put(value.hashCode(), new int[] {id});
+        } else {
+            int[] grown = Arrays.copyOf(ids, ids.length + 1);
+            grown[ids.length] = id;
+            idsByHash.put(value.hashCode(), grown);
+        }
+
+        return id;
+    }
+
+    /**
+     * Releases the id of a value no object of the index holds anymore, so that it can be assigned again.
+     *
+     * @param id the id to release; {@link #NULL_ID} and ids without value are ignored
+     */
+    public void release(int id) {
+        String value = id == NULL_ID ? null : valuesById.remove(id);
+        if (value == null) {
+            return;
+        }
+
+        int[] ids = idsByHash.get(value.hashCode());
+        if (ids.length == 1) {
+            idsByHash.remove(value.hashCode());
+        } else {
+            idsByHash.put(value.hashCode(), Arrays.stream(ids).filter(other -> other != id).toArray());
+        }
+
+        if (id == idLimit - 1) {
+            idLimit--;
+            while (idLimit > 0 && releasedIds.remove(idLimit - 1) != null) {
+                idLimit--;
+            }
+        } else {
+            releasedIds.put(id, id);
+        }
+    }
+
+    /**
+     * Returns the id of a value without assigning one, for lookups made with values coming from requests.
+     *
+     * @param value the value to look up, may be {@code null}
+     * @return the id of the value, {@link #NULL_ID} for {@code null}, or {@link #UNKNOWN_ID} if the value
+     *         has no id, in which case no object of the index holds it
+     */
+    public int find(String value) {
+        if (value == null) {
+            return NULL_ID;
+        }
+
+        int[] ids = idsByHash.get(value.hashCode());
+        if (ids != null) {
+            for (int id : ids) {
+                if (value.equals(valuesById.get(id))) {
+                    return id;
+                }
+            }
+        }
+
+        return UNKNOWN_ID;
+    }
+
+    /**
+     * Returns the value of an id.
+     *
+     * @param id an id returned by {@link #encode(String)}
+     * @return the encoded value, or {@code null} for {@link #NULL_ID} and ids without value
+     */
+    public String decode(int id) {
+        return id == NULL_ID ? null : valuesById.get(id);
+    }
+
+    /**
+     * Returns the number of values having an id.
+     *
+     * @return the size of the dictionary
+     */
+    public int size() {
+        return valuesById.size();
+    }
+
+    /**
+     * Returns one more than the greatest id in use, the length of an array indexed by the ids of the dictionary.
+     *
+     * @return the id limit, 0 for an empty dictionary
+     */
+    public int getIdLimit() {
+        return idLimit;
+    }
+}
@@ -1,11 +1,16 @@
 package org.safetynet.alerts.repository;
 
 import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.model.DataSnapshot;
 import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.FireStationIndex;
+import org.safetynet.alerts.model.JsonData;
 import org.safetynet.alerts.service.JsonDataService;
 import org.springframework.stereotype.Repository;
 
 import javax.management.InstanceAlreadyExistsException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -17,6 +22,9 @@ import java.util.Optional;
  * criteria such as address or station number.
  * This class relies on an external {@code JsonDataService} to access and update the fire station
  * data. FireStation equality is based on their address and station number.
+ * Station and address lookups are served from the {@link FireStationIndex} of the current
+ * {@link DataSnapshot}, without locking. Writes go through {@link JsonData#update} and publish a new
+ * snapshot: an updated mapping replaces the previous version of it.
  */
 @Repository
 @Slf4j
@@ -32,13 +40,15 @@ public class FireStationJsonRepository implements FireStationRepository {
      */
     @Override
     public FireStation create(FireStation fireStation) throws InstanceAlreadyExistsException {
-        if (findOneFireStation(fireStation.getAddress(), fireStation.getStation()).isPresent()) {
-            throw new InstanceAlreadyExistsException("FireStation already exists at address");
-        }
+        return JsonDataService.getJsonData().update(data -> {
+            if (findOneFireStation(data.getFireStationIndex(), fireStation.getAddress(), fireStation.getStation()).isPresent()) {
+                throw new InstanceAlreadyExistsException("FireStation already exists at address");
+            }
 
-        JsonDataService.getJsonData().getFirestations().add(fireStation);
+            data.addFireStation(fireStation);
 
-        return fireStation;
+            return fireStation;
+        });
     }
 
     /**
@@ -47,17 +57,22 @@ public class FireStationJsonRepository implements FireStationRepository {
      * @param address the address of the FireStation to update
      * @param station the current station number of the FireStation to update
      * @param newStation the new station number to assign to the FireStation
-     * @return the updated FireStation object with the new station number
+     * @return the new version of the FireStation object, with the new station number
      * @throws NoSuchElementException if no FireStation matching the given address and station is found
      */
     @Override
     public FireStation update(String address, String station, String newStation) throws NoSuchElementException {
-        FireStation fireStationToUpdate = findOneFireStation(address, station)
-                .orElseThrow(() -> new NoSuchElementException("No fire station to update found"));
+        return JsonDataService.getJsonData().update(data -> {
+            FireStation fireStationToUpdate = findOneFireStation(data.getFireStationIndex(), address, station)
+                    .orElseThrow(() -> new NoSuchElementException("No fire station to update found"));
 
-        fireStationToUpdate.setStation(newStation);
+            FireStation updatedFireStation = new FireStation()
+                    .setAddress(fireStationToUpdate.getAddress())
+                    .setStation(newStation);
+            data.replaceFireStation(fireStationToUpdate, updatedFireStation);
 
-        return fireStationToUpdate;
+            return updatedFireStation;
+        });
     }
 
     /**
@@ -68,8 +83,16 @@ public class FireStationJsonRepository implements FireStationRepository {
      */
     @Override
     public boolean remove(FireStation fireStationToDelete) {
-        return JsonDataService.getJsonData().getFirestations()
-                .removeIf(fireStation -> fireStation.equals(fireStationToDelete));
+        return JsonDataService.getJsonData().update(data -> {
+            List<FireStation> fireStations = data.getFireStationIndex().findByAddress(fireStationToDelete.getAddress())
+                    .stream()
+                    .filter(fireStation -> fireStation.equals(fireStationToDelete))
+                    .toList();
+
+            fireStations.forEach(data::removeFireStation);
+
+            return !fireStations.isEmpty();
+        });
     }
 
     /**
@@ -81,9 +104,7 @@ public class FireStationJsonRepository implements FireStationRepository {
      */
     @Override
     public Optional<FireStation> findFireStationAtAddress(String address) {
-        return JsonDataService.getJsonData().getFirestations().stream()
-                .filter(f -> f.getAddress().equals(address))
-                .findFirst();
+        return index().findByAddress(address).stream().findFirst();
     }
 
     /**
@@ -97,17 +118,13 @@ public class FireStationJsonRepository implements FireStationRepository {
      */
     @Override
     public Optional<FireStation> findOneFireStation(String address, String station) {
-        return JsonDataService.getJsonData()
-                .getFirestations()
-                .stream()
-                .filter(fireStation -> fireStation.getAddress().equals(address) && fireStation.getStation().equals(station))
-                .findFirst();
+        return findOneFireStation(index(), address, station);
     }
 
     /**
      * Retrieves a list of all fire stations.
      *
-     * @return a list of {@code FireStation} objects representing all fire stations, or an empty list if no fire stations are available.
+     * @return a read-only list of {@code FireStation} objects representing all fire stations of the current snapshot, or an empty list if no fire stations are available.
      */
     @Override
     public List<FireStation> findAll() {
@@ -124,10 +141,7 @@ public class FireStationJsonRepository implements FireStationRepository {
      */
     @Override
     public List<String> findAllAddressForOneStation(String stationNumber) {
-        return JsonDataService.getJsonData().getFirestations().stream()
-                .filter(fireStation -> fireStation.getStation().equals(stationNumber))
-                .map(FireStation::getAddress)
-                .toList();
+        return index().findAddressesByStation(stationNumber);
     }
 
     /**
@@ -139,10 +153,29 @@ public class FireStationJsonRepository implements FireStationRepository {
      */
     @Override
     public List<String> findAddressesForStations(String[] stations) {
-        return JsonDataService.getJsonData().getFirestations()
+        FireStationIndex currentIndex = index();
+        List<String> addresses = new ArrayList<>();
+
+        for (String station : new LinkedHashSet<>(List.of(stations))) {
+            addresses.addAll(currentIndex.findAddressesByStation(station));
+        }
+
+        return addresses;
+    }
+
+    private static Optional<FireStation> findOneFireStation(FireStationIndex index, String address, String station) {
+        return index.findByAddress(address)
                 .stream()
-                .filter(fireStation -> List.of(stations).contains(fireStation.getStation()))
-                .map(FireStation::getAddress)
-                .toList();
+                .filter(fireStation -> fireStation.getStation().equals(station))
+                .findFirst();
+    }
+
+    /**
+     * Returns the fire station index of the current snapshot.
+     *
+     * @return the {@link FireStationIndex} of the current snapshot
+     */
+    private static FireStationIndex index() {
+        return JsonDataService.getJsonData().getSnapshot().getFireStationIndex();
     }
 }
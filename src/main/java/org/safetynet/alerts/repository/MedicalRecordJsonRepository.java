@@ -1,17 +1,21 @@
 package org.safetynet.alerts.repository;
 
 import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.JsonData;
 import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.MedicalRecordIndex;
 import org.safetynet.alerts.model.Person;
 import org.safetynet.alerts.service.JsonDataService;
 import org.springframework.stereotype.Component;
 
 import javax.management.InstanceAlreadyExistsException;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 
 /**
@@ -21,16 +25,23 @@ import java.util.stream.Collectors;
  * The operations include creating new records, updating existing records, removing records,
  * finding records by different criteria, and counting adult or child records based on
  * individuals' full names.
- * It interacts with PersonRepository to ensure the existence of associated people
- * when manipulating medical records.
+ * The existence of the associated person is checked against the {@link org.safetynet.alerts.model.PersonIndex}
+ * of the snapshot being changed, on the writer thread, so it cannot be removed in between.
+ * Full name lookups are served from the {@link MedicalRecordIndex} of the current {@link DataSnapshot},
+ * without locking. Writes go through {@link JsonData#update} and publish a new snapshot: an updated
+ * record replaces the previous version of it.
+ * Adult and child counts read the classification held by the index. When the current day of the
+ * injected {@link Clock} is not the day of the published classification, the counts are read from a
+ * copy of the snapshot classified at that day, without publishing it; {@link #reclassifyAges()}
+ * publishes the new classification.
  */
 @Component
 @Slf4j
 public class MedicalRecordJsonRepository implements MedicalRecordRepository {
-    private final PersonRepository personRepository;
+    private final Clock clock;
 
-    public MedicalRecordJsonRepository(PersonRepository personRepository) {
-        this.personRepository = personRepository;
+    public MedicalRecordJsonRepository(Clock clock) {
+        this.clock = clock;
     }
 
     /**
@@ -43,41 +54,50 @@ public class MedicalRecordJsonRepository implements MedicalRecordRepository {
      */
     @Override
     public MedicalRecord create(MedicalRecord medicalRecord) throws InstanceAlreadyExistsException, NoSuchElementException {
-        Optional<Person> person = personRepository.findOneByFullName(medicalRecord.getFullName());
-        if (person.isEmpty()) {
-            log.debug("Person for new medical record not exists.");
-            throw new NoSuchElementException("Person for new medical record not exists");
-        }
-
-        Optional<MedicalRecord> existingMedicalRecord = findOneByFullName(medicalRecord.getFullName());
-        if (existingMedicalRecord.isPresent()) {
-            log.debug("Medical record already exists.");
-            throw new InstanceAlreadyExistsException("Medical record already exists");
-        }
-
-        JsonDataService.getJsonData().getMedicalrecords().add(medicalRecord);
-
-        return medicalRecord;
+        return JsonDataService.getJsonData().update(data -> {
+            Optional<Person> person = data.getPersonIndex().findByFullName(medicalRecord.getFullName());
+            if (person.isEmpty()) {
+                log.debug("Person for new medical record not exists.");
+                throw new NoSuchElementException("Person for new medical record not exists");
+            }
+
+            Optional<MedicalRecord> existingMedicalRecord = data.getMedicalRecordIndex()
+                    .findByFullName(medicalRecord.getFullName());
+            if (existingMedicalRecord.isPresent()) {
+                log.debug("Medical record already exists.");
+                throw new InstanceAlreadyExistsException("Medical record already exists");
+            }
+
+            data.addMedicalRecord(medicalRecord);
+
+            return medicalRecord;
+        });
     }
 
     /**
      * Updates an existing medical record with new data provided.
      *
      * @param medicalRecord the updated medical record containing the new data to be persisted
-     * @return the updated medical record
+     * @return the new version of the medical record
      * @throws NoSuchElementException if the medical record to update cannot be found
      */
     @Override
     public MedicalRecord update(MedicalRecord medicalRecord) {
-        MedicalRecord medicalRecordToUpdate = findOneByFullName(medicalRecord.getFullName())
-                .orElseThrow(() -> new NoSuchElementException("Medical record not found"));
-
-        medicalRecordToUpdate
-                .setBirthdate(medicalRecord.getBirthdate())
-                .setMedications(medicalRecord.getMedications())
-                .setAllergies(medicalRecord.getAllergies());
-
-        return medicalRecordToUpdate;
+        return JsonDataService.getJsonData().update(data -> {
+            MedicalRecord medicalRecordToUpdate = data.getMedicalRecordIndex()
+                    .findByFullName(medicalRecord.getFullName())
+                    .orElseThrow(() -> new NoSuchElementException("Medical record not found"));
+
+            MedicalRecord updatedMedicalRecord = new MedicalRecord()
+                    .setFirstName(medicalRecordToUpdate.getFirstName())
+                    .setLastName(medicalRecordToUpdate.getLastName())
+                    .setBirthdate(medicalRecord.getBirthdate())
+                    .setMedications(medicalRecord.getMedications())
+                    .setAllergies(medicalRecord.getAllergies());
+            data.replaceMedicalRecord(medicalRecordToUpdate, updatedMedicalRecord);
+
+            return updatedMedicalRecord;
+        });
     }
 
     /**
@@ -91,8 +111,16 @@ public class MedicalRecordJsonRepository implements MedicalRecordRepository {
     public boolean remove(String firstName, String lastName) {
         String fullName = firstName + " " + lastName;
 
-        return JsonDataService.getJsonData().getMedicalrecords()
-                .removeIf(medicalRecord -> medicalRecord.getFullName().equals(fullName));
+        return JsonDataService.getJsonData().update(data -> {
+            Optional<MedicalRecord> medicalRecordToRemove = data.getMedicalRecordIndex().findByFullName(fullName);
+            if (medicalRecordToRemove.isEmpty()) {
+                return false;
+            }
+
+            data.removeMedicalRecord(medicalRecordToRemove.get());
+
+            return true;
+        });
     }
 
     /**
@@ -103,18 +131,14 @@ public class MedicalRecordJsonRepository implements MedicalRecordRepository {
      */
     @Override
     public Optional<MedicalRecord> findOneByFullName(String fullName) {
-        return JsonDataService.getJsonData()
-                .getMedicalrecords()
-                .stream()
-                .filter(medicalRecord -> medicalRecord.getFullName().equals(fullName))
-                .findFirst();
+        return index().findByFullName(fullName);
     }
 
     /**
      * Retrieves a list of all medical records.
      *
-     * @return a list of {@code MedicalRecord} objects representing all medical records,
-     *         or an empty list if no medical records are available.
+     * @return a read-only list of {@code MedicalRecord} objects representing all medical records
+     *         of the current snapshot, or an empty list if no medical records are available.
      */
     @Override
     public List<MedicalRecord> findAll() {
@@ -122,44 +146,40 @@ public class MedicalRecordJsonRepository implements MedicalRecordRepository {
     }
 
     /**
-     * Counts the number of adults from the provided list of full names.
+     * Retrieves a map of all medical records indexed by the full name of the associated individual.
+     * The map is a read-only view of the index of the current snapshot, it is not copied on each call
+     * and does not change when later writes publish a new snapshot.
      *
-     * @param fullNames the list of full names to check against the medical records.
-     * @return the number of individuals who are adults and whose full names match the provided list.
+     * @return a map where the keys are full names (as Strings) and the values are MedicalRecord objects.
      */
     @Override
-    public int countAdultFromFullName(List<String> fullNames) {
-        return JsonDataService.getJsonData().getMedicalrecords().stream()
-                .filter(medicalRecord -> fullNames.contains(medicalRecord.getFullName()) && medicalRecord.isAdult())
-                .toList().size();
+    public Map<String, MedicalRecord> getAllByFullName() {
+        return index().asMap();
     }
 
     /**
-     * Counts the number of children based on the provided list of full names.
-     * A child is identified using the `isChild` method in the medical records.
+     * Moves the child/adult classification to the current day. Only the persons whose
+     * adulthood date has been reached since the previous classification are reclassified.
      *
-     * @param fullNames a list of full names to match against the medical records.
-     * @return the count of children whose full names match the provided list.
+     * @return the medical records of the persons who became adults
      */
     @Override
-    public int countChildrenFromFullName(List<String> fullNames) {
-        return JsonDataService.getJsonData().getMedicalrecords().stream()
-                .filter(medicalRecord -> fullNames.contains(medicalRecord.getFullName()) && medicalRecord.isChild())
-                .toList().size();
+    public List<MedicalRecord> reclassifyAges() {
+        LocalDate today = today();
+
+        return JsonDataService.getJsonData().update(data -> data.classifyAt(today));
     }
 
     /**
-     * Retrieves a map of all medical records indexed by the full name of the associated individual.
+     * Returns the medical record index of the current snapshot.
      *
-     * @return a map where the keys are full names (as Strings) and the values are MedicalRecord objects.
+     * @return the {@link MedicalRecordIndex} of the current snapshot
      */
-    @Override
-    public Map<String, MedicalRecord> getAllByFullName() {
-        return JsonDataService.getJsonData().getMedicalrecords()
-                .stream()
-                .collect(Collectors.toMap(
-                        MedicalRecord::getFullName,
-                        medicalRecord -> medicalRecord
-                ));
+    private static MedicalRecordIndex index() {
+        return JsonDataService.getJsonData().getSnapshot().getMedicalRecordIndex();
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
     }
 }
@@ -3,7 +3,10 @@ package org.safetynet.alerts.repository;
 import org.safetynet.alerts.model.MedicalRecord;
 
 import javax.management.InstanceAlreadyExistsException;
-import java.util.*;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 
 
 /**
@@ -67,21 +70,13 @@ public interface MedicalRecordRepository {
     public List<MedicalRecord> findAll();
 
     /**
-     * Counts the number of adults from the provided list of full names.
+     * Moves the child/adult classification to the current day, reclassifying only the persons
+     * whose adulthood date has been reached since the previous classification.
      *
-     * @param fullNames the list of full names to check against the medical records.
-     * @return the number of individuals who are adults and whose full names match the provided list.
+     * @return the medical records of the persons who became adults
      */
-    public int countAdultFromFullName(List<String> fullNames);
+    public List<MedicalRecord> reclassifyAges();
 
-    /**
-     * Counts the number of children based on the provided list of full names.
-     * A child is identified using the `isChild` method in the medical records.
-     *
-     * @param fullNames a list of full names to match against the medical records.
-     * @return the count of children whose full names match the provided list.
-     */
-    public int countChildrenFromFullName(List<String> fullNames);
     /**
      * Retrieves a map of all medical records indexed by the full name of the associated individual.
      *
@@ -1,14 +1,27 @@
 package org.safetynet.alerts.repository;
 
 import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.Household;
+import org.safetynet.alerts.model.JsonData;
 import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.PersonIndex;
+import org.safetynet.alerts.model.StationCoverage;
+import org.safetynet.alerts.model.StationCoverageIndex;
 import org.safetynet.alerts.service.JsonDataService;
 import org.springframework.stereotype.Component;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -16,11 +29,23 @@ import java.util.stream.Collectors;
  * Provides functionality to create, update, delete, and query Person data.
  * The data is stored and managed via the JsonDataService, which loads and holds data in memory
  * from a JSON source file at application startup.
+ * Reads are served from the {@link PersonIndex} of the current {@link DataSnapshot}, without locking.
+ * Writes go through {@link JsonData#update} and publish a new snapshot: persons are never changed
+ * in place, an updated person replaces the previous version of it.
  */
 @Component
 @Slf4j
 public class PersonJsonRepository implements PersonRepository {
 
+    private final Clock clock;
+
+    /**
+     * @param clock the clock giving the current day, at which adults and children are counted
+     */
+    public PersonJsonRepository(Clock clock) {
+        this.clock = clock;
+    }
+
     /**
      * Creates a new Person entry and adds it to the existing dataset.
      * If a Person with the same full name already exists, an exception is thrown.
@@ -31,59 +56,76 @@ public class PersonJsonRepository implements PersonRepository {
      * @throws InstanceAlreadyExistsException if a Person with the same full name already exists
      */
     public Person create(Person person) throws IllegalArgumentException, InstanceAlreadyExistsException {
+        return JsonDataService.getJsonData().update(data -> {
+            if (data.getPersonIndex().findByFullName(person.getFullName()).isPresent()) {
+                log.debug("Person already exists");
+                throw new InstanceAlreadyExistsException("Person already exists");
+            }
 
-        if (findOneByFullName(person.getFullName()).isPresent()) {
-            log.debug("Person already exists");
-            throw new InstanceAlreadyExistsException("Person already exists");
-        }
-
-        JsonDataService.getJsonData().getPersons().add(person);
+            data.addPerson(person);
 
-        return person;
+            return person;
+        });
     }
 
     /**
      * Updates the details of an existing person in the dataset.
      * This method identifies the person to update by matching the given person object with an
      * existing person in the dataset. If a match is not found, an {@code InstanceNotFoundException}
-     * is thrown. If a match is found, the person's details are updated with the new values provided
-     * in the input object and the updated person is returned.
+     * is thrown. If a match is found, the person is replaced by a new version holding the new values
+     * provided in the input object and the updated person is returned.
      *
      * @param person the {@code Person} object containing the updated details of the person to find and update
      * @return the updated {@code Person} object reflecting the modified values
      * @throws InstanceNotFoundException if the person to update does not exist in the dataset
      */
     public Person update(Person person) throws InstanceNotFoundException {
-        Optional<Person> personToUpdate = JsonDataService.getJsonData().getPersons().stream()
-                .filter(curentPerson -> curentPerson.equals(person)).findFirst();
+        return JsonDataService.getJsonData().update(data -> {
+            Optional<Person> personToUpdate = data.getPersonIndex().findByFullName(person.getFullName());
 
-        if (personToUpdate.isEmpty()) {
-            log.debug("Person not found");
-            throw new InstanceNotFoundException("Person not found to update not found");
-        }
+            if (personToUpdate.isEmpty()) {
+                log.debug("Person not found");
+                throw new InstanceNotFoundException("Person not found to update not found");
+            }
+
+            Person updatedPerson = new Person()
+                    .setFirstName(personToUpdate.get().getFirstName())
+                    .setLastName(personToUpdate.get().getLastName())
+                    .setAddress(person.getAddress())
+                    .setCity(person.getCity())
+                    .setZip(person.getZip())
+                    .setEmail(person.getEmail())
+                    .setPhone(person.getPhone());
+            data.replacePerson(personToUpdate.get(), updatedPerson);
 
-        return personToUpdate.get()
-                .setAddress(person.getAddress())
-                .setCity(person.getCity())
-                .setZip(person.getZip())
-                .setEmail(person.getEmail())
-                .setPhone(person.getPhone());
+            return updatedPerson;
+        });
     }
 
     /**
      * Removes a person and their corresponding medical record from the data repository
-     * based on the provided full name.
+     * based on the provided full name. Both are removed in the same snapshot.
      *
      * @param fullName the full name of the individual to remove (e.g., "John Doe")
      * @return {@code true} if the person and their medical record were successfully removed,
      *         {@code false} otherwise
      */
     public boolean remove(String fullName) {
-        JsonDataService.getJsonData().getMedicalrecords()
-                .removeIf(medicalRecord -> medicalRecord.getFullName().equals(fullName));
+        return JsonDataService.getJsonData().update(data -> {
+            data.getMedicalRecordIndex().findByFullName(fullName).ifPresent(data::removeMedicalRecord);
 
-        return JsonDataService.getJsonData().getPersons()
-                .removeIf(person -> person.getFullName().equals(fullName));
+            Optional<Person> personToRemove = data.getPersonIndex().findByFullName(fullName);
+            if (personToRemove.isEmpty()) {
+                return false;
+            }
+
+            data.getPersonIndex().findByLastName(personToRemove.get().getLastName()).stream()
+                    .filter(person -> person.getFullName().equals(fullName))
+                    .toList()
+                    .forEach(data::removePerson);
+
+            return true;
+        });
     }
 
     /**
@@ -95,11 +137,7 @@ public class PersonJsonRepository implements PersonRepository {
      *         persons are found
      */
     public List<Person> findAllPersonAtAddress(String address) {
-        return JsonDataService.getJsonData()
-                .getPersons()
-                .stream()
-                .filter(person -> person.getAddress().equals(address))
-                .collect(Collectors.toList());
+        return new ArrayList<>(index().findByAddress(address));
     }
 
     /**
@@ -109,11 +147,7 @@ public class PersonJsonRepository implements PersonRepository {
      * @return a list of {@code Person} objects whose last name matches the given parameter
      */
     public List<Person> findAllPersonByLastName(String lastName) {
-        return JsonDataService.getJsonData()
-                .getPersons()
-                .stream()
-                .filter(person -> person.getLastName().equals(lastName))
-                .collect(Collectors.toList());
+        return new ArrayList<>(index().findByLastName(lastName));
     }
 
     /**
@@ -126,48 +160,81 @@ public class PersonJsonRepository implements PersonRepository {
      *         or an empty {@code Optional} if no person matches the given full name
      */
     public Optional<Person> findOneByFullName(String fullName) {
-        return JsonDataService.getJsonData()
-                .getPersons()
-                .stream()
-                .filter(person -> person.getFullName().equals(fullName))
-                .findFirst();
+        return index().findByFullName(fullName);
     }
 
     /**
-     * Retrieves a list of persons whose addresses match any of the addresses provided in the input list.
-     * This method filters the available persons based on their address and returns a list of matching persons.
+     * Retrieves the household of the given address from the household index of the current snapshot.
      *
-     * @param addresses a list of address strings to filter persons by
-     * @return a list of {@code Person} objects corresponding to the given addresses
+     * @param address the address of the household
+     * @return an {@code Optional} containing the {@code Household} if somebody lives at the address,
+     *         or an empty {@code Optional} otherwise
      */
-    public List<Person> findAllPersonFromAddresses(List<String> addresses) {
-        return JsonDataService.getJsonData().getPersons()
-                .stream()
-                .filter(person -> addresses.contains(person.getAddress()))
-                .collect(Collectors.toList());
+    public Optional<Household> findHousehold(String address) {
+        return JsonDataService.getJsonData().getSnapshot().getHouseholdIndex().findByAddress(address);
     }
 
     /**
-     * Retrieves a list of all persons available in the data source.
+     * Retrieves the households of the addresses covered by any of the given fire stations, each address once,
+     * in the order of the stations and then of their mappings. Read from the station coverages of the current
+     * snapshot, covered addresses where nobody lives are left out.
      *
-     * @return a list of {@code Person} objects representing all persons, or an empty list if no persons are available.
+     * @param stations the station numbers to find the households of
+     * @return a list of {@code Household} objects covered by the stations
      */
-    public List<Person> findAll() {
-        return JsonDataService.getJsonData().getPersons();
+    public List<Household> findHouseholdsFromStations(Collection<String> stations) {
+        StationCoverageIndex coverageIndex = JsonDataService.getJsonData().getSnapshot().getStationCoverageIndex();
+        Set<Household> households = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Household> covered = new ArrayList<>();
+
+        for (String station : stations) {
+            coverageIndex.findByStation(station).ifPresent(coverage -> coverage.getHouseholds().stream()
+                    .filter(households::add)
+                    .forEach(covered::add));
+        }
+
+        return covered;
+    }
+
+    /**
+     * Retrieves the coverage of a fire station from a snapshot classified at the current day, so that its
+     * counts of adults and children are up to date.
+     *
+     * @param station the station number
+     * @return an {@code Optional} containing the {@code StationCoverage} if the station covers any address,
+     *         or an empty {@code Optional} otherwise
+     */
+    public Optional<StationCoverage> findStationCoverage(String station) {
+        return JsonDataService.getJsonData()
+                .getSnapshotClassifiedAt(LocalDate.now(clock))
+                .getStationCoverageIndex()
+                .findByStation(station);
     }
 
     /**
-     * Finds and returns a list of phone numbers associated with the provided list of addresses.
-     * The method filters the persons data obtained from the JsonDataService and matches their addresses
-     * with the provided addresses to retrieve phone numbers.
+     * Counts the persons covered by any of the given fire stations whose age is within a bracket,
+     * each person once. Answered with a binary search of both ends of the bracket in the sorted
+     * birthdates of the residents of the stations.
      *
-     * @param addresses a list of addresses to search for corresponding phone numbers
-     * @return a list of phone numbers belonging to persons whose addresses match the provided list
+     * @param stations the station numbers to count the persons of
+     * @param minAge the minimum age, inclusive
+     * @param maxAge the maximum age, inclusive, or {@link Integer#MAX_VALUE} for no maximum
+     * @return the number of persons of the age bracket covered by the stations
+     * @throws IllegalArgumentException if {@code minAge} is negative or greater than {@code maxAge}
      */
-    public List<String> findPhoneNumbersFromAddresses(List<String> addresses) {
-        return JsonDataService.getJsonData().getPersons().stream()
-                .filter(person -> addresses.contains(person.getAddress()))
-                .map(Person::getPhone).toList();
+    public int countPersonsAgedFromStations(Collection<String> stations, int minAge, int maxAge) {
+        return JsonDataService.getJsonData().getSnapshot()
+                .countPersonsAged(stations, minAge, maxAge, LocalDate.now(clock));
+    }
+
+    /**
+     * Retrieves a list of all persons available in the data source.
+     *
+     * @return a read-only list of {@code Person} objects representing all persons of the current snapshot,
+     *         or an empty list if no persons are available.
+     */
+    public List<Person> findAll() {
+        return JsonDataService.getJsonData().getPersons();
     }
 
     /**
@@ -177,11 +244,18 @@ public class PersonJsonRepository implements PersonRepository {
      * @return a list of email addresses of persons living in the specified city
      */
     public List<String> findAllEmailsAtCity(String city) {
-        return JsonDataService.getJsonData()
-                .getPersons()
+        return index().findByCity(city)
                 .stream()
-                .filter(person -> person.getCity().equals(city))
                 .map(Person::getEmail)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Returns the person index of the current snapshot.
+     *
+     * @return the {@link PersonIndex} of the current snapshot
+     */
+    private static PersonIndex index() {
+        return JsonDataService.getJsonData().getSnapshot().getPersonIndex();
+    }
 }
@@ -1,9 +1,12 @@
 package org.safetynet.alerts.repository;
 
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.StationCoverage;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -78,30 +81,51 @@ public interface PersonRepository {
     public Optional<Person> findOneByFullName(String fullName);
 
     /**
-     * Retrieves a list of persons whose addresses match any of the addresses provided in the input list.
-     * This method filters the available persons based on their address and returns a list of matching persons.
+     * Retrieves the household of the given address: its residents, their medical records and phone numbers,
+     * and the number of adults and children among them.
      *
-     * @param addresses a list of address strings to filter persons by
-     * @return a list of {@code Person} objects corresponding to the given addresses
+     * @param address the address of the household
+     * @return an {@code Optional} containing the {@code Household} if somebody lives at the address,
+     *         or an empty {@code Optional} otherwise
      */
-    public List<Person> findAllPersonFromAddresses(List<String> addresses);
+    public Optional<Household> findHousehold(String address);
 
     /**
-     * Retrieves a list of all persons available in the data source.
+     * Retrieves the households of the addresses covered by any of the given fire stations, each address once.
      *
-     * @return a list of {@code Person} objects representing all persons, or an empty list if no persons are available.
+     * @param stations the station numbers to find the households of
+     * @return a list of {@code Household} objects covered by the stations
      */
-    public List<Person> findAll();
+    public List<Household> findHouseholdsFromStations(Collection<String> stations);
+
+    /**
+     * Retrieves the coverage of a fire station: the households of its addresses, their residents and phone
+     * numbers, and the number of adults and children among them at the current day.
+     *
+     * @param station the station number
+     * @return an {@code Optional} containing the {@code StationCoverage} if the station covers any address,
+     *         or an empty {@code Optional} otherwise
+     */
+    public Optional<StationCoverage> findStationCoverage(String station);
 
     /**
-     * Finds and returns a list of phone numbers associated with the provided list of addresses.
-     * The method filters the persons data obtained from the JsonDataService and matches their addresses
-     * with the provided addresses to retrieve phone numbers.
+     * Counts the persons covered by any of the given fire stations whose age is within a bracket,
+     * for instance the persons under 5 or over 65, each person once.
      *
-     * @param addresses a list of addresses to search for corresponding phone numbers
-     * @return a list of phone numbers belonging to persons whose addresses match the provided list
+     * @param stations the station numbers to count the persons of
+     * @param minAge the minimum age, inclusive
+     * @param maxAge the maximum age, inclusive, or {@link Integer#MAX_VALUE} for no maximum
+     * @return the number of persons of the age bracket covered by the stations
+     * @throws IllegalArgumentException if {@code minAge} is negative or greater than {@code maxAge}
      */
-    public List<String> findPhoneNumbersFromAddresses(List<String> addresses);
+    public int countPersonsAgedFromStations(Collection<String> stations, int minAge, int maxAge);
+
+    /**
+     * Retrieves a list of all persons available in the data source.
+     *
+     * @return a list of {@code Person} objects representing all persons, or an empty list if no persons are available.
+     */
+    public List<Person> findAll();
 
     /**
      * Retrieves a list of email addresses for all persons who reside in the specified city.
@@ -0,0 +1,32 @@
+package org.safetynet.alerts.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the child/adult classification of medical records forward at each day boundary.
+ * Only the persons whose birthday makes them adults that day are reclassified, so the cost
+ * of the rollover does not depend on the size of the population.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AgeClassificationScheduler {
+
+    private final MedicalRecordService medicalRecordService;
+
+    /**
+     * Reclassifies the persons who reach majority today. Runs at midnight by default,
+     * the schedule can be changed with the {@code medical.record.reclassify.cron} property.
+     */
+    @Scheduled(cron = "${medical.record.reclassify.cron:0 0 0 * * *}")
+    public void reclassifyAges() {
+        List<MedicalRecord> newAdults = medicalRecordService.reclassifyAges();
+        log.info("Daily age reclassification: {} person(s) became adult", newAdults.size());
+    }
+}
@@ -0,0 +1,83 @@
+package org.safetynet.alerts.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.JsonData;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command line tool converting a dataset between JSON data and binary snapshots, in either direction.
+ * The format of each file is chosen from its extension: {@link BinarySnapshotFormat#EXTENSION} for a
+ * binary snapshot, JSON otherwise, gzip-compressed when the name ends with {@code .gz}.
+ *
+ * <pre>
+ * java -cp alerts.jar -Dloader.main=org.safetynet.alerts.service.BinarySnapshotConverter \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher data.json data.snapshot
+ * </pre>
+ */
+@Slf4j
+public final class BinarySnapshotConverter {
+
+    private BinarySnapshotConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BinarySnapshotConverter <input> <output>");
+            System.exit(2);
+        }
+
+        convert(new ObjectMapper(), args[0], Path.of(args[1]));
+    }
+
+    /**
+     * Converts the data at the input path, resolved like {@code json.data.path}, to the output file.
+     * The output is written to a temporary file renamed over the output, so it is never left half written.
+     *
+     * @param objectMapper the mapper reading and writing JSON data
+     * @param inputPath the path of the data to convert
+     * @param outputPath the file to write
+     * @return the converted snapshot
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public static DataSnapshot convert(ObjectMapper objectMapper, String inputPath, Path outputPath) throws IOException {
+        JsonData jsonData;
+        try (InputStream input = JsonDataService.openJsonData(inputPath)) {
+            jsonData = BinarySnapshotFormat.isBinarySnapshot(inputPath)
+                    ? BinarySnapshotFormat.read(input)
+                    : new JsonDataReader(objectMapper).read(input);
+        }
+        DataSnapshot snapshot = jsonData.getSnapshot();
+
+        if (outputPath.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(outputPath.toAbsolutePath().getParent());
+        }
+        Path temporaryPath = outputPath.resolveSibling(outputPath.getFileName() + ".tmp");
+        String outputName = outputPath.getFileName().toString();
+
+        try (OutputStream output = outputName.endsWith(".gz")
+                ? new GZIPOutputStream(Files.newOutputStream(temporaryPath), 64 * 1024)
+                : new BufferedOutputStream(Files.newOutputStream(temporaryPath))) {
+            if (BinarySnapshotFormat.isBinarySnapshot(outputName)) {
+                BinarySnapshotFormat.write(snapshot, output);
+            } else {
+                new JsonDataWriter(objectMapper).write(snapshot, output);
+            }
+        }
+        Files.move(temporaryPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+
+        log.info("Converted {} to {}: {} persons, {} fire stations, {} medical records", inputPath, outputPath,
+                snapshot.getPersons().size(), snapshot.getFireStations().size(), snapshot.getMedicalRecords().size());
+
+        return snapshot;
+    }
+}
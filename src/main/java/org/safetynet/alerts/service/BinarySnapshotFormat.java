@@ -0,0 +1,269 @@
+package org.safetynet.alerts.service;
+
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format of a dataset, loaded much faster than the JSON data since nothing has to be
+ * tokenized. Every distinct string is stored once, in a dictionary, and records refer to it by index.
+ *
+ * <pre>
+ * magic           int     0x534E4150 ("SNAP")
+ * format version  int     {@value #FORMAT_VERSION}
+ * data version    long    version of the dataset
+ * dictionary      int count, then count x (int length, UTF-8 bytes)
+ * persons         int count, then count x 7 string ids:
+ *                 firstName, lastName, address, city, zip, phone, email
+ * fire stations   int count, then count x 2 string ids: address, station
+ * medical records int count, then count x (firstName id, lastName id, long birthdate epoch day,
+ *                 int medication count then ids, int allergy count then ids)
+ * </pre>
+ * All numbers are big-endian. A {@code null} string id is {@value #NULL_ID}, a {@code null} list count
+ * is {@value #NULL_ID} and a {@code null} birthdate is {@link Long#MIN_VALUE}.
+ */
+public final class BinarySnapshotFormat {
+
+    /** Extension of the binary snapshot files. */
+    public static final String EXTENSION = ".snapshot";
+
+    private static final int MAGIC = 0x534E4150;
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_ID = -1;
+    private static final long NULL_BIRTHDATE = Long.MIN_VALUE;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private BinarySnapshotFormat() {
+    }
+
+    /**
+     * Tells whether a path names a binary snapshot rather than JSON data, from its extension.
+     *
+     * @param path the path of the data
+     * @return {@code true} for a binary snapshot
+     */
+    public static boolean isBinarySnapshot(String path) {
+        return path.endsWith(EXTENSION);
+    }
+
+    /**
+     * Writes the given snapshot to the stream. The stream is flushed but not closed.
+     *
+     * @param snapshot the snapshot to write
+     * @param output the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(DataSnapshot snapshot, OutputStream output) throws IOException {
+        Map<String, Integer> dictionary = buildDictionary(snapshot);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(snapshot.getVersion());
+
+        data.writeInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+
+        data.writeInt(snapshot.getPersons().size());
+        for (Person person : snapshot.getPersons()) {
+            writeString(data, dictionary, person.getFirstName());
+            writeString(data, dictionary, person.getLastName());
+            writeString(data, dictionary, person.getAddress());
+            writeString(data, dictionary, person.getCity());
+            writeString(data, dictionary, person.getZip());
+            writeString(data, dictionary, person.getPhone());
+            writeString(data, dictionary, person.getEmail());
+        }
+
+        data.writeInt(snapshot.getFireStations().size());
+        for (FireStation fireStation : snapshot.getFireStations()) {
+            writeString(data, dictionary, fireStation.getAddress());
+            writeString(data, dictionary, fireStation.getStation());
+        }
+
+        data.writeInt(snapshot.getMedicalRecords().size());
+        for (MedicalRecord medicalRecord : snapshot.getMedicalRecords()) {
+            writeString(data, dictionary, medicalRecord.getFirstName());
+            writeString(data, dictionary, medicalRecord.getLastName());
+            data.writeLong(medicalRecord.getBirthdate() != null ? medicalRecord.getBirthdate().toEpochDay() : NULL_BIRTHDATE);
+            writeStrings(data, dictionary, medicalRecord.getMedications());
+            writeStrings(data, dictionary, medicalRecord.getAllergies());
+        }
+
+        data.flush();
+    }
+
+    /**
+     * Reads a snapshot from the stream, indexing each element as it is read. The stream is not closed.
+     *
+     * @param input the stream to read, positioned at the start of the snapshot
+     * @return the loaded data, at the version it was written with
+     * @throws IOException if the stream cannot be read or does not hold a valid binary snapshot
+     */
+    public static JsonData read(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+
+        try {
+            if (data.readInt() != MAGIC) {
+                throw new IOException("Not a binary snapshot");
+            }
+            int formatVersion = data.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported binary snapshot format version " + formatVersion);
+            }
+
+            DataSnapshot.Builder builder = DataSnapshot.builder(LocalDate.now())
+                    .setVersion(data.readLong());
+
+            String[] dictionary = new String[readCount(data)];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[readCount(data)];
+                data.readFully(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int personCount = readCount(data);
+            for (int i = 0; i < personCount; i++) {
+                builder.addPerson(new Person()
+                        .setFirstName(readString(data, dictionary))
+                        .setLastName(readString(data, dictionary))
+                        .setAddress(readString(data, dictionary))
+                        .setCity(readString(data, dictionary))
+                        .setZip(readString(data, dictionary))
+                        .setPhone(readString(data, dictionary))
+                        .setEmail(readString(data, dictionary)));
+            }
+
+            int fireStationCount = readCount(data);
+            for (int i = 0; i < fireStationCount; i++) {
+                builder.addFireStation(new FireStation()
+                        .setAddress(readString(data, dictionary))
+                        .setStation(readString(data, dictionary)));
+            }
+
+            int medicalRecordCount = readCount(data);
+            for (int i = 0; i < medicalRecordCount; i++) {
+                String firstName = readString(data, dictionary);
+                String lastName = readString(data, dictionary);
+                long birthdate = data.readLong();
+                builder.addMedicalRecord(new MedicalRecord()
+                        .setFirstName(firstName)
+                        .setLastName(lastName)
+                        .setBirthdate(birthdate != NULL_BIRTHDATE ? LocalDate.ofEpochDay(birthdate) : null)
+                        .setMedications(readStrings(data, dictionary))
+                        .setAllergies(readStrings(data, dictionary)));
+            }
+
+            return new JsonData(builder.build());
+        } catch (EOFException e) {
+            throw new IOException("Truncated binary snapshot", e);
+        }
+    }
+
+    private static Map<String, Integer> buildDictionary(DataSnapshot snapshot) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+        for (Person person : snapshot.getPersons()) {
+            addToDictionary(dictionary, person.getFirstName());
+            addToDictionary(dictionary, person.getLastName());
+            addToDictionary(dictionary, person.getAddress());
+            addToDictionary(dictionary, person.getCity());
+            addToDictionary(dictionary, person.getZip());
+            addToDictionary(dictionary, person.getPhone());
+            addToDictionary(dictionary, person.getEmail());
+        }
+        for (FireStation fireStation : snapshot.getFireStations()) {
+            addToDictionary(dictionary, fireStation.getAddress());
+            addToDictionary(dictionary, fireStation.getStation());
+        }
+        for (MedicalRecord medicalRecord : snapshot.getMedicalRecords()) {
+            addToDictionary(dictionary, medicalRecord.getFirstName());
+            addToDictionary(dictionary, medicalRecord.getLastName());
+            if (medicalRecord.getMedications() != null) {
+                medicalRecord.getMedications().forEach(value -> addToDictionary(dictionary, value));
+            }
+            if (medicalRecord.getAllergies() != null) {
+                medicalRecord.getAllergies().forEach(value -> addToDictionary(dictionary, value));
+            }
+        }
+
+        return dictionary;
+    }
+
+    private static void addToDictionary(Map<String, Integer> dictionary, String value) {
+        if (value != null) {
+            dictionary.putIfAbsent(value, dictionary.size());
+        }
+    }
+
+    private static void writeString(DataOutputStream data, Map<String, Integer> dictionary, String value) throws IOException {
+        data.writeInt(value != null ? dictionary.get(value) : NULL_ID);
+    }
+
+    private static void writeStrings(DataOutputStream data, Map<String, Integer> dictionary, List<String> values) throws IOException {
+        if (values == null) {
+            data.writeInt(NULL_ID);
+            return;
+        }
+
+        data.writeInt(values.size());
+        for (String value : values) {
+            writeString(data, dictionary, value);
+        }
+    }
+
+    private static int readCount(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupted binary snapshot: negative count " + count);
+        }
+        return count;
+    }
+
+    private static String readString(DataInputStream data, String[] dictionary) throws IOException {
+        int id = data.readInt();
+        if (id == NULL_ID) {
+            return null;
+        }
+        if (id < 0 || id >= dictionary.length) {
+            throw new IOException("Corrupted binary snapshot: unknown string id " + id);
+        }
+        return dictionary[id];
+    }
+
+    private static List<String> readStrings(DataInputStream data, String[] dictionary) throws IOException {
+        int count = data.readInt();
+        if (count == NULL_ID) {
+            return null;
+        }
+        if (count < 0) {
+            throw new IOException("Corrupted binary snapshot: negative count " + count);
+        }
+
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(data, dictionary));
+        }
+        return values;
+    }
+}
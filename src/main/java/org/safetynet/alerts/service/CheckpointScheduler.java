@@ -0,0 +1,35 @@
+package org.safetynet.alerts.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Periodically compacts the write-ahead log into a checkpoint of the dataset, so that the log
+ * stays short and startup only replays the changes made since the last checkpoint.
+ * Runs on the scheduler thread: readers are never blocked and the writer only briefly.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CheckpointScheduler {
+
+    private final WriteAheadLog writeAheadLog;
+
+    /**
+     * Saves a checkpoint when the log holds changes not yet contained in one. Runs every minute by
+     * default, the delay can be changed with the {@code json.data.wal.checkpoint-interval-ms} property.
+     */
+    @Scheduled(fixedDelayString = "${json.data.wal.checkpoint-interval-ms:60000}",
+            initialDelayString = "${json.data.wal.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        try {
+            writeAheadLog.checkpoint();
+        } catch (IOException e) {
+            log.error("Failed to checkpoint the write-ahead log", e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.safetynet.alerts.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the file of {@code json.data.path} and reloads the dataset through the {@link DatasetReloadService}
+ * when the file is created, replaced or modified. The reload waits until the file stops changing for
+ * {@code json.data.watch.debounce-ms}, so that a file being copied is only loaded once complete.
+ * Disabled by default with {@code json.data.watch.enabled}, and only available for filesystem paths.
+ */
+@Component
+@Slf4j
+public class DatasetFileWatcher {
+
+    private final DatasetReloadService datasetReloadService;
+    private final String jsonPath;
+    private final boolean enabled;
+    private final long debounceMillis;
+
+    private WatchService watchService;
+
+    public DatasetFileWatcher(DatasetReloadService datasetReloadService,
+                              @Value("${json.data.path}") String jsonPath,
+                              @Value("${json.data.watch.enabled:false}") boolean enabled,
+                              @Value("${json.data.watch.debounce-ms:500}") long debounceMillis) {
+        this.datasetReloadService = datasetReloadService;
+        this.jsonPath = jsonPath;
+        this.enabled = enabled;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Starts watching the data file once the application has loaded the dataset and is ready.
+     *
+     * @throws IOException if the directory of the data file cannot be watched
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (!enabled || watchService != null) {
+            return;
+        }
+
+        Path file = JsonDataService.toFilePath(jsonPath);
+        if (file == null) {
+            log.warn("Cannot watch {}, only filesystem paths can be watched", jsonPath);
+            return;
+        }
+
+        Path absoluteFile = file.toAbsolutePath();
+        watchService = absoluteFile.getFileSystem().newWatchService();
+        absoluteFile.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        WatchService currentWatchService = watchService;
+        Thread thread = new Thread(() -> watch(currentWatchService, absoluteFile.getFileName()), "dataset-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for dataset changes", absoluteFile);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    private void watch(WatchService currentWatchService, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = currentWatchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+                }
+                key.reset();
+
+                if (changed) {
+                    awaitQuietPeriod(currentWatchService);
+                    log.info("Change detected on {}, reloading the dataset", fileName);
+                    datasetReloadService.reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Stopped watching {}", fileName);
+        }
+    }
+
+    private void awaitQuietPeriod(WatchService currentWatchService) throws InterruptedException {
+        WatchKey key;
+        while ((key = currentWatchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.safetynet.alerts.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.JsonData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the dataset from {@code json.data.path} while the application keeps serving requests.
+ * The new data is parsed and indexed on a background thread, then swapped in as the next snapshot of the
+ * current {@link JsonData} store. Requests reading the previous snapshot finish on it, and no request ever
+ * sees a partially loaded dataset. A failed reload leaves the current dataset in place.
+ */
+@Service
+@Slf4j
+public class DatasetReloadService {
+
+    private final String jsonPath;
+
+    private final JsonDataService jsonDataService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dataset-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+
+    /** Reload waiting for the reload thread, shared by the requests made meanwhile. Guarded by {@link #lock}. */
+    private CompletableFuture<DataSnapshot> queuedReload;
+
+    public DatasetReloadService(@Value("${json.data.path}") String jsonPath, JsonDataService jsonDataService) {
+        this.jsonPath = jsonPath;
+        this.jsonDataService = jsonDataService;
+    }
+
+    /**
+     * Requests a reload of the dataset. Reloads run one at a time, the requests made while a reload waits
+     * to start share it, so a burst of requests reloads the data once after the reload in progress.
+     *
+     * @return a future completed with the published snapshot, or exceptionally if the reload failed
+     */
+    public CompletableFuture<DataSnapshot> reload() {
+        synchronized (lock) {
+            if (queuedReload != null) {
+                return queuedReload;
+            }
+
+            CompletableFuture<DataSnapshot> reload = new CompletableFuture<>();
+            queuedReload = reload;
+            executor.execute(() -> run(reload));
+
+            return reload;
+        }
+    }
+
+    private void run(CompletableFuture<DataSnapshot> reload) {
+        synchronized (lock) {
+            queuedReload = null;
+        }
+
+        try {
+            long start = System.nanoTime();
+            JsonData loaded = jsonDataService.load(jsonPath);
+            DataSnapshot published = JsonDataService.getJsonData().replace(loaded.getSnapshot());
+            log.info("Dataset reloaded from {} as version {} in {} ms: {} persons, {} fire stations, {} medical records",
+                    jsonPath, published.getVersion(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    published.getPersons().size(), published.getFireStations().size(),
+                    published.getMedicalRecords().size());
+
+            reload.complete(published);
+        } catch (RuntimeException e) {
+            log.error("Failed to reload the dataset from {}, the current dataset is kept", jsonPath, e);
+            reload.completeExceptionally(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,227 @@
+package org.safetynet.alerts.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Streaming loader of the JSON data. The {@code persons}, {@code firestations} and {@code medicalrecords}
+ * arrays are tokenized with Jackson's {@link JsonParser} and cut into chunks of elements, each chunk being
+ * bound to the model on a fork-join pool while the parser moves on. At most two chunks per pool thread are
+ * held as tokens at a time: the parser waits for a chunk to be bound before cutting the next one, so the
+ * memory used by the tokens is bounded whatever the size of the document. The bound chunks are handed to
+ * {@link DataSnapshot#ofChunks} as they are, which builds the lists and every index on the pool, so that
+ * loading costs little more than tokenizing the file and the elements are never copied to an intermediate list.
+ * The optional {@code version} field written by checkpoints is restored as the version of the dataset.
+ */
+public class JsonDataReader {
+
+    private static final List<Object> KNOWN_FIELDS = List.of("version", "persons", "firestations", "medicalrecords");
+    private static final int CHUNK_SIZE = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader personReader;
+    private final ObjectReader fireStationReader;
+    private final ObjectReader medicalRecordReader;
+    private final ForkJoinPool pool;
+    private final int maxChunksInFlight;
+
+    public JsonDataReader(ObjectMapper objectMapper) {
+        this(objectMapper, ForkJoinPool.commonPool());
+    }
+
+    public JsonDataReader(ObjectMapper objectMapper, ForkJoinPool pool) {
+        this.objectMapper = objectMapper;
+        this.pool = pool;
+        this.maxChunksInFlight = 2 * pool.getParallelism();
+        this.personReader = objectMapper.readerFor(Person.class);
+        this.fireStationReader = objectMapper.readerFor(FireStation.class);
+        this.medicalRecordReader = objectMapper.readerFor(MedicalRecord.class);
+    }
+
+    /**
+     * Reads the JSON data from the given stream. The stream is not closed.
+     *
+     * @param input the stream of the JSON document
+     * @return the loaded data
+     * @throws IOException if the stream cannot be read or does not hold a valid JSON data document
+     */
+    public JsonData read(InputStream input) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return read(parser);
+        }
+    }
+
+    private JsonData read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw MismatchedInputException.from(parser, JsonData.class,
+                    "Expected a JSON object holding the data, found " + parser.currentToken());
+        }
+
+        long version = 1;
+        Semaphore chunksInFlight = new Semaphore(maxChunksInFlight);
+        List<ForkJoinTask<List<Person>>> persons = new ArrayList<>();
+        List<ForkJoinTask<List<FireStation>>> fireStations = new ArrayList<>();
+        List<ForkJoinTask<List<MedicalRecord>>> medicalRecords = new ArrayList<>();
+
+        try {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "version" -> {
+                        if (parser.currentToken() != JsonToken.VALUE_NULL) {
+                            version = parser.getLongValue();
+                        }
+                    }
+                    case "persons" -> readArray(parser, personReader, Person.class, persons, chunksInFlight);
+                    case "firestations" ->
+                            readArray(parser, fireStationReader, FireStation.class, fireStations, chunksInFlight);
+                    case "medicalrecords" ->
+                            readArray(parser, medicalRecordReader, MedicalRecord.class, medicalRecords, chunksInFlight);
+                    default -> skipUnknownField(parser, field);
+                }
+            }
+
+            if (parser.currentToken() != JsonToken.END_OBJECT) {
+                throw MismatchedInputException.from(parser, JsonData.class, "Unexpected end of the JSON data");
+            }
+
+            return new JsonData(DataSnapshot.ofChunks(version, join(persons), join(fireStations),
+                    join(medicalRecords), LocalDate.now(), pool));
+        } catch (IOException | RuntimeException e) {
+            Stream.of(persons, fireStations, medicalRecords).flatMap(List::stream).forEach(chunk -> chunk.cancel(false));
+            throw e;
+        }
+    }
+
+    private <T> void readArray(JsonParser parser, ObjectReader reader, Class<T> elementType,
+                               List<ForkJoinTask<List<T>>> chunks, Semaphore chunksInFlight) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw MismatchedInputException.from(parser, elementType,
+                    "Expected an array of " + elementType.getSimpleName() + ", found " + parser.currentToken());
+        }
+
+        TokenBuffer chunk = new TokenBuffer(parser);
+        int chunkSize = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == null) {
+                throw MismatchedInputException.from(parser, elementType, "Unexpected end of the JSON data");
+            }
+            chunk.copyCurrentStructure(parser);
+
+            if (++chunkSize == CHUNK_SIZE) {
+                chunks.add(submitBindTask(chunk, reader, chunksInFlight));
+                chunk = new TokenBuffer(parser);
+                chunkSize = 0;
+            }
+        }
+        if (chunkSize > 0) {
+            chunks.add(submitBindTask(chunk, reader, chunksInFlight));
+        }
+    }
+
+    /**
+     * Submits the binding of a chunk once fewer than the maximum number of chunks are waiting to be bound.
+     */
+    private <T> ForkJoinTask<List<T>> submitBindTask(TokenBuffer chunk, ObjectReader reader,
+                                                    Semaphore chunksInFlight) throws IOException {
+        try {
+            chunksInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading the JSON data");
+        }
+
+        return pool.submit(new BindTask<>(chunk, reader, chunksInFlight));
+    }
+
+    /**
+     * Waits for the chunks of an array to be bound.
+     *
+     * @return the elements of each chunk, in the order of the document
+     */
+    private static <T> List<List<T>> join(List<ForkJoinTask<List<T>>> chunks) throws IOException {
+        List<List<T>> elements = new ArrayList<>(chunks.size());
+        try {
+            for (ForkJoinTask<List<T>> chunk : chunks) {
+                elements.add(chunk.join());
+            }
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException uncheckedIOException) {
+                    throw uncheckedIOException.getCause();
+                }
+            }
+            throw e;
+        }
+        return elements;
+    }
+
+    private void skipUnknownField(JsonParser parser, String field) throws IOException {
+        if (objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)) {
+            throw UnrecognizedPropertyException.from(parser, JsonData.class, field, KNOWN_FIELDS);
+        }
+        parser.skipChildren();
+    }
+
+    /**
+     * Binds the elements of a chunk. The tokens are dropped once bound, since the completed task stays
+     * referenced until the whole document is read.
+     */
+    private static final class BindTask<T> implements Callable<List<T>> {
+        private final ObjectReader reader;
+        private final Semaphore chunksInFlight;
+        private TokenBuffer chunk;
+
+        private BindTask(TokenBuffer chunk, ObjectReader reader, Semaphore chunksInFlight) {
+            this.chunk = chunk;
+            this.reader = reader;
+            this.chunksInFlight = chunksInFlight;
+        }
+
+        @Override
+        public List<T> call() {
+            List<T> elements = new ArrayList<>(CHUNK_SIZE);
+            try (JsonParser chunkParser = chunk.asParser()) {
+                while (chunkParser.nextToken() != null) {
+                    elements.add(reader.readValue(chunkParser));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                chunk = null;
+                chunksInFlight.release();
+            }
+            return elements;
+        }
+    }
+}
@@ -12,54 +12,108 @@ import org.springframework.stereotype.Service;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Service class responsible for loading and providing access to JSON data.
  * The JSON data is initialized from a file path specified in the application configuration
- * and mapped to a Java object using Jackson's ObjectMapper.
+ * and streamed into the indexed dataset by a {@link JsonDataReader}, which binds and indexes the
+ * persons, fire stations and medical records concurrently on the common fork-join pool.
  *
  * This class implements the {@link ApplicationRunner} interface,
  * ensuring that the data is loaded during the application startup phase.
+ * When the {@link WriteAheadLog} is enabled, the data is loaded from its last checkpoint when one
+ * exists, the logged changes are replayed on top of it at startup, and every later change is logged.
  */
 @Service
 @Slf4j
 public class JsonDataService implements ApplicationRunner {
 
-    private static JsonData jsonData;
+    private static final String FILE_PREFIX = "file:";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static volatile JsonData jsonData;
 
     @Value("${json.data.path}")
     private String jsonPath;
 
-    private static ObjectMapper objectMapper = null;
+    private final JsonDataReader jsonDataReader;
+
+    private final WriteAheadLog writeAheadLog;
 
-    public JsonDataService(ObjectMapper objectMapper) {
-        JsonDataService.objectMapper = objectMapper;
+    public JsonDataService(ObjectMapper objectMapper, WriteAheadLog writeAheadLog) {
+        this.jsonDataReader = new JsonDataReader(objectMapper);
+        this.writeAheadLog = writeAheadLog;
     }
 
     /**
      * Executes the initialization process for loading JSON data during the application startup.
+     * When the write-ahead log is enabled, the data of its last checkpoint is loaded instead when present,
+     * then the log is replayed on it.
      *
      * @param args the arguments passed to the application at startup, provided by the Spring framework
+     * @throws RuntimeException if the JSON data cannot be loaded or the write-ahead log cannot be replayed
      */
     @Override
     public void run(ApplicationArguments args) {
-        init(jsonPath);
+        if (!writeAheadLog.isEnabled()) {
+            init(jsonPath);
+            return;
+        }
+
+        try {
+            Optional<JsonData> checkpoint = writeAheadLog.readCheckpoint();
+            if (checkpoint.isPresent()) {
+                jsonData = checkpoint.get();
+            } else {
+                init(jsonPath);
+            }
+            writeAheadLog.attach(jsonData);
+        } catch (IOException e) {
+            log.error("I/O error while replaying the write-ahead log", e);
+            throw new RuntimeException("I/O error while replaying the write-ahead log", e);
+        }
     }
 
     /**
      * Initializes the JSON data by loading it from the provided file path.
-     * The method reads the JSON file, maps its content to a JsonData object,
+     * The path is read from the filesystem when it starts with {@code file:}, is absolute or names an existing
+     * file, and from the classpath otherwise. Files are memory-mapped, and paths ending with {@code .gz}
+     * are decompressed while being read. Paths ending with {@link BinarySnapshotFormat#EXTENSION} are loaded
+     * as a binary snapshot instead of JSON data.
+     * The method streams the JSON file, indexing each person, fire station and medical record as it is read,
      * and logs the success or failure of the operation.
      *
      * @param jsonPath the path to the JSON file to be loaded
      * @throws RuntimeException if the JSON file is not found or an I/O error occurs
      */
-    public static void init(String jsonPath) {
+    public void init(String jsonPath) {
+        jsonData = load(jsonPath);
+    }
+
+    /**
+     * Loads the JSON data from the provided file path, resolved as described by {@link #init(String)},
+     * without changing the data currently held by the service.
+     *
+     * @param jsonPath the path to the JSON file to be loaded
+     * @return the loaded data
+     * @throws RuntimeException if the JSON file is not found or an I/O error occurs
+     */
+    public JsonData load(String jsonPath) {
         log.info("Initializing JSON data from path: {}", jsonPath);
 
-        try (InputStream inputStreamJson = new ClassPathResource(jsonPath).getInputStream()) {
-            jsonData = objectMapper.readValue(inputStreamJson, JsonData.class);
+        try (InputStream inputStreamJson = openJsonData(jsonPath)) {
+            JsonData loaded = BinarySnapshotFormat.isBinarySnapshot(jsonPath)
+                    ? BinarySnapshotFormat.read(inputStreamJson)
+                    : jsonDataReader.read(inputStreamJson);
             log.info("Data loaded successfully !");
+
+            return loaded;
         } catch (FileNotFoundException e) {
             log.error("JSON file not found at path '{}'.", jsonPath, e);
             throw new RuntimeException("JSON file not found", e);
@@ -69,6 +123,56 @@ public class JsonDataService implements ApplicationRunner {
         }
     }
 
+    /**
+     * Opens the data at the given path, resolved as described by {@link #init(String)}.
+     *
+     * @param jsonPath the path of the data
+     * @return the stream of the data, decompressed when the path ends with {@code .gz}
+     * @throws IOException if the data cannot be opened
+     */
+    static InputStream openJsonData(String jsonPath) throws IOException {
+        Path filePath = toFilePath(jsonPath);
+        InputStream input;
+        if (filePath == null) {
+            input = new ClassPathResource(jsonPath).getInputStream();
+        } else {
+            try {
+                input = new MappedFileInputStream(filePath);
+            } catch (NoSuchFileException e) {
+                throw (FileNotFoundException) new FileNotFoundException(e.getMessage()).initCause(e);
+            }
+        }
+
+        if (!jsonPath.endsWith(".gz")) {
+            return input;
+        }
+        try {
+            return new GZIPInputStream(input, GZIP_BUFFER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the file named by the given path when it is read from the filesystem.
+     *
+     * @param jsonPath the path of the data
+     * @return the file, or {@code null} when the path is read from the classpath
+     */
+    static Path toFilePath(String jsonPath) {
+        if (jsonPath.startsWith(FILE_PREFIX)) {
+            return Path.of(jsonPath.substring(FILE_PREFIX.length()));
+        }
+
+        try {
+            Path path = Path.of(jsonPath);
+            return path.isAbsolute() || Files.isRegularFile(path) ? path : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
     /**
      * Retrieves the loaded JSON data as a JsonData object.
      * This method provides access to the data initialized during the application startup phase.
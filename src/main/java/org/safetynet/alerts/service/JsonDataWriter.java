@@ -0,0 +1,69 @@
+package org.safetynet.alerts.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a dataset in the JSON format read by {@link JsonDataReader}, with its version.
+ * The computed properties of the model classes are left out, only the stored state is written.
+ */
+public class JsonDataWriter {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonDataWriter(ObjectMapper objectMapper) {
+        this.objectMapper = withoutDerivedProperties(objectMapper);
+    }
+
+    /**
+     * Returns a copy of the given mapper that leaves out the computed properties of the model classes,
+     * such as the full name or the age.
+     *
+     * @param objectMapper the mapper to copy
+     * @return the configured copy
+     */
+    public static ObjectMapper withoutDerivedProperties(ObjectMapper objectMapper) {
+        return objectMapper.copy()
+                .addMixIn(Person.class, DerivedPropertiesMixIn.class)
+                .addMixIn(FireStation.class, DerivedPropertiesMixIn.class)
+                .addMixIn(MedicalRecord.class, DerivedPropertiesMixIn.class);
+    }
+
+    /**
+     * Writes the given snapshot to the stream. The stream is flushed but not closed.
+     *
+     * @param snapshot the snapshot to write
+     * @param output the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(DataSnapshot snapshot, OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            generator.writeNumberField("version", snapshot.getVersion());
+            generator.writeFieldName("persons");
+            generator.writeObject(snapshot.getPersons());
+            generator.writeFieldName("firestations");
+            generator.writeObject(snapshot.getFireStations());
+            generator.writeFieldName("medicalrecords");
+            generator.writeObject(snapshot.getMedicalRecords());
+            generator.writeEndObject();
+            generator.flush();
+        }
+    }
+
+    /**
+     * Leaves out the computed properties of the model classes, they are not part of the stored state.
+     */
+    @JsonIgnoreProperties(value = {"fullName", "age", "child", "adult"}, ignoreUnknown = true)
+    private abstract static class DerivedPropertiesMixIn {
+    }
+}
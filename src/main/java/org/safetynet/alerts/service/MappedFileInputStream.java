@@ -0,0 +1,96 @@
+package org.safetynet.alerts.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input stream over a file mapped in memory. The file is read straight from the page cache, without
+ * the copies through a kernel read buffer made by a regular file stream. Files larger than a single
+ * mapping are mapped one region at a time, as the stream advances.
+ */
+final class MappedFileInputStream extends InputStream {
+
+    private static final long REGION_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private long regionStart;
+    private MappedByteBuffer region;
+
+    MappedFileInputStream(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            region = map(0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextRegionIfConsumed()) {
+            return -1;
+        }
+        return region.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextRegionIfConsumed()) {
+            return -1;
+        }
+
+        int count = Math.min(length, region.remaining());
+        region.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long position = Math.min(regionStart + region.position() + Math.max(count, 0), size);
+        long skipped = position - regionStart - region.position();
+        if (position - regionStart <= region.limit()) {
+            region.position((int) (position - regionStart));
+        } else {
+            region = map(position);
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return region.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean nextRegionIfConsumed() throws IOException {
+        if (region.hasRemaining()) {
+            return true;
+        }
+
+        long next = regionStart + region.limit();
+        if (next >= size) {
+            return false;
+        }
+        region = map(next);
+        return true;
+    }
+
+    private MappedByteBuffer map(long position) throws IOException {
+        regionStart = position;
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+    }
+}
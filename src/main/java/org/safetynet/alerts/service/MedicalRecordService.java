@@ -59,18 +59,10 @@ public interface MedicalRecordService {
     public Map<String, MedicalRecord> getAllByFullName();
 
     /**
-     * Count the number of adult with has {@code fullNames}
-     * @param fullNames a List of {@code fullName}
-     * @return The number of adult with the {@code fullNames}.
+     * Reclassify as adults the persons who reached majority since the last classification.
+     * @return The medical records of the persons who became adults.
      */
-    public int countAdultFromFullName(List<String> fullNames);
-
-    /**
-     * Count the number of children with has {@code fullNames}
-     * @param fullNames a List of {@code fullName}
-     * @return The number of children with the {@code fullNames}.
-     */
-    public int countChildrenFromFullName(List<String> fullNames);
+    public List<MedicalRecord> reclassifyAges();
 
     /**
      * Retrieves the medical record by its firstName and lastName.
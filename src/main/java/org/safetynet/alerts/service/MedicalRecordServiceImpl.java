@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.management.InstanceAlreadyExistsException;
+import java.time.Clock;
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.util.List;
@@ -23,8 +24,11 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
     @Autowired
     private MedicalRecordRepository medicalRecordRepository;
 
-    public MedicalRecordServiceImpl(MedicalRecordRepository medicalRecordRepository) {
+    private final Clock clock;
+
+    public MedicalRecordServiceImpl(MedicalRecordRepository medicalRecordRepository, Clock clock) {
         this.medicalRecordRepository = medicalRecordRepository;
+        this.clock = clock;
     }
 
     /**
@@ -106,37 +110,14 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
     }
 
     /**
-     * Count the number of adult with has {@code fullNames}
-     * @param fullNames a List of {@code fullName}
-     * @return The number of adult with the {@code fullNames}.
-     */
-    public int countAdultFromFullName(List<String> fullNames) {
-        if (fullNames == null || fullNames.isEmpty()) {
-            log.debug("No fullNames provided for count adults, returning 0.");
-            return 0;
-        }
-
-        int adultNbr = medicalRecordRepository.countAdultFromFullName(fullNames);
-        log.debug("Count {} adult from fullNames", adultNbr);
-
-        return adultNbr;
-    }
-
-    /**
-     * Count the number of children with has {@code fullNames}
-     * @param fullNames a List of {@code fullName}
-     * @return The number of children with the {@code fullNames}.
+     * Reclassify as adults the persons who reached majority since the last classification.
+     * @return The medical records of the persons who became adults.
      */
-    public int countChildrenFromFullName(List<String> fullNames) {
-        if (fullNames == null || fullNames.isEmpty()) {
-            log.debug("No fullNames provided for count children, returning 0.");
-            return 0;
-        }
-
-        int childrenNbr = medicalRecordRepository.countChildrenFromFullName(fullNames);
-        log.debug("Count {} children from fullNames", childrenNbr);
+    public List<MedicalRecord> reclassifyAges() {
+        List<MedicalRecord> newAdults = medicalRecordRepository.reclassifyAges();
+        log.debug("{} medical record(s) reclassified as adult", newAdults.size());
 
-        return childrenNbr;
+        return newAdults;
     }
 
     /**
@@ -154,12 +135,12 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
     }
 
     /**
-     * Check if the birthdate is in the future.
+     * Check if the birthdate is in the future, at the current day of the clock.
      *
      * @param birthdate The birthdate to check
      * @return return true if is valid, false otherwise
      */
     public boolean validateBirthdate(LocalDate birthdate) {
-        return !birthdate.isAfter(LocalDate.now());
+        return !birthdate.isAfter(LocalDate.now(clock));
     }
 }
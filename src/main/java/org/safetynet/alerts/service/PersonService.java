@@ -3,8 +3,10 @@ package org.safetynet.alerts.service;
 import org.safetynet.alerts.dto.FireInfoDto;
 import org.safetynet.alerts.dto.person.*;
 import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.MedicalRecord;
 import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.StationCoverage;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
@@ -53,34 +55,6 @@ public interface PersonService {
      */
     public List<Person> getAll();
 
-    /**
-     * Retrieves phone numbers associated with a list of persons' addresses.
-     *
-     * @param addresses a list of persons addresses.
-     * @return a list oh phones found from addresses persons
-     * @throws IllegalArgumentException if the addresses list is null or empty.
-     */
-    public List<String> getAllPhoneNumberFromAddresses(List<String> addresses);
-
-    /**
-     * Counts the number of adults from a list of full names.
-     *
-     * @param fullNames the list of full names from which the count of adults will be determined
-     * @return the number of adults in the provided list of full names
-     * @throws IllegalArgumentException if the fullNames list is null
-     */
-    public Integer countAdultFromPersons(List<String> fullNames);
-
-    /**
-     * Counts the number of children based on the provided list of full names.
-     *
-     * @param fullNames List of full names to be used for counting children.
-     *                  It cannot be null; otherwise, an IllegalArgumentException will be thrown.
-     * @return The total number of children associated with the provided full names.
-     * @throws IllegalArgumentException if the fullNames list is null.
-     */
-    public int countChildrenFromPersons(List<String> fullNames);
-
     /**
      * Retrieves a list of child alerts for a given address. A child alert contains details
      * about children residing at the specified address, as well as other individuals
@@ -112,36 +86,54 @@ public interface PersonService {
     public List<Person> getAllPersonByLastName(String lastName);
 
     /**
-     * Retrieves a list of all persons associated with a given fire station number.
+     * Retrieves the households of the addresses covered by any of the given fire stations, each address once.
      *
-     * @param stationNumber the number of the fire station to retrieve persons for; must not be null or empty.
-     * @return a list of {@code Person} objects representing all persons linked to the specified fire station.
-     *         Returns an empty list if no persons are found.
-     * @throws IllegalArgumentException if the stationNumber is null or empty.
+     * @param stations the fire station numbers, separated by commas; must not be null or blank.
+     * @return a list of {@code Household} objects covered by the stations, or an empty list if none are found.
+     * @throws IllegalArgumentException if the stations are null or blank.
+     */
+    public List<Household> getHouseholdsFromFireStations(String stations);
+
+    /**
+     * Counts the persons covered by any of the given fire stations whose age is within a bracket, each person once.
+     *
+     * @param stations the fire station numbers, separated by commas; must not be null or blank.
+     * @param minAge the minimum age, inclusive
+     * @param maxAge the maximum age, inclusive, or {@code null} for no maximum
+     * @return the number of persons of the age bracket covered by the stations
+     * @throws IllegalArgumentException if the stations are null or blank, or if the age bracket is invalid.
+     */
+    public int countPersonsAgedFromFireStations(String stations, int minAge, Integer maxAge);
+
+    /**
+     * Retrieves the household living at the specified address.
+     *
+     * @param address the address of the household; must not be null, empty, or blank
+     * @return an {@code Optional} containing the {@code Household} if somebody lives at the address,
+     *         or an empty {@code Optional} otherwise
+     * @throws IllegalArgumentException if the address is null, empty, or blank
      */
-    public List<Person> getAllPersonFromFireStation(String stationNumber);
+    public Optional<Household> getHousehold(String address);
 
     /**
-     * Retrieves a list of Person objects associated with the given list of addresses.
+     * Retrieves the coverage of a fire station: its residents grouped by household and the number of adults
+     * and children among them.
      *
-     * @param addresses a list of address strings used to fetch the associated Person objects.
-     *                  This parameter must not be null, or an IllegalArgumentException will be thrown.
-     * @return a list of Person objects found for the supplied addresses.
-     * @throws IllegalArgumentException if the addresses parameter is null.
+     * @param stationNumber the number of the fire station; must not be null or empty.
+     * @return an {@code Optional} containing the {@code StationCoverage} if the station covers any address,
+     *         or an empty {@code Optional} otherwise
+     * @throws IllegalArgumentException if the stationNumber is null or empty.
      */
-    public List<Person> getAllPersonFromAddresses(List<String> addresses);
+    public Optional<StationCoverage> getFireStationCoverage(String stationNumber);
 
     /**
-     * Extracts full names from a list of Person objects.
+     * Retrieves the phone numbers of the residents covered by a fire station, one per resident.
      *
-     * @param persons the list of Person objects from which full names will be extracted.
-     *                Cannot be null. An exception will be thrown if this parameter is null.
-     *                If the list is empty, an empty list will be returned.
-     * @return a list containing the full names of the provided Person objects.
-     *         If the input list is empty, an empty list is returned.
-     * @throws IllegalArgumentException if the provided persons list is null.
+     * @param stationNumber the number of the fire station; must not be null or empty.
+     * @return a list of phone numbers, or an empty list if the station covers nobody
+     * @throws IllegalArgumentException if the stationNumber is null or empty.
      */
-    public List<String> getFullNamesFromPersons(List<Person> persons);
+    public List<String> getAllPhoneNumberFromFireStation(String stationNumber);
 
     /**
      * Retrieves a list of all email addresses associated with people located in a specified city.
@@ -155,9 +147,8 @@ public interface PersonService {
 
     /**
      * Attaches a list of other persons to each ChildAlertDto in the specified child alerts map.
-     * For each person in the list, this method evaluates all entries in the child alerts map
-     * and adds a representation of the person as an other person to the respective ChildAlertDto,
-     * provided the person's full name does not match the key of the current entry.
+     * Each person of the list is an other person of every ChildAlertDto whose key is not the
+     * person's full name, each person once.
      *
      * @param childAlerts a map where the key is a string representing a child's identity
      *                    (e.g., full name or unique identifier) and the value is the
@@ -7,16 +7,20 @@ import org.safetynet.alerts.controller.PersonDtoMapper;
 import org.safetynet.alerts.dto.FireInfoDto;
 import org.safetynet.alerts.dto.person.AddressPersonDto;
 import org.safetynet.alerts.dto.person.ChildAlertDto;
-import org.safetynet.alerts.dto.person.OtherPersonDto;
+import org.safetynet.alerts.dto.person.HouseholdDto;
 import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.MedicalRecord;
 import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.StationCoverage;
 import org.safetynet.alerts.repository.PersonRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
@@ -33,15 +37,14 @@ public class PersonServiceImpl implements PersonService {
     @Autowired
     private final PersonRepository personRepository;
 
-    @Autowired
-    private final FireStationService fireStationService;
-
     @Autowired
     private final MedicalRecordService medicalRecordService;
 
     @Autowired
     private final PersonDtoMapper personDtoMapper;
 
+    private final Clock clock;
+
     /**
      * Create a new person.
      *
@@ -110,83 +113,51 @@ public class PersonServiceImpl implements PersonService {
     }
 
     /**
-     * Retrieves phone numbers associated with a list of persons' addresses.
-     *
-     * @param addresses a list of persons addresses.
-     * @return a list oh phones found from addresses persons
-     * @throws IllegalArgumentException if the addresses list is null or empty.
-     */
-    public List<String> getAllPhoneNumberFromAddresses(List<String> addresses) {
-        if (addresses == null || addresses.isEmpty()) {
-            log.error("No addresses provided");
-            throw new IllegalArgumentException("addresses cannot be empty");
-        }
-
-        List<String> phoneNumbers = personRepository.findPhoneNumbersFromAddresses(addresses);
-        log.debug("{} phone numbers found", phoneNumbers.size());
-
-        return phoneNumbers;
-    }
-
-    /**
-     * Counts the number of adults from a list of full names.
+     * Retrieves a list of child alerts for a given address. A child alert contains details
+     * about children residing at the specified address, as well as other individuals
+     * residing there.
      *
-     * @param fullNames the list of full names from which the count of adults will be determined
-     * @return the number of adults in the provided list of full names
-     * @throws IllegalArgumentException if the fullNames list is null
+     * @param address the address to search for child alerts; must not be null or empty
+     * @return a list of {@link ChildAlertDto} objects representing children and their household members
+     * @throws IllegalArgumentException if the provided address is null or empty
      */
-    public Integer countAdultFromPersons(List<String> fullNames) {
-        if (fullNames == null) {
-            log.error("fullNames adults cannot be null");
-            throw new IllegalArgumentException("fullNames adults cannot be null");
+    public List<ChildAlertDto> getChildAlerts(String address) {
+        if (Strings.isBlank(address)) {
+            log.error("Address cannot be null or empty");
+            throw new IllegalArgumentException("Address cannot be null or empty");
         }
 
-        int adultNbr = medicalRecordService.countAdultFromFullName(fullNames);
-        log.debug("Count {} adults", adultNbr);
+        Optional<Household> household = personRepository.findHousehold(address);
+        if (household.isEmpty()) {
+            log.debug("No household found at address");
 
-        return adultNbr;
-    }
-
-    /**
-     * Counts the number of children based on the provided list of full names.
-     *
-     * @param fullNames List of full names to be used for counting children.
-     *                  It cannot be null; otherwise, an IllegalArgumentException will be thrown.
-     * @return The total number of children associated with the provided full names.
-     * @throws IllegalArgumentException if the fullNames list is null.
-     */
-    public int countChildrenFromPersons(List<String> fullNames) {
-        if (fullNames == null) {
-            log.error("fullNames children cannot be null");
-            throw new IllegalArgumentException("fullNames cannot be null");
+            return Collections.emptyList();
         }
 
-        int childrenNbr = medicalRecordService.countChildrenFromFullName(fullNames);
-        log.debug("Count {} children", childrenNbr);
+        List<Person> persons = household.get().getResidents();
+        Map<String, ChildAlertDto> childAlerts = personDtoMapper.toChildAlertDto(persons, household.get().getMedicalRecords());
 
-        return childrenNbr;
+        return attachOtherPersonToChildAlertDto(childAlerts, persons);
     }
 
     /**
-     * Retrieves a list of child alerts for a given address. A child alert contains details
-     * about children residing at the specified address, as well as other individuals
-     * residing there.
+     * Retrieves the household living at the specified address.
      *
-     * @param address the address to search for child alerts; must not be null or empty
-     * @return a list of {@link ChildAlertDto} objects representing children and their household members
-     * @throws IllegalArgumentException if the provided address is null or empty
+     * @param address the address of the household; must not be null, empty, or blank
+     * @return an {@code Optional} containing the {@code Household} if somebody lives at the address,
+     *         or an empty {@code Optional} otherwise
+     * @throws IllegalArgumentException if the address is null, empty, or blank
      */
-    public List<ChildAlertDto> getChildAlerts(String address) {
+    public Optional<Household> getHousehold(String address) {
         if (Strings.isBlank(address)) {
-            log.error("Address cannot be null or empty");
-            throw new IllegalArgumentException("Address cannot be null or empty");
+            log.error("Address cannot be empty");
+            throw new IllegalArgumentException("address cannot be empty");
         }
 
-        Map<String, MedicalRecord> medicalRecordMap = medicalRecordService.getAllByFullName();
-        List<Person> persons = getAllPersonAtAddress(address);
-        Map<String, ChildAlertDto> childAlerts = personDtoMapper.toChildAlertDto(persons, medicalRecordMap);
+        Optional<Household> household = personRepository.findHousehold(address);
+        log.debug("{} person(s) found at address", household.map(found -> found.getResidents().size()).orElse(0));
 
-        return attachOtherPersonToChildAlertDto(childAlerts, persons);
+        return household;
     }
 
     /**
@@ -231,75 +202,82 @@ public class PersonServiceImpl implements PersonService {
     }
 
     /**
-     * Retrieves a list of all persons associated with a given fire station number.
+     * Retrieves the households of the addresses covered by any of the given fire stations, each address once.
      *
-     * @param stationNumber the number of the fire station to retrieve persons for; must not be null or empty.
-     * @return a list of {@code Person} objects representing all persons linked to the specified fire station.
-     *         Returns an empty list if no persons are found.
-     * @throws IllegalArgumentException if the stationNumber is null or empty.
+     * @param stations the fire station numbers, separated by commas; must not be null or blank.
+     * @return a list of {@code Household} objects covered by the stations, or an empty list if none are found.
+     * @throws IllegalArgumentException if the stations are null or blank.
      */
-    public List<Person> getAllPersonFromFireStation(String stationNumber) {
-        if (stationNumber == null || stationNumber.trim().isEmpty()) {
-            log.error("stationNumber cannot be null or empty");
-            throw new IllegalArgumentException("stationNumber name cannot be null or empty");
+    public List<Household> getHouseholdsFromFireStations(String stations) {
+        if (Strings.isBlank(stations)) {
+            log.error("Stations is blank");
+            throw new IllegalArgumentException("Stations must not be empty");
         }
 
-        List <String> addresses = Optional.ofNullable(fireStationService.getAddressesForFireStation(stationNumber))
-                .orElse(Collections.emptyList());
-        log.debug("Found {} addresses for station {}", addresses.size(), stationNumber);
-
-        List <Person> persons = Optional.ofNullable(personRepository.findAllPersonFromAddresses(addresses))
-                .orElse(Collections.emptyList());
-        log.debug("Found {} persons for station {}", persons.size(), stationNumber);
+        List<Household> households = personRepository.findHouseholdsFromStations(List.of(stations.split(",")));
+        log.debug("Found {} households for stations {}", households.size(), stations);
 
-        return persons;
+        return households;
     }
 
     /**
-     * Retrieves a list of Person objects associated with the given list of addresses.
+     * Counts the persons covered by any of the given fire stations whose age is within a bracket, each person once.
      *
-     * @param addresses a list of address strings used to fetch the associated Person objects.
-     *                  This parameter must not be null, or an IllegalArgumentException will be thrown.
-     * @return a list of Person objects found for the supplied addresses.
-     * @throws IllegalArgumentException if the addresses parameter is null.
+     * @param stations the fire station numbers, separated by commas; must not be null or blank.
+     * @param minAge the minimum age, inclusive
+     * @param maxAge the maximum age, inclusive, or {@code null} for no maximum
+     * @return the number of persons of the age bracket covered by the stations
+     * @throws IllegalArgumentException if the stations are null or blank, or if the age bracket is invalid.
      */
-    public List<Person> getAllPersonFromAddresses(List<String> addresses) {
-        if (addresses == null) {
-            log.error("addresses cannot be null");
-            throw new IllegalArgumentException("addresses cannot be null");
+    public int countPersonsAgedFromFireStations(String stations, int minAge, Integer maxAge) {
+        if (Strings.isBlank(stations)) {
+            log.error("Stations is blank");
+            throw new IllegalArgumentException("Stations must not be empty");
         }
 
-        List<Person> persons = personRepository.findAllPersonFromAddresses(addresses);
-        log.debug("Found {} persons from addresses", persons.size());
+        int count = personRepository.countPersonsAgedFromStations(List.of(stations.split(",")), minAge,
+                maxAge != null ? maxAge : Integer.MAX_VALUE);
+        log.debug("Count {} persons aged {} to {} for stations {}", count, minAge, maxAge, stations);
 
-        return persons;
+        return count;
     }
 
     /**
-     * Extracts full names from a list of Person objects.
+     * Retrieves the coverage of a fire station: its residents grouped by household and the number of adults
+     * and children among them.
      *
-     * @param persons the list of Person objects from which full names will be extracted.
-     *                Cannot be null. An exception will be thrown if this parameter is null.
-     *                If the list is empty, an empty list will be returned.
-     * @return a list containing the full names of the provided Person objects.
-     *         If the input list is empty, an empty list is returned.
-     * @throws IllegalArgumentException if the provided persons list is null.
+     * @param stationNumber the number of the fire station; must not be null or empty.
+     * @return an {@code Optional} containing the {@code StationCoverage} if the station covers any address,
+     *         or an empty {@code Optional} otherwise
+     * @throws IllegalArgumentException if the stationNumber is null or empty.
      */
-    public List<String> getFullNamesFromPersons(List<Person> persons) {
-        if (persons == null) {
-            log.error("Null argument is invalid");
-            throw new IllegalArgumentException("Null argument is invalid");
+    public Optional<StationCoverage> getFireStationCoverage(String stationNumber) {
+        if (stationNumber == null || stationNumber.trim().isEmpty()) {
+            log.error("stationNumber cannot be null or empty");
+            throw new IllegalArgumentException("stationNumber name cannot be null or empty");
         }
-        if (persons.isEmpty()) {
-            log.debug("No persons found");
 
-            return Collections.emptyList();
-        }
+        Optional<StationCoverage> coverage = personRepository.findStationCoverage(stationNumber);
+        log.debug("Found {} persons for station {}",
+                coverage.map(found -> found.getResidents().size()).orElse(0), stationNumber);
 
-        List<String> fullNames = persons.stream().map(Person::getFullName).toList();
-        log.debug("Found {} full names", fullNames.size());
+        return coverage;
+    }
 
-        return fullNames;
+    /**
+     * Retrieves the phone numbers of the residents covered by a fire station, one per resident.
+     *
+     * @param stationNumber the number of the fire station; must not be null or empty.
+     * @return a list of phone numbers, or an empty list if the station covers nobody
+     * @throws IllegalArgumentException if the stationNumber is null or empty.
+     */
+    public List<String> getAllPhoneNumberFromFireStation(String stationNumber) {
+        List<String> phoneNumbers = getFireStationCoverage(stationNumber)
+                .map(coverage -> coverage.getResidents().stream().map(Person::getPhone).toList())
+                .orElse(Collections.emptyList());
+        log.debug("{} phone numbers found", phoneNumbers.size());
+
+        return phoneNumbers;
     }
 
     /**
@@ -324,9 +302,9 @@ public class PersonServiceImpl implements PersonService {
 
     /**
      * Attaches a list of other persons to each ChildAlertDto in the specified child alerts map.
-     * For each person in the list, this method evaluates all entries in the child alerts map
-     * and adds a representation of the person as an other person to the respective ChildAlertDto,
-     * provided the person's full name does not match the key of the current entry.
+     * The persons are joined once into a {@link HouseholdDto}, and each ChildAlertDto gets a view
+     * of that household leaving out the person whose full name is the key of its entry, so the
+     * join is linear in the number of persons whatever the number of children.
      *
      * @param childAlerts a map where the key is a string representing a child's identity
      *                    (e.g., full name or unique identifier) and the value is the
@@ -336,17 +314,10 @@ public class PersonServiceImpl implements PersonService {
      * @return a list of updated ChildAlertDto objects containing the added other person information
      */
     public List<ChildAlertDto> attachOtherPersonToChildAlertDto(Map<String, ChildAlertDto> childAlerts, List<Person> persons) {
-        persons.forEach(person -> {
-            int otherPersonCount = 0;
-
-            for (Map.Entry<String, ChildAlertDto> entry : childAlerts.entrySet()) {
-                if (!entry.getKey().equals(person.getFullName())) {
-                    entry.getValue().otherPersons.add(new OtherPersonDto(person.getFirstName(), person.getLastName()));
-                    otherPersonCount++;
-                }
-            }
-            log.debug("{} other person(s) household added for ChildAlertDto", otherPersonCount);
-        });
+        HouseholdDto household = new HouseholdDto(persons);
+        log.debug("{} other person(s) household added for ChildAlertDto", household.size());
+
+        childAlerts.forEach((fullName, childAlert) -> childAlert.otherPersons = household.getOtherPersons(fullName));
         log.debug("ChildPersonDto mapped for {} children at address", childAlerts.size());
 
         return new ArrayList<>(childAlerts.values());
@@ -363,9 +334,10 @@ public class PersonServiceImpl implements PersonService {
      */
     public FireInfoDto toFireInfoDto(List<Person> persons, FireStation fireStation, Map<String, MedicalRecord> medicalRecordMap) {
         List<AddressPersonDto> addressPersons = new ArrayList<>();
+        LocalDate today = LocalDate.now(clock);
 
         for (Person person : persons) {
-            AddressPersonDto addressPersonDto = new AddressPersonDto(person, medicalRecordMap.get(person.getFullName()));
+            AddressPersonDto addressPersonDto = new AddressPersonDto(person, medicalRecordMap.get(person.getFullName()), today);
             addressPersons.add(addressPersonDto);
             log.debug("person transformed to AddressPersonDto");
         }
@@ -0,0 +1,664 @@
+package org.safetynet.alerts.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.safetynet.alerts.model.DataChange;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.SnapshotJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the changes made to the dataset, replayed on top of the JSON data at startup.
+ * Each batch published by the {@link JsonData} writer is appended as one record, tagged with the
+ * version of its snapshot, before the snapshot is published. A record is framed by its length and
+ * a CRC-32C checksum of its content, so a record torn by a crash is detected at replay and dropped
+ * with everything after it.
+ * Records are appended to the active segment, the file at {@code json.data.wal.path}. A checkpoint saves
+ * a whole published snapshot to the checkpoint file, then seals the active segment by renaming it with a
+ * sequence number suffix and starts a new one, and deletes the sealed segments whose records are all
+ * contained in the checkpoint. The log is never copied, so the writer is only held for the rename.
+ * Startup loads the checkpoint, when present, instead of the JSON data and replays the sealed segments
+ * in sequence order, then the active one, skipping the records published before the checkpoint.
+ * The log is enabled by setting the {@code json.data.wal.path} property and checkpoints by setting the
+ * {@code json.data.wal.checkpoint-path} property. The {@code json.data.wal.fsync} property selects when
+ * appended records are forced to disk, see {@link FsyncPolicy}.
+ */
+@Component
+@Slf4j
+public class WriteAheadLog implements SnapshotJournal {
+
+    /**
+     * When appended records are forced to the storage device.
+     */
+    public enum FsyncPolicy {
+        /** Each batch is forced to disk before being published. No acknowledged change can be lost. */
+        ALWAYS,
+        /** Batches are forced to disk together at a fixed interval. Changes acknowledged during the last interval can be lost. */
+        GROUP,
+        /** Batches are left to the operating system page cache. Changes not yet written back by the OS can be lost. */
+        OS
+    }
+
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+
+    private final ObjectMapper objectMapper;
+    private final JsonDataReader jsonDataReader;
+    private final JsonDataWriter jsonDataWriter;
+    private final Path path;
+    private final Path checkpointPath;
+    private final FsyncPolicy fsyncPolicy;
+    private final long groupCommitIntervalMillis;
+
+    private final AtomicBoolean unforcedRecords = new AtomicBoolean();
+    /** Sealed segments, in sequence order. */
+    private final List<Segment> sealedSegments = new ArrayList<>();
+    private Segment activeSegment;
+    private int nextSegmentNumber;
+    /** Guards the channel against being closed while the group commit task forces it. */
+    private final Object channelLock = new Object();
+    /** Channel of the active segment, replaced under both this and {@link #channelLock}. */
+    private FileChannel channel;
+    private volatile JsonData attachedData;
+    private ScheduledExecutorService groupCommitExecutor;
+    /** Serializes the checkpoints, so that a checkpoint never overwrites a more recent one. */
+    private final Object checkpointLock = new Object();
+    /** Version of the last checkpoint written since the log was attached, written under {@link #checkpointLock}. */
+    private volatile long checkpointVersion;
+
+    public WriteAheadLog(ObjectMapper objectMapper,
+                         @Value("${json.data.wal.path:}") String path,
+                         @Value("${json.data.wal.checkpoint-path:}") String checkpointPath,
+                         @Value("${json.data.wal.fsync:GROUP}") FsyncPolicy fsyncPolicy,
+                         @Value("${json.data.wal.group-commit-interval-ms:10}") long groupCommitIntervalMillis) {
+        this.objectMapper = JsonDataWriter.withoutDerivedProperties(objectMapper);
+        this.jsonDataReader = new JsonDataReader(this.objectMapper);
+        this.jsonDataWriter = new JsonDataWriter(objectMapper);
+        this.path = toPath(path);
+        this.checkpointPath = toPath(checkpointPath);
+        this.fsyncPolicy = fsyncPolicy;
+        this.groupCommitIntervalMillis = groupCommitIntervalMillis;
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * Reads the dataset saved by the last checkpoint.
+     *
+     * @return the saved dataset, or an empty {@code Optional} if checkpoints are disabled or none was made yet
+     * @throws IOException if the checkpoint file cannot be read
+     */
+    public Optional<JsonData> readCheckpoint() throws IOException {
+        if (checkpointPath == null || !Files.exists(checkpointPath)) {
+            return Optional.empty();
+        }
+
+        if (BinarySnapshotFormat.isBinarySnapshot(checkpointPath.toString())) {
+            try (InputStream input = new MappedFileInputStream(checkpointPath)) {
+                JsonData jsonData = BinarySnapshotFormat.read(input);
+                log.info("Checkpoint version {} loaded from {}", jsonData.getSnapshot().getVersion(), checkpointPath);
+
+                return Optional.of(jsonData);
+            }
+        }
+
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(checkpointPath))) {
+            JsonData jsonData = jsonDataReader.read(input);
+            log.info("Checkpoint version {} loaded from {}", jsonData.getSnapshot().getVersion(), checkpointPath);
+
+            return Optional.of(jsonData);
+        }
+    }
+
+    /**
+     * Replays the log on the given dataset, then records every change later published by it.
+     * Records already contained in the dataset, according to its version, are skipped.
+     * A torn or corrupted record ends the replay, the log is truncated before it.
+     *
+     * @param jsonData the dataset freshly loaded from the JSON data or from the last checkpoint
+     * @throws IOException if the log cannot be read or opened for writing
+     */
+    public synchronized void attach(JsonData jsonData) throws IOException {
+        close();
+        checkpointVersion = 0;
+
+        long loadedVersion = jsonData.getSnapshot().getVersion();
+        NavigableMap<Long, List<DataChange>> batches = readBatches().tailMap(loadedVersion, false);
+        if (!batches.isEmpty()) {
+            jsonData.update(data -> {
+                for (List<DataChange> batch : batches.values()) {
+                    for (DataChange change : batch) {
+                        if (!change.applyTo(data)) {
+                            log.warn("Skipping logged change not matching the data: {}", change);
+                        }
+                    }
+                }
+                data.setVersion(batches.lastKey());
+                return null;
+            });
+        }
+        log.info("{} logged batch(es) replayed from {} on data version {}", batches.size(), path, loadedVersion);
+
+        openActiveChannel();
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            groupCommitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-group-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            groupCommitExecutor.scheduleWithFixedDelay(this::forceUnforcedRecords,
+                    groupCommitIntervalMillis, groupCommitIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        attachedData = jsonData;
+        jsonData.setJournal(this);
+    }
+
+    /**
+     * Appends the changes of one batch as a single record.
+     *
+     * @param version the version of the snapshot publishing the changes
+     * @param changes the changes of the batch, in the order they were made
+     * @throws IOException if the record could not be written, or forced with the {@link FsyncPolicy#ALWAYS} policy
+     */
+    @Override
+    public void append(long version, List<DataChange> changes) throws IOException {
+        appendRecord(version, objectMapper.writeValueAsBytes(toJson(version, changes)));
+    }
+
+    /**
+     * Appends one record to the active segment, framed by its length and checksum.
+     */
+    private synchronized void appendRecord(long version, byte[] payload) throws IOException {
+        if (channel == null) {
+            throw new IOException("Write-ahead log is not open");
+        }
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putInt((int) checksum.getValue())
+                .put(payload)
+                .flip();
+        long recordPosition = channel.size();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            discardRecordFrom(recordPosition, e);
+            throw e;
+        }
+        activeSegment.addRecord(version);
+
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            unforcedRecords.set(true);
+        }
+    }
+
+    /**
+     * Truncates the active segment before a record that failed to be written, so that no acknowledged record
+     * is ever logged after a torn one. When the segment cannot be truncated, the log is closed and every later
+     * append fails, since a record appended after the torn one would be dropped at replay.
+     */
+    private void discardRecordFrom(long recordPosition, IOException failure) {
+        try {
+            channel.truncate(recordPosition);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            log.error("Failed to truncate the write-ahead log after a failed append, closing it", e);
+            synchronized (channelLock) {
+                try {
+                    channel.close();
+                } catch (IOException closeFailure) {
+                    failure.addSuppressed(closeFailure);
+                }
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Saves the current snapshot of the attached dataset to the checkpoint file, then removes the records
+     * it contains from the log. The snapshot is written to a temporary file renamed over the previous
+     * checkpoint, so a crash leaves either the previous or the new checkpoint in place.
+     * Readers are never blocked. The writer is only held while the active segment is sealed, the records
+     * published during the checkpoint being kept in it until the next checkpoint.
+     *
+     * @return {@code true} if a checkpoint was made, {@code false} if disabled or if the log had nothing to compact
+     * @throws IOException if the checkpoint or the compacted log cannot be written
+     */
+    public boolean checkpoint() throws IOException {
+        JsonData jsonData = attachedData;
+        if (checkpointPath == null || jsonData == null) {
+            return false;
+        }
+
+        synchronized (checkpointLock) {
+            DataSnapshot snapshot = jsonData.getSnapshot();
+            synchronized (this) {
+                if (snapshot.getVersion() <= checkpointVersion || !hasRecordsUpTo(snapshot.getVersion())) {
+                    return false;
+                }
+            }
+
+            writeCheckpoint(snapshot);
+            int compacted = compactUpTo(snapshot.getVersion());
+            log.info("Checkpoint version {} saved to {}, {} logged batch(es) compacted",
+                    snapshot.getVersion(), checkpointPath, compacted);
+        }
+
+        return true;
+    }
+
+    /**
+     * Records that the attached dataset is replaced as a whole. Once a checkpoint exists, the differences
+     * of the replacement are appended as one record, like a batch, and the replacement is saved to the
+     * checkpoint file by the next {@link #checkpoint()}, off the writer. Before the first checkpoint, the log
+     * is replayed at startup on the data of {@code json.data.path}, which the reload may have changed, so the
+     * replacement is saved as the checkpoint right away and the log is cleared, as when the differences are too
+     * large for one record. Without a checkpoint path, the log is cleared and the dataset is loaded again from
+     * {@code json.data.path} at startup.
+     *
+     * @param snapshot the snapshot replacing the dataset, at the version it is published with
+     * @param changes the differences between the previous dataset and the snapshot
+     * @throws IOException if the differences, the checkpoint or the cleared log cannot be written
+     */
+    @Override
+    public void reset(DataSnapshot snapshot, List<DataChange> changes) throws IOException {
+        if (checkpointPath == null) {
+            log.warn("Dataset replaced while no checkpoint path is set, it is loaded again from json.data.path at startup");
+            int cleared = compactUpTo(Long.MAX_VALUE);
+            log.info("Dataset replaced at version {}, {} logged batch(es) cleared", snapshot.getVersion(), cleared);
+            return;
+        }
+
+        byte[] payload = objectMapper.writeValueAsBytes(toJson(snapshot.getVersion(), changes));
+        if (payload.length <= MAX_RECORD_SIZE && Files.exists(checkpointPath)) {
+            appendRecord(snapshot.getVersion(), payload);
+            log.info("Dataset replaced at version {}, {} difference(s) logged", snapshot.getVersion(), changes.size());
+            return;
+        }
+
+        synchronized (checkpointLock) {
+            writeCheckpoint(snapshot);
+            int cleared = compactUpTo(Long.MAX_VALUE);
+            log.info("Dataset replaced at version {}, {} logged batch(es) cleared", snapshot.getVersion(), cleared);
+        }
+    }
+
+    /**
+     * Forces the pending records to disk and closes the log. Changes published afterwards are not logged
+     * until the log is attached again.
+     */
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (groupCommitExecutor != null) {
+            // Interrupting a force in progress would close the channel, so let it finish instead
+            groupCommitExecutor.shutdown();
+            try {
+                groupCommitExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            groupCommitExecutor = null;
+        }
+        closeActiveChannel();
+        if (attachedData != null) {
+            attachedData.setJournal(null);
+            attachedData = null;
+        }
+        sealedSegments.clear();
+        activeSegment = null;
+    }
+
+    private void writeCheckpoint(DataSnapshot snapshot) throws IOException {
+        if (checkpointPath.getParent() != null) {
+            Files.createDirectories(checkpointPath.getParent());
+        }
+        Path temporaryPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+
+        try (FileChannel output = FileChannel.open(temporaryPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream outputStream = Channels.newOutputStream(output);
+            if (BinarySnapshotFormat.isBinarySnapshot(checkpointPath.toString())) {
+                BinarySnapshotFormat.write(snapshot, outputStream);
+            } else {
+                OutputStream bufferedStream = new BufferedOutputStream(outputStream);
+                jsonDataWriter.write(snapshot, bufferedStream);
+                bufferedStream.flush();
+            }
+            output.force(true);
+        }
+
+        Files.move(temporaryPath, checkpointPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpointVersion = Math.max(checkpointVersion, snapshot.getVersion());
+    }
+
+    private boolean hasRecordsUpTo(long version) {
+        for (Segment segment : sealedSegments) {
+            if (segment.firstVersion <= version) {
+                return true;
+            }
+        }
+
+        return activeSegment != null && activeSegment.recordCount > 0 && activeSegment.firstVersion <= version;
+    }
+
+    /**
+     * Removes the records published up to the given version from the log. The active segment is sealed when
+     * it holds such records, then the sealed segments holding only such records are deleted. The writer is
+     * only held while the active segment is sealed.
+     *
+     * @return the number of records removed
+     */
+    private int compactUpTo(long version) throws IOException {
+        List<Segment> covered = new ArrayList<>();
+        synchronized (this) {
+            if (channel == null) {
+                return 0;
+            }
+
+            if (activeSegment.recordCount > 0 && activeSegment.firstVersion <= version) {
+                sealActiveSegment();
+            }
+            for (Iterator<Segment> iterator = sealedSegments.iterator(); iterator.hasNext(); ) {
+                Segment segment = iterator.next();
+                if (segment.lastVersion <= version) {
+                    covered.add(segment);
+                    iterator.remove();
+                }
+            }
+        }
+
+        int removedCount = 0;
+        for (Segment segment : covered) {
+            Files.deleteIfExists(segment.path);
+            removedCount += segment.recordCount;
+        }
+
+        return removedCount;
+    }
+
+    /**
+     * Renames the active segment with the next sequence number and opens a new empty one in its place.
+     */
+    private void sealActiveSegment() throws IOException {
+        Path sealedPath = segmentPath(nextSegmentNumber++);
+        closeActiveChannel();
+        Files.move(path, sealedPath, StandardCopyOption.ATOMIC_MOVE);
+        sealedSegments.add(activeSegment.sealedAs(sealedPath));
+        activeSegment = new Segment(path);
+        openActiveChannel();
+    }
+
+    private void openActiveChannel() throws IOException {
+        FileChannel opened = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        synchronized (channelLock) {
+            channel = opened;
+        }
+    }
+
+    private void closeActiveChannel() throws IOException {
+        synchronized (channelLock) {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private void forceUnforcedRecords() {
+        if (!unforcedRecords.getAndSet(false)) {
+            return;
+        }
+
+        try {
+            synchronized (channelLock) {
+                if (channel != null) {
+                    channel.force(false);
+                }
+            }
+        } catch (IOException e) {
+            unforcedRecords.set(true);
+            log.error("Failed to force the write-ahead log to disk", e);
+        }
+    }
+
+    /**
+     * Reads the records of the sealed segments in sequence order, then of the active segment. A torn or
+     * corrupted record ends the log: its segment is truncated before it and the later segments are deleted.
+     */
+    private NavigableMap<Long, List<DataChange>> readBatches() throws IOException {
+        NavigableMap<Long, List<DataChange>> batches = new TreeMap<>();
+        sealedSegments.clear();
+        activeSegment = new Segment(path);
+        nextSegmentNumber = 1;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        NavigableMap<Integer, Path> sealedPaths = findSealedSegments();
+        if (!sealedPaths.isEmpty()) {
+            nextSegmentNumber = sealedPaths.lastKey() + 1;
+        }
+        boolean torn = false;
+        for (Path sealedPath : sealedPaths.values()) {
+            if (torn) {
+                Files.delete(sealedPath);
+                continue;
+            }
+            Segment segment = new Segment(sealedPath);
+            torn = !readSegment(segment, batches);
+            if (segment.recordCount > 0) {
+                sealedSegments.add(segment);
+            } else {
+                Files.delete(sealedPath);
+            }
+        }
+
+        if (torn) {
+            Files.deleteIfExists(path);
+        } else if (Files.exists(path)) {
+            readSegment(activeSegment, batches);
+        }
+
+        return batches;
+    }
+
+    /**
+     * Reads the records of a segment into the batches, truncating the segment before a torn or corrupted record.
+     *
+     * @return {@code true} if the whole segment was read, {@code false} if it was truncated
+     */
+    private boolean readSegment(Segment segment, NavigableMap<Long, List<DataChange>> batches) throws IOException {
+        long validLength = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.path)))) {
+            while (true) {
+                int length;
+                try {
+                    length = input.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                JsonNode record = readRecord(input, length);
+                if (record == null) {
+                    break;
+                }
+                long version = record.get("version").asLong();
+                batches.put(version, fromJson(record));
+                segment.addRecord(version);
+                validLength += RECORD_HEADER_SIZE + length;
+            }
+        }
+
+        if (validLength < Files.size(segment.path)) {
+            log.warn("Write-ahead log {} has a torn or corrupted record at offset {}, truncating it",
+                    segment.path, validLength);
+            try (FileChannel truncated = FileChannel.open(segment.path, StandardOpenOption.WRITE)) {
+                truncated.truncate(validLength);
+                truncated.force(false);
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Lists the sealed segments of the log, the files named after it with a sequence number suffix.
+     */
+    private NavigableMap<Integer, Path> findSealedSegments() throws IOException {
+        NavigableMap<Integer, Path> sealedPaths = new TreeMap<>();
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(path.toAbsolutePath().getParent(), prefix + "*")) {
+            for (Path sibling : siblings) {
+                String suffix = sibling.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.length() < 10 && suffix.chars().allMatch(Character::isDigit)) {
+                    sealedPaths.put(Integer.parseInt(suffix), sibling);
+                }
+            }
+        }
+
+        return sealedPaths;
+    }
+
+    private Path segmentPath(int number) {
+        return path.resolveSibling(path.getFileName() + "." + number);
+    }
+
+    private JsonNode readRecord(DataInputStream input, int length) throws IOException {
+        if (length < 0 || length > MAX_RECORD_SIZE) {
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        int expectedChecksum;
+        try {
+            expectedChecksum = input.readInt();
+            input.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload);
+        if ((int) checksum.getValue() != expectedChecksum) {
+            return null;
+        }
+
+        return objectMapper.readTree(payload);
+    }
+
+    private ObjectNode toJson(long version, List<DataChange> changes) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("version", version);
+        ArrayNode changesNode = record.putArray("changes");
+
+        for (DataChange change : changes) {
+            ObjectNode changeNode = changesNode.addObject();
+            changeNode.put("type", change.getType().name());
+            changeNode.set("previous", objectMapper.valueToTree(change.getPrevious()));
+            changeNode.set("current", objectMapper.valueToTree(change.getCurrent()));
+        }
+
+        return record;
+    }
+
+    private List<DataChange> fromJson(JsonNode record) throws IOException {
+        List<DataChange> changes = new ArrayList<>();
+
+        for (JsonNode changeNode : record.get("changes")) {
+            DataChange.Type type = DataChange.Type.valueOf(changeNode.get("type").asText());
+            changes.add(new DataChange(type,
+                    toElement(changeNode.get("previous"), type),
+                    toElement(changeNode.get("current"), type)));
+        }
+
+        return changes;
+    }
+
+    private Object toElement(JsonNode node, DataChange.Type type) throws IOException {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+
+        return objectMapper.treeToValue(node, type.getElementType());
+    }
+
+    private static Path toPath(String path) {
+        return path == null || path.isBlank() ? null : Path.of(path);
+    }
+
+    /**
+     * Segment file of the log, with the versions of the records it holds.
+     */
+    private static final class Segment {
+        private final Path path;
+        private long firstVersion;
+        private long lastVersion;
+        private int recordCount;
+
+        private Segment(Path path) {
+            this.path = path;
+        }
+
+        private void addRecord(long version) {
+            if (recordCount++ == 0) {
+                firstVersion = version;
+            }
+            lastVersion = version;
+        }
+
+        private Segment sealedAs(Path sealedPath) {
+            Segment sealed = new Segment(sealedPath);
+            sealed.firstVersion = firstVersion;
+            sealed.lastVersion = lastVersion;
+            sealed.recordCount = recordCount;
+
+            return sealed;
+        }
+    }
+}
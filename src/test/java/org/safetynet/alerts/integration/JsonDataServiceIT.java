@@ -4,6 +4,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.safetynet.alerts.LogWorker;
@@ -11,7 +12,16 @@ import org.safetynet.alerts.logging.MemoryAppender;
 import org.safetynet.alerts.model.JsonData;
 import org.safetynet.alerts.service.JsonDataService;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -20,10 +30,16 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 @Tag("FireStation")
 public class JsonDataServiceIT {
 
+    @Autowired
+    private JsonDataService jsonDataService;
+
     private final String LOGGER_NAME = "org.safetynet.alerts.service.JsonDataService";
 
     private final MemoryAppender memoryAppender = new MemoryAppender();
 
+    @TempDir
+    private Path tempDir;
+
     @BeforeAll
     public static void beforeAll() {
         LogWorker worker = new LogWorker();
@@ -42,7 +58,7 @@ public class JsonDataServiceIT {
 
     @Test
     public void getJsonDataSuccess() {
-        JsonDataService.init("test-data.json");
+        jsonDataService.init("test-data.json");
         JsonData result = JsonDataService.getJsonData();
 
         assertThat(result).isNotNull();
@@ -57,7 +73,7 @@ public class JsonDataServiceIT {
 
     @Test
     public void initWithBadPath() {
-        assertThrows(RuntimeException.class, () -> JsonDataService.init("bad_path"));
+        assertThrows(RuntimeException.class, () -> jsonDataService.init("bad_path"));
 
         assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
         assertThat(memoryAppender.search("Initializing JSON data from path", Level.INFO)).hasSize(1);
@@ -72,7 +88,7 @@ public class JsonDataServiceIT {
             "bla-bla-data.json",
     })
     public void getJsonDataWithWrongDataType(String jsonPath) {
-        assertThrows(RuntimeException.class, () -> JsonDataService.init(jsonPath));
+        assertThrows(RuntimeException.class, () -> jsonDataService.init(jsonPath));
         assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
 
         assertThat(memoryAppender.search("Initializing JSON data from path", Level.INFO)).hasSize(1);
@@ -84,4 +100,55 @@ public class JsonDataServiceIT {
         }
     }
 
+    @Test
+    public void getJsonDataFromFilesystemPath() throws IOException {
+        Path jsonPath = tempDir.resolve("data.json");
+        try (InputStream input = new ClassPathResource("data.json").getInputStream()) {
+            Files.copy(input, jsonPath);
+        }
+
+        jsonDataService.init(jsonPath.toString());
+        JsonData result = JsonDataService.getJsonData();
+
+        assertThat(result.getPersons()).hasSize(23);
+        assertThat(result.getFirestations()).hasSize(13);
+        assertThat(result.getMedicalrecords()).hasSize(23);
+        assertThat(memoryAppender.search("Data loaded successfully !", Level.INFO)).hasSize(1);
+    }
+
+    @Test
+    public void getJsonDataFromGzipFile() throws IOException {
+        Path jsonPath = tempDir.resolve("data.json.gz");
+        try (InputStream input = new ClassPathResource("data.json").getInputStream();
+             OutputStream output = new GZIPOutputStream(Files.newOutputStream(jsonPath))) {
+            input.transferTo(output);
+        }
+
+        jsonDataService.init("file:" + jsonPath);
+        JsonData result = JsonDataService.getJsonData();
+
+        assertThat(result.getPersons()).hasSize(23);
+        assertThat(result.getSnapshot().getPersonIndex().findByFullName("John Boyd")).isPresent();
+        assertThat(memoryAppender.search("Data loaded successfully !", Level.INFO)).hasSize(1);
+    }
+
+    @Test
+    public void initWithMissingFilesystemPath() {
+        String jsonPath = "file:" + tempDir.resolve("missing.json");
+
+        assertThrows(RuntimeException.class, () -> jsonDataService.init(jsonPath));
+
+        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
+        assertThat(memoryAppender.search("JSON file not found at path", Level.ERROR)).hasSize(1);
+    }
+
+    @Test
+    public void initWithCorruptedGzipFile() throws IOException {
+        Path jsonPath = tempDir.resolve("data.json.gz");
+        Files.writeString(jsonPath, "{\"persons\":[]}");
+
+        assertThrows(RuntimeException.class, () -> jsonDataService.init(jsonPath.toString()));
+
+        assertThat(memoryAppender.search("I/O error while loading JSON data", Level.ERROR)).hasSize(1);
+    }
 }
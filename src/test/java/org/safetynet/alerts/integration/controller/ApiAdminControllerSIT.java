@@ -0,0 +1,57 @@
+package org.safetynet.alerts.integration.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.service.JsonDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ApiAdminControllerSIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JsonDataService jsonDataService;
+
+    @AfterEach
+    public void tearDown() {
+        jsonDataService.init("data.json");
+    }
+
+    @Test
+    public void postReloadShouldSwapInFreshDataset() throws Exception {
+        JsonData jsonData = JsonDataService.getJsonData();
+        jsonData.update(data -> {
+            data.addPerson(new Person().setFirstName("John").setLastName("Doe").setAddress("1509 Culver St"));
+            return null;
+        });
+        DataSnapshot previous = jsonData.getSnapshot();
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/admin/reload"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(content().string(containsString("\"version\":" + (previous.getVersion() + 1))));
+
+        assertThat(JsonDataService.getJsonData()).isSameAs(jsonData);
+        assertThat(jsonData.getSnapshot().getPersonIndex().findByFullName("John Doe")).isEmpty();
+        assertThat(jsonData.getPersons()).hasSize(previous.getPersons().size() - 1);
+        assertThat(previous.getPersonIndex().findByFullName("John Doe")).isPresent();
+    }
+}
@@ -162,6 +162,27 @@ class ApiControllerSIT {
                 .andReturn();
     }
 
+    @Test
+    public void getAgeBracketCountSuccess() throws Exception {
+        mockMvc.perform(get("/ageBracket")
+                        .param("stations", "3,4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stations", hasSize(2)))
+                .andExpect(jsonPath("$.count", is(12)))
+                .andReturn();
+    }
+
+    @Test
+    public void getAgeBracketCountWithInvalidBracket() throws Exception {
+        mockMvc.perform(get("/ageBracket")
+                        .param("stations", "3")
+                        .param("minAge", "65")
+                        .param("maxAge", "4"))
+                .andExpect(status().is4xxClientError())
+                .andExpect(content().string(containsStringIgnoringCase("Invalid age bracket")))
+                .andReturn();
+    }
+
     @Test
     public void getPersonInfoLastNameSuccess() throws Exception {
         mockMvc.perform(get("/personInfo")
@@ -29,6 +29,9 @@ public class ApiFireStationControllerSIT {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JsonDataService jsonDataService;
+
     @Autowired
     FireStationService fireStationService;
 
@@ -41,7 +44,7 @@ public class ApiFireStationControllerSIT {
 
     @AfterEach
     public void tearDown() {
-        JsonDataService.init("data.json");
+        jsonDataService.init("data.json");
     }
 
     @Test
@@ -32,6 +32,9 @@ public class ApiMedicalRecordControllerSIT {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JsonDataService jsonDataService;
+
     @Autowired
     private MedicalRecordService medicalRecordService;
 
@@ -44,7 +47,7 @@ public class ApiMedicalRecordControllerSIT {
 
     @AfterEach
     public void tearDown() {
-        JsonDataService.init("data.json");
+        jsonDataService.init("data.json");
     }
 
     @Test
@@ -66,7 +69,10 @@ public class ApiMedicalRecordControllerSIT {
         Person person = new Person();
         person.setFirstName("John");
         person.setLastName("Doe");
-        jsonData.getPersons().add(person);
+        jsonData.update(data -> {
+            data.addPerson(person);
+            return person;
+        });
 
         ObjectMapper mapper = new ObjectMapper();
         MedicalRecord mockMedicalRecord = new MedicalRecord();
@@ -26,6 +26,9 @@ public class ApiPersonControllerSIT {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JsonDataService jsonDataService;
+
     private JsonData jsonData;
     private Person nonExistentPerson;
     private Person existingPerson;
@@ -55,7 +58,7 @@ public class ApiPersonControllerSIT {
 
     @AfterEach
     public void tearDown() {
-        JsonDataService.init("data.json");
+        jsonDataService.init("data.json");
     }
 
     @Test
@@ -8,7 +8,13 @@ import org.safetynet.alerts.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -16,12 +22,26 @@ import static org.assertj.core.api.Assertions.assertThat;
 @SpringBootTest
 @AutoConfigureMockMvc
 public class PersonServiceTestIT {
+
+    @TestConfiguration
+    static class FixedClockConfiguration {
+        @Bean
+        @Primary
+        public Clock fixedClock() {
+            ZoneId zone = ZoneId.of("UTC");
+            return Clock.fixed(LocalDate.of(2025, 6, 1).atStartOfDay(zone).toInstant(), zone);
+        }
+    }
+
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private JsonDataService jsonDataService;
+
     @BeforeEach
     void setUp() {
-        JsonDataService.init("data.json");
+        jsonDataService.init("data.json");
     }
 
     @Test
@@ -0,0 +1,87 @@
+package org.safetynet.alerts.unit.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.safetynet.alerts.controller.ApiAdminController;
+import org.safetynet.alerts.controller.ResponseCache;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.service.DatasetReloadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(ApiAdminController.class)
+public class ApiAdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DatasetReloadService datasetReloadService;
+
+    @MockitoBean
+    private ResponseCache responseCache;
+
+    @Test
+    public void getCacheMetricsShouldReturnCounters() throws Exception {
+        given(responseCache.size()).willReturn(2);
+        given(responseCache.getHitCount()).willReturn(7L);
+        given(responseCache.getMissCount()).willReturn(3L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/admin/cache"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(content().string(containsString("\"size\":2")))
+                .andExpect(content().string(containsString("\"hits\":7")))
+                .andExpect(content().string(containsString("\"misses\":3")));
+    }
+
+    @Test
+    public void postReloadShouldReturnPublishedVersion() throws Exception {
+        DataSnapshot snapshot = DataSnapshot.of(5,
+                List.of(new Person().setFirstName("John").setLastName("Boyd")),
+                List.of(new FireStation().setAddress("1509 Culver St").setStation("3")),
+                List.of(),
+                LocalDate.of(2025, 6, 1));
+        given(datasetReloadService.reload()).willReturn(CompletableFuture.completedFuture(snapshot));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/admin/reload"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(content().string(containsString("\"version\":5")))
+                .andExpect(content().string(containsString("\"persons\":1")))
+                .andExpect(content().string(containsString("\"firestations\":1")));
+    }
+
+    @Test
+    public void postReloadShouldReturnInternalServerErrorWhenReloadFails() throws Exception {
+        given(datasetReloadService.reload())
+                .willReturn(CompletableFuture.failedFuture(new RuntimeException("JSON file not found")));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/admin/reload"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isInternalServerError())
+                .andExpect(content().string(containsString("Dataset could not be reloaded.")));
+    }
+}
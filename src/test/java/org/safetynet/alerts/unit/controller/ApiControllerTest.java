@@ -1,25 +1,34 @@
 package org.safetynet.alerts.unit.controller;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.safetynet.alerts.controller.ApiController;
 import org.safetynet.alerts.controller.PersonDtoMapper;
+import org.safetynet.alerts.controller.ResponseCache;
 import org.safetynet.alerts.dto.PersonByStationNumberDto;
 import org.safetynet.alerts.dto.FireInfoDto;
 import org.safetynet.alerts.dto.person.*;
+import org.safetynet.alerts.model.AgeGroupCount;
 import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.MedicalRecordIndex;
 import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.StationCoverage;
 import org.safetynet.alerts.service.FireStationService;
 import org.safetynet.alerts.service.MedicalRecordService;
 import org.safetynet.alerts.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
@@ -46,6 +55,15 @@ class ApiControllerTest {
     @MockitoBean
     private MedicalRecordService medicalRecordService;
 
+    @MockitoBean
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    public void init() {
+        given(responseCache.get(anyString(), anyString(), any(), anyCollection(), any()))
+                .willAnswer(invocation -> invocation.<Supplier<ResponseEntity<?>>>getArgument(4).get());
+    }
+
     @Test
     public void getPersonByStationNumberShouldReturnDto() throws Exception {
         Person person1 = new Person();
@@ -58,7 +76,6 @@ class ApiControllerTest {
         person1.setPhone("841-874-7458");
 
         List<Person> persons = List.of(person1);
-        List<String> fullNames = List.of("John Doe");
 
         PersonBasicInfoDto personBasicInfoDto = new PersonBasicInfoDto(person1);
         PersonByStationNumberDto PersonByStationNumberDto = new PersonByStationNumberDto(
@@ -68,10 +85,10 @@ class ApiControllerTest {
                 1
         );
 
-        given(personService.getAllPersonFromFireStation(anyString())).willReturn(persons);
-        given(personService.getFullNamesFromPersons(anyList())).willReturn(fullNames);
-        given(personService.countAdultFromPersons(anyList())).willReturn(1);
-        given(personService.countChildrenFromPersons(anyList())).willReturn(1);
+        StationCoverage coverage = new StationCoverage("3", List.of(new Household("1509 Culver St", persons,
+                new MedicalRecordIndex(Collections.emptyList(), LocalDate.now()))), new AgeGroupCount(1, 1));
+
+        given(personService.getFireStationCoverage(anyString())).willReturn(Optional.of(coverage));
         given(personDtoMapper.toPersonByStationNumberDto(anyList(), anyString(), anyInt(), anyInt())).willReturn(PersonByStationNumberDto);
 
         mockMvc.perform(get("/firestation")
@@ -85,7 +102,7 @@ class ApiControllerTest {
 
     @Test
     public void getPersonByStationNumberWhenNotFoundPersonShouldException() throws Exception {
-        given(personService.getAllPersonFromFireStation(anyString())).willReturn(Collections.emptyList());
+        given(personService.getFireStationCoverage(anyString())).willReturn(Optional.empty());
 
         mockMvc.perform(get("/firestation")
                         .param("stationNumber", "3"))
@@ -97,7 +114,7 @@ class ApiControllerTest {
 
     @Test
     public void getPersonByStationNumberWithBadArgumentShouldException() throws Exception {
-        given(personService.getAllPersonFromFireStation(anyString())).willThrow(new IllegalArgumentException());
+        given(personService.getFireStationCoverage(anyString())).willThrow(new IllegalArgumentException());
 
         mockMvc.perform(get("/firestation")
                         .param("stationNumber", "3"))
@@ -107,7 +124,7 @@ class ApiControllerTest {
 
     @Test
     public void getPersonByStationNumberInErrorShouldException() throws Exception {
-        given(personService.getAllPersonFromFireStation(anyString())).willThrow(new RuntimeException());
+        given(personService.getFireStationCoverage(anyString())).willThrow(new RuntimeException());
 
         mockMvc.perform(get("/firestation")
                         .param("stationNumber", "3"))
@@ -158,11 +175,9 @@ class ApiControllerTest {
 
     @Test
     public void getAllPhoneNumberByStationShouldReturnListPhones() throws Exception {
-        List<String> addresses = List.of("1509 Culver St");
         List<String> phones = List.of("841-874-7458");
 
-        given(fireStationService.getAddressesForFireStation(anyString())).willReturn(addresses);
-        given(personService.getAllPhoneNumberFromAddresses(anyList())).willReturn(phones);
+        given(personService.getAllPhoneNumberFromFireStation(anyString())).willReturn(phones);
 
         mockMvc.perform(get("/phoneAlert")
                         .param("fireStation", "3"))
@@ -173,7 +188,7 @@ class ApiControllerTest {
 
     @Test
     public void getAllPhoneNumberWithNotFoundStationShouldReturnEmptyList() throws Exception {
-        given(fireStationService.getAddressesForFireStation(anyString())).willReturn(Collections.emptyList());
+        given(personService.getAllPhoneNumberFromFireStation(anyString())).willReturn(Collections.emptyList());
 
         mockMvc.perform(get("/phoneAlert")
                         .param("fireStation", "30"))
@@ -184,7 +199,7 @@ class ApiControllerTest {
 
     @Test
     public void getAllPhoneNumberByStationWithBadArgumentShouldReturnException() throws Exception {
-        given(fireStationService.getAddressesForFireStation(anyString())).willThrow(new IllegalArgumentException("Bad argument"));
+        given(personService.getAllPhoneNumberFromFireStation(anyString())).willThrow(new IllegalArgumentException("Bad argument"));
 
         mockMvc.perform(get("/phoneAlert")
                         .param("fireStation", "3"))
@@ -195,7 +210,7 @@ class ApiControllerTest {
 
     @Test
     public void getAllPhoneNumberByStationInErrorShouldReturnException() throws Exception {
-        given(fireStationService.getAddressesForFireStation(anyString())).willThrow(new RuntimeException());
+        given(personService.getAllPhoneNumberFromFireStation(anyString())).willThrow(new RuntimeException());
 
         mockMvc.perform(get("/phoneAlert")
                         .param("fireStation", "3"))
@@ -222,14 +237,13 @@ class ApiControllerTest {
         medicalRecord.setMedications(Collections.emptyList());
         medicalRecord.setAllergies(Collections.emptyList());
 
-        AddressPersonDto addressPersonDto = new AddressPersonDto(person, medicalRecord);
+        AddressPersonDto addressPersonDto = new AddressPersonDto(person, medicalRecord, LocalDate.now());
         List<AddressPersonDto> persons = List.of(addressPersonDto);
 
         FireInfoDto fireInfoDto = new FireInfoDto(persons, fireStation);
 
         given(fireStationService.getFireStationAtAddress(anyString())).willReturn(new FireStation());
-        given(personService.getAllPersonAtAddress(anyString())).willReturn(new ArrayList<>());
-        given(medicalRecordService.getAllByFullName()).willReturn(new HashMap<>());
+        given(personService.getHousehold(anyString())).willReturn(Optional.empty());
         given(personService.toFireInfoDto(anyList(), any(FireStation.class), anyMap())).willReturn(fireInfoDto);
 
         mockMvc.perform(get("/fire")
@@ -273,9 +287,6 @@ class ApiControllerTest {
 
     @Test
     public void getFloodStationShouldReturnFloodStationDto() throws Exception {
-        List<String> addresses = List.of("1509 Culver St");
-        List<Person> persons = List.of(new Person());
-
         Person person = new Person();
         person.setFirstName("John");
         person.setLastName("Boyd");
@@ -286,17 +297,15 @@ class ApiControllerTest {
         medicalRecord.setLastName("Boyd");
         medicalRecord.setBirthdate("08/02/2008");
 
-        Map<String, MedicalRecord> medicalRecordMap = new HashMap<>();
-        medicalRecordMap.put("John Boyd", medicalRecord);
+        List<Household> households = List.of(new Household("1509 Culver St", List.of(person),
+                new MedicalRecordIndex(List.of(medicalRecord), LocalDate.now())));
 
-        PersonMedicalInfoDto PersonMedicalInfoDto = new PersonMedicalInfoDto(person, medicalRecord);
+        PersonMedicalInfoDto PersonMedicalInfoDto = new PersonMedicalInfoDto(person, medicalRecord, LocalDate.now());
         Map<String, List<PersonMedicalInfoDto>> personMedicalInfoDtoMap = new HashMap<>();
         personMedicalInfoDtoMap.put("John Boyd", Collections.singletonList(PersonMedicalInfoDto));
 
-        given(fireStationService.getAddressesForFireStations(anyString())).willReturn(addresses);
-        given(personService.getAllPersonFromAddresses(anyList())).willReturn(persons);
-        given(medicalRecordService.getAllByFullName()).willReturn(medicalRecordMap);
-        given(personDtoMapper.toFloodStationDto(anyList(), anyMap())).willReturn(personMedicalInfoDtoMap);
+        given(personService.getHouseholdsFromFireStations(anyString())).willReturn(households);
+        given(personDtoMapper.toFloodStationDto(households)).willReturn(personMedicalInfoDtoMap);
 
         mockMvc.perform(get("/flood/stations")
                         .param("stations", "2,3"))
@@ -308,7 +317,7 @@ class ApiControllerTest {
 
     @Test
     public void getFloodStationWithBadArgumentShouldReturnException() throws Exception {
-        given(fireStationService.getAddressesForFireStations(anyString())).willThrow(new IllegalArgumentException());
+        given(personService.getHouseholdsFromFireStations(anyString())).willThrow(new IllegalArgumentException());
 
         mockMvc.perform(get("/flood/stations")
                         .param("stations", "2,3"))
@@ -318,7 +327,7 @@ class ApiControllerTest {
 
     @Test
     public void getFloodStationInErrorShouldReturnException() throws Exception {
-        given(fireStationService.getAddressesForFireStations(anyString())).willThrow(new RuntimeException());
+        given(personService.getHouseholdsFromFireStations(anyString())).willThrow(new RuntimeException());
 
         mockMvc.perform(get("/flood/stations")
                         .param("stations", "2,3"))
@@ -326,6 +335,43 @@ class ApiControllerTest {
                 .andReturn();
     }
 
+    @Test
+    public void getAgeBracketCountShouldReturnDto() throws Exception {
+        given(personService.countPersonsAgedFromFireStations("1,3", 65, null)).willReturn(4);
+
+        mockMvc.perform(get("/ageBracket")
+                        .param("stations", "1,3")
+                        .param("minAge", "65"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().string(containsString("\"stations\":[\"1\",\"3\"]")))
+                .andExpect(content().string(containsString("\"count\":4")))
+                .andReturn();
+    }
+
+    @Test
+    public void getAgeBracketCountWithBadArgumentShouldReturnException() throws Exception {
+        given(personService.countPersonsAgedFromFireStations(anyString(), anyInt(), any()))
+                .willThrow(new IllegalArgumentException());
+
+        mockMvc.perform(get("/ageBracket")
+                        .param("stations", "1")
+                        .param("minAge", "65")
+                        .param("maxAge", "4"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+    }
+
+    @Test
+    public void getAgeBracketCountInErrorShouldReturnException() throws Exception {
+        given(personService.countPersonsAgedFromFireStations(anyString(), anyInt(), any()))
+                .willThrow(new RuntimeException());
+
+        mockMvc.perform(get("/ageBracket")
+                        .param("stations", "1"))
+                .andExpect(status().isInternalServerError())
+                .andReturn();
+    }
+
     @Test
     public void getPersonInfoLastNameShouldReturnDto() throws Exception {
         Map<String, MedicalRecord> medicalRecordMap = new HashMap<>();
@@ -342,7 +388,7 @@ class ApiControllerTest {
         medicalRecord.setLastName("Boyd");
         medicalRecord.setBirthdate("08/02/2008");
 
-        PersonInfoDto personInfoDto = new PersonInfoDto(person, medicalRecord);
+        PersonInfoDto personInfoDto = new PersonInfoDto(person, medicalRecord, LocalDate.now());
         List<PersonInfoDto> personInfos = List.of(personInfoDto);
 
         given(medicalRecordService.getAllByFullName()).willReturn(medicalRecordMap);
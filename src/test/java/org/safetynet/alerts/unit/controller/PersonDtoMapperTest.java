@@ -9,6 +9,7 @@ import org.safetynet.alerts.dto.PersonByStationNumberDto;
 import org.safetynet.alerts.dto.person.ChildAlertDto;
 import org.safetynet.alerts.dto.person.PersonInfoDto;
 import org.safetynet.alerts.dto.person.PersonMedicalInfoDto;
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.JsonData;
 import org.safetynet.alerts.model.MedicalRecord;
 import org.safetynet.alerts.model.Person;
@@ -16,10 +17,15 @@ import org.safetynet.alerts.service.MedicalRecordService;
 import org.safetynet.alerts.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.ClassPathResource;
 
 import java.io.InputStream;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +36,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 @Slf4j
 public class PersonDtoMapperTest {
 
+    @TestConfiguration
+    static class FixedClockConfiguration {
+        @Bean
+        @Primary
+        public Clock fixedClock() {
+            ZoneId zone = ZoneId.of("UTC");
+            return Clock.fixed(LocalDate.of(2025, 6, 1).atStartOfDay(zone).toInstant(), zone);
+        }
+    }
+
     @Autowired
     private MedicalRecordService medicalRecordService;
 
@@ -70,17 +86,15 @@ public class PersonDtoMapperTest {
     }
 
     @Test
-    public void toFloodStationDtoShouldReturnDto() {
-        Map<String, MedicalRecord> medicalRecordMap = medicalRecordService.getAllByFullName();
+    public void toFloodStationDtoFromHouseholdsShouldReturnDto() {
+        List<Household> households = List.of(jsonData.getSnapshot().getHouseholdIndex().findByAddress("1509 Culver St").orElseThrow(),
+                jsonData.getSnapshot().getHouseholdIndex().findByAddress("29 15th St").orElseThrow());
 
-        Map<String, List<PersonMedicalInfoDto>> dtoByAddress = personDtoMapper.toFloodStationDto(jsonData.getPersons(), medicalRecordMap);
+        Map<String, List<PersonMedicalInfoDto>> dtoByAddress = personDtoMapper.toFloodStationDto(households);
 
-        assertThat(dtoByAddress).isNotNull();
-        assertThat(dtoByAddress.size()).isEqualTo(11);
-        assertThat(dtoByAddress.containsKey("748 Townings Dr")).isTrue();
-        assertThat(dtoByAddress.get("748 Townings Dr").size()).isEqualTo(2);
-        assertThat(dtoByAddress.get("748 Townings Dr").getFirst()).isInstanceOf(PersonMedicalInfoDto.class);
-        assertThat(dtoByAddress.get("748 Townings Dr").getFirst().lastName).isEqualTo("Shepard");
+        assertThat(dtoByAddress).containsOnlyKeys("1509 Culver St", "29 15th St");
+        assertThat(dtoByAddress.get("1509 Culver St")).hasSize(5);
+        assertThat(dtoByAddress.get("29 15th St").getFirst().medications).isNotNull();
     }
 
     @Test
@@ -140,4 +154,20 @@ public class PersonDtoMapperTest {
         assertThat(childAlerts.size()).isEqualTo(1);
     }
 
+    @Test
+    public void withoutMedicalRecordToChildAlertDtoShouldSkipPerson() {
+        Person child = new Person().setFirstName("John").setLastName("Child").setAddress("21 jump street");
+        Person unknown = new Person().setFirstName("Jane").setLastName("Unknown").setAddress("21 jump street");
+        Person undated = new Person().setFirstName("Jim").setLastName("Undated").setAddress("21 jump street");
+
+        MedicalRecord medicalRecord = new MedicalRecord().setFirstName("John").setLastName("Child")
+                .setBirthdate(LocalDate.now().minusYears(5));
+        Map<String, MedicalRecord> medicalRecords = Map.of(
+                child.getFullName(), medicalRecord,
+                undated.getFullName(), new MedicalRecord().setFirstName("Jim").setLastName("Undated"));
+
+        Map<String, ChildAlertDto> childAlerts = personDtoMapper.toChildAlertDto(List.of(unknown, undated, child), medicalRecords);
+
+        assertThat(childAlerts).containsOnlyKeys("John Child");
+    }
 }
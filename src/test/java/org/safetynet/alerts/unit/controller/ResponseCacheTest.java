@@ -0,0 +1,191 @@
+package org.safetynet.alerts.unit.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.safetynet.alerts.controller.ResponseCache;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.service.JsonDataService;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTest {
+
+    private static final Clock CLOCK = Clock.systemDefaultZone();
+
+    private JsonData jsonData;
+
+    private MockedStatic<JsonDataService> jsonDataServiceMock;
+
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @BeforeEach
+    public void init() throws Exception {
+        try (InputStream inputStreamJson = new ClassPathResource("data.json").getInputStream()) {
+            jsonData = new ObjectMapper().readValue(inputStreamJson, JsonData.class);
+        }
+
+        jsonDataServiceMock = Mockito.mockStatic(JsonDataService.class);
+        jsonDataServiceMock.when(JsonDataService::getJsonData).thenReturn(jsonData);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jsonDataServiceMock.close();
+    }
+
+    @Test
+    public void getShouldComputeResponseOnce() {
+        ResponseCache responseCache = new ResponseCache(new ObjectMapper(), CLOCK, 10, true);
+
+        ResponseEntity<?> first = getChildAlert(responseCache, "1509 Culver St");
+        ResponseEntity<?> second = getChildAlert(responseCache, "1509 Culver St");
+
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(new String((byte[]) first.getBody(), StandardCharsets.UTF_8)).contains("\"firstName\":\"John\"");
+        assertThat(computations).hasValue(1);
+        assertThat(responseCache.getHitCount()).isEqualTo(1);
+        assertThat(responseCache.getMissCount()).isEqualTo(1);
+        assertThat(responseCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void getShouldReturnGzipBytesWhenAccepted() throws Exception {
+        ResponseCache responseCache = new ResponseCache(new ObjectMapper(), CLOCK, 10, true);
+        byte[] json = (byte[]) getChildAlert(responseCache, "1509 Culver St").getBody();
+
+        ResponseEntity<?> compressed = responseCache.get("/childAlert", "1509 Culver St", "deflate, gzip;q=0.8",
+                List.of(ResponseCache.address("1509 Culver St")), () -> ResponseEntity.ok(List.of()));
+
+        assertThat(compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream((byte[]) compressed.getBody()))) {
+            assertThat(input.readAllBytes()).isEqualTo(json);
+        }
+        assertThat(responseCache.get("/childAlert", "1509 Culver St", "gzip;q=0",
+                List.of(ResponseCache.address("1509 Culver St")), () -> ResponseEntity.ok(List.of())).getBody())
+                .isSameAs(json);
+    }
+
+    @Test
+    public void getShouldNotCacheErrorResponses() {
+        ResponseCache responseCache = new ResponseCache(new ObjectMapper(), CLOCK, 10, true);
+
+        for (int i = 0; i < 2; i++) {
+            responseCache.get("/childAlert", "", null, List.of(ResponseCache.address("")), () -> {
+                computations.incrementAndGet();
+                return ResponseEntity.badRequest().body("Address cannot be null or empty");
+            });
+        }
+
+        assertThat(computations).hasValue(2);
+        assertThat(responseCache.size()).isZero();
+    }
+
+    @Test
+    public void changeOfPersonShouldOnlyInvalidateDependentResponses() throws Exception {
+        ResponseCache responseCache = new ResponseCache(new ObjectMapper(), CLOCK, 10, true);
+        getChildAlert(responseCache, "1509 Culver St");
+        getStation(responseCache, "3");
+        getStation(responseCache, "1");
+        computations.set(0);
+
+        jsonData.update(data -> {
+            Person person = data.getPersonIndex().findByFullName("John Boyd").orElseThrow();
+            data.replacePerson(person, new Person().setFirstName("John").setLastName("Boyd")
+                    .setAddress(person.getAddress()).setCity(person.getCity()).setZip(person.getZip())
+                    .setPhone("841-874-0000").setEmail(person.getEmail()));
+            return null;
+        });
+
+        getChildAlert(responseCache, "1509 Culver St");
+        getStation(responseCache, "3");
+        assertThat(computations).hasValue(2);
+
+        getStation(responseCache, "1");
+        assertThat(computations).hasValue(2);
+        assertThat(responseCache.getInvalidationCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void changeOfFireStationShouldInvalidateItsStationAndAddress() throws Exception {
+        ResponseCache responseCache = new ResponseCache(new ObjectMapper(), CLOCK, 10, true);
+        getChildAlert(responseCache, "1509 Culver St");
+        getStation(responseCache, "3");
+        getStation(responseCache, "4");
+        computations.set(0);
+
+        jsonData.update(data -> {
+            data.addFireStation(new FireStation().setAddress("1 rue de Rivoli").setStation("4"));
+            return null;
+        });
+
+        getStation(responseCache, "4");
+        getStation(responseCache, "3");
+        getChildAlert(responseCache, "1509 Culver St");
+
+        assertThat(computations).hasValue(1);
+    }
+
+    @Test
+    public void replacementOfDatasetShouldInvalidateAllResponses() {
+        ResponseCache responseCache = new ResponseCache(new ObjectMapper(), CLOCK, 10, true);
+        getChildAlert(responseCache, "1509 Culver St");
+        getStation(responseCache, "3");
+
+        jsonData.replace(DataSnapshot.of(List.of(), List.of(), List.of(), LocalDate.now(CLOCK)));
+
+        assertThat(responseCache.size()).isZero();
+        assertThat(responseCache.getInvalidationCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void getShouldEvictLeastRecentlyUsedResponse() {
+        ResponseCache responseCache = new ResponseCache(new ObjectMapper(), CLOCK, 2, true);
+        getStation(responseCache, "1");
+        getStation(responseCache, "2");
+        getStation(responseCache, "1");
+        getStation(responseCache, "3");
+        computations.set(0);
+
+        getStation(responseCache, "1");
+        getStation(responseCache, "3");
+        assertThat(computations).hasValue(0);
+
+        getStation(responseCache, "2");
+        assertThat(computations).hasValue(1);
+        assertThat(responseCache.getEvictionCount()).isEqualTo(2);
+        assertThat(responseCache.size()).isEqualTo(2);
+    }
+
+    private ResponseEntity<?> getChildAlert(ResponseCache responseCache, String address) {
+        return responseCache.get("/childAlert", address, null, List.of(ResponseCache.address(address)), () -> {
+            computations.incrementAndGet();
+            return ResponseEntity.ok(jsonData.getSnapshot().getPersonIndex().findByAddress(address));
+        });
+    }
+
+    private ResponseEntity<?> getStation(ResponseCache responseCache, String station) {
+        return responseCache.get("/firestation", station, null, List.of(ResponseCache.station(station)), () -> {
+            computations.incrementAndGet();
+            return ResponseEntity.ok(jsonData.getSnapshot().getFireStationIndex().findAddressesByStation(station));
+        });
+    }
+}
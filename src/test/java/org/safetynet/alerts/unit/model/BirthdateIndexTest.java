@@ -0,0 +1,112 @@
+package org.safetynet.alerts.unit.model;
+
+import org.junit.jupiter.api.Test;
+import org.safetynet.alerts.model.BirthdateIndex;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BirthdateIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+
+    @Test
+    public void countsShouldMatchAgesOfMedicalRecords() {
+        List<MedicalRecord> medicalRecords = List.of(
+                medicalRecord("Leap", LocalDate.of(2008, 2, 29)),
+                medicalRecord("Adult", LocalDate.of(2007, 2, 28)),
+                medicalRecord("Toddler", LocalDate.of(2020, 3, 2)),
+                medicalRecord("Five", LocalDate.of(2020, 3, 1)),
+                medicalRecord("Senior", LocalDate.of(1960, 3, 1)),
+                medicalRecord("Unborn", LocalDate.of(2025, 6, 1)),
+                new MedicalRecord().setFirstName("Unknown").setLastName("Doe"));
+        List<Person> persons = medicalRecords.stream()
+                .map(medicalRecord -> new Person().setFirstName(medicalRecord.getFirstName()).setLastName("Doe")
+                        .setAddress("1 Leap St").setCity("Culver"))
+                .toList();
+        DataSnapshot snapshot = DataSnapshot.of(1, persons,
+                List.of(new FireStation().setAddress("1 Leap St").setStation("29")), medicalRecords, TODAY);
+
+        BirthdateIndex index = snapshot.getStationBirthdateIndex().findByStation("29");
+
+        assertThat(index.size()).isEqualTo(6);
+        List<MedicalRecord> dated = medicalRecords.stream()
+                .filter(medicalRecord -> medicalRecord.getBirthdate() != null)
+                .toList();
+        assertThat(index.countAged(MedicalRecord.MAJORITY_AGE + 1, Integer.MAX_VALUE, TODAY))
+                .isEqualTo(dated.stream().filter(medicalRecord -> medicalRecord.isAdult(TODAY)).count());
+        assertThat(index.size() - index.countAged(MedicalRecord.MAJORITY_AGE + 1, Integer.MAX_VALUE, TODAY))
+                .isEqualTo(dated.stream().filter(medicalRecord -> medicalRecord.isChild(TODAY)).count());
+        assertThat(index.countAged(0, 4, TODAY)).isEqualTo(1);
+        assertThat(index.countAged(17, 17, TODAY)).isEqualTo(1);
+        assertThat(index.countAged(65, Integer.MAX_VALUE, TODAY)).isEqualTo(1);
+        assertThat(index.countBornOnOrBefore(LocalDate.of(2020, 3, 1))).isEqualTo(4);
+        assertThat(snapshot.countPersonsAged(List.of("29", "29"), 0, Integer.MAX_VALUE, TODAY)).isEqualTo(5);
+        assertThat(snapshot.getStationBirthdateIndex().findByStation("42").size()).isZero();
+    }
+
+    @Test
+    public void birthdatesMaintainedByMutationShouldMatchBirthdatesBuiltFromScratch() {
+        List<Person> persons = new ArrayList<>();
+        List<MedicalRecord> medicalRecords = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            persons.add(person("P" + i, (i % 7) + " Leap St"));
+            medicalRecords.add(medicalRecord("P" + i, LocalDate.of(1940 + i % 85, 1 + i % 12, 1)));
+        }
+        List<FireStation> fireStations = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            fireStations.add(fireStation(i + " Leap St", String.valueOf(i % 3)));
+        }
+        fireStations.add(fireStation("1 Leap St", "2"));
+        DataSnapshot base = DataSnapshot.of(1, persons, fireStations, medicalRecords, TODAY);
+
+        DataSnapshot.Mutation mutation = base.mutate();
+        mutation.removePerson(persons.get(5));
+        mutation.replacePerson(persons.get(200), person("P200", "9 Leap St"));
+        mutation.addPerson(person("New", "9 Leap St"));
+        mutation.addFireStation(fireStation("9 Leap St", "1"));
+        mutation.addFireStation(fireStation("9 Leap St", "1"));
+        mutation.replaceFireStation(fireStations.get(0), fireStation("0 Leap St", "2"));
+        mutation.removeFireStation(fireStations.get(4));
+        mutation.replaceMedicalRecord(medicalRecords.get(150), medicalRecord("P150", LocalDate.of(2022, 1, 1)));
+        mutation.removeMedicalRecord(medicalRecords.get(151));
+        mutation.addMedicalRecord(medicalRecord("New", LocalDate.of(2024, 1, 1)));
+        DataSnapshot changed = mutation.build();
+        DataSnapshot rebuilt = DataSnapshot.of(2, changed.getPersons(), changed.getFireStations(),
+                changed.getMedicalRecords(), TODAY);
+
+        for (String station : List.of("0", "1", "2")) {
+            BirthdateIndex birthdates = changed.getStationBirthdateIndex().findByStation(station);
+            BirthdateIndex expected = rebuilt.getStationBirthdateIndex().findByStation(station);
+            assertThat(birthdates.size()).isEqualTo(expected.size());
+            for (int minAge = 0; minAge < 90; minAge += 5) {
+                assertThat(birthdates.countAged(minAge, minAge + 4, TODAY))
+                        .isEqualTo(expected.countAged(minAge, minAge + 4, TODAY));
+            }
+        }
+        assertThat(changed.countPersonsAged(List.of("0", "1", "2"), 0, 4, TODAY))
+                .isEqualTo(rebuilt.countPersonsAged(List.of("0", "1", "2"), 0, 4, TODAY));
+        assertThat(changed.countPersonsAged(List.of("1", "2"), 0, Integer.MAX_VALUE, TODAY))
+                .isEqualTo(rebuilt.countPersonsAged(List.of("1", "2"), 0, Integer.MAX_VALUE, TODAY));
+        assertThat(base.getStationBirthdateIndex().findByStation("1").size()).isEqualTo(72 + 71);
+    }
+
+    private static Person person(String firstName, String address) {
+        return new Person().setFirstName(firstName).setLastName("Doe").setAddress(address).setCity("Culver");
+    }
+
+    private static FireStation fireStation(String address, String station) {
+        return new FireStation().setAddress(address).setStation(station);
+    }
+
+    private static MedicalRecord medicalRecord(String firstName, LocalDate birthdate) {
+        return new MedicalRecord().setFirstName(firstName).setLastName("Doe").setBirthdate(birthdate);
+    }
+}
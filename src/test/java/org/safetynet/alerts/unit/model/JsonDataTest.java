@@ -0,0 +1,316 @@
+package org.safetynet.alerts.unit.model;
+
+import org.junit.jupiter.api.Test;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.Household;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.StationCoverage;
+
+import javax.management.InstanceAlreadyExistsException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonDataTest {
+
+    @Test
+    public void updateShouldPublishChangeAndReturnItsResult() {
+        JsonData jsonData = new JsonData();
+        long version = jsonData.getSnapshot().getVersion();
+
+        Person result = jsonData.update(data -> {
+            Person person = newPerson("John", "Boyd");
+            data.addPerson(person);
+            return person;
+        });
+
+        assertThat(jsonData.getPersons()).containsExactly(result);
+        assertThat(jsonData.getSnapshot().getPersonIndex().findByFullName("John Boyd")).contains(result);
+        assertThat(jsonData.getSnapshot().getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    public void failedUpdateShouldNotPublishItsModifications() {
+        JsonData jsonData = new JsonData();
+
+        assertThrows(InstanceAlreadyExistsException.class, () -> jsonData.update(data -> {
+            data.addPerson(newPerson("John", "Boyd"));
+            throw new InstanceAlreadyExistsException("Person already exists");
+        }));
+
+        assertThat(jsonData.getPersons()).isEmpty();
+        assertThat(jsonData.getSnapshot().getPersonIndex().findByFullName("John Boyd")).isEmpty();
+    }
+
+    @Test
+    public void updateFromUpdateShouldThrowException() {
+        JsonData jsonData = new JsonData();
+
+        assertThrows(IllegalStateException.class, () -> jsonData.update(data -> jsonData.update(nested -> null)));
+    }
+
+    @Test
+    public void concurrentUpdatesShouldAllBePublished() throws Exception {
+        JsonData jsonData = new JsonData();
+        long version = jsonData.getSnapshot().getVersion();
+        int threadCount = 8;
+        int updatesPerThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threadCount; thread++) {
+                String lastName = "Writer" + thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        Person person = newPerson("Person" + i, lastName);
+                        jsonData.update(data -> {
+                            data.addPerson(person);
+                            return person;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jsonData.getPersons()).hasSize(threadCount * updatesPerThread);
+        assertThat(jsonData.getSnapshot().getPersonIndex().findByLastName("Writer0")).hasSize(updatesPerThread);
+        assertThat(jsonData.getSnapshot().getVersion()).isBetween(version + 1, version + threadCount * updatesPerThread);
+    }
+
+    @Test
+    public void replaceShouldPublishReplacementAsNextVersion() {
+        JsonData jsonData = new JsonData();
+        jsonData.update(data -> {
+            data.addPerson(newPerson("John", "Boyd"));
+            return null;
+        });
+        DataSnapshot previous = jsonData.getSnapshot();
+        DataSnapshot replacement = DataSnapshot.of(List.of(newPerson("Jacob", "Boyd"), newPerson("Tenley", "Boyd")),
+                List.of(), List.of(), LocalDate.of(2025, 6, 1));
+
+        DataSnapshot published = jsonData.replace(replacement);
+
+        assertThat(published.getVersion()).isEqualTo(previous.getVersion() + 1);
+        assertThat(jsonData.getSnapshot()).isSameAs(published);
+        assertThat(jsonData.getPersons()).hasSize(2);
+        assertThat(jsonData.getSnapshot().getPersonIndex().findByFullName("John Boyd")).isEmpty();
+        assertThat(previous.getPersons()).hasSize(1);
+        assertThat(previous.getPersonIndex().findByFullName("John Boyd")).isPresent();
+
+        jsonData.update(data -> {
+            data.addPerson(newPerson("John", "Boyd"));
+            return null;
+        });
+        assertThat(jsonData.getPersons()).hasSize(3);
+        assertThat(jsonData.getSnapshot().getVersion()).isEqualTo(published.getVersion() + 1);
+    }
+
+    @Test
+    public void replaceShouldOnlyApplyDifferences() {
+        Person unchanged = newPerson("John", "Boyd");
+        Person moved = newPerson("Jacob", "Boyd");
+        Person removed = newPerson("Tenley", "Boyd");
+        FireStation fireStation = new FireStation().setAddress("1509 Culver St").setStation("3");
+        MedicalRecord medicalRecord = new MedicalRecord().setFirstName("John").setLastName("Boyd")
+                .setBirthdate(LocalDate.of(1984, 3, 6)).setMedications(List.of()).setAllergies(List.of());
+        JsonData jsonData = new JsonData(DataSnapshot.of(List.of(unchanged, moved, removed), List.of(fireStation),
+                List.of(medicalRecord), LocalDate.of(2025, 6, 1)));
+        DataSnapshot previous = jsonData.getSnapshot();
+
+        Person movedReplacement = newPerson("Jacob", "Boyd").setAddress("29 15th St");
+        Person added = newPerson("Roger", "Boyd");
+        DataSnapshot published = jsonData.replace(DataSnapshot.of(
+                List.of(newPerson("John", "Boyd"), movedReplacement, added),
+                List.of(new FireStation().setAddress("1509 Culver St").setStation("3")),
+                List.of(new MedicalRecord().setFirstName("John").setLastName("Boyd")
+                        .setBirthdate(LocalDate.of(1984, 3, 6)).setMedications(List.of()).setAllergies(List.of())),
+                LocalDate.of(2025, 6, 1)));
+
+        assertThat(published.getPersons()).containsExactly(unchanged, movedReplacement, added);
+        assertThat(published.getPersons().getFirst()).isSameAs(unchanged);
+        assertThat(published.getPersonIndex().findByAddress("29 15th St")).containsExactly(movedReplacement);
+        assertThat(published.getPersonIndex().findByFullName("Tenley Boyd")).isEmpty();
+        assertThat(published.getFireStations()).isSameAs(previous.getFireStations());
+        assertThat(published.getMedicalRecordIndex()).isSameAs(previous.getMedicalRecordIndex());
+
+        DataSnapshot republished = jsonData.replace(DataSnapshot.of(List.of(unchanged, movedReplacement, added),
+                List.of(fireStation), List.of(medicalRecord), LocalDate.of(2025, 6, 1)));
+
+        assertThat(republished).isSameAs(published);
+    }
+
+    @Test
+    public void updatesShouldMaintainHouseholds() {
+        Person john = newPerson("John", "Boyd").setPhone("841-874-6512");
+        Person tenley = newPerson("Tenley", "Boyd").setPhone("841-874-6512");
+        Person paul = newPerson("Paul", "Marrack").setAddress("29 15th St").setPhone("841-874-6874");
+        MedicalRecord tenleyRecord = new MedicalRecord().setFirstName("Tenley").setLastName("Boyd")
+                .setBirthdate(LocalDate.of(2012, 2, 18));
+        JsonData jsonData = new JsonData(DataSnapshot.of(List.of(john, tenley, paul), List.of(),
+                List.of(new MedicalRecord().setFirstName("John").setLastName("Boyd").setBirthdate(LocalDate.of(1984, 3, 6)),
+                        tenleyRecord),
+                LocalDate.of(2025, 6, 1)));
+
+        Household culver = jsonData.getSnapshot().getHouseholdIndex().findByAddress("1509 Culver St").orElseThrow();
+        assertThat(culver.getResidents()).containsExactly(john, tenley);
+        assertThat(culver.getMedicalRecords()).containsOnlyKeys("John Boyd", "Tenley Boyd");
+
+        Person movedTenley = newPerson("Tenley", "Boyd").setAddress("29 15th St").setPhone("841-874-6512");
+        jsonData.update(data -> {
+            data.replacePerson(tenley, movedTenley);
+            data.addMedicalRecord(new MedicalRecord().setFirstName("Paul").setLastName("Marrack")
+                    .setBirthdate(LocalDate.of(1980, 1, 1)));
+            return null;
+        });
+
+        DataSnapshot updated = jsonData.getSnapshot();
+        Household moved = updated.getHouseholdIndex().findByAddress("29 15th St").orElseThrow();
+        assertThat(updated.getHouseholdIndex().findByAddress("1509 Culver St").orElseThrow().getResidents())
+                .containsExactly(john);
+        assertThat(moved.getResidents()).containsExactly(movedTenley, paul);
+        assertThat(moved.getMedicalRecords()).containsOnlyKeys("Paul Marrack", "Tenley Boyd");
+
+        jsonData.update(data -> {
+            data.addPerson(newPerson("Peter", "Duncan").setAddress("644 Gershwin Cir"));
+            return null;
+        });
+        assertThat(jsonData.getSnapshot().getHouseholdIndex().findByAddress("29 15th St")).containsSame(moved);
+
+        DataSnapshot classified = jsonData.getSnapshotClassifiedAt(tenleyRecord.getAdulthoodDate());
+        assertThat(classified.getHouseholdIndex().findByAddress("29 15th St")).containsSame(moved);
+        assertThat(classified.getHouseholdIndex().findByAddress("1510 Culver St")).isEmpty();
+    }
+
+    @Test
+    public void getSnapshotClassifiedAtShouldNotPublishReclassification() {
+        MedicalRecord child = new MedicalRecord().setFirstName("Tenley").setLastName("Boyd")
+                .setBirthdate(LocalDate.of(2012, 2, 18));
+        JsonData jsonData = new JsonData(DataSnapshot.of(List.of(newPerson("Tenley", "Boyd")), List.of(),
+                List.of(child), LocalDate.of(2025, 6, 1)));
+        DataSnapshot published = jsonData.getSnapshot();
+
+        DataSnapshot classified = jsonData.getSnapshotClassifiedAt(child.getAdulthoodDate());
+
+        assertThat(jsonData.getSnapshot()).isSameAs(published);
+        assertThat(published.getMedicalRecordIndex().isChild(child)).isTrue();
+        assertThat(classified.getMedicalRecordIndex().isChild(child)).isFalse();
+        assertThat(classified.getVersion()).isEqualTo(published.getVersion());
+        assertThat(jsonData.getSnapshotClassifiedAt(child.getAdulthoodDate())).isSameAs(classified);
+        assertThat(jsonData.getSnapshotClassifiedAt(LocalDate.of(2025, 6, 1))).isSameAs(published);
+    }
+
+    @Test
+    public void updatesShouldMaintainStationCoverages() {
+        Person john = newPerson("John", "Boyd").setPhone("841-874-6512");
+        Person paul = newPerson("Paul", "Marrack").setAddress("29 15th St").setPhone("841-874-6874");
+        FireStation culverStation = new FireStation().setAddress("1509 Culver St").setStation("3");
+        JsonData jsonData = new JsonData(DataSnapshot.of(List.of(john, paul),
+                List.of(culverStation, new FireStation().setAddress("29 15th St").setStation("2")),
+                List.of(new MedicalRecord().setFirstName("John").setLastName("Boyd").setBirthdate(LocalDate.of(1984, 3, 6))),
+                LocalDate.of(2025, 6, 1)));
+
+        StationCoverage station3 = jsonData.getSnapshot().getStationCoverageIndex().findByStation("3").orElseThrow();
+        assertThat(station3.getResidents()).containsExactly(john);
+        assertThat(station3.getAgeGroupCount().getAdultCount()).isEqualTo(1);
+
+        Person movedPaul = newPerson("Paul", "Marrack").setPhone("841-874-6874");
+        jsonData.update(data -> {
+            data.replacePerson(paul, movedPaul);
+            return null;
+        });
+
+        StationCoverage moved = jsonData.getSnapshot().getStationCoverageIndex().findByStation("3").orElseThrow();
+        assertThat(moved.getResidents()).containsExactly(john, movedPaul);
+        assertThat(moved.getHouseholds()).hasSize(1);
+        assertThat(moved.getAgeGroupCount().getAdultCount()).isEqualTo(1);
+        assertThat(moved.getAgeGroupCount().getChildCount()).isZero();
+        assertThat(jsonData.getSnapshot().getStationCoverageIndex().findByStation("2").orElseThrow().getResidents())
+                .isEmpty();
+
+        jsonData.update(data -> {
+            data.replaceFireStation(culverStation, new FireStation().setAddress("1509 Culver St").setStation("4"));
+            return null;
+        });
+
+        StationCoverage reassigned = jsonData.getSnapshot().getStationCoverageIndex().findByStation("4").orElseThrow();
+        assertThat(reassigned.getResidents()).containsExactly(john, movedPaul);
+        assertThat(reassigned.getHouseholds().getFirst()).isSameAs(moved.getHouseholds().getFirst());
+        assertThat(jsonData.getSnapshot().getStationCoverageIndex().findByStation("3")).isEmpty();
+
+        Person tenley = newPerson("Tenley", "Boyd").setAddress("644 Gershwin Cir");
+        MedicalRecord tenleyRecord = new MedicalRecord().setFirstName("Tenley").setLastName("Boyd")
+                .setBirthdate(LocalDate.of(2012, 2, 18));
+        jsonData.update(data -> {
+            data.addFireStation(new FireStation().setAddress("644 Gershwin Cir").setStation("4"));
+            data.addPerson(tenley);
+            data.addMedicalRecord(tenleyRecord);
+            return null;
+        });
+
+        StationCoverage extended = jsonData.getSnapshot().getStationCoverageIndex().findByStation("4").orElseThrow();
+        assertThat(extended.getResidents()).containsExactly(john, movedPaul, tenley);
+        assertThat(extended.getHouseholds().getFirst()).isSameAs(reassigned.getHouseholds().getFirst());
+        assertThat(extended.getAgeGroupCount().getChildCount()).isEqualTo(1);
+
+        StationCoverage classified = jsonData.getSnapshotClassifiedAt(tenleyRecord.getAdulthoodDate())
+                .getStationCoverageIndex().findByStation("4").orElseThrow();
+        assertThat(classified.getHouseholds()).isEqualTo(extended.getHouseholds());
+        assertThat(classified.getAgeGroupCount().getAdultCount()).isEqualTo(2);
+        assertThat(classified.getAgeGroupCount().getChildCount()).isZero();
+    }
+
+    @Test
+    public void updatesShouldLeavePreviousSnapshotsUnchanged() {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            persons.add(newPerson("First" + i, "Last" + (i % 50)).setAddress("Address " + (i % 100)));
+        }
+        JsonData jsonData = new JsonData(DataSnapshot.of(persons, List.of(), List.of(), LocalDate.of(2025, 6, 1)));
+        DataSnapshot previous = jsonData.getSnapshot();
+
+        Person replaced = persons.get(1000);
+        Person replacement = newPerson("First1000", "Last0").setAddress("Address 7");
+        Person added = newPerson("Roger", "Last0").setAddress("Address 7");
+        jsonData.update(data -> {
+            data.replacePerson(replaced, replacement);
+            data.removePerson(persons.get(7));
+            data.addPerson(added);
+            return null;
+        });
+        DataSnapshot updated = jsonData.getSnapshot();
+
+        assertThat(previous.getPersons()).containsExactlyElementsOf(persons);
+        assertThat(previous.getPersonIndex().findByLastName("Last0")).hasSize(40).doesNotContain(added);
+        assertThat(previous.getPersonIndex().findByFullName("First1000 Last0")).containsSame(replaced);
+        assertThat(previous.getPersonIndex().findByAddress("Address 7")).hasSize(20).contains(persons.get(7));
+        assertThat(updated.getPersons()).hasSize(2000);
+        assertThat(updated.getPersons().get(999)).isSameAs(replacement);
+        assertThat(updated.getPersons().getLast()).isSameAs(added);
+        assertThat(updated.getPersonIndex().findByLastName("Last0")).hasSize(41).endsWith(added);
+        assertThat(updated.getPersonIndex().findByAddress("Address 7"))
+                .hasSize(21)
+                .doesNotContain(persons.get(7))
+                .containsSubsequence(persons.get(107), replacement, persons.get(1007), added);
+    }
+
+    private static Person newPerson(String firstName, String lastName) {
+        return new Person()
+                .setFirstName(firstName)
+                .setLastName(lastName)
+                .setAddress("1509 Culver St")
+                .setCity("Culver");
+    }
+}
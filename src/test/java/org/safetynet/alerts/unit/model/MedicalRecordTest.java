@@ -0,0 +1,55 @@
+package org.safetynet.alerts.unit.model;
+
+import org.junit.jupiter.api.Test;
+import org.safetynet.alerts.model.MedicalRecord;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MedicalRecordTest {
+
+    @Test
+    public void getAgeShouldUseGivenDate() {
+        LocalDate today = LocalDate.of(2025, 6, 1);
+        MedicalRecord medicalRecord = new MedicalRecord().setBirthdate("03/06/1984");
+
+        assertThat(medicalRecord.getAge(today)).isEqualTo(41);
+        assertThat(medicalRecord.isAdult(today)).isTrue();
+        assertThat(medicalRecord.isChild(today)).isFalse();
+    }
+
+    @Test
+    public void getAgeShouldChangeOnBirthday() {
+        MedicalRecord medicalRecord = new MedicalRecord().setBirthdate("06/02/2006");
+
+        LocalDate dayBefore = LocalDate.of(2025, 6, 1);
+        assertThat(medicalRecord.getAge(dayBefore)).isEqualTo(18);
+        assertThat(medicalRecord.isChild(dayBefore)).isTrue();
+
+        LocalDate birthday = LocalDate.of(2025, 6, 2);
+        assertThat(medicalRecord.getAge(birthday)).isEqualTo(19);
+        assertThat(medicalRecord.isAdult(birthday)).isTrue();
+    }
+
+    @Test
+    public void getAgeShouldBeRecomputedAfterBirthdateUpdate() {
+        LocalDate today = LocalDate.of(2025, 6, 1);
+        MedicalRecord medicalRecord = new MedicalRecord().setBirthdate("03/06/1984");
+
+        assertThat(medicalRecord.getAge(today)).isEqualTo(41);
+
+        medicalRecord.setBirthdate(LocalDate.of(2020, 1, 1));
+
+        assertThat(medicalRecord.getAge(today)).isEqualTo(5);
+        assertThat(medicalRecord.isChild(today)).isTrue();
+    }
+
+    @Test
+    public void getAgeWithoutDateShouldUseSystemDay() {
+        MedicalRecord medicalRecord = new MedicalRecord().setBirthdate(LocalDate.now().minusYears(30));
+
+        assertThat(medicalRecord.getAge()).isEqualTo(30);
+        assertThat(medicalRecord.isAdult()).isTrue();
+    }
+}
@@ -0,0 +1,93 @@
+package org.safetynet.alerts.unit.model;
+
+import org.junit.jupiter.api.Test;
+import org.safetynet.alerts.model.AgeGroupCount;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersonBitmapIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+
+    @Test
+    public void countAgeGroupsShouldCountEachPersonOfTheStationsOnce() {
+        DataSnapshot snapshot = DataSnapshot.of(1,
+                List.of(person("Child", "1 Main St"), person("Adult", "1 Main St"), person("Unknown", "2 Main St")),
+                List.of(fireStation("1 Main St", "1"), fireStation("2 Main St", "1"), fireStation("1 Main St", "2")),
+                List.of(medicalRecord("Child", LocalDate.of(2015, 1, 1)), medicalRecord("Adult", LocalDate.of(1980, 1, 1))),
+                TODAY);
+
+        AgeGroupCount ageGroups = snapshot.getPersonBitmapIndex().countAgeGroups(List.of("1", "2"));
+
+        assertThat(ageGroups.getAdultCount()).isEqualTo(1);
+        assertThat(ageGroups.getChildCount()).isEqualTo(1);
+        assertThat(snapshot.getPersons(snapshot.getPersonBitmapIndex().findByStations(List.of("1", "2"))))
+                .extracting(Person::getFirstName)
+                .containsExactly("Child", "Adult", "Unknown");
+        assertThat(snapshot.getPersonBitmapIndex().countAgeGroups(List.of("3")).getAdultCount()).isZero();
+    }
+
+    @Test
+    public void bitmapsMaintainedByMutationShouldMatchBitmapsBuiltFromScratch() {
+        List<Person> persons = new ArrayList<>();
+        List<MedicalRecord> medicalRecords = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            persons.add(person("P" + i, (i % 7) + " Main St"));
+            medicalRecords.add(medicalRecord("P" + i, LocalDate.of(1950 + i % 70, 1, 1)));
+        }
+        List<FireStation> fireStations = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            fireStations.add(fireStation(i + " Main St", String.valueOf(i % 3)));
+        }
+        DataSnapshot base = DataSnapshot.of(1, persons, fireStations, medicalRecords, TODAY);
+
+        DataSnapshot.Mutation mutation = base.mutate();
+        mutation.removePerson(persons.get(5));
+        mutation.replacePerson(persons.get(2000), person("P2000", "9 Main St"));
+        mutation.addPerson(person("New", "9 Main St"));
+        mutation.addFireStation(fireStation("9 Main St", "1"));
+        mutation.replaceFireStation(fireStations.get(0), fireStation("0 Main St", "2"));
+        mutation.removeFireStation(fireStations.get(4));
+        mutation.replaceMedicalRecord(medicalRecords.get(1500), medicalRecord("P1500", LocalDate.of(2020, 1, 1)));
+        mutation.removeMedicalRecord(medicalRecords.get(1501));
+        mutation.addMedicalRecord(medicalRecord("New", LocalDate.of(2010, 1, 1)));
+        DataSnapshot changed = mutation.build();
+        DataSnapshot rebuilt = DataSnapshot.of(2, changed.getPersons(), changed.getFireStations(),
+                changed.getMedicalRecords(), TODAY);
+
+        for (List<String> stations : List.of(List.of("0"), List.of("1"), List.of("2"), List.of("0", "1", "2"))) {
+            assertThat(changed.getPersons(changed.getPersonBitmapIndex().findByStations(stations)))
+                    .isEqualTo(rebuilt.getPersons(rebuilt.getPersonBitmapIndex().findByStations(stations)));
+            AgeGroupCount ageGroups = changed.getPersonBitmapIndex().countAgeGroups(stations);
+            AgeGroupCount expected = rebuilt.getPersonBitmapIndex().countAgeGroups(stations);
+            assertThat(ageGroups.getAdultCount()).isEqualTo(expected.getAdultCount());
+            assertThat(ageGroups.getChildCount()).isEqualTo(expected.getChildCount());
+        }
+        assertThat(changed.getPersons(changed.getPersonBitmapIndex().findByAddress("9 Main St")))
+                .extracting(Person::getFirstName)
+                .containsExactly("P2000", "New");
+        assertThat(changed.getPersonBitmapIndex().findByCity("Culver").cardinality()).isEqualTo(3000);
+        assertThat(base.getPersonBitmapIndex().findByCity("Culver").cardinality()).isEqualTo(3000);
+        assertThat(base.getPersonBitmapIndex().findByAddress("9 Main St").isEmpty()).isTrue();
+    }
+
+    private static Person person(String firstName, String address) {
+        return new Person().setFirstName(firstName).setLastName("Doe").setAddress(address).setCity("Culver");
+    }
+
+    private static FireStation fireStation(String address, String station) {
+        return new FireStation().setAddress(address).setStation(station);
+    }
+
+    private static MedicalRecord medicalRecord(String firstName, LocalDate birthdate) {
+        return new MedicalRecord().setFirstName(firstName).setLastName("Doe").setBirthdate(birthdate);
+    }
+}
@@ -0,0 +1,93 @@
+package org.safetynet.alerts.unit.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.ValueDictionary;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ValueDictionaryTest {
+
+    @Test
+    public void encodeShouldShareOneIdPerDistinctValue() {
+        ValueDictionary dictionary = new ValueDictionary();
+
+        int culverId = dictionary.encode("1509 Culver St");
+        int otherId = dictionary.encode("29 15th St");
+
+        assertThat(dictionary.encode(new String("1509 Culver St"))).isEqualTo(culverId);
+        assertThat(otherId).isEqualTo(culverId + 1);
+        assertThat(dictionary.decode(culverId)).isEqualTo("1509 Culver St");
+        assertThat(dictionary.size()).isEqualTo(2);
+        assertThat(dictionary.encode(null)).isEqualTo(ValueDictionary.NULL_ID);
+        assertThat(dictionary.decode(ValueDictionary.NULL_ID)).isNull();
+    }
+
+    @Test
+    public void findShouldNotAssignIdToUnknownValue() {
+        ValueDictionary dictionary = new ValueDictionary();
+        for (int i = 0; i < 200; i++) {
+            dictionary.encode("Street " + i);
+        }
+
+        assertThat(dictionary.find("Street 150")).isEqualTo(150);
+        assertThat(dictionary.decode(150)).isEqualTo("Street 150");
+        assertThat(dictionary.find("Unknown St")).isEqualTo(ValueDictionary.UNKNOWN_ID);
+        assertThat(dictionary.size()).isEqualTo(200);
+    }
+
+    @Test
+    public void releaseShouldHandTheSmallestReleasedIdOutAgain() {
+        ValueDictionary dictionary = new ValueDictionary();
+        for (int i = 0; i < 4; i++) {
+            dictionary.encode("Street " + i);
+        }
+
+        dictionary.release(2);
+        dictionary.release(1);
+
+        assertThat(dictionary.find("Street 1")).isEqualTo(ValueDictionary.UNKNOWN_ID);
+        assertThat(dictionary.decode(1)).isNull();
+        assertThat(dictionary.getIdLimit()).isEqualTo(4);
+        assertThat(dictionary.encode("Other St")).isEqualTo(1);
+
+        dictionary.release(3);
+
+        assertThat(dictionary.getIdLimit()).isEqualTo(2);
+        assertThat(dictionary.size()).isEqualTo(2);
+        assertThat(dictionary.encode("Street 3")).isEqualTo(2);
+    }
+
+    @Test
+    public void copyShouldBeChangedWithoutAffectingOriginal() {
+        ValueDictionary original = new ValueDictionary();
+        original.encode("1509 Culver St");
+        original.encode("29 15th St");
+
+        ValueDictionary copy = new ValueDictionary(original);
+        copy.release(0);
+        copy.encode("834 Binoc Ave");
+        copy.encode("644 Gershwin Cir");
+
+        assertThat(original.find("1509 Culver St")).isZero();
+        assertThat(original.find("834 Binoc Ave")).isEqualTo(ValueDictionary.UNKNOWN_ID);
+        assertThat(original.getIdLimit()).isEqualTo(2);
+        assertThat(copy.decode(0)).isEqualTo("834 Binoc Ave");
+        assertThat(copy.find("644 Gershwin Cir")).isEqualTo(2);
+        assertThat(copy.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void modelsShouldShareValuesAndSerializeThemAsStrings() throws Exception {
+        Person person = new Person().setFirstName("John").setLastName("Boyd")
+                .setAddress(new String("1509 Culver St")).setCity("Culver");
+        FireStation fireStation = new FireStation().setAddress(new String("1509 Culver St")).setStation("3");
+
+        assertThat(person.getAddress()).isSameAs(fireStation.getAddress());
+        assertThat(fireStation).isEqualTo(new FireStation().setAddress("1509 Culver St").setStation("3"));
+        assertThat(new ObjectMapper().writeValueAsString(fireStation))
+                .isEqualTo("{\"address\":\"1509 Culver St\",\"station\":\"3\"}");
+    }
+}
@@ -94,6 +94,15 @@ public class FireStationJsonRepositoryTest {
         assertThat(result.get().getStation()).isEqualTo(newStation);
     }
 
+    @Test
+    public void updateShouldMoveAddressToNewStation() {
+        fireStationRepository.update("1509 Culver St", "3", "5");
+
+        assertThat(fireStationRepository.findAllAddressForOneStation("3")).doesNotContain("1509 Culver St");
+        assertThat(fireStationRepository.findAllAddressForOneStation("5")).containsExactly("1509 Culver St");
+        assertThat(fireStationRepository.findFireStationAtAddress("1509 Culver St").get().getStation()).isEqualTo("5");
+    }
+
     @Test
     public void tryUpdateNoneExistingFireStationShouldReturnException() {
         String address = "1509 Culver St";
@@ -114,6 +123,18 @@ public class FireStationJsonRepositoryTest {
         assertThat(result).isTrue();
     }
 
+    @Test
+    public void removeShouldRemoveAddressFromStation() {
+        FireStation fireStation = new FireStation();
+        fireStation.setAddress("1509 Culver St");
+        fireStation.setStation("3");
+
+        fireStationRepository.remove(fireStation);
+
+        assertThat(fireStationRepository.findAllAddressForOneStation("3").size()).isEqualTo(4);
+        assertThat(fireStationRepository.findFireStationAtAddress("1509 Culver St").isPresent()).isFalse();
+    }
+
     @Test
     public void tryRemoveNoneExistingFireStationShouldReturnFalse() {
         FireStation fireStation = new FireStation();
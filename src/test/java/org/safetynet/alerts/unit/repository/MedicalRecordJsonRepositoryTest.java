@@ -3,22 +3,23 @@ package org.safetynet.alerts.unit.repository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.safetynet.alerts.model.JsonData;
 import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.MedicalRecordIndex;
 import org.safetynet.alerts.model.Person;
 import org.safetynet.alerts.repository.MedicalRecordJsonRepository;
 import org.safetynet.alerts.repository.MedicalRecordRepository;
-import org.safetynet.alerts.repository.PersonRepository;
 import org.safetynet.alerts.service.JsonDataService;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.management.InstanceAlreadyExistsException;
 import java.io.InputStream;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
@@ -33,9 +34,6 @@ public class MedicalRecordJsonRepositoryTest {
 
     private static MedicalRecordRepository medicalRecordRepository;
 
-    @Mock
-    private static PersonRepository personRepository;
-
     private static final String jsonPath = "data.json";
 
     private JsonData jsonData;
@@ -44,7 +42,7 @@ public class MedicalRecordJsonRepositoryTest {
 
     @BeforeEach
     public void init() {
-        medicalRecordRepository = new MedicalRecordJsonRepository(personRepository);
+        medicalRecordRepository = new MedicalRecordJsonRepository(Clock.systemDefaultZone());
         ObjectMapper objectMapper = new ObjectMapper();
 
         try (InputStream inputStreamJson = new ClassPathResource(jsonPath).getInputStream()) {
@@ -76,8 +74,10 @@ public class MedicalRecordJsonRepositoryTest {
         Person person = new Person();
         person.setFirstName(firstname);
         person.setLastName(lastname);
-
-        when(personRepository.findOneByFullName(anyString())).thenReturn(Optional.of(person));
+        jsonData.update(data -> {
+            data.addPerson(person);
+            return null;
+        });
 
         Optional<MedicalRecord> result = Optional.ofNullable(medicalRecordRepository.create(medicalRecord));
 
@@ -94,11 +94,8 @@ public class MedicalRecordJsonRepositoryTest {
         medicalRecord.setFirstName("John");
         medicalRecord.setLastName( "Doe");
 
-        when(personRepository.findOneByFullName(anyString())).thenReturn(Optional.empty());
-
         assertThrows(NoSuchElementException.class, () -> medicalRecordRepository.create(medicalRecord));
-
-        verify(personRepository, times(1)).findOneByFullName(anyString());
+        assertThat(medicalRecordRepository.findOneByFullName("John Doe")).isEmpty();
     }
 
     @Test
@@ -106,14 +103,8 @@ public class MedicalRecordJsonRepositoryTest {
         MedicalRecord medicalRecord = new MedicalRecord();
         medicalRecord.setFirstName("John");
         medicalRecord.setLastName( "Boyd");
-        Person person = new Person();
-        person.setFirstName("John");
-        person.setLastName("Boyd");
-
-        when(personRepository.findOneByFullName(anyString())).thenReturn(Optional.of(person));
 
         assertThrows(InstanceAlreadyExistsException.class, () -> medicalRecordRepository.create(medicalRecord));
-        verify(personRepository, times(1)).findOneByFullName(anyString());
     }
 
     @Test
@@ -194,56 +185,68 @@ public class MedicalRecordJsonRepositoryTest {
     }
 
     @Test
-    public void countAdultFromFullNameShouldReturnInteger() {
-        List<String> fullnames = new ArrayList<>();
-        fullnames.add("John Boyd");
-        fullnames.add("Zach Zemicks");
-        fullnames.add("Peter Duncan");
-
-        int result = medicalRecordRepository.countAdultFromFullName(fullnames);
+    public void getAllByFullNameShouldReturnInteger() {
+        Map<String, MedicalRecord> result = medicalRecordRepository.getAllByFullName();
 
-        assertThat(result).isEqualTo(2);
+        assertThat(result.size()).isEqualTo(23);
+        assertThat(result.containsKey("Zach Zemicks")).isTrue();
+        assertThat(result.get("Zach Zemicks").getFullName()).isEqualTo("Zach Zemicks");
     }
 
     @Test
-    public void countAdultFromFullNameShouldReturn0() {
-        List<String> fullnames = new ArrayList<>();
-        fullnames.add("Zach Zemicks");
-        fullnames.add("Abcd");
+    public void getAllByFullNameShouldKeepSnapshotAfterRemove() {
+        Map<String, MedicalRecord> before = medicalRecordRepository.getAllByFullName();
 
-        int result = medicalRecordRepository.countAdultFromFullName(fullnames);
+        medicalRecordRepository.remove("John", "Boyd");
+        Map<String, MedicalRecord> after = medicalRecordRepository.getAllByFullName();
 
-        assertThat(result).isEqualTo(0);
+        assertThat(before.size()).isEqualTo(23);
+        assertThat(before.containsKey("John Boyd")).isTrue();
+        assertThat(after.size()).isEqualTo(22);
+        assertThat(after.containsKey("John Boyd")).isFalse();
+        assertThat(medicalRecordRepository.findOneByFullName("John Boyd")).isEmpty();
     }
 
     @Test
-    public void countChildrenFromFullNameShouldReturnInteger() {
-        List<String> fullnames = new ArrayList<>();
-        fullnames.add("John Boyd");
-        fullnames.add("Zach Zemicks");
+    public void reclassifyAgesShouldOnlyPromotePersonsReachingMajority() {
+        List<String> fullNames = List.of("Peter Duncan", "Zach Zemicks", "John Boyd");
+        ZoneId zone = ZoneId.of("UTC");
 
-        int result = medicalRecordRepository.countChildrenFromFullName(fullnames);
+        MedicalRecordRepository dayBefore = new MedicalRecordJsonRepository(
+                Clock.fixed(LocalDate.of(2019, 9, 5).atStartOfDay(zone).toInstant(), zone));
+        MedicalRecordRepository birthday = new MedicalRecordJsonRepository(
+                Clock.fixed(LocalDate.of(2019, 9, 6).atStartOfDay(zone).toInstant(), zone));
 
-        assertThat(result).isEqualTo(1);
+        dayBefore.reclassifyAges();
+        long childrenBefore = countChildren(fullNames);
+
+        List<MedicalRecord> newAdults = birthday.reclassifyAges();
+        long childrenAfter = countChildren(fullNames);
+
+        assertThat(childrenBefore).isEqualTo(2);
+        assertThat(newAdults).extracting(MedicalRecord::getFullName).containsExactly("Peter Duncan");
+        assertThat(childrenAfter).isEqualTo(1);
     }
 
     @Test
-    public void countChildrenFromFullNameShouldReturn0() {
-        List<String> fullnames = new ArrayList<>();
-        fullnames.add("John Boyd");
-        fullnames.add("Abcd");
+    public void updateBirthdateShouldReclassifyMedicalRecord() {
+        MedicalRecord medicalRecord = new MedicalRecord();
+        medicalRecord.setFirstName("John");
+        medicalRecord.setLastName("Boyd");
+        medicalRecord.setBirthdate(LocalDate.now().minusYears(5));
 
-        int result = medicalRecordRepository.countChildrenFromFullName(fullnames);
+        medicalRecordRepository.update(medicalRecord);
 
-        assertThat(result).isEqualTo(0);
+        assertThat(countChildren(List.of("John Boyd"))).isEqualTo(1);
     }
 
-    @Test
-    public void getAllByFullNameShouldReturnInteger() {
-        Map<String, MedicalRecord> result = medicalRecordRepository.getAllByFullName();
+    private long countChildren(List<String> fullNames) {
+        MedicalRecordIndex index = jsonData.getSnapshot().getMedicalRecordIndex();
 
-        assertThat(result.size()).isEqualTo(23);
-        assertThat(result.containsKey("Zach Zemicks")).isTrue();
-        assertThat(result.get("Zach Zemicks").getFullName()).isEqualTo("Zach Zemicks");
+        return fullNames.stream()
+                .map(index::findByFullName)
+                .flatMap(Optional::stream)
+                .filter(index::isChild)
+                .count();
     }
 }
@@ -8,8 +8,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.JsonData;
 import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.StationCoverage;
 import org.safetynet.alerts.repository.PersonJsonRepository;
 import org.safetynet.alerts.repository.PersonRepository;
 import org.safetynet.alerts.service.JsonDataService;
@@ -19,8 +22,11 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 import java.io.InputStream;
+import java.time.Clock;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -39,7 +45,7 @@ public class PersonJsonRepositoryTest {
 
     @BeforeEach
     public void init() {
-        personRepository = new PersonJsonRepository();
+        personRepository = new PersonJsonRepository(Clock.systemDefaultZone());
         ObjectMapper objectMapper = new ObjectMapper();
 
         try (InputStream inputStreamJson = new ClassPathResource(jsonPath).getInputStream()) {
@@ -100,6 +106,41 @@ public class PersonJsonRepositoryTest {
         assertThat(jsonData.getPersons().size()).isEqualTo(23);
     }
 
+    @Test
+    public void updateAddressShouldMovePersonToNewAddress() throws InstanceNotFoundException {
+        Person person = new Person();
+        person.setFirstName("John");
+        person.setLastName("Boyd");
+        person.setAddress("29 15th St");
+        person.setCity("Culver");
+
+        personRepository.update(person);
+
+        assertThat(personRepository.findAllPersonAtAddress("1509 Culver St").size()).isEqualTo(4);
+        assertThat(personRepository.findAllPersonAtAddress("29 15th St").size()).isEqualTo(2);
+        assertThat(personRepository.findAllEmailsAtCity("Culver").size()).isEqualTo(23);
+    }
+
+    @Test
+    public void updateShouldPublishNewSnapshotAndKeepPreviousOne() throws InstanceNotFoundException {
+        DataSnapshot before = jsonData.getSnapshot();
+
+        Person person = new Person();
+        person.setFirstName("John");
+        person.setLastName("Boyd");
+        person.setAddress("29 15th St");
+        person.setCity("Culver");
+
+        personRepository.update(person);
+        DataSnapshot after = jsonData.getSnapshot();
+
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(before.getPersonIndex().findByFullName("John Boyd").get().getAddress()).isEqualTo("1509 Culver St");
+        assertThat(before.getPersonIndex().findByAddress("1509 Culver St").size()).isEqualTo(5);
+        assertThat(after.getPersonIndex().findByFullName("John Boyd").get().getAddress()).isEqualTo("29 15th St");
+        assertThat(after.getFireStations()).isSameAs(before.getFireStations());
+    }
+
     @Test
     public void updateNotFoundPersonShouldReturnException() {
         assertThat(jsonData.getPersons().size()).isEqualTo(23);
@@ -126,6 +167,30 @@ public class PersonJsonRepositoryTest {
         assertThat(jsonData.getPersons().size()).isEqualTo(22);
     }
 
+    @Test
+    public void removeShouldRemovePersonFromLookups() {
+        personRepository.remove("John Boyd");
+
+        assertThat(personRepository.findOneByFullName("John Boyd")).isEmpty();
+        assertThat(personRepository.findAllPersonAtAddress("1509 Culver St").size()).isEqualTo(4);
+        assertThat(personRepository.findAllPersonByLastName("Boyd").size()).isEqualTo(5);
+    }
+
+    @Test
+    public void createShouldAddPersonToLookups() throws InstanceAlreadyExistsException {
+        Person person = new Person();
+        person.setFirstName("John");
+        person.setLastName("Doe");
+        person.setAddress("1509 Culver St");
+        person.setCity("Culver");
+
+        personRepository.create(person);
+
+        assertThat(personRepository.findOneByFullName("John Doe")).isPresent();
+        assertThat(personRepository.findAllPersonAtAddress("1509 Culver St").size()).isEqualTo(6);
+        assertThat(personRepository.findAllEmailsAtCity("Culver").size()).isEqualTo(24);
+    }
+
     @Test
     public void removeNotFoundPersonShouldReturnFalse() {
         assertThat(jsonData.getPersons().size()).isEqualTo(23);
@@ -185,24 +250,6 @@ public class PersonJsonRepositoryTest {
         assertThat(result.isEmpty()).isTrue();
     }
 
-    @Test
-    public void findAllPersonFromAddressesShouldReturnPersons() {
-        List<String> addresses = List.of("1509 Culver St", "29 15th St");
-
-        List<Person> result = personRepository.findAllPersonFromAddresses(addresses);
-
-        assertThat(result.size()).isEqualTo(6);
-    }
-
-    @Test
-    public void findAllPersonFromAddressesShouldReturnEmptyList() {
-        List<String> addresses = List.of("21 jump street");
-
-        List<Person> result = personRepository.findAllPersonFromAddresses(addresses);
-
-        assertThat(result.isEmpty()).isTrue();
-    }
-
     @Test
     public void findAllShouldReturnPersons() {
         List<Person> result = personRepository.findAll();
@@ -211,36 +258,74 @@ public class PersonJsonRepositoryTest {
     }
 
     @Test
-    public void findPhoneNumbersFromAddressesShouldReturnPersons() {
-        List<String> addresses = List.of("1509 Culver St", "29 15th St");
-
-        List<String> result = personRepository.findPhoneNumbersFromAddresses(addresses);
+    public void findAllEmailsAtCityShouldReturnPersons() {
+        List<String> result = personRepository.findAllEmailsAtCity("Culver");
 
-        assertThat(result.size()).isEqualTo(6);
-        assertThat(result.contains("841-874-6512")).isTrue();
+        assertThat(result.size()).isEqualTo(23);
+        assertThat(result.getFirst()).isEqualTo("jaboyd@email.com");
     }
 
     @Test
-    public void findPhoneNumbersFromAddressesShouldReturnEmptyList() {
-        List<String> addresses = List.of("21 jump street");
-
-        List<String> result = personRepository.findPhoneNumbersFromAddresses(addresses);
+    public void findAllEmailsAtCityShouldReturnEmptyList() {
+        List<String> result = personRepository.findAllEmailsAtCity("Paris");
 
         assertThat(result.isEmpty()).isTrue();
     }
 
     @Test
-    public void findAllEmailsAtCityShouldReturnPersons() {
-        List<String> result = personRepository.findAllEmailsAtCity("Culver");
+    public void countPersonsAgedFromStationsShouldCountCoveredPersonsInAgeBracket() {
+        List<Integer> ages = coveredPersons("1", "3").stream()
+                .map(person -> jsonData.getSnapshot().getMedicalRecordIndex().findByFullName(person.getFullName())
+                        .orElseThrow().getAge())
+                .toList();
+
+        assertThat(personRepository.countPersonsAgedFromStations(List.of("1", "3"), 0, 4))
+                .isEqualTo(ages.stream().filter(age -> age <= 4).count());
+        assertThat(personRepository.countPersonsAgedFromStations(List.of("1", "3"), 65, Integer.MAX_VALUE))
+                .isEqualTo(ages.stream().filter(age -> age >= 65).count());
+        assertThat(personRepository.countPersonsAgedFromStations(List.of("3", "1", "3"), 0, Integer.MAX_VALUE))
+                .isEqualTo(ages.size());
+        assertThat(personRepository.countPersonsAgedFromStations(List.of("42"), 0, 4)).isZero();
+        assertThrows(IllegalArgumentException.class,
+                () -> personRepository.countPersonsAgedFromStations(List.of("3"), 65, 4));
+    }
 
-        assertThat(result.size()).isEqualTo(23);
-        assertThat(result.getFirst()).isEqualTo("jaboyd@email.com");
+    @Test
+    public void findHouseholdsFromStationsShouldReturnEachCoveredAddressOnce() {
+        List<Household> households = personRepository.findHouseholdsFromStations(List.of("3", "1", "3", "42"));
+
+        assertThat(households).extracting(Household::getAddress).doesNotHaveDuplicates()
+                .contains("1509 Culver St", "644 Gershwin Cir");
+        assertThat(households).flatExtracting(Household::getResidents)
+                .containsExactlyInAnyOrderElementsOf(coveredPersons("1", "3"));
+        assertThat(personRepository.findHousehold("1509 Culver St").orElseThrow().getResidents())
+                .containsExactlyElementsOf(personRepository.findAllPersonAtAddress("1509 Culver St"));
+        assertThat(personRepository.findHousehold("1510 Culver St")).isEmpty();
     }
 
     @Test
-    public void findAllEmailsAtCityShouldReturnEmptyList() {
-        List<String> result = personRepository.findAllEmailsAtCity("Paris");
+    public void findStationCoverageShouldMatchStationQueries() {
+        StationCoverage coverage = personRepository.findStationCoverage("3").orElseThrow();
+        List<Person> persons = coveredPersons("3");
+        long children = persons.stream()
+                .filter(person -> jsonData.getSnapshot().getMedicalRecordIndex().findByFullName(person.getFullName())
+                        .orElseThrow().isChild())
+                .count();
+
+        assertThat(coverage.getResidents()).containsExactlyInAnyOrderElementsOf(persons);
+        assertThat(coverage.getAgeGroupCount().getChildCount()).isEqualTo(children);
+        assertThat(coverage.getAgeGroupCount().getAdultCount()).isEqualTo(persons.size() - children);
+        assertThat(personRepository.findStationCoverage("42")).isEmpty();
+    }
 
-        assertThat(result.isEmpty()).isTrue();
+    private List<Person> coveredPersons(String... stations) {
+        Set<String> addresses = new LinkedHashSet<>();
+        for (String station : stations) {
+            addresses.addAll(jsonData.getSnapshot().getFireStationIndex().findAddressesByStation(station));
+        }
+
+        return addresses.stream()
+                .flatMap(address -> jsonData.getSnapshot().getPersonIndex().findByAddress(address).stream())
+                .toList();
     }
 }
@@ -0,0 +1,32 @@
+package org.safetynet.alerts.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.safetynet.alerts.service.AgeClassificationScheduler;
+import org.safetynet.alerts.service.MedicalRecordService;
+
+import java.util.Collections;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AgeClassificationSchedulerTest {
+
+    @Mock
+    private MedicalRecordService medicalRecordService;
+
+    @InjectMocks
+    private AgeClassificationScheduler ageClassificationScheduler;
+
+    @Test
+    public void reclassifyAgesShouldDelegateToService() {
+        when(medicalRecordService.reclassifyAges()).thenReturn(Collections.emptyList());
+
+        ageClassificationScheduler.reclassifyAges();
+
+        verify(medicalRecordService, times(1)).reclassifyAges();
+    }
+}
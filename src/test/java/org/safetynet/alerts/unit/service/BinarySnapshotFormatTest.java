@@ -0,0 +1,119 @@
+package org.safetynet.alerts.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.service.BinarySnapshotConverter;
+import org.safetynet.alerts.service.BinarySnapshotFormat;
+import org.safetynet.alerts.service.JsonDataReader;
+import org.safetynet.alerts.service.JsonDataWriter;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinarySnapshotFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void readShouldRestoreWrittenSnapshot() throws IOException {
+        DataSnapshot snapshot = loadJsonData().getSnapshot();
+
+        JsonData result = BinarySnapshotFormat.read(new ByteArrayInputStream(toBinary(snapshot)));
+
+        assertThat(result.getSnapshot().getVersion()).isEqualTo(snapshot.getVersion());
+        assertThat(toJson(result.getSnapshot())).isEqualTo(toJson(snapshot));
+        assertThat(result.getSnapshot().getFireStationIndex().findAddressesByStation("3"))
+                .containsExactlyElementsOf(snapshot.getFireStationIndex().findAddressesByStation("3"));
+        assertThat(countChildren(result.getSnapshot()))
+                .isEqualTo(countChildren(snapshot));
+    }
+
+    @Test
+    public void readShouldRestoreMissingValuesAndVersion() throws IOException {
+        DataSnapshot snapshot = DataSnapshot.of(7,
+                List.of(new Person().setFirstName("Jöhn").setLastName("Boyd")),
+                List.of(),
+                List.of(new MedicalRecord().setFirstName("Jöhn").setLastName("Boyd").setAllergies(List.of("nillacilan"))),
+                LocalDate.of(2025, 6, 1));
+
+        JsonData result = BinarySnapshotFormat.read(new ByteArrayInputStream(toBinary(snapshot)));
+
+        Person person = result.getPersons().getFirst();
+        MedicalRecord medicalRecord = result.getMedicalrecords().getFirst();
+        assertThat(result.getSnapshot().getVersion()).isEqualTo(7);
+        assertThat(person.getFirstName()).isEqualTo("Jöhn");
+        assertThat(person.getAddress()).isNull();
+        assertThat(medicalRecord.getBirthdate()).isNull();
+        assertThat(medicalRecord.getMedications()).isNull();
+        assertThat(medicalRecord.getAllergies()).containsExactly("nillacilan");
+        assertThat(result.getSnapshot().getPersonIndex().findByFullName("Jöhn Boyd")).contains(person);
+    }
+
+    @Test
+    public void readShouldRejectOtherOrTruncatedContent() throws IOException {
+        byte[] binary = toBinary(loadJsonData().getSnapshot());
+
+        assertThrows(IOException.class, () -> BinarySnapshotFormat.read(new ByteArrayInputStream("{}\n\n\n".getBytes())));
+        assertThrows(IOException.class,
+                () -> BinarySnapshotFormat.read(new ByteArrayInputStream(Arrays.copyOf(binary, binary.length / 2))));
+    }
+
+    @Test
+    public void convertShouldRoundTripBetweenJsonAndBinarySnapshot() throws IOException {
+        Path jsonPath = tempDir.resolve("data.json");
+        try (InputStream input = new ClassPathResource("data.json").getInputStream()) {
+            Files.copy(input, jsonPath);
+        }
+        Path snapshotPath = tempDir.resolve("data" + BinarySnapshotFormat.EXTENSION);
+        Path convertedPath = tempDir.resolve("converted/data.json.gz");
+
+        DataSnapshot converted = BinarySnapshotConverter.convert(objectMapper, jsonPath.toString(), snapshotPath);
+        DataSnapshot roundTrip = BinarySnapshotConverter.convert(objectMapper, snapshotPath.toString(), convertedPath);
+
+        assertThat(Files.size(snapshotPath)).isLessThan(Files.size(jsonPath));
+        assertThat(BinarySnapshotConverter.convert(objectMapper, convertedPath.toString(), tempDir.resolve("again.json")).getPersons())
+                .hasSize(23);
+        assertThat(toJson(roundTrip)).isEqualTo(toJson(converted));
+    }
+
+    private JsonData loadJsonData() throws IOException {
+        try (InputStream input = new ClassPathResource("data.json").getInputStream()) {
+            return new JsonDataReader(objectMapper).read(input);
+        }
+    }
+
+    private static byte[] toBinary(DataSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinarySnapshotFormat.write(snapshot, output);
+        return output.toByteArray();
+    }
+
+    private String toJson(DataSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new JsonDataWriter(objectMapper).write(snapshot, output);
+        return output.toString();
+    }
+
+    private static long countChildren(DataSnapshot snapshot) {
+        return snapshot.getMedicalRecords().stream().filter(snapshot.getMedicalRecordIndex()::isChild).count();
+    }
+}
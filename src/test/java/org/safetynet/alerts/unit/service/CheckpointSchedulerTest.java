@@ -0,0 +1,41 @@
+package org.safetynet.alerts.unit.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.safetynet.alerts.service.CheckpointScheduler;
+import org.safetynet.alerts.service.WriteAheadLog;
+
+import java.io.IOException;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CheckpointSchedulerTest {
+
+    @Mock
+    private WriteAheadLog writeAheadLog;
+
+    @InjectMocks
+    private CheckpointScheduler checkpointScheduler;
+
+    @Test
+    public void checkpointShouldDelegateToWriteAheadLog() throws IOException {
+        when(writeAheadLog.checkpoint()).thenReturn(true);
+
+        checkpointScheduler.checkpoint();
+
+        verify(writeAheadLog, times(1)).checkpoint();
+    }
+
+    @Test
+    public void checkpointFailureShouldNotBeThrown() throws IOException {
+        when(writeAheadLog.checkpoint()).thenThrow(new IOException("Disk full"));
+
+        checkpointScheduler.checkpoint();
+
+        verify(writeAheadLog, times(1)).checkpoint();
+    }
+}
@@ -0,0 +1,53 @@
+package org.safetynet.alerts.unit.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.safetynet.alerts.service.DatasetFileWatcher;
+import org.safetynet.alerts.service.DatasetReloadService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.Mockito.*;
+
+public class DatasetFileWatcherTest {
+
+    private final DatasetReloadService datasetReloadService = mock(DatasetReloadService.class);
+
+    @TempDir
+    private Path tempDir;
+
+    private DatasetFileWatcher datasetFileWatcher;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        datasetFileWatcher.stop();
+    }
+
+    @Test
+    public void changeOfDataFileShouldReloadDatasetOnce() throws IOException {
+        Path dataPath = Files.writeString(tempDir.resolve("data.json"), "{}");
+        datasetFileWatcher = new DatasetFileWatcher(datasetReloadService, dataPath.toString(), true, 200);
+        datasetFileWatcher.start();
+
+        Files.writeString(tempDir.resolve("other.json"), "{}");
+        Files.writeString(dataPath, "{\"persons\":[]");
+        Files.writeString(dataPath, "{\"persons\":[]}");
+
+        verify(datasetReloadService, timeout(5000)).reload();
+        verify(datasetReloadService, after(500).times(1)).reload();
+    }
+
+    @Test
+    public void disabledWatcherShouldNotReloadDataset() throws IOException {
+        Path dataPath = Files.writeString(tempDir.resolve("data.json"), "{}");
+        datasetFileWatcher = new DatasetFileWatcher(datasetReloadService, dataPath.toString(), false, 200);
+        datasetFileWatcher.start();
+
+        Files.writeString(dataPath, "{\"persons\":[]}");
+
+        verify(datasetReloadService, after(500).never()).reload();
+    }
+}
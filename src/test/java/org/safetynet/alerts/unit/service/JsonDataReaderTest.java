@@ -0,0 +1,190 @@
+package org.safetynet.alerts.unit.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.Household;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.StationCoverage;
+import org.safetynet.alerts.service.JsonDataReader;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonDataReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void readShouldLoadAndIndexEveryArray() throws IOException {
+        JsonData expected;
+        try (InputStream input = new ClassPathResource("data.json").getInputStream()) {
+            expected = objectMapper.readValue(input, JsonData.class);
+        }
+
+        JsonData result;
+        try (InputStream input = new ClassPathResource("data.json").getInputStream()) {
+            result = new JsonDataReader(objectMapper).read(input);
+        }
+
+        assertThat(result.getPersons()).hasSize(23);
+        assertThat(result.getFirestations()).hasSize(13);
+        assertThat(result.getMedicalrecords()).hasSize(23);
+        assertThat(result.getSnapshot().getVersion()).isEqualTo(1);
+        assertThat(result.getSnapshot().getPersonIndex().findByFullName("John Boyd")).isPresent();
+        assertThat(result.getSnapshot().getFireStationIndex().findAddressesByStation("3"))
+                .containsExactlyElementsOf(expected.getSnapshot().getFireStationIndex().findAddressesByStation("3"));
+        assertThat(countChildren(result.getSnapshot()))
+                .isEqualTo(countChildren(expected.getSnapshot()));
+    }
+
+    @Test
+    public void readShouldRestoreVersionWhereverItIsWritten() throws IOException {
+        String json = "{\"persons\":[{\"firstName\":\"John\",\"lastName\":\"Boyd\",\"address\":\"1509 Culver St\"}],"
+                + "\"version\":42,\"firestations\":null}";
+
+        JsonData result = new JsonDataReader(objectMapper).read(new ByteArrayInputStream(json.getBytes()));
+
+        assertThat(result.getSnapshot().getVersion()).isEqualTo(42);
+        assertThat(result.getPersons()).hasSize(1);
+        assertThat(result.getFirestations()).isEmpty();
+        assertThat(result.getMedicalrecords()).isEmpty();
+    }
+
+    @Test
+    public void readShouldRejectUnknownFieldWhenMapperFailsOnUnknownProperties() throws IOException {
+        String json = "{\"owners\":[{\"name\":\"John\"}],\"persons\":[]}";
+
+        assertThrows(UnrecognizedPropertyException.class,
+                () -> new JsonDataReader(objectMapper).read(new ByteArrayInputStream(json.getBytes())));
+
+        ObjectMapper lenientMapper = objectMapper.copy().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        JsonData result = new JsonDataReader(lenientMapper).read(new ByteArrayInputStream(json.getBytes()));
+        assertThat(result.getPersons()).isEmpty();
+    }
+
+    @Test
+    public void readShouldRejectEmptyOrTruncatedInput() {
+        JsonDataReader reader = new JsonDataReader(objectMapper);
+
+        assertThrows(MismatchedInputException.class, () -> reader.read(new ByteArrayInputStream(new byte[0])));
+        assertThrows(MismatchedInputException.class,
+                () -> reader.read(new ByteArrayInputStream("{\"persons\":{}}".getBytes())));
+        assertThrows(IOException.class,
+                () -> reader.read(new ByteArrayInputStream("{\"persons\":[{\"firstName\":\"John\"}".getBytes())));
+    }
+
+    @Test
+    public void readShouldKeepDocumentOrderOfElementsBoundInParallel() throws IOException {
+        StringBuilder json = new StringBuilder("{\"persons\":[");
+        for (int i = 0; i < 2500; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"firstName\":\"John").append(i).append("\",\"lastName\":\"Boyd\",\"city\":\"Culver\"}");
+        }
+        json.append("],\"firestations\":[{\"address\":\"1509 Culver St\",\"station\":\"3\"}]}");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            JsonData result = new JsonDataReader(objectMapper, pool).read(new ByteArrayInputStream(json.toString().getBytes()));
+
+            assertThat(result.getPersons()).hasSize(2500);
+            assertThat(result.getPersons().get(1500).getFirstName()).isEqualTo("John1500");
+            assertThat(result.getSnapshot().getPersonIndex().findByCity("Culver")).hasSize(2500);
+            assertThat(result.getSnapshot().getPersonIndex().findByFullName("John2499 Boyd")).isPresent();
+            assertThat(result.getSnapshot().getFireStationIndex().findAddressesByStation("3")).containsExactly("1509 Culver St");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 1", "1, 1023", "1, 1024", "1, 1025", "1, 5000",
+            "3, 1023", "3, 1024", "3, 2048", "3, 2049", "3, 5000"
+    })
+    public void readShouldIndexEveryListAcrossChunkBoundaries(int parallelism, int count) throws IOException {
+        StringBuilder json = new StringBuilder("{\"persons\":[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"firstName\":\"John").append(i).append("\",\"lastName\":\"Boyd\",")
+                    .append("\"address\":\"").append(i % 97).append(" Culver St\",\"city\":\"Culver\",")
+                    .append("\"phone\":\"841-874-").append(i % 10000).append("\"}");
+        }
+        json.append("],\"firestations\":[");
+        for (int i = 0; i < 97; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"address\":\"").append(i).append(" Culver St\",\"station\":\"").append(i % 4).append("\"}");
+        }
+        json.append("],\"medicalrecords\":[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"firstName\":\"John").append(i).append("\",\"lastName\":\"Boyd\",")
+                    .append("\"birthdate\":\"01/01/").append(i % 2 == 0 ? 1980 : 2020).append("\"}");
+        }
+        json.append("]}");
+        byte[] document = json.toString().getBytes();
+        JsonData expected = objectMapper.readValue(document, JsonData.class);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            DataSnapshot result = new JsonDataReader(objectMapper, pool).read(new ByteArrayInputStream(document))
+                    .getSnapshot();
+
+            assertThat(result.getPersons()).containsExactlyElementsOf(expected.getPersons());
+            assertThat(result.getMedicalRecords()).containsExactlyElementsOf(expected.getMedicalrecords());
+            assertThat(result.getPersons().getLast().getFirstName()).isEqualTo("John" + (count - 1));
+            assertThat(result.getPersonIndex().findByCity("Culver")).hasSize(count);
+            assertThat(result.getPersonIndex().findByFullName("John" + (count - 1) + " Boyd")).isPresent();
+            assertThat(countChildren(result))
+                    .isEqualTo(countChildren(expected.getSnapshot()))
+                    .isEqualTo(count / 2);
+            for (int i = 0; i < Math.min(count, 97); i++) {
+                Household household = result.getHouseholdIndex().findByAddress(i + " Culver St").orElseThrow();
+                Household expectedHousehold = expected.getSnapshot().getHouseholdIndex()
+                        .findByAddress(i + " Culver St").orElseThrow();
+                assertThat(household.getResidents()).containsExactlyElementsOf(expectedHousehold.getResidents());
+                assertThat(household.getMedicalRecords()).isEqualTo(expectedHousehold.getMedicalRecords());
+            }
+            for (int station = 0; station < 4; station++) {
+                StationCoverage coverage = result.getStationCoverageIndex().findByStation(String.valueOf(station))
+                        .orElseThrow();
+                StationCoverage expectedCoverage = expected.getSnapshot().getStationCoverageIndex()
+                        .findByStation(String.valueOf(station)).orElseThrow();
+                assertThat(coverage.getResidents()).containsExactlyElementsOf(expectedCoverage.getResidents());
+                assertThat(coverage.getAgeGroupCount().getAdultCount())
+                        .isEqualTo(expectedCoverage.getAgeGroupCount().getAdultCount());
+                assertThat(coverage.getAgeGroupCount().getChildCount())
+                        .isEqualTo(expectedCoverage.getAgeGroupCount().getChildCount());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void readShouldReportInvalidElementBoundInParallel() {
+        StringBuilder json = new StringBuilder("{\"persons\":[");
+        for (int i = 0; i < 2000; i++) {
+            json.append("{\"firstName\":\"John\"},");
+        }
+        json.append("42]}");
+
+        assertThrows(MismatchedInputException.class,
+                () -> new JsonDataReader(objectMapper).read(new ByteArrayInputStream(json.toString().getBytes())));
+    }
+
+    private static long countChildren(DataSnapshot snapshot) {
+        return snapshot.getMedicalRecords().stream().filter(snapshot.getMedicalRecordIndex()::isChild).count();
+    }
+}
@@ -15,19 +15,16 @@ import org.safetynet.alerts.LogWorker;
 import org.safetynet.alerts.logging.MemoryAppender;
 import org.safetynet.alerts.model.JsonData;
 import org.safetynet.alerts.service.JsonDataService;
+import org.safetynet.alerts.service.WriteAheadLog;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
@@ -39,10 +36,9 @@ public class JsonDataServiceTest {
     private final MemoryAppender memoryAppender = new MemoryAppender();
 
     @Mock
-    ObjectMapper objectMapper;
+    WriteAheadLog writeAheadLog;
 
-    @Mock
-    ClassPathResource classPathResource;
+    private JsonDataService jsonDataService;
 
     private final String jsonPath = "data.json";
 
@@ -53,7 +49,7 @@ public class JsonDataServiceTest {
     }
 
     @BeforeEach
-    public void setUp() throws IOException {
+    public void setUp() {
         Logger logger = (Logger) LoggerFactory.getLogger(LOGGER_NAME);
         logger.setLevel(Level.DEBUG);
         logger.addAppender(memoryAppender);
@@ -61,23 +57,18 @@ public class JsonDataServiceTest {
         memoryAppender.setContext((LoggerContext) LoggerFactory.getILoggerFactory());
         memoryAppender.start();
 
-        JsonData jsonData = new JsonData();
-
-        when(objectMapper.readValue(any(InputStream.class), eq(JsonData.class))).thenReturn(jsonData);
+        jsonDataService = new JsonDataService(new ObjectMapper(), writeAheadLog);
     }
 
     @Test
-    public void getJsonDataSuccessShouldReturnJsonData() throws IOException {
-        String fakeJson = "{}";
-        InputStream fakeInputStream = new ByteArrayInputStream(fakeJson.getBytes());
-
-        when(classPathResource.getInputStream()).thenReturn(fakeInputStream);
-        JsonDataService.init(jsonPath);
+    public void getJsonDataSuccessShouldReturnJsonData() {
+        jsonDataService.init(jsonPath);
 
         JsonData result = JsonDataService.getJsonData();
 
         assertThat(result).isNotNull();
         assertThat(result).isInstanceOf(JsonData.class);
+        assertThat(result.getPersons()).hasSize(23);
 
         assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
         assertThat(memoryAppender.search("Initializing JSON data from path", Level.INFO)).hasSize(1);
@@ -91,7 +82,7 @@ public class JsonDataServiceTest {
                     when(mock.getInputStream()).thenThrow(new FileNotFoundException());
                 })) {
 
-            assertThrows(RuntimeException.class, () -> JsonDataService.init(jsonPath));
+            assertThrows(RuntimeException.class, () -> jsonDataService.init(jsonPath));
             assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
             assertThat(memoryAppender.search("Initializing JSON data from path", Level.INFO)).hasSize(1);
             assertThat(memoryAppender.search("JSON file not found at path", Level.ERROR)).hasSize(1);
@@ -105,7 +96,7 @@ public class JsonDataServiceTest {
                     when(mock.getInputStream()).thenThrow(new IOException());
                 })) {
 
-            assertThrows(RuntimeException.class, () -> JsonDataService.init(jsonPath));
+            assertThrows(RuntimeException.class, () -> jsonDataService.init(jsonPath));
             assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
             assertThat(memoryAppender.search("Initializing JSON data from path", Level.INFO)).hasSize(1);
             assertThat(memoryAppender.search("I/O error while loading JSON data", Level.ERROR)).hasSize(1);
@@ -18,6 +18,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
+import java.time.Clock;
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -49,7 +50,7 @@ public class MedicalRecordServiceImplTest {
 
     @BeforeEach
     public void setUp() {
-        medicalRecordService = new MedicalRecordServiceImpl(medicalRecordRepository);
+        medicalRecordService = new MedicalRecordServiceImpl(medicalRecordRepository, Clock.systemDefaultZone());
 
         Logger logger = (Logger) LoggerFactory.getLogger(LOGGER_NAME);
         logger.setLevel(Level.DEBUG);
@@ -245,65 +246,17 @@ public class MedicalRecordServiceImplTest {
     }
 
     @Test
-    public void countAdultFromFullNameSuccess() {
-        List<String> fullNames = Arrays.asList("Diane Doe", "Bob Doe", "John Doe");
-
-        when(medicalRecordRepository.countAdultFromFullName(anyList())).thenReturn(2);
-
-        int result = medicalRecordService.countAdultFromFullName(fullNames);
-
-        assertThat(result).isEqualTo(2);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("Count 2 adult from fullNames", Level.DEBUG)).hasSize(1);
-    }
-
-    @Test
-    public void countAdultFromFullNameWithEmptyFullNames() {
-        int result = medicalRecordService.countAdultFromFullName(Collections.emptyList());
-
-        assertThat(result).isEqualTo(0);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("No fullNames provided for count adults, returning 0.", Level.DEBUG)).hasSize(1);
-    }
-
-    @Test
-    public void countAdultFromFullNameWithNullFullNames() {
-        int result = medicalRecordService.countAdultFromFullName(null);
-
-        assertThat(result).isEqualTo(0);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("No fullNames provided for count adults, returning 0.", Level.DEBUG)).hasSize(1);
-    }
-
-    @Test
-    public void countChildrenFromFullNameSuccess() {
-        List<String> fullNames = Arrays.asList("Diane Doe", "Bob Doe", "John Doe");
-
-        when(medicalRecordRepository.countChildrenFromFullName(anyList())).thenReturn(1);
-
-        int result = medicalRecordService.countChildrenFromFullName(fullNames);
-
-        assertThat(result).isEqualTo(1);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("Count 1 children from fullNames", Level.DEBUG)).hasSize(1);
-    }
-
-    @Test
-    public void countChildrenFromFullNameWithEmptyFullNames() {
-        int result = medicalRecordService.countChildrenFromFullName(Collections.emptyList());
+    public void reclassifyAgesShouldReturnNewAdults() {
+        MedicalRecord medicalRecord = new MedicalRecord();
+        medicalRecord.setFirstName("John");
+        medicalRecord.setLastName("Doe");
 
-        assertThat(result).isEqualTo(0);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("No fullNames provided for count children, returning 0.", Level.DEBUG)).hasSize(1);
-    }
+        when(medicalRecordRepository.reclassifyAges()).thenReturn(List.of(medicalRecord));
 
-    @Test
-    public void countChildrenFromFullNameWithNullFullNames() {
-        int result = medicalRecordService.countChildrenFromFullName(null);
+        List<MedicalRecord> result = medicalRecordService.reclassifyAges();
 
-        assertThat(result).isEqualTo(0);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("No fullNames provided for count children, returning 0.", Level.DEBUG)).hasSize(1);
+        assertThat(result).containsExactly(medicalRecord);
+        assertThat(memoryAppender.search("1 medical record(s) reclassified as adult", Level.DEBUG)).hasSize(1);
     }
 
     @Test
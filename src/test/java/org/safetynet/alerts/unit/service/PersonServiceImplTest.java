@@ -11,14 +11,19 @@ import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.safetynet.alerts.LogWorker;
 import org.safetynet.alerts.controller.PersonDtoMapper;
 import org.safetynet.alerts.dto.FireInfoDto;
 import org.safetynet.alerts.dto.person.ChildAlertDto;
 import org.safetynet.alerts.logging.MemoryAppender;
+import org.safetynet.alerts.model.AgeGroupCount;
 import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.Household;
 import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.MedicalRecordIndex;
 import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.model.StationCoverage;
 import org.safetynet.alerts.repository.PersonJsonRepository;
 import org.safetynet.alerts.service.*;
 import org.slf4j.LoggerFactory;
@@ -27,6 +32,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -47,15 +53,15 @@ public class PersonServiceImplTest {
     @Mock
     private MedicalRecordServiceImpl medicalRecordService;
 
-    @Mock
-    private FireStationServiceImpl fireStationService;
-
     @Mock
     private PersonJsonRepository personRepository;
 
     @Mock
     private PersonDtoMapper personDtoMapper;
 
+    @Spy
+    private Clock clock = Clock.systemDefaultZone();
+
     @InjectMocks
     private PersonServiceImpl personService;
 
@@ -230,44 +236,6 @@ public class PersonServiceImplTest {
         assertThat(memoryAppender.search("Removed person failed", Level.DEBUG)).hasSize(1);
     }
 
-    @Tag("Get")
-    @DisplayName("Try to get all phone number at address")
-    @Test
-    public void getAllPhoneNumberFromAddressesSuccess() {
-        List<String> phones = Arrays.asList("101-854-7794", "842-574-7754");
-        List<String> addresses = Arrays.asList("1 rue sesame", "21 jump street");
-        String phonePattern = "\\d{10}|(?:\\d{3}-){2}\\d{4}";
-
-        when(personRepository.findPhoneNumbersFromAddresses(any())).thenReturn(phones);
-
-        List<String> result = personService.getAllPhoneNumberFromAddresses(addresses);
-
-        assertThat(result.getFirst().matches(phonePattern)).isTrue();
-        assertThat(result).isNotEmpty();
-        assertThat(result.getFirst()).isEqualTo("101-854-7794");
-        assertThat(result.getLast()).isEqualTo("842-574-7754");
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search(result.size() + " phone numbers found", Level.DEBUG)).hasSize(1);
-    }
-
-    @Tag("GetTest")
-    @DisplayName("Try to get all phone number with null address")
-    @Test
-    public void getAllPhoneNumberFromAddressesWithNullAddress() {
-        assertThrows(IllegalArgumentException.class, () -> personService.getAllPhoneNumberFromAddresses(null));
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("No addresses provided", Level.ERROR)).hasSize(1);
-    }
-
-    @Tag("GetTest")
-    @DisplayName("Try to get all phone number with empty address")
-    @Test
-    public void getAllPhoneNumberFromAddressesWithEmptyAddress() {
-        assertThrows(IllegalArgumentException.class, () -> personService.getAllPhoneNumberFromAddresses(Collections.emptyList()));
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("No addresses provided", Level.ERROR)).hasSize(1);
-    }
-
 
     @Tag("GetTest")
     @DisplayName("Try to get person with lastName success")
@@ -347,87 +315,25 @@ public class PersonServiceImplTest {
     }
 
     @Tag("GetTest")
-    @DisplayName("Try to get all persons from fire station success")
-    @Test
-    public void getAllPersonFromFireStationSuccess() {
-        List<String> addresses = new ArrayList<>();
-        addresses.add("21 jump street");
-        addresses.add("1 sesame street");
-
-        Person mockPerson = new Person();
-        mockPerson.setFirstName("John");
-        mockPerson.setLastName("Doe");
-        List<Person> mockPersons = new ArrayList<>();
-        mockPersons.add(mockPerson);
-
-        when(fireStationService.getAddressesForFireStation(anyString())).thenReturn(addresses);
-        when(personRepository.findAllPersonFromAddresses(any())).thenReturn(mockPersons);
-
-        List<Person> result = personService.getAllPersonFromFireStation("2");
-
-        assertThat(result).isNotEmpty();
-        assertThat(result.size()).isEqualTo(1);
-        assertThat(result.getFirst().getFullName()).isEqualTo(mockPerson.getFullName());
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
-        assertThat(memoryAppender.search("Found 2 addresses for station 2", Level.DEBUG)).hasSize(1);
-        assertThat(memoryAppender.search("Found 1 persons for station 2", Level.DEBUG)).hasSize(1);
-    }
-
-    @Tag("GetTest")
-    @DisplayName("Try to get all persons with station not found")
+    @DisplayName("Try to count persons of an age bracket covered by fire stations success")
     @Test
-    public void getAllPersonFromFireStationWithStationNotFound() {
-        when(fireStationService.getAddressesForFireStation(anyString())).thenReturn(Collections.emptyList());
-        when(personRepository.findAllPersonFromAddresses(any())).thenReturn(Collections.emptyList());
+    public void countPersonsAgedFromFireStationsSuccess() {
+        when(personRepository.countPersonsAgedFromStations(List.of("1", "3"), 65, Integer.MAX_VALUE)).thenReturn(4);
 
-        List<Person> result = personService.getAllPersonFromFireStation("2");
+        int result = personService.countPersonsAgedFromFireStations("1,3", 65, null);
 
-        assertThat(result).isEmpty();
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
-        assertThat(memoryAppender.search("Found 0 addresses for station 2", Level.DEBUG)).hasSize(1);
-        assertThat(memoryAppender.search("Found 0 persons for station 2", Level.DEBUG)).hasSize(1);
+        assertThat(result).isEqualTo(4);
+        assertThat(memoryAppender.search("Count 4 persons aged 65 to null for stations 1,3", Level.DEBUG)).hasSize(1);
     }
 
     @Tag("GetTest")
-    @DisplayName("Try to get all persons with empty station fail")
+    @DisplayName("Try to count persons of an age bracket with empty stations fail")
     @ParameterizedTest(name = "#{index} - Run test with args={0}")
     @NullSource
     @ValueSource(strings = {"", " "})
-    public void getAllPersonFromFireStationWithEmptyStation(String stationNumber) {
-        assertThrows(IllegalArgumentException.class, () -> personService.getAllPersonFromFireStation(stationNumber));
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("stationNumber cannot be null or empty", Level.ERROR)).hasSize(1);
-    }
-
-    @Tag("GetTest")
-    @DisplayName("Try to get all persons from address success")
-    @Test
-    public void getAllPersonFromAddressesSuccess() {
-        List<String> addresses = Arrays.asList("1 rue sesame", "21 jump street");
-        Person mockPerson = new Person();
-        mockPerson.setFirstName("John");
-        mockPerson.setLastName("Doe");
-        List<Person> mockPersons = new ArrayList<>();
-        mockPersons.add(mockPerson);
-
-        when(personRepository.findAllPersonFromAddresses(any())).thenReturn(mockPersons);
-
-        List<Person> result = personService.getAllPersonFromAddresses(addresses);
-
-        assertThat(result).isNotEmpty();
-        assertThat(result.size()).isEqualTo(1);
-        assertThat(result.getFirst().getFullName()).isEqualTo(mockPerson.getFullName());
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("Found 1 persons from addresses", Level.DEBUG)).hasSize(1);
-    }
-
-    @Tag("GetTest")
-    @DisplayName("Try to get all persons from empty address fail")
-    @Test
-    public void getAllPersonFromAddressesWithNullAddresses() {
-        assertThrows(IllegalArgumentException.class, () -> personService.getAllPersonFromAddresses(null));
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("addresses cannot be null", Level.ERROR)).hasSize(1);
+    public void countPersonsAgedFromFireStationsWithBlankStationsShouldThrowException(String stations) {
+        assertThrows(IllegalArgumentException.class,
+                () -> personService.countPersonsAgedFromFireStations(stations, 0, 4));
     }
 
     @Tag("GetTest")
@@ -446,19 +352,6 @@ public class PersonServiceImplTest {
         assertThat(memoryAppender.search("Found 2 persons", Level.DEBUG)).hasSize(1);
     }
 
-    @Tag("GetTest")
-    @DisplayName("Try to find none persons success")
-    @Test
-    public void getAllPersonFromAddressesNobodyFoundSuccess() {
-        when(personRepository.findAll()).thenReturn(Collections.emptyList());
-
-        List<Person> result = personService.getAll();
-
-        assertThat(result).isEmpty();
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("Found 0 persons", Level.DEBUG)).hasSize(1);
-    }
-
     @Tag("Other")
     @DisplayName("Try to attach person to ChildAlertDto success")
     @Test
@@ -513,9 +406,9 @@ public class PersonServiceImplTest {
         assertThat(result.size()).isEqualTo(1);
         assertThat(result.getFirst().address).isEqualTo(address);
         assertThat(result.getFirst().otherPersons.size()).isEqualTo(1);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(3);
-        assertThat(memoryAppender.search("0 other person(s) household added for ChildAlertDto", Level.DEBUG)).hasSize(1);
-        assertThat(memoryAppender.search("1 other person(s) household added for ChildAlertDto", Level.DEBUG)).hasSize(1);
+        assertThat(result.getFirst().otherPersons.getFirst().firstName).isEqualTo("Leonard");
+        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(2);
+        assertThat(memoryAppender.search("2 other person(s) household added for ChildAlertDto", Level.DEBUG)).hasSize(1);
         assertThat(memoryAppender.search("ChildPersonDto mapped for 1 children at address", Level.DEBUG)).hasSize(1);
     }
 
@@ -548,89 +441,6 @@ public class PersonServiceImplTest {
         assertThat(memoryAppender.search("City name cannot be null or empty", Level.ERROR)).hasSize(1);
     }
 
-    @Tag("Other")
-    @DisplayName("Try to get all fullNames from persons success")
-    @Test
-    public void getFullNamesFromPersonsSuccess() {
-        Person mockPerson = new Person();
-        mockPerson.setFirstName("John");
-        mockPerson.setLastName("Doe");
-        List<Person> mockPersons = new ArrayList<>();
-        mockPersons.add(mockPerson);
-
-        List<String> result = personService.getFullNamesFromPersons(mockPersons);
-
-        assertThat(result).isNotEmpty();
-        assertThat(result).size().isEqualTo(1);
-        assertThat(result.getFirst()).isEqualTo(mockPerson.getFullName());
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("Found 1 full names", Level.DEBUG)).hasSize(1);
-    }
-
-    @Tag("OtherTest")
-    @DisplayName("Try to get all fullNames with empty persons fail")
-    @Test
-    public void getFullNamesFromPersonsWithEmptyPersonsFail() {
-        List<String> result = personService.getFullNamesFromPersons(new ArrayList<>());
-
-        assertThat(result).isEmpty();
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("No persons found", Level.DEBUG)).hasSize(1);
-    }
-
-    @Tag("OtherTest")
-    @DisplayName("Try to get all fullNames with null persons fail")
-    @Test
-    public void getFullNamesFromPersonsWithNullPersonsFail() {
-        assertThrows(IllegalArgumentException.class, () -> personService.getFullNamesFromPersons(null));
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("Null argument is invalid", Level.ERROR)).hasSize(1);
-    }
-
-    @Tag("OtherTest")
-    @DisplayName("Try to count adult from fullNames success")
-    @Test
-    public void countAdultFromPersonsSuccess() {
-        when(medicalRecordService.countAdultFromFullName(anyList())).thenReturn(5);
-
-        int result = personService.countAdultFromPersons(anyList());
-
-        assertThat(result).isEqualTo(5);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("Count 5 adults", Level.DEBUG)).hasSize(1);
-    }
-
-    @Tag("OtherTest")
-    @DisplayName("Try to count adult with null fullNames fail")
-    @Test
-    public void countAdultFromPersonsWithNullFullNamesFail() {
-        assertThrows(IllegalArgumentException.class, () -> personService.countAdultFromPersons(null));
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("fullNames adults cannot be null", Level.ERROR)).hasSize(1);
-    }
-
-    @Tag("OtherTest")
-    @DisplayName("Try to count children from fullNames success")
-    @Test
-    public void countChildrenFromPersonsSuccess() {
-        when(medicalRecordService.countChildrenFromFullName(anyList())).thenReturn(5);
-
-        int result = personService.countChildrenFromPersons(anyList());
-
-        assertThat(result).isEqualTo(5);
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("Count 5 children", Level.DEBUG)).hasSize(1);
-    }
-
-    @Tag("OtherTest")
-    @DisplayName("Try to count children with null fullNames fail")
-    @Test
-    public void countChildrenFromPersonsWithNullFullNamesFail() {
-        assertThrows(IllegalArgumentException.class, () -> personService.countChildrenFromPersons(null));
-        assertThat(memoryAppender.countEventsForLogger(LOGGER_NAME)).isEqualTo(1);
-        assertThat(memoryAppender.search("fullNames children cannot be null", Level.ERROR)).hasSize(1);
-    }
-
     @Test
     public void toFireInfoDtoShouldReturnDto() {
         //  GIVEN
@@ -723,8 +533,10 @@ public class PersonServiceImplTest {
         Map<String, ChildAlertDto> childAlerts = new HashMap<>();
         childAlerts.put("Jeanne Doe", new ChildAlertDto(child, 15));
 
-        when(medicalRecordService.getAllByFullName()).thenReturn(medicalRecordMap);
-        when(personRepository.findAllPersonAtAddress(anyString())).thenReturn(persons);
+        Household household = new Household("21 jump street", persons,
+                new MedicalRecordIndex(List.of(medicalRecord, childMedicalRecord), LocalDate.now()));
+
+        when(personRepository.findHousehold(anyString())).thenReturn(Optional.of(household));
         when(personDtoMapper.toChildAlertDto(persons, medicalRecordMap)).thenReturn(childAlerts);
 
         List<ChildAlertDto> result = personService.getChildAlerts("21 jump street");
@@ -734,6 +546,27 @@ public class PersonServiceImplTest {
         assertThat(result.getFirst().otherPersons.size()).isEqualTo(1);
     }
 
+    @Test
+    public void attachOtherPersonToChildAlertDtoShouldShareHouseholdBetweenChildren() {
+        Person adult = new Person().setFirstName("John").setLastName("Doe");
+        Person firstChild = new Person().setFirstName("Jeanne").setLastName("Doe");
+        Person secondChild = new Person().setFirstName("Jack").setLastName("Doe");
+
+        Map<String, ChildAlertDto> childAlerts = new LinkedHashMap<>();
+        childAlerts.put(firstChild.getFullName(), new ChildAlertDto(firstChild, 7));
+        childAlerts.put(secondChild.getFullName(), new ChildAlertDto(secondChild, 4));
+
+        List<ChildAlertDto> result = personService.attachOtherPersonToChildAlertDto(childAlerts,
+                List.of(adult, firstChild, secondChild, adult));
+
+        assertThat(result).hasSize(2);
+        assertThat(result.getFirst().otherPersons).extracting(otherPerson -> otherPerson.firstName)
+                .containsExactly("John", "Jack");
+        assertThat(result.getLast().otherPersons).extracting(otherPerson -> otherPerson.firstName)
+                .containsExactly("John", "Jeanne");
+        assertThat(result.getFirst().otherPersons.getFirst()).isSameAs(result.getLast().otherPersons.getFirst());
+    }
+
     @Test
     public void getChildAlertsWhenNotFoundMedicalRecordShouldReturnDtoList() {
         Map<String, MedicalRecord> medicalRecordMap = new HashMap<>();
@@ -759,8 +592,10 @@ public class PersonServiceImplTest {
         Map<String, ChildAlertDto> childAlerts = new HashMap<>();
         childAlerts.put("Jeanne Doe", new ChildAlertDto(child, 15));
 
-        when(medicalRecordService.getAllByFullName()).thenReturn(Collections.emptyMap());
-        when(personRepository.findAllPersonAtAddress(anyString())).thenReturn(persons);
+        Household household = new Household("21 jump street", persons,
+                new MedicalRecordIndex(Collections.emptyList(), LocalDate.now()));
+
+        when(personRepository.findHousehold(anyString())).thenReturn(Optional.of(household));
         when(personDtoMapper.toChildAlertDto(persons, medicalRecordMap)).thenReturn(childAlerts);
 
         List<ChildAlertDto> result = personService.getChildAlerts("21 jump street");
@@ -768,6 +603,39 @@ public class PersonServiceImplTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    public void getChildAlertsWithoutHouseholdShouldReturnEmptyList() {
+        when(personRepository.findHousehold(anyString())).thenReturn(Optional.empty());
+
+        List<ChildAlertDto> result = personService.getChildAlerts("21 jump street");
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(personDtoMapper);
+    }
+
+    @Test
+    public void getAllPhoneNumberFromFireStationShouldReturnOnePhonePerResident() {
+        Person john = new Person().setFirstName("John").setLastName("Doe").setPhone("841-874-6512");
+        Person jeanne = new Person().setFirstName("Jeanne").setLastName("Doe").setPhone("841-874-6512");
+        StationCoverage coverage = new StationCoverage("3", List.of(new Household("21 jump street",
+                List.of(john, jeanne), new MedicalRecordIndex(Collections.emptyList(), LocalDate.now()))),
+                new AgeGroupCount(2, 0));
+
+        when(personRepository.findStationCoverage("3")).thenReturn(Optional.of(coverage));
+        when(personRepository.findStationCoverage("42")).thenReturn(Optional.empty());
+
+        assertThat(personService.getAllPhoneNumberFromFireStation("3")).containsExactly("841-874-6512", "841-874-6512");
+        assertThat(personService.getAllPhoneNumberFromFireStation("42")).isEmpty();
+        assertThrows(IllegalArgumentException.class, () -> personService.getFireStationCoverage(" "));
+    }
+
+    @ParameterizedTest(name = "#{index} - Run test with args={0}")
+    @NullSource
+    @ValueSource(strings = {"", " "})
+    public void getHouseholdsFromFireStationsWithBlankStationsShouldThrowException(String stations) {
+        assertThrows(IllegalArgumentException.class, () -> personService.getHouseholdsFromFireStations(stations));
+    }
+
     @ParameterizedTest(name = "#{index} - Run test with args={0}")
     @NullSource
     @ValueSource(strings = {"", " "})
@@ -0,0 +1,382 @@
+package org.safetynet.alerts.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+import org.safetynet.alerts.model.DataSnapshot;
+import org.safetynet.alerts.model.FireStation;
+import org.safetynet.alerts.model.JsonData;
+import org.safetynet.alerts.model.MedicalRecord;
+import org.safetynet.alerts.model.Person;
+import org.safetynet.alerts.service.BinarySnapshotFormat;
+import org.safetynet.alerts.service.WriteAheadLog;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.spy;
+
+public class WriteAheadLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path tempDir;
+
+    private WriteAheadLog writeAheadLog;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        writeAheadLog.close();
+    }
+
+    @Test
+    public void attachShouldReplayLoggedChanges() throws IOException {
+        Path walPath = tempDir.resolve("wal/alerts.wal");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), "", WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+
+        changeJsonData(jsonData);
+        writeAheadLog.close();
+
+        JsonData reloaded = loadJsonData();
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getPersons()).hasSize(23);
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Doe")).isPresent();
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Boyd")).isEmpty();
+        assertThat(reloaded.getSnapshot().getFireStationIndex().findAddressesByStation("4")).contains("1509 Culver St");
+        assertThat(reloaded.getSnapshot().getMedicalRecordIndex().findByFullName("Jacob Boyd").get().getAllergies())
+                .containsExactly("peanut");
+        assertThat(reloaded.getMedicalrecords()).hasSize(jsonData.getMedicalrecords().size());
+    }
+
+    @Test
+    public void attachShouldDropTornRecord() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), "", WriteAheadLog.FsyncPolicy.OS, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+
+        addPerson(jsonData, "John", "Doe");
+        writeAheadLog.close();
+        long validLength = Files.size(walPath);
+        Files.write(walPath, new byte[]{0, 0, 1, 0, 42, 42}, StandardOpenOption.APPEND);
+
+        JsonData reloaded = loadJsonData();
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getPersons()).hasSize(24);
+        assertThat(Files.size(walPath)).isEqualTo(validLength);
+    }
+
+    @Test
+    public void attachShouldDropCorruptedRecord() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), "", WriteAheadLog.FsyncPolicy.GROUP, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+
+        addPerson(jsonData, "John", "Doe");
+        long validLength = Files.size(walPath);
+        addPerson(jsonData, "Jane", "Doe");
+        writeAheadLog.close();
+
+        byte[] content = Files.readAllBytes(walPath);
+        content[content.length - 2] ^= 1;
+        Files.write(walPath, content);
+
+        JsonData reloaded = loadJsonData();
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Doe")).isPresent();
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("Jane Doe")).isEmpty();
+        assertThat(Files.size(walPath)).isEqualTo(validLength);
+    }
+
+    @Test
+    public void appendShouldTruncateRecordThatFailedToBeWritten() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), "", WriteAheadLog.FsyncPolicy.OS, 10);
+        JsonData jsonData = loadJsonData();
+        try (MockedStatic<FileChannel> fileChannel = mockStatic(FileChannel.class, CALLS_REAL_METHODS)) {
+            fileChannel.when(() -> FileChannel.open(eq(walPath), any(OpenOption[].class))).thenAnswer(invocation -> {
+                FileChannel channel = spy((FileChannel) invocation.callRealMethod());
+                doAnswer(write -> {
+                    ByteBuffer record = write.getArgument(0);
+                    record.limit(record.position() + record.remaining() / 2);
+                    channel.write(record);
+                    throw new IOException("No space left on device");
+                }).doCallRealMethod().when(channel).write(any(ByteBuffer.class));
+                return channel;
+            });
+            writeAheadLog.attach(jsonData);
+        }
+
+        assertThatThrownBy(() -> addPerson(jsonData, "John", "Doe")).isInstanceOf(UncheckedIOException.class);
+        addPerson(jsonData, "Jane", "Doe");
+        writeAheadLog.close();
+
+        JsonData reloaded = loadJsonData();
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Doe")).isEmpty();
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("Jane Doe")).isPresent();
+    }
+
+    @Test
+    public void checkpointShouldCompactLogAndBeReloaded() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        Path checkpointPath = tempDir.resolve("checkpoint/alerts.json");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), checkpointPath.toString(),
+                WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+
+        changeJsonData(jsonData);
+        long checkpointVersion = jsonData.getSnapshot().getVersion();
+
+        assertThat(writeAheadLog.checkpoint()).isTrue();
+        assertThat(Files.size(walPath)).isZero();
+        assertThat(writeAheadLog.checkpoint()).isFalse();
+
+        addPerson(jsonData, "Jane", "Doe");
+        long walSize = Files.size(walPath);
+        writeAheadLog.close();
+
+        JsonData reloaded = writeAheadLog.readCheckpoint().orElseThrow();
+        assertThat(reloaded.getSnapshot().getVersion()).isEqualTo(checkpointVersion);
+        writeAheadLog.attach(reloaded);
+
+        assertThat(Files.size(walPath)).isEqualTo(walSize);
+        assertThat(reloaded.getSnapshot().getVersion()).isEqualTo(jsonData.getSnapshot().getVersion());
+        assertThat(reloaded.getPersons()).hasSize(24);
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("Jane Doe")).isPresent();
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Boyd")).isEmpty();
+        assertThat(reloaded.getSnapshot().getFireStationIndex().findAddressesByStation("4")).contains("1509 Culver St");
+        assertThat(reloaded.getSnapshot().getMedicalRecordIndex().findByFullName("Jacob Boyd").get().getBirthdate())
+                .isEqualTo(jsonData.getSnapshot().getMedicalRecordIndex().findByFullName("Jacob Boyd").get().getBirthdate());
+    }
+
+    @Test
+    public void checkpointShouldBeWrittenAsBinarySnapshot() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        Path checkpointPath = tempDir.resolve("alerts" + BinarySnapshotFormat.EXTENSION);
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), checkpointPath.toString(),
+                WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+
+        changeJsonData(jsonData);
+        assertThat(writeAheadLog.checkpoint()).isTrue();
+        writeAheadLog.close();
+
+        JsonData reloaded = writeAheadLog.readCheckpoint().orElseThrow();
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getSnapshot().getVersion()).isEqualTo(jsonData.getSnapshot().getVersion());
+        assertThat(reloaded.getPersons()).hasSize(23);
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Doe")).isPresent();
+        assertThat(reloaded.getSnapshot().getFireStationIndex().findAddressesByStation("4")).contains("1509 Culver St");
+        assertThat(reloaded.getSnapshot().getMedicalRecordIndex().findByFullName("Jacob Boyd").get().getAllergies())
+                .containsExactly("peanut");
+    }
+
+    @Test
+    public void attachShouldSkipRecordsContainedInCheckpoint() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        Path checkpointPath = tempDir.resolve("alerts.json");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), checkpointPath.toString(),
+                WriteAheadLog.FsyncPolicy.OS, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+        addPerson(jsonData, "John", "Doe");
+        byte[] logBeforeCheckpoint = Files.readAllBytes(walPath);
+
+        writeAheadLog.checkpoint();
+        writeAheadLog.close();
+        // Crash between the checkpoint and the compaction of the log.
+        Files.write(walPath, logBeforeCheckpoint);
+
+        JsonData reloaded = writeAheadLog.readCheckpoint().orElseThrow();
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getPersons()).hasSize(24);
+    }
+
+    @Test
+    public void attachShouldReplaySealedSegmentsBeforeActiveOne() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), "", WriteAheadLog.FsyncPolicy.OS, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+        addPerson(jsonData, "John", "Doe");
+        writeAheadLog.close();
+        // Crash between the sealing of the active segment and the creation of the next one.
+        Files.move(walPath, tempDir.resolve("alerts.wal.1"));
+
+        writeAheadLog.attach(jsonData);
+        addPerson(jsonData, "Jane", "Doe");
+        writeAheadLog.close();
+
+        JsonData reloaded = loadJsonData();
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getPersons()).hasSize(25);
+        assertThat(reloaded.getSnapshot().getVersion()).isEqualTo(jsonData.getSnapshot().getVersion());
+        assertThat(reloaded.getPersons().getLast().getFirstName()).isEqualTo("Jane");
+    }
+
+    @Test
+    public void checkpointShouldDeleteSealedSegmentsItContains() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        Path checkpointPath = tempDir.resolve("checkpoint/alerts.json");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), checkpointPath.toString(),
+                WriteAheadLog.FsyncPolicy.GROUP, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+        addPerson(jsonData, "John", "Doe");
+        writeAheadLog.close();
+        Files.move(walPath, tempDir.resolve("alerts.wal.1"));
+
+        writeAheadLog.attach(jsonData);
+        addPerson(jsonData, "Jane", "Doe");
+        assertThat(writeAheadLog.checkpoint()).isTrue();
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.map(file -> file.getFileName().toString())).containsExactlyInAnyOrder("alerts.wal", "checkpoint");
+        }
+        assertThat(Files.size(walPath)).isZero();
+
+        addPerson(jsonData, "Jack", "Doe");
+        writeAheadLog.close();
+        JsonData reloaded = writeAheadLog.readCheckpoint().orElseThrow();
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getPersons()).hasSize(26);
+    }
+
+    @Test
+    public void replaceShouldCheckpointReplacementAndClearLog() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        Path checkpointPath = tempDir.resolve("alerts.json");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), checkpointPath.toString(),
+                WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+        changeJsonData(jsonData);
+
+        DataSnapshot published = jsonData.replace(loadJsonData().getSnapshot());
+        assertThat(Files.size(walPath)).isZero();
+        addPerson(jsonData, "Jane", "Doe");
+        writeAheadLog.close();
+
+        JsonData reloaded = writeAheadLog.readCheckpoint().orElseThrow();
+        assertThat(reloaded.getSnapshot().getVersion()).isEqualTo(published.getVersion());
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getPersons()).hasSize(24);
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("Jane Doe")).isPresent();
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Doe")).isEmpty();
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Boyd")).isPresent();
+    }
+
+    @Test
+    public void replaceShouldLogDifferencesOnceCheckpointed() throws IOException {
+        Path walPath = tempDir.resolve("alerts.wal");
+        Path checkpointPath = tempDir.resolve("alerts.json");
+        writeAheadLog = new WriteAheadLog(objectMapper, walPath.toString(), checkpointPath.toString(),
+                WriteAheadLog.FsyncPolicy.ALWAYS, 10);
+        JsonData jsonData = loadJsonData();
+        writeAheadLog.attach(jsonData);
+        changeJsonData(jsonData);
+        assertThat(writeAheadLog.checkpoint()).isTrue();
+        long checkpointVersion = jsonData.getSnapshot().getVersion();
+
+        DataSnapshot published = jsonData.replace(loadJsonData().getSnapshot());
+        assertThat(Files.size(walPath)).isPositive();
+        addPerson(jsonData, "Jane", "Doe");
+        writeAheadLog.close();
+
+        JsonData reloaded = writeAheadLog.readCheckpoint().orElseThrow();
+        assertThat(reloaded.getSnapshot().getVersion()).isEqualTo(checkpointVersion);
+        writeAheadLog.attach(reloaded);
+
+        assertThat(reloaded.getSnapshot().getVersion()).isEqualTo(published.getVersion() + 1);
+        assertThat(reloaded.getPersons()).hasSize(24);
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("Jane Doe")).isPresent();
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Doe")).isEmpty();
+        assertThat(reloaded.getSnapshot().getPersonIndex().findByFullName("John Boyd")).isPresent();
+        assertThat(reloaded.getSnapshot().getFireStationIndex().findAddressesByStation("3")).contains("1509 Culver St");
+        assertThat(reloaded.getSnapshot().getMedicalRecordIndex().findByFullName("Jacob Boyd").get().getAllergies())
+                .isEmpty();
+    }
+
+    @Test
+    public void disabledLogShouldNotBeEnabled() {
+        writeAheadLog = new WriteAheadLog(objectMapper, "", "", WriteAheadLog.FsyncPolicy.GROUP, 10);
+
+        assertThat(writeAheadLog.isEnabled()).isFalse();
+    }
+
+    private void changeJsonData(JsonData jsonData) {
+        addPerson(jsonData, "John", "Doe");
+
+        jsonData.update(data -> {
+            FireStation fireStation = data.getFireStationIndex().findByAddress("1509 Culver St").getFirst();
+            data.replaceFireStation(fireStation, new FireStation().setAddress("1509 Culver St").setStation("4"));
+
+            MedicalRecord medicalRecord = data.getMedicalRecordIndex().findByFullName("Jacob Boyd").orElseThrow();
+            data.replaceMedicalRecord(medicalRecord, new MedicalRecord()
+                    .setFirstName("Jacob")
+                    .setLastName("Boyd")
+                    .setBirthdate(medicalRecord.getBirthdate())
+                    .setMedications(List.of())
+                    .setAllergies(List.of("peanut")));
+            return null;
+        });
+
+        jsonData.update(data -> {
+            data.removePerson(data.getPersonIndex().findByFullName("John Boyd").orElseThrow());
+            data.removeMedicalRecord(data.getMedicalRecordIndex().findByFullName("John Boyd").orElseThrow());
+            return null;
+        });
+    }
+
+    private static void addPerson(JsonData jsonData, String firstName, String lastName) {
+        jsonData.update(data -> {
+            data.addPerson(new Person()
+                    .setFirstName(firstName)
+                    .setLastName(lastName)
+                    .setAddress("1509 Culver St")
+                    .setCity("Culver"));
+            return null;
+        });
+    }
+
+    private JsonData loadJsonData() throws IOException {
+        try (InputStream inputStreamJson = new ClassPathResource("data.json").getInputStream()) {
+            return objectMapper.readValue(inputStreamJson, JsonData.class);
+        }
+    }
+}